@@ -19,8 +19,12 @@ package org.yes.cart.bulkjob.mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.yes.cart.domain.entity.Mail;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.async.JobStatusAware;
 import org.yes.cart.service.async.JobStatusListener;
 import org.yes.cart.service.async.impl.JobStatusListenerLoggerWrapperImpl;
@@ -30,12 +34,23 @@ import org.yes.cart.service.mail.JavaMailSenderFactory;
 import org.yes.cart.service.mail.MailComposer;
 import org.yes.cart.util.log.Markers;
 
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
 import javax.mail.internet.MimeMessage;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Sends queued emails. By default emails are sent one by one in queue order. If shop dispatch
+ * executor is configured emails are grouped by shop and each shop is processed by its own worker
+ * that sends batches of emails over single SMTP connection, so that a slow mail server of one shop
+ * does not hold back the others. If delay between emails is set each email is paced individually
+ * over the open connection, so that shop never exceeds the configured rate.
+ *
  * User: denispavlov
  * Date: 10/11/2013
  * Time: 13:56
@@ -53,6 +68,9 @@ public class BulkMailProcessorImpl implements Runnable, JobStatusAware, Disposab
     private long delayBetweenEmailsMs;
     private int cycleExceptionsThreshold;
 
+    private TaskExecutor shopDispatchExecutor;
+    private int shopDispatchBatchSize = 20;
+
     private final JobStatusListener listener = new JobStatusListenerLoggerWrapperImpl(LOG);
 
     public BulkMailProcessorImpl(final MailService mailService,
@@ -73,6 +91,11 @@ public class BulkMailProcessorImpl implements Runnable, JobStatusAware, Disposab
     @Override
     public void run() {
 
+        if (shopDispatchExecutor != null) {
+            runByShop();
+            return;
+        }
+
         LOG.info("Bulk send mail");
 
         final Map<String, Integer> exceptionsThresholdsByShop = new HashMap<>();
@@ -145,6 +168,279 @@ public class BulkMailProcessorImpl implements Runnable, JobStatusAware, Disposab
 
     }
 
+    /**
+     * Dispatch emails for each shop in parallel.
+     */
+    void runByShop() {
+
+        LOG.info("Bulk send mail by shop");
+
+        final List<String> shopCodes = mailService.findMailShopCodes();
+        final CompletionService<Pair<Integer, Integer>> completion = new ExecutorCompletionService<>(shopDispatchExecutor);
+        for (final String shopCode : shopCodes) {
+            completion.submit(() -> sendShopMail(shopCode));
+        }
+
+        int success = 0;
+        int error = 0;
+        for (int i = 1; i <= shopCodes.size(); i++) {
+
+            try {
+                final Pair<Integer, Integer> shopResult = completion.take().get();
+                success += shopResult.getFirst();
+                error += shopResult.getSecond();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ee) {
+                LOG.error(Markers.alert(), "Unable to send mail: " + ee.getCause().getMessage(), ee.getCause());
+            }
+
+            listener.notifyPing("Sending mail, shops completed " + i + " of " + shopCodes.size());
+
+        }
+
+        LOG.info("Bulk send mail by shop ... completed");
+
+        listener.notifyPing("Bulk send mail ... completed, send: " + success + ", failed: " + error);
+
+    }
+
+    /**
+     * Send all queued emails for given shop. Emails are sent in batches, each batch uses
+     * single connection to mail server. Rate limit is enforced per email (see {@link SendPacer}).
+     *
+     * @param shopCode shop code
+     *
+     * @return sent and failed emails count
+     */
+    Pair<Integer, Integer> sendShopMail(final String shopCode) {
+
+        final JavaMailSender javaMailSender = javaMailSenderFactory.getJavaMailSender(shopCode);
+        if (javaMailSender == null) {
+            LOG.info("No mail sender configured for {}", shopCode);
+            return new Pair<>(0, 0);
+        }
+
+        int success = 0;
+        int error = 0;
+        int exceptionsThreshold = this.cycleExceptionsThreshold;
+        long lastMailId = 0L;
+        final SendPacer pacer = new SendPacer(delayBetweenEmailsMs);
+
+        while (!this.shutdown.get() && !Thread.currentThread().isInterrupted()) {
+
+            if (exceptionsThreshold <= 0) {
+                LOG.info("Skipping send mail as exception threshold is exceeded for shop {}", shopCode);
+                break;
+            }
+
+            final List<Mail> batch = mailService.findOldestMails(shopCode, lastMailId, shopDispatchBatchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastMailId = batch.get(batch.size() - 1).getMailId();
+
+            final List<Mail> mails = new ArrayList<>(batch.size());
+            final List<MimeMessage> mimeMessages = new ArrayList<>(batch.size());
+            for (final Mail mail : batch) {
+
+                LOG.info("Preparing mail object {}/{} for {} with subject {}",
+                        mail.getMailId(), shopCode, mail.getRecipients(), mail.getSubject());
+
+                final MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+                try {
+                    mailComposer.convertMessage(mail, mimeMessage);
+                    mails.add(mail);
+                    mimeMessages.add(mimeMessage);
+                } catch (Exception exp) {
+                    LOG.error(Markers.alert(), "Unable to send mail " + mail.getMailId() + "/" + mail.getSubject() + " for shop " + shopCode, exp);
+                    exceptionsThreshold--;
+                    error++;
+                }
+
+            }
+
+            if (mimeMessages.isEmpty()) {
+                continue;
+            }
+
+            final Map<Object, Exception> outcome = sendBatch(javaMailSender, mimeMessages, pacer);
+
+            int sent = 0;
+            for (int i = 0; i < mails.size(); i++) {
+
+                final Mail mail = mails.get(i);
+                if (!outcome.containsKey(mimeMessages.get(i))) {
+                    continue; // not attempted (shutdown), stays in queue
+                }
+                final Exception exp = outcome.get(mimeMessages.get(i));
+                if (exp == null) {
+                    LOG.info("Sent mail to {} with subject {}", mail.getRecipients(), mail.getSubject());
+                    mailService.delete(mail);
+                    sent++;
+                } else {
+                    LOG.error(Markers.alert(), "Unable to send mail " + mail.getMailId() + "/" + mail.getSubject() + " for shop " + shopCode, exp);
+                    exceptionsThreshold--;
+                    error++;
+                }
+
+            }
+            success += sent;
+
+        }
+
+        return new Pair<>(success, error);
+
+    }
+
+    /**
+     * Send batch of messages.
+     *
+     * @param javaMailSender sender
+     * @param mimeMessages   messages
+     * @param pacer          rate limit for this shop
+     *
+     * @return outcome for each attempted message (null for success or failure cause),
+     *         messages that were not attempted are not in the map
+     */
+    Map<Object, Exception> sendBatch(final JavaMailSender javaMailSender,
+                                     final List<MimeMessage> mimeMessages,
+                                     final SendPacer pacer) {
+
+        if (!pacer.isPaced()) {
+
+            Map<Object, Exception> failed = Collections.emptyMap();
+            try {
+                // all messages in a single call are sent over single transport connection
+                javaMailSender.send(mimeMessages.toArray(new MimeMessage[mimeMessages.size()]));
+            } catch (MailSendException mse) {
+                failed = mse.getFailedMessages();
+                if (failed.isEmpty()) {
+                    failed = allFailed(mimeMessages, mse);
+                }
+            } catch (Exception exp) {
+                failed = allFailed(mimeMessages, exp);
+            }
+
+            final Map<Object, Exception> outcome = new HashMap<>();
+            for (final MimeMessage mimeMessage : mimeMessages) {
+                outcome.put(mimeMessage, failed.get(mimeMessage));
+            }
+            return outcome;
+
+        }
+
+        if (javaMailSender instanceof JavaMailSenderImpl) {
+            return sendPacedOverTransport((JavaMailSenderImpl) javaMailSender, mimeMessages, pacer);
+        }
+
+        // custom sender, so we cannot hold the connection
+        final Map<Object, Exception> outcome = new HashMap<>();
+        for (final MimeMessage mimeMessage : mimeMessages) {
+            if (this.shutdown.get() || !pacer.await()) {
+                break;
+            }
+            try {
+                javaMailSender.send(mimeMessage);
+                outcome.put(mimeMessage, null);
+            } catch (Exception exp) {
+                outcome.put(mimeMessage, exp);
+            }
+        }
+        return outcome;
+
+    }
+
+    private Map<Object, Exception> sendPacedOverTransport(final JavaMailSenderImpl javaMailSender,
+                                                          final List<MimeMessage> mimeMessages,
+                                                          final SendPacer pacer) {
+
+        final Transport transport;
+        try {
+            transport = javaMailSender.getSession().getTransport(
+                    javaMailSender.getProtocol() != null ? javaMailSender.getProtocol() : "smtp");
+            transport.connect(javaMailSender.getHost(), javaMailSender.getPort(),
+                    javaMailSender.getUsername(), javaMailSender.getPassword());
+        } catch (Exception exp) {
+            return allFailed(mimeMessages, exp);
+        }
+
+        final Map<Object, Exception> outcome = new HashMap<>();
+        try {
+            for (final MimeMessage mimeMessage : mimeMessages) {
+                if (this.shutdown.get() || !pacer.await()) {
+                    break;
+                }
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    mimeMessage.saveChanges();
+                    final Address[] addresses = mimeMessage.getAllRecipients();
+                    transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                    outcome.put(mimeMessage, null);
+                } catch (Exception exp) {
+                    outcome.put(mimeMessage, exp);
+                }
+            }
+        } finally {
+            try {
+                transport.close();
+            } catch (MessagingException me) {
+                LOG.warn("Unable to close mail transport: {}", me.getMessage());
+            }
+        }
+        return outcome;
+
+    }
+
+    private Map<Object, Exception> allFailed(final List<MimeMessage> mimeMessages, final Exception exp) {
+        final Map<Object, Exception> failed = new HashMap<>();
+        for (final MimeMessage mimeMessage : mimeMessages) {
+            failed.put(mimeMessage, exp);
+        }
+        return failed;
+    }
+
+    /**
+     * Per shop rate limit: each email is sent no earlier than delay after previous one.
+     */
+    static final class SendPacer {
+
+        private final long delayMs;
+        private long nextSendAt;
+
+        SendPacer(final long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        boolean isPaced() {
+            return delayMs > 0L;
+        }
+
+        /**
+         * Wait for next send slot.
+         *
+         * @return false if interrupted
+         */
+        boolean await() {
+            final long now = System.currentTimeMillis();
+            final long wait = nextSendAt - now;
+            if (wait > 0L) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            nextSendAt = Math.max(now, nextSendAt) + delayMs;
+            return true;
+        }
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -173,5 +469,24 @@ public class BulkMailProcessorImpl implements Runnable, JobStatusAware, Disposab
         this.cycleExceptionsThreshold = cycleExceptionsThreshold;
     }
 
+    /**
+     * Executor for sending mail of each shop in parallel. If not set emails are sent one by one
+     * in queue order. When set delay between emails applies to each shop separately.
+     *
+     * @param shopDispatchExecutor executor
+     */
+    public void setShopDispatchExecutor(final TaskExecutor shopDispatchExecutor) {
+        this.shopDispatchExecutor = shopDispatchExecutor;
+    }
+
+    /**
+     * Max number of emails sent over single mail server connection when dispatching by shop.
+     *
+     * @param shopDispatchBatchSize batch size
+     */
+    public void setShopDispatchBatchSize(final int shopDispatchBatchSize) {
+        this.shopDispatchBatchSize = shopDispatchBatchSize;
+    }
+
 
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkjob.mail;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.yes.cart.domain.entity.Mail;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.domain.MailService;
+import org.yes.cart.service.mail.JavaMailSenderFactory;
+import org.yes.cart.service.mail.MailComposer;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:40
+ */
+public class BulkMailProcessorImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testSendShopMailBatch() throws Exception {
+
+        final MailService mailService = context.mock(MailService.class, "mailService");
+        final MailComposer mailComposer = context.mock(MailComposer.class, "mailComposer");
+        final JavaMailSenderFactory senderFactory = context.mock(JavaMailSenderFactory.class, "senderFactory");
+        final JavaMailSender sender = context.mock(JavaMailSender.class, "sender");
+        final Mail mail1 = context.mock(Mail.class, "mail1");
+        final Mail mail2 = context.mock(Mail.class, "mail2");
+
+        final MimeMessage message1 = new MimeMessage((Session) null);
+        final MimeMessage message2 = new MimeMessage((Session) null);
+
+        context.checking(new Expectations() {{
+            allowing(mail1).getMailId(); will(returnValue(1L));
+            allowing(mail1).getRecipients(); will(returnValue("bob@doe.com"));
+            allowing(mail1).getSubject(); will(returnValue("Mail 1"));
+            allowing(mail2).getMailId(); will(returnValue(2L));
+            allowing(mail2).getRecipients(); will(returnValue("john@doe.com"));
+            allowing(mail2).getSubject(); will(returnValue("Mail 2"));
+            oneOf(senderFactory).getJavaMailSender("SHOP10"); will(returnValue(sender));
+            oneOf(mailService).findOldestMails("SHOP10", 0L, 20); will(returnValue(Arrays.asList(mail1, mail2)));
+            exactly(2).of(sender).createMimeMessage(); will(onConsecutiveCalls(returnValue(message1), returnValue(message2)));
+            oneOf(mailComposer).convertMessage(mail1, message1);
+            oneOf(mailComposer).convertMessage(mail2, message2);
+            oneOf(sender).send(with(any(MimeMessage[].class)));
+            will(throwException(new MailSendException(Collections.singletonMap(message2, new Exception("rejected")))));
+            oneOf(mailService).delete(mail1);
+            oneOf(mailService).findOldestMails("SHOP10", 2L, 20); will(returnValue(Collections.emptyList()));
+        }});
+
+        final BulkMailProcessorImpl processor = new BulkMailProcessorImpl(mailService, mailComposer, senderFactory);
+        processor.setCycleExceptionsThreshold(3);
+        processor.setShopDispatchExecutor(new SyncTaskExecutor());
+
+        final Pair<Integer, Integer> result = processor.sendShopMail("SHOP10");
+
+        assertEquals(Integer.valueOf(1), result.getFirst());
+        assertEquals(Integer.valueOf(1), result.getSecond());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testSendShopMailPacedPerEmail() throws Exception {
+
+        final MailService mailService = context.mock(MailService.class, "mailService");
+        final MailComposer mailComposer = context.mock(MailComposer.class, "mailComposer");
+        final JavaMailSenderFactory senderFactory = context.mock(JavaMailSenderFactory.class, "senderFactory");
+        final JavaMailSender sender = context.mock(JavaMailSender.class, "sender");
+        final Mail mail1 = context.mock(Mail.class, "mail1");
+        final Mail mail2 = context.mock(Mail.class, "mail2");
+        final Mail mail3 = context.mock(Mail.class, "mail3");
+
+        final MimeMessage message1 = new MimeMessage((Session) null);
+        final MimeMessage message2 = new MimeMessage((Session) null);
+        final MimeMessage message3 = new MimeMessage((Session) null);
+
+        context.checking(new Expectations() {{
+            allowing(mail1).getMailId(); will(returnValue(1L));
+            allowing(mail1).getRecipients(); will(returnValue("bob@doe.com"));
+            allowing(mail1).getSubject(); will(returnValue("Mail 1"));
+            allowing(mail2).getMailId(); will(returnValue(2L));
+            allowing(mail2).getRecipients(); will(returnValue("john@doe.com"));
+            allowing(mail2).getSubject(); will(returnValue("Mail 2"));
+            allowing(mail3).getMailId(); will(returnValue(3L));
+            allowing(mail3).getRecipients(); will(returnValue("jane@doe.com"));
+            allowing(mail3).getSubject(); will(returnValue("Mail 3"));
+            oneOf(senderFactory).getJavaMailSender("SHOP10"); will(returnValue(sender));
+            oneOf(mailService).findOldestMails("SHOP10", 0L, 20); will(returnValue(Arrays.asList(mail1, mail2, mail3)));
+            exactly(3).of(sender).createMimeMessage(); will(onConsecutiveCalls(returnValue(message1), returnValue(message2), returnValue(message3)));
+            oneOf(mailComposer).convertMessage(mail1, message1);
+            oneOf(mailComposer).convertMessage(mail2, message2);
+            oneOf(mailComposer).convertMessage(mail3, message3);
+            oneOf(sender).send(message1);
+            oneOf(sender).send(message2);
+            will(throwException(new MailSendException("rejected")));
+            oneOf(sender).send(message3);
+            oneOf(mailService).delete(mail1);
+            oneOf(mailService).delete(mail3);
+            oneOf(mailService).findOldestMails("SHOP10", 3L, 20); will(returnValue(Collections.emptyList()));
+        }});
+
+        final BulkMailProcessorImpl processor = new BulkMailProcessorImpl(mailService, mailComposer, senderFactory);
+        processor.setCycleExceptionsThreshold(3);
+        processor.setDelayBetweenEmailsMs(100L);
+        processor.setShopDispatchExecutor(new SyncTaskExecutor());
+
+        final long start = System.currentTimeMillis();
+        final Pair<Integer, Integer> result = processor.sendShopMail("SHOP10");
+        final long time = System.currentTimeMillis() - start;
+
+        assertEquals(Integer.valueOf(2), result.getFirst());
+        assertEquals(Integer.valueOf(1), result.getSecond());
+        // first email is sent immediately, each next waits for its slot
+        assertTrue("Emails must be paced, took " + time + "ms", time >= 200L);
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testSendShopMailThresholdExceeded() throws Exception {
+
+        final MailService mailService = context.mock(MailService.class, "mailService");
+        final MailComposer mailComposer = context.mock(MailComposer.class, "mailComposer");
+        final JavaMailSenderFactory senderFactory = context.mock(JavaMailSenderFactory.class, "senderFactory");
+        final JavaMailSender sender = context.mock(JavaMailSender.class, "sender");
+        final Mail mail1 = context.mock(Mail.class, "mail1");
+
+        final MimeMessage message1 = new MimeMessage((Session) null);
+
+        context.checking(new Expectations() {{
+            allowing(mail1).getMailId(); will(returnValue(1L));
+            allowing(mail1).getRecipients(); will(returnValue("bob@doe.com"));
+            allowing(mail1).getSubject(); will(returnValue("Mail 1"));
+            oneOf(senderFactory).getJavaMailSender("SHOP10"); will(returnValue(sender));
+            oneOf(mailService).findOldestMails("SHOP10", 0L, 20); will(returnValue(Collections.singletonList(mail1)));
+            oneOf(sender).createMimeMessage(); will(returnValue(message1));
+            oneOf(mailComposer).convertMessage(mail1, message1);
+            oneOf(sender).send(with(any(MimeMessage[].class)));
+            will(throwException(new MailSendException("Unable to connect")));
+        }});
+
+        final BulkMailProcessorImpl processor = new BulkMailProcessorImpl(mailService, mailComposer, senderFactory);
+        processor.setCycleExceptionsThreshold(1);
+        processor.setShopDispatchExecutor(new SyncTaskExecutor());
+
+        final Pair<Integer, Integer> result = processor.sendShopMail("SHOP10");
+
+        assertEquals(Integer.valueOf(0), result.getFirst());
+        assertEquals(Integer.valueOf(1), result.getSecond());
+
+        context.assertIsSatisfied();
+
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkcommon.service.support.common.impl;
+
+import org.yes.cart.bulkcommon.model.ImpExDescriptor;
+import org.yes.cart.bulkcommon.model.ImpExTuple;
+import org.yes.cart.bulkcommon.service.support.query.LookUpQuery;
+import org.yes.cart.bulkcommon.service.support.query.LookUpQueryParameterStrategy;
+import org.yes.cart.bulkcommon.service.support.query.impl.NativeSQLQuery;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates a native sql string with all parameter placeholders replaced by JDBC
+ * positional parameters, so that the same statement can be reused in a JDBC batch
+ * for all rows of a file.
+ * <p>
+ * Quoted placeholders are bound as strings (null becomes empty string), unquoted
+ * placeholders are bound as numbers if possible (null stays null). Placeholders
+ * which are part of a string literal cannot be bound and are rejected.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:40
+ */
+public class ImpExDescriptorNativeBatchStrategy extends AbstractByParameterByColumnNameStrategy<ImpExDescriptor, ImpExTuple, Object>
+        implements LookUpQueryParameterStrategy<ImpExDescriptor, ImpExTuple, Object> {
+
+    @Override
+    protected boolean addParameter(final int index,
+                                   final boolean wrappedInQuotes,
+                                   final Object param,
+                                   final StringBuilder query,
+                                   final List<Object> params) {
+
+        if (isInsideLiteral(query)) {
+            throw new IllegalArgumentException("Batch SQL placeholders cannot be part of string literal: " + query);
+        }
+
+        query.append('?');
+        if (wrappedInQuotes) {
+            params.add(param == null ? "" : param);
+        } else {
+            params.add(toNumberIfPossible(param));
+        }
+        return true;
+    }
+
+    private boolean isInsideLiteral(final StringBuilder query) {
+        int quotes = 0;
+        for (int i = 0; i < query.length(); i++) {
+            if (query.charAt(i) == '\'') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private Object toNumberIfPossible(final Object param) {
+        if (param instanceof String) {
+            final String value = ((String) param).trim();
+            if (value.length() > 0) {
+                try {
+                    return Long.valueOf(value);
+                } catch (NumberFormatException nfe) {
+                    try {
+                        return new BigDecimal(value);
+                    } catch (NumberFormatException nfe2) {
+                        // not a number, bind as is
+                    }
+                }
+            }
+        }
+        return param;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LookUpQuery getQuery(final ImpExDescriptor descriptor,
+                                final Object masterObject,
+                                final ImpExTuple tuple,
+                                final Object adapter,
+                                final String queryTemplate) {
+
+        final StringBuilder sql = new StringBuilder();
+        final List params = new ArrayList();
+        replaceColumnNamesInTemplate(queryTemplate, sql, params, descriptor, masterObject, tuple, adapter);
+        return new NativeSQLQuery(sql.toString(), params.toArray());
+    }
+}
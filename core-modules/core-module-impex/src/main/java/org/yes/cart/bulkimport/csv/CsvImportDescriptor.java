@@ -70,6 +70,16 @@ public interface CsvImportDescriptor
      */
     String getInsertSql();
 
+    /**
+     * Get batch sql, which is used instead of hibernate object save to
+     * write rows using JDBC batches (e.g. bulk upsert of prices or inventory).
+     * All placeholders are bound as JDBC parameters, so the statement is
+     * prepared once per batch rather than once per row.
+     *
+     * @return        batch sql
+     */
+    String getBatchSql();
+
     /**
      * Get delete sql, which used instead of hibernate object delete to
      * speed up bulk import.
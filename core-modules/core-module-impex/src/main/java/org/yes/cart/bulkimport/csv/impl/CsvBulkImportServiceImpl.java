@@ -75,9 +75,14 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
 
     private CsvValueAdapter valueStringAdapter;
     private LookUpQueryParameterStrategy<CsvImportDescriptor, CsvImportTuple, CsvValueAdapter> descriptorInsertLookUpQueryParameterStrategy;
+    private LookUpQueryParameterStrategy<CsvImportDescriptor, CsvImportTuple, CsvValueAdapter> descriptorBatchLookUpQueryParameterStrategy;
     private LookUpQueryParameterStrategy<CsvImportDescriptor, CsvImportTuple, CsvValueAdapter> columnLookUpQueryParameterStrategy;
     private EntityCacheKeyStrategy cacheKey;
 
+    private int entityCacheMaxEntries = 50000;
+    private long entityCacheMaxBytes = 16L * 1024L * 1024L;
+    private int nativeBatchSize = 500;
+
     public CsvBulkImportServiceImpl(final FederationFacade federationFacade) {
         super(federationFacade);
     }
@@ -97,9 +102,17 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
         try {
 
 
-            final Map<String, Pair<Object, Boolean>> entityCache = new HashMap<>();
+            final CsvEntityLookupCache entityCache = new CsvEntityLookupCache(genericDAO, entityCacheMaxEntries, entityCacheMaxBytes);
 
             final CsvImportDescriptor.ImportMode mode = importDescriptor.getMode();
+            final CsvNativeBatch nativeBatch;
+            if (importDescriptor.getBatchSql() != null && mode != CsvImportDescriptor.ImportMode.DELETE) {
+                // this is dirty hack , because of import speed
+                validateAccessBeforeUpdate(null, null); // only allowed by system admins
+                nativeBatch = new CsvNativeBatch(genericDAO, nativeBatchSize);
+            } else {
+                nativeBatch = null;
+            }
             final String msgInfoImp = MessageFormat.format("import file : {0} in {1} mode", fileToImport.getAbsolutePath(), mode);
             statusListener.notifyMessage(msgInfoImp);
 
@@ -118,14 +131,23 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                 final CsvImportTuple tuple = new CsvImportTupleImpl(filename, lineNumber++, line);
                 if (mode == CsvImportDescriptor.ImportMode.DELETE) {
                     doImportDelete(statusListener, tuple, importDescriptorName, importDescriptor);
+                } else if (nativeBatch != null) {
+                    doImportBatch(statusListener, tuple, importDescriptorName, importDescriptor, nativeBatch);
                 } else {
                     doImportMerge(statusListener, tuple, importDescriptorName, importDescriptor, null, entityCache);
                 }
             }
+            if (nativeBatch != null) {
+                flushNativeBatch(statusListener, importDescriptorName, nativeBatch);
+            }
             final String msgInfoLines = MessageFormat.format("total data lines : {0} ({1})",
                     (importDescriptor.getImportFileDescriptor().isIgnoreFirstLine() ? csvFileReader.getRowsRead() - 1 : csvFileReader.getRowsRead()),
                     fileToImport.getAbsolutePath());
             statusListener.notifyMessage(msgInfoLines);
+            statusListener.notifyMessage(entityCache.getStatistics());
+            if (nativeBatch != null) {
+                statusListener.notifyMessage(nativeBatch.getStatistics());
+            }
 
         } finally {
 
@@ -214,6 +236,94 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
     }
 
 
+    /*
+     * Add single line to native batch, batch is written once it is full or when line repeats entity key.
+     */
+    void doImportBatch(final JobStatusListener statusListener,
+                       final CsvImportTuple tuple,
+                       final String csvImportDescriptorName,
+                       final CsvImportDescriptor descriptor,
+                       final CsvNativeBatch nativeBatch) throws Exception {
+
+        final List<LookUpQuery> queries = new ArrayList<>(2);
+        String key = null;
+        try {
+
+            for (final String statement : descriptor.getBatchSql().split(";\n")) {
+                if (StringUtils.isNotBlank(statement)) {
+                    queries.add(descriptorBatchLookUpQueryParameterStrategy.getQuery(
+                            descriptor, null, tuple, valueStringAdapter, statement
+                    ));
+                }
+            }
+
+            if (queries.size() > 1) {
+                // statements are batched one after another, so same entity in a batch would get second row's
+                // insert before first row's update. Select SQL parameters identify entity in this row.
+                final LookUpQuery select = columnLookUpQueryParameterStrategy.getQuery(
+                        descriptor, null, tuple, valueDataAdapter, descriptor.getSelectSql()
+                );
+                key = Arrays.deepToString(select.getParameters());
+            }
+
+        } catch (Exception e) {
+
+            String message = MessageFormat.format(
+                    "during import row : {0} \ndescriptor {1} \nerror {2}",
+                    tuple,
+                    csvImportDescriptorName,
+                    e.getMessage()
+            );
+            statusListener.notifyError(message, e);
+            genericDAO.clear();
+
+            throw new Exception(message, e);
+        }
+
+        if (nativeBatch.contains(key)) {
+            flushNativeBatch(statusListener, csvImportDescriptorName, nativeBatch);
+        }
+        if (nativeBatch.add(tuple.getSourceId(), key, queries)) {
+            flushNativeBatch(statusListener, csvImportDescriptorName, nativeBatch);
+        }
+
+    }
+
+    /*
+     * Write accumulated batch, second level cache is evicted once per batch.
+     */
+    private void flushNativeBatch(final JobStatusListener statusListener,
+                                  final String csvImportDescriptorName,
+                                  final CsvNativeBatch nativeBatch) throws Exception {
+
+        final int rows = nativeBatch.size();
+        if (rows == 0) {
+            return;
+        }
+
+        try {
+
+            final int updated = nativeBatch.flush();
+            statusListener.notifyPing(MessageFormat.format("Importing batch: {0} - {1} ({2} rows, {3} updated)",
+                    nativeBatch.getFirstSourceId(), nativeBatch.getLastSourceId(), rows, updated)); // make sure we do not time out
+
+        } catch (Exception e) {
+
+            String message = MessageFormat.format(
+                    "during import batch : {0} - {1} \ndescriptor {2} \nerror {3}",
+                    nativeBatch.getFirstSourceId(),
+                    nativeBatch.getLastSourceId(),
+                    csvImportDescriptorName,
+                    e.getMessage()
+            );
+            statusListener.notifyError(message, e);
+            genericDAO.clear();
+
+            throw new Exception(message, e);
+        }
+
+    }
+
     /*
      * Import single line.
      * This method can be called recursive in case of sub imports.
@@ -223,12 +333,16 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                        final String csvImportDescriptorName,
                        final CsvImportDescriptor descriptor,
                        final Object masterObject,
-                       final Map<String, Pair<Object, Boolean>> entityCache) throws Exception {
+                       final CsvEntityLookupCache entityCache) throws Exception {
         Object object = null;
         try {
 
 
-            if (descriptor.getInsertSql() != null) {
+            if (descriptor.getBatchSql() != null) {
+
+                throw new IllegalArgumentException("Batch SQL can only be specified for top level descriptor ... skipping insert");
+
+            } else if (descriptor.getInsertSql() != null) {
 
                 if (descriptor.getMode() == CsvImportDescriptor.ImportMode.INSERT_ONLY) {
 
@@ -373,7 +487,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                                   final CsvImportDescriptor importDescriptor,
                                   final Object object,
                                   final Collection<CsvImportColumn> slaves,
-                                  final Map<String, Pair<Object, Boolean>> entityCache) throws Exception {
+                                  final CsvEntityLookupCache entityCache) throws Exception {
         for (CsvImportColumn slaveTable : slaves) {
             final List<CsvImportTuple> subTuples = tuple.getSubTuples(importDescriptor, slaveTable, valueDataAdapter);
             CsvImportDescriptor innerCsvImportDescriptor = slaveTable.getDescriptor();
@@ -543,7 +657,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                                           final Collection<CsvImportColumn> importColumns,
                                           final Object masterObject,
                                           final CsvImportDescriptor importDescriptor,
-                                          final Map<String, Pair<Object, Boolean>> entityCache) throws Exception {
+                                          final CsvEntityLookupCache entityCache) throws Exception {
 
         CsvImportColumn currentColumn = null;
         final Class clz = object.getClass();
@@ -625,7 +739,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                                             final CsvImportColumn column,
                                             final Object masterObject,
                                             final CsvImportDescriptor importDescriptor,
-                                            final Map<String, Pair<Object, Boolean>> entityCache) throws ClassNotFoundException {
+                                            final CsvEntityLookupCache entityCache) throws ClassNotFoundException {
 
         if (column == null) {
             // no caching for prime select
@@ -638,11 +752,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
 
         final String key = cacheKey.keyFor(importDescriptor, column, masterObject, tuple, valueStringAdapter);
 
-        Pair<Object, Boolean> object = null;
-
-        if (key != null) {
-            object = entityCache.get(key);
-        }
+        Pair<Object, Boolean> object = entityCache.get(key);
 
         if (object == null) {
 
@@ -651,19 +761,19 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
                         + " at index: " + column.getColumnIndex() + " in tuple: " + tuple);
             }
             final Object existing = getExistingEntity(importDescriptor, column.getLookupQuery(), masterObject, tuple);
+            final Class entityIface;
             if (existing == null) {
                 if (column.getEntityType() != null) {
-                    object = new Pair<>(genericDAO.getEntityFactory().getByIface(
-                            Class.forName(column.getEntityType())),
-                            Boolean.TRUE
-                    );
+                    entityIface = Class.forName(column.getEntityType());
+                    object = new Pair<>(genericDAO.getEntityFactory().getByIface(entityIface), Boolean.TRUE);
                 } else {
                     return null; // no cache for nulls
                 }
             } else {
+                entityIface = null;
                 object = new Pair<>(existing, Boolean.FALSE);
             }
-            entityCache.put(key, object);
+            entityCache.put(key, object, entityIface);
         }
         return object;
     }
@@ -756,6 +866,33 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
         this.cacheKey = cacheKey;
     }
 
+    /**
+     * IoC.
+     *
+     * @param entityCacheMaxEntries max number of cached look ups per file
+     */
+    public void setEntityCacheMaxEntries(final int entityCacheMaxEntries) {
+        this.entityCacheMaxEntries = entityCacheMaxEntries;
+    }
+
+    /**
+     * IoC.
+     *
+     * @param entityCacheMaxBytes max approximate size in bytes of cached look ups per file
+     */
+    public void setEntityCacheMaxBytes(final long entityCacheMaxBytes) {
+        this.entityCacheMaxBytes = entityCacheMaxBytes;
+    }
+
+    /**
+     * IoC.
+     *
+     * @param nativeBatchSize number of rows written in a single JDBC batch (for descriptors with batch SQL)
+     */
+    public void setNativeBatchSize(final int nativeBatchSize) {
+        this.nativeBatchSize = nativeBatchSize;
+    }
+
     /**
      * IoC.
      *
@@ -765,6 +902,15 @@ public class CsvBulkImportServiceImpl extends AbstractImportService<CsvImportDes
         this.descriptorInsertLookUpQueryParameterStrategy = descriptorInsertLookUpQueryParameterStrategy;
     }
 
+    /**
+     * IoC.
+     *
+     * @param descriptorBatchLookUpQueryParameterStrategy {@link LookUpQueryParameterStrategy}  to use.
+     */
+    public void setDescriptorBatchLookUpQueryParameterStrategy(final LookUpQueryParameterStrategy<CsvImportDescriptor, CsvImportTuple, CsvValueAdapter> descriptorBatchLookUpQueryParameterStrategy) {
+        this.descriptorBatchLookUpQueryParameterStrategy = descriptorBatchLookUpQueryParameterStrategy;
+    }
+
     /**
      * IoC.
      *
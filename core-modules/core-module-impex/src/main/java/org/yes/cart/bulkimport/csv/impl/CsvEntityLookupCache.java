@@ -0,0 +1,198 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.Identifiable;
+import org.yes.cart.domain.misc.Pair;
+
+import java.io.Serializable;
+import java.text.MessageFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of look up query results used during single file import.
+ * <p>
+ * Entities are not kept in cache, only their persistent class and PK. On cache hit the entity is
+ * re-attached to current session as a reference, which does not require a database round trip.
+ * Cache size is limited by number of entries and approximate memory footprint of entries.
+ * <p>
+ * Not thread safe, an instance should only be used by thread that imports the file.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:45
+ */
+public class CsvEntityLookupCache {
+
+    /** Approximate footprint of an entry without the key characters (map node, entry, boxed id). */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final GenericDAO<Object, Long> genericDAO;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(1024, 0.75f, true);
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Construct cache.
+     *
+     * @param genericDAO generic DAO
+     * @param maxEntries max number of cached look ups
+     * @param maxBytes   max approximate size of cache in bytes
+     */
+    public CsvEntityLookupCache(final GenericDAO<Object, Long> genericDAO,
+                                final int maxEntries,
+                                final long maxBytes) {
+        this.genericDAO = genericDAO;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get cached look up.
+     *
+     * @param key cache key (null keys are never cached)
+     *
+     * @return entity (attached to current session) and new flag or null if there is no cached value
+     */
+    public Pair<Object, Boolean> get(final String key) {
+
+        final Entry entry = key != null ? cache.get(key) : null;
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+
+        if (entry.newEntityIface != null) {
+            return new Pair<>(genericDAO.getEntityFactory().getByIface(entry.newEntityIface), Boolean.TRUE);
+        } else if (entry.entityClass != null) {
+            return new Pair<>(genericDAO.getEntityReference(entry.entityClass, entry.id), Boolean.FALSE);
+        }
+        return new Pair<>(entry.value, Boolean.FALSE);
+
+    }
+
+    /**
+     * Cache look up result.
+     *
+     * @param key            cache key (null keys are never cached)
+     * @param objectAndState look up result (entity and new flag)
+     * @param entityIface    entity interface for new objects
+     */
+    public void put(final String key, final Pair<Object, Boolean> objectAndState, final Class entityIface) {
+
+        if (key == null) {
+            return;
+        }
+
+        final Object object = objectAndState.getFirst();
+        final Entry entry;
+        if (objectAndState.getSecond()) {
+            entry = new Entry(entityIface, null, null, null);
+        } else if (object instanceof Identifiable) {
+            final Serializable id = genericDAO.getEntityIdentifier(object);
+            entry = new Entry(null, genericDAO.getEntityClass(object), id, null);
+        } else {
+            // scalar look up values are immutable and small
+            entry = new Entry(null, null, null, object);
+        }
+
+        final Entry previous = cache.put(key, entry);
+        if (previous == null) {
+            bytes += weight(key);
+        }
+
+        final Iterator<Map.Entry<String, Entry>> eldest = cache.entrySet().iterator();
+        while ((cache.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            final Map.Entry<String, Entry> evict = eldest.next();
+            if (evict.getValue() == entry) {
+                break; // never evict just added entry
+            }
+            bytes -= weight(evict.getKey());
+            eldest.remove();
+            evictions++;
+        }
+
+    }
+
+    private long weight(final String key) {
+        return ENTRY_OVERHEAD + 2L * key.length();
+    }
+
+    /**
+     * @return number of cached look ups
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of evicted entries
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return statistics message for import log
+     */
+    public String getStatistics() {
+        final long total = hits + misses;
+        return MessageFormat.format(
+                "look up cache: hits {0}, misses {1}, hit rate {2}%, evictions {3}, size {4} (~{5}KB)",
+                hits, misses, total == 0L ? 0L : hits * 100L / total, evictions, cache.size(), bytes / 1024L);
+    }
+
+    private static final class Entry {
+
+        private final Class newEntityIface;
+        private final Class<?> entityClass;
+        private final Serializable id;
+        private final Object value;
+
+        private Entry(final Class newEntityIface, final Class<?> entityClass, final Serializable id, final Object value) {
+            this.newEntityIface = newEntityIface;
+            this.entityClass = entityClass;
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+}
@@ -54,6 +54,7 @@ public class CsvImportDescriptorImpl implements CsvImportDescriptor, Serializabl
 
     private String selectSql;
     private String insertSql;
+    private String batchSql;
     private String deleteSql;
 
     private boolean initialised = false;
@@ -178,6 +179,19 @@ public class CsvImportDescriptorImpl implements CsvImportDescriptor, Serializabl
         this.insertSql = insertSql;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public String getBatchSql() {
+        return batchSql;
+    }
+
+    /**
+     * @param batchSql batch SQL for JDBC batched upserts
+     */
+    public void setBatchSql(final String batchSql) {
+        this.batchSql = batchSql;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getDeleteSql() {
@@ -319,6 +333,7 @@ public class CsvImportDescriptorImpl implements CsvImportDescriptor, Serializabl
                 ", entityType='" + entityType + '\'' +
                 ", selectSql='" + selectSql + '\'' +
                 ", insertSql='" + insertSql + '\'' +
+                ", batchSql='" + batchSql + '\'' +
                 ", deleteSql='" + deleteSql + '\'' +
                 ", initialised=" + initialised +
                 '}';
@@ -78,6 +78,7 @@ public class CsvImportDescriptorXStreamProvider implements XStreamProvider<CsvIm
             // xStream.aliasField("import-directory", CsvImportDescriptorImpl.class, "importDirectory");
             xStream.aliasField("select-sql", CsvImportDescriptorImpl.class, "selectSql");
             xStream.aliasField("insert-sql", CsvImportDescriptorImpl.class, "insertSql");
+            xStream.aliasField("batch-sql", CsvImportDescriptorImpl.class, "batchSql");
             xStream.aliasField("delete-sql", CsvImportDescriptorImpl.class, "deleteSql");
 
             xStream.aliasField("import-file-descriptor", CsvImportDescriptorImpl.class, "importFileDescriptor");
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.yes.cart.bulkcommon.service.support.query.LookUpQuery;
+import org.yes.cart.dao.GenericDAO;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accumulates parameters of batch SQL statements for rows of a single file import
+ * and writes them using JDBC batches (one batch per statement, second level cache is evicted once
+ * per flush).
+ * <p>
+ * Since all rows of one statement are written before the next statement, rows with the same
+ * entity key must not share a batch (e.g. second row's insert would run before first row's update).
+ * Rows are added with their key and batch must be flushed if it already {@link #contains(String)} the key.
+ * <p>
+ * Not thread safe, an instance should only be used by thread that imports the file.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:55
+ */
+public class CsvNativeBatch {
+
+    private final GenericDAO<Object, Long> genericDAO;
+    private final int batchSize;
+
+    private final Map<String, List<Object[]>> statements = new LinkedHashMap<>();
+    private final Set<String> keys = new HashSet<>();
+
+    private int rows;
+    private String firstSourceId;
+    private String lastSourceId;
+
+    private long totalRows;
+    private long totalBatches;
+    private long totalUpdated;
+
+    /**
+     * Construct batch.
+     *
+     * @param genericDAO generic DAO
+     * @param batchSize  number of rows in a batch
+     */
+    public CsvNativeBatch(final GenericDAO<Object, Long> genericDAO,
+                          final int batchSize) {
+        this.genericDAO = genericDAO;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Check if current batch contains a row for given entity key.
+     *
+     * @param key entity key (null keys are never contained)
+     *
+     * @return true if batch must be flushed before adding row with this key
+     */
+    public boolean contains(final String key) {
+        return key != null && keys.contains(key);
+    }
+
+    /**
+     * Add row to batch.
+     *
+     * @param sourceId row source id
+     * @param queries  statements for this row
+     *
+     * @return true if batch is full and should be flushed
+     */
+    public boolean add(final String sourceId, final List<LookUpQuery> queries) {
+        return add(sourceId, null, queries);
+    }
+
+    /**
+     * Add row to batch.
+     *
+     * @param sourceId row source id
+     * @param key      entity key for this row (null if order of rows does not matter)
+     * @param queries  statements for this row
+     *
+     * @return true if batch is full and should be flushed
+     */
+    public boolean add(final String sourceId, final String key, final List<LookUpQuery> queries) {
+
+        if (contains(key)) {
+            throw new IllegalStateException("Batch must be flushed before adding row " + sourceId + " with repeated key " + key);
+        }
+        if (key != null) {
+            keys.add(key);
+        }
+        for (final LookUpQuery query : queries) {
+            statements.computeIfAbsent(query.getQueryString(), sql -> new ArrayList<>(batchSize)).add(query.getParameters());
+        }
+        if (rows == 0) {
+            firstSourceId = sourceId;
+        }
+        lastSourceId = sourceId;
+        rows++;
+        return rows >= batchSize;
+
+    }
+
+    /**
+     * Write all accumulated rows.
+     *
+     * @return number of updated rows
+     */
+    public int flush() {
+
+        if (rows == 0) {
+            return 0;
+        }
+
+        final int updated = genericDAO.executeNativeBatchUpdates(statements);
+
+        totalRows += rows;
+        totalBatches++;
+        totalUpdated += updated;
+
+        statements.clear();
+        keys.clear();
+        rows = 0;
+        return updated;
+
+    }
+
+    /**
+     * @return number of rows awaiting flush
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * @return source id of the first row in current batch
+     */
+    public String getFirstSourceId() {
+        return firstSourceId;
+    }
+
+    /**
+     * @return source id of the last row in current batch
+     */
+    public String getLastSourceId() {
+        return lastSourceId;
+    }
+
+    /**
+     * @return statistics message for import log
+     */
+    public String getStatistics() {
+        return MessageFormat.format(
+                "batch sql: rows {0}, batches {1}, updated {2}",
+                totalRows, totalBatches, totalUpdated);
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.image;
+
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.async.JobStatusListener;
+
+import java.util.Collection;
+
+/**
+ * Service that eagerly generates resized versions (derivatives) of images in all allowed
+ * sizes, so that storefront does not have to resize images on first request.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:20
+ */
+public interface ImageDerivativeService {
+
+    /**
+     * Generate all allowed sizes for given images. Derivatives that are already up to date
+     * are skipped, so generation can be safely repeated if it was interrupted.
+     *
+     * @param pathToRepository image repository root
+     * @param storagePrefix    storage prefix (same as image name strategy URL path)
+     * @param images           images to process as pairs of object code and file name
+     * @param listener         listener to report progress to (only used by single thread)
+     * @param async            true to generate in background, false to wait for completion
+     */
+    void generateDerivatives(String pathToRepository,
+                             String storagePrefix,
+                             Collection<Pair<String, String>> images,
+                             JobStatusListener listener,
+                             boolean async);
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.image.impl;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.yes.cart.bulkimport.image.ImageDerivativeService;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.async.JobStatusListener;
+import org.yes.cart.service.domain.ImageService;
+import org.yes.cart.service.media.MediaFileNameStrategy;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates image derivatives using a pool of workers. Listener is only accessed by the thread
+ * that runs the job, workers just report back the outcome of each resize.
+ * <p>
+ * Derivatives that were not processed because job was interrupted or rejected by a saturated
+ * executor are carried over and processed by the next job.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:35
+ */
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageDerivativeServiceImpl.class);
+
+    private final ImageService imageService;
+    private final TaskExecutor executor;
+    private final Executor workerExecutor;
+
+    private final ConcurrentMap<String, Derivative> carryOver = new ConcurrentHashMap<>();
+
+    /**
+     * Construct derivative service.
+     *
+     * @param imageService   image service
+     * @param executor       executor for background jobs
+     * @param workerExecutor executor for resizing individual images
+     */
+    public ImageDerivativeServiceImpl(final ImageService imageService,
+                                      final TaskExecutor executor,
+                                      final TaskExecutor workerExecutor) {
+        this.imageService = imageService;
+        this.executor = executor;
+        // if worker queue is full resizing is done in job thread, which also slows down submission
+        this.workerExecutor = task -> {
+            try {
+                workerExecutor.execute(task);
+            } catch (TaskRejectedException rej) {
+                task.run();
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void generateDerivatives(final String pathToRepository,
+                                    final String storagePrefix,
+                                    final Collection<Pair<String, String>> images,
+                                    final JobStatusListener listener,
+                                    final boolean async) {
+
+        if (CollectionUtils.isEmpty(images)) {
+            return;
+        }
+
+        final List<Pair<String, String>> toProcess = new ArrayList<>(images);
+        final Runnable job = () -> {
+            try {
+                doGenerateDerivatives(pathToRepository, storagePrefix, toProcess, listener);
+            } catch (Exception exp) {
+                LOG.error("Unable to generate image derivatives: " + exp.getMessage(), exp);
+                listener.notifyError("Unable to generate image derivatives: " + exp.getMessage(), exp);
+            }
+        };
+
+        if (async) {
+            try {
+                executor.execute(job);
+            } catch (TaskRejectedException rej) {
+                final List<Derivative> derivatives = toDerivatives(pathToRepository, storagePrefix, toProcess, imageService.getAllowedSizes());
+                for (final Derivative derivative : derivatives) {
+                    carryOver.put(derivative.resized, derivative);
+                }
+                listener.notifyWarning(MessageFormat.format(
+                        "image derivatives executor is saturated, {0} image derivatives will be generated on next run or first request",
+                        derivatives.size()));
+            }
+        } else {
+            job.run();
+        }
+
+    }
+
+    void doGenerateDerivatives(final String pathToRepository,
+                               final String storagePrefix,
+                               final List<Pair<String, String>> images,
+                               final JobStatusListener listener) {
+
+        final List<Pair<String, String>> sizes = imageService.getAllowedSizes();
+        if (sizes.isEmpty()) {
+            listener.notifyMessage("No allowed image sizes configured, skipping image derivatives generation");
+            return;
+        }
+
+        final Map<String, Derivative> derivatives = new LinkedHashMap<>();
+        for (final Derivative derivative : toDerivatives(pathToRepository, storagePrefix, images, sizes)) {
+            derivatives.put(derivative.resized, derivative);
+        }
+        int carried = 0;
+        for (final String resized : new ArrayList<>(carryOver.keySet())) {
+            final Derivative derivative = carryOver.remove(resized);
+            if (derivative != null && derivatives.putIfAbsent(resized, derivative) == null) {
+                carried++;
+            }
+        }
+
+        final CompletionService<Boolean> completion = new ExecutorCompletionService<>(workerExecutor);
+        final Map<Future<Boolean>, Derivative> remaining = new HashMap<>();
+
+        final int total = derivatives.size();
+
+        listener.notifyMessage(MessageFormat.format(
+                "generating {0} image derivatives for {1} images in {2} sizes", total, images.size(), sizes.size()));
+        if (carried > 0) {
+            listener.notifyMessage(MessageFormat.format(
+                    "resuming {0} image derivatives from previous runs", carried));
+        }
+
+        final Iterator<Derivative> toSubmit = derivatives.values().iterator();
+        int failed = 0;
+        int done = 0;
+        try {
+
+            while (toSubmit.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                final Derivative derivative = toSubmit.next();
+                remaining.put(completion.submit(
+                        () -> imageService.ensureImageResized(derivative.original, derivative.resized, derivative.width, derivative.height)
+                ), derivative);
+            }
+
+            while (!remaining.isEmpty()) {
+
+                final Future<Boolean> result = completion.take();
+                final Derivative derivative = remaining.remove(result);
+                done++;
+
+                try {
+                    if (!result.get()) {
+                        failed++;
+                        listener.notifyWarning(MessageFormat.format(
+                                "unable to generate image derivative {0}, it will be generated on first request", derivative.resized));
+                    }
+                } catch (ExecutionException ee) {
+                    failed++;
+                    final Throwable cause = ee.getCause();
+                    listener.notifyError("unable to generate image derivative: " + cause.getMessage(),
+                            cause instanceof Exception ? (Exception) cause : ee);
+                }
+
+                listener.notifyPing("Generated " + done + " of " + total + " image derivatives");
+
+            }
+
+        } catch (InterruptedException ie) {
+
+            Thread.currentThread().interrupt();
+            for (final Map.Entry<Future<Boolean>, Derivative> unfinished : remaining.entrySet()) {
+                unfinished.getKey().cancel(false);
+                carryOver.put(unfinished.getValue().resized, unfinished.getValue());
+            }
+            while (toSubmit.hasNext()) {
+                final Derivative notSubmitted = toSubmit.next();
+                carryOver.put(notSubmitted.resized, notSubmitted);
+            }
+            listener.notifyWarning(MessageFormat.format(
+                    "image derivatives generation interrupted after {0} of {1}, remaining will be generated on next run or first request",
+                    done, total));
+            return;
+
+        }
+
+        listener.notifyMessage(MessageFormat.format(
+                "generated {0} image derivatives, {1} failed", total - failed, failed));
+
+    }
+
+    private List<Derivative> toDerivatives(final String pathToRepository,
+                                           final String storagePrefix,
+                                           final List<Pair<String, String>> images,
+                                           final List<Pair<String, String>> sizes) {
+
+        final MediaFileNameStrategy strategy = imageService.getImageNameStrategy(storagePrefix);
+        final List<Derivative> derivatives = new ArrayList<>(images.size() * sizes.size());
+
+        for (final Pair<String, String> image : images) {
+
+            final String code = image.getFirst();
+            final String fileName = image.getSecond();
+            final String original = pathToRepository + strategy.resolveRelativeInternalFileNamePath(fileName, code, null);
+
+            for (final Pair<String, String> size : sizes) {
+
+                final String width = size.getFirst();
+                final String height = size.getSecond();
+                final String resized = pathToRepository + strategy.resolveRelativeInternalFileNamePath(fileName, code, null, width, height);
+
+                derivatives.add(new Derivative(original, resized, width, height));
+
+            }
+        }
+        return derivatives;
+
+    }
+
+    /**
+     * @return number of derivatives carried over to next run
+     */
+    int getCarryOverSize() {
+        return carryOver.size();
+    }
+
+    private static final class Derivative {
+
+        private final String original;
+        private final String resized;
+        private final String width;
+        private final String height;
+
+        private Derivative(final String original, final String resized, final String width, final String height) {
+            this.original = original;
+            this.resized = resized;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+}
@@ -19,9 +19,11 @@ package org.yes.cart.bulkimport.image.impl;
 import org.apache.commons.io.FileUtils;
 import org.yes.cart.bulkcommon.service.ImportService;
 import org.yes.cart.bulkimport.csv.CsvImportDescriptor;
+import org.yes.cart.bulkimport.image.ImageDerivativeService;
 import org.yes.cart.bulkimport.image.ImageImportDomainObjectStrategy;
 import org.yes.cart.bulkimport.service.impl.ImportFileUtils;
 import org.yes.cart.constants.Constants;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.async.JobStatusListener;
 import org.yes.cart.service.async.model.JobContext;
 import org.yes.cart.service.async.model.JobContextKeys;
@@ -32,6 +34,8 @@ import org.yes.cart.service.media.MediaFileNameStrategy;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -45,6 +49,8 @@ public class ImagesBulkImportServiceImpl implements ImportService {
 
     private final ImageImportDomainObjectStrategy[] strategies;
 
+    private ImageDerivativeService imageDerivativeService;
+
     /**
      * Construct bulk import service.
      *
@@ -59,6 +65,16 @@ public class ImagesBulkImportServiceImpl implements ImportService {
         this.strategies = strategies;
     }
 
+    /**
+     * Service to generate resized images after import. If not set resized images are generated
+     * on first request.
+     *
+     * @param imageDerivativeService derivative service
+     */
+    public void setImageDerivativeService(final ImageDerivativeService imageDerivativeService) {
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -88,11 +104,24 @@ public class ImagesBulkImportServiceImpl implements ImportService {
             statusListener.notifyMessage(info);
             int count = 0;
             int total = files.length;
+            final List<Pair<String, String>> added = new ArrayList<>();
             for (File file : files) {
-                doImport(file, importDescriptor, statusListener, importedFiles, imageVaultRootDirectory);
+                final Pair<String, String> image = doImport(file, importDescriptor, statusListener, importedFiles, imageVaultRootDirectory);
+                if (image != null) {
+                    added.add(image);
+                }
                 statusListener.notifyPing("Processed " + (++count) + " of " + total + " images");
             }
 
+            if (imageDerivativeService != null && !added.isEmpty()) {
+                final String urlPath = imageService.getImageNameStrategy(importDescriptor.getSelectSql()).getUrlPath();
+                statusListener.notifyMessage(MessageFormat.format(
+                        "\nINFO generating resized images for {0} images", added.size()));
+                // run as part of import job, so that progress and errors are reported to import listener
+                imageDerivativeService.generateDerivatives(
+                        imageVaultRootDirectory, urlPath, added, statusListener, false);
+            }
+
         }
         return BulkImportResult.OK;
 
@@ -109,12 +138,14 @@ public class ImagesBulkImportServiceImpl implements ImportService {
      * @param statusListener error report
      * @param importedFiles add file to this set if imported it successfully imported.
      * @param imageVaultRootDirectory path to image vault
+     *
+     * @return code and file name of the image added to repository, or null if image was not added
      */
-    private void doImport(final File file,
-                          final CsvImportDescriptor importDescriptor,
-                          final JobStatusListener statusListener,
-                          final Set<String> importedFiles,
-                          final String imageVaultRootDirectory) {
+    private Pair<String, String> doImport(final File file,
+                                         final CsvImportDescriptor importDescriptor,
+                                         final JobStatusListener statusListener,
+                                         final Set<String> importedFiles,
+                                         final String imageVaultRootDirectory) {
 
         final MediaFileNameStrategy strategy = imageService.getImageNameStrategy(importDescriptor.getSelectSql());
 
@@ -124,6 +155,7 @@ public class ImagesBulkImportServiceImpl implements ImportService {
         final String locale = strategy.resolveLocale(fileName);
         final String suffix = strategy.resolveSuffix(fileName);
 
+        Pair<String, String> added = null;
         boolean success = false;
         for (final ImageImportDomainObjectStrategy domainStrategy : strategies) {
             if (domainStrategy.supports(strategy.getUrlPath())) {
@@ -143,6 +175,7 @@ public class ImagesBulkImportServiceImpl implements ImportService {
                 final String info = MessageFormat.format(
                         "image {0} {1} added to image repository", file.getAbsolutePath(), newFileName);
                 statusListener.notifyMessage(info);
+                added = new Pair<>(code, newFileName);
 
             } catch (IOException e) {
                 final String err = MessageFormat.format(
@@ -153,6 +186,7 @@ public class ImagesBulkImportServiceImpl implements ImportService {
 
         importedFiles.add(file.getAbsolutePath());
 
+        return added;
     }
 
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.xml;
+
+/**
+ * Handler which can identify the entity that XML item writes to. Items of such handlers can be
+ * written in parallel as long as items for the same entity are written in order by the same writer.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:40
+ */
+public interface XmlEntityKeyProvider<T> {
+
+    /**
+     * Natural key of the entity for given XML item.
+     *
+     * @param xmlType XML item
+     *
+     * @return entity key (never null)
+     */
+    String getEntityKey(T xmlType);
+
+}
@@ -17,6 +17,7 @@
 package org.yes.cart.bulkimport.xml.impl;
 
 import org.yes.cart.bulkimport.xml.XmlEntityImportHandler;
+import org.yes.cart.bulkimport.xml.XmlEntityKeyProvider;
 import org.yes.cart.bulkimport.xml.internal.EntityImportModeType;
 import org.yes.cart.bulkimport.xml.internal.QuantityType;
 import org.yes.cart.bulkimport.xml.internal.QuantityTypeType;
@@ -32,7 +33,8 @@ import java.math.BigDecimal;
  * Date: 05/11/2018
  * Time: 22:23
  */
-public class InventoryXmlEntityHandler extends AbstractXmlEntityHandler<StockType, SkuWarehouse> implements XmlEntityImportHandler<StockType, SkuWarehouse> {
+public class InventoryXmlEntityHandler extends AbstractXmlEntityHandler<StockType, SkuWarehouse>
+        implements XmlEntityImportHandler<StockType, SkuWarehouse>, XmlEntityKeyProvider<StockType> {
 
     private SkuWarehouseService skuWarehouseService;
     private WarehouseService warehouseService;
@@ -41,6 +43,11 @@ public class InventoryXmlEntityHandler extends AbstractXmlEntityHandler<StockTyp
         super("stock");
     }
 
+    @Override
+    public String getEntityKey(final StockType xmlType) {
+        return xmlType.getSku() + "@" + xmlType.getWarehouse();
+    }
+
     @Override
     protected void delete(final SkuWarehouse inventory) {
         inventory.setQuantity(BigDecimal.ZERO);
@@ -17,6 +17,7 @@
 package org.yes.cart.bulkimport.xml.impl;
 
 import org.yes.cart.bulkimport.xml.XmlEntityImportHandler;
+import org.yes.cart.bulkimport.xml.XmlEntityKeyProvider;
 import org.yes.cart.bulkimport.xml.internal.EntityImportModeType;
 import org.yes.cart.bulkimport.xml.internal.PriceType;
 import org.yes.cart.domain.entity.SkuPrice;
@@ -28,7 +29,8 @@ import org.yes.cart.service.domain.ShopService;
  * Date: 05/11/2018
  * Time: 22:23
  */
-public class PriceXmlEntityHandler extends AbstractXmlEntityHandler<PriceType, SkuPrice> implements XmlEntityImportHandler<PriceType, SkuPrice> {
+public class PriceXmlEntityHandler extends AbstractXmlEntityHandler<PriceType, SkuPrice>
+        implements XmlEntityImportHandler<PriceType, SkuPrice>, XmlEntityKeyProvider<PriceType> {
 
     private PriceService priceService;
     private ShopService shopService;
@@ -37,6 +39,11 @@ public class PriceXmlEntityHandler extends AbstractXmlEntityHandler<PriceType, S
         super("price");
     }
 
+    @Override
+    public String getEntityKey(final PriceType xmlType) {
+        return xmlType.getGuid() != null ? xmlType.getGuid() : String.valueOf(xmlType.getSku());
+    }
+
     @Override
     protected void delete(final SkuPrice price) {
         this.priceService.delete(price);
@@ -16,6 +16,11 @@
 
 package org.yes.cart.bulkimport.xml.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
 import org.yes.cart.bulkcommon.service.ImportService;
@@ -23,10 +28,13 @@ import org.yes.cart.bulkcommon.service.support.auth.impl.SystemAdminFederationFa
 import org.yes.cart.bulkcommon.xml.XmlValueAdapter;
 import org.yes.cart.bulkimport.service.impl.AbstractImportService;
 import org.yes.cart.bulkimport.xml.XmlEntityImportHandler;
+import org.yes.cart.bulkimport.xml.XmlEntityKeyProvider;
 import org.yes.cart.bulkimport.xml.XmlImportDescriptor;
+import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.service.async.JobStatusListener;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.BufferedReader;
 import java.io.File;
@@ -36,18 +44,37 @@ import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Fast XML import. JAXB contexts are created once per handler namespace. Files for handlers configured as
+ * pipelined are parsed by the import thread and persisted by a pool of writers in batches
+ * (see {@link XmlImportPipeline}), all other files are parsed and persisted in a single transaction.
+ *
  * User: denispavlov
  * Date: 04/11/2018
  * Time: 17:29
  */
 public class XmlFastBulkImportServiceImpl extends AbstractImportService<XmlImportDescriptor> implements ImportService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(XmlFastBulkImportServiceImpl.class);
+
     private XmlValueAdapter valueDataAdapter;
 
     private Map<String, XmlEntityImportHandler> handlerMap = Collections.emptyMap();
 
+    private final ConcurrentMap<String, JAXBContext> jaxbContexts = new ConcurrentHashMap<>();
+
+    private TaskExecutor pipelineExecutor;
+    private PlatformTransactionManager pipelineTransactionManager;
+    private GenericDAO<?, ?> pipelineSessionDao;
+    private Set<String> pipelineHandlers = Collections.emptySet();
+    private int pipelineWorkers = 4;
+    private int pipelineBatchSize = 100;
+    private int pipelineQueueSize = 8;
+
     public XmlFastBulkImportServiceImpl() {
         super(new SystemAdminFederationFacade());
     }
@@ -71,12 +98,17 @@ public class XmlFastBulkImportServiceImpl extends AbstractImportService<XmlImpor
         }
 
         // org.yes.cart.bulkexport.xml.internal
-        final JAXBContext context = JAXBContext.newInstance(handler.getContextNamespace());
+        final JAXBContext context = getJAXBContext(handler.getContextNamespace());
 
         final SAXParserFactory factory = SAXParserFactory.newInstance();
         factory.setNamespaceAware(true);
         final XMLReader reader = factory.newSAXParser().getXMLReader();
 
+        if (isPipelined(importDescriptor, handler)) {
+            doPipelinedImport(statusListener, fileToImport, importDescriptor, handler, context, reader);
+            return;
+        }
+
         final ChunkFilter splitter = new ChunkFilter(
                 context, handler.getElementName(),
                 (tuple) -> {
@@ -102,6 +134,93 @@ public class XmlFastBulkImportServiceImpl extends AbstractImportService<XmlImpor
         
     }
 
+    private void doPipelinedImport(final JobStatusListener statusListener,
+                                   final File fileToImport,
+                                   final XmlImportDescriptor importDescriptor,
+                                   final XmlEntityImportHandler handler,
+                                   final JAXBContext context,
+                                   final XMLReader reader) throws Exception {
+
+        final String msgPipeline = MessageFormat.format(
+                "import file : {0} using {1} writers, changes are committed every {2} items",
+                fileToImport.getName(), pipelineWorkers, pipelineBatchSize);
+        statusListener.notifyMessage(msgPipeline);
+
+        final XmlImportPipeline pipeline = new XmlImportPipeline(
+                pipelineExecutor,
+                new TransactionTemplate(pipelineTransactionManager),
+                pipelineSessionDao,
+                pipelineWorkers,
+                pipelineBatchSize,
+                pipelineQueueSize,
+                (tuple) -> ((XmlEntityKeyProvider) handler).getEntityKey(tuple.getData()),
+                (writerListener, tuple) -> {
+                    handler.handle(writerListener, importDescriptor, tuple, valueDataAdapter, fileToImport.getName());
+                });
+
+        final ChunkFilter splitter = new ChunkFilter(
+                context, handler.getElementName(),
+                (tuple) -> {
+                    try {
+                        pipeline.add(statusListener, tuple);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("XML import interrupted", ie);
+                    }
+                },
+                (line, exp) -> {
+                    final String msgErr = MessageFormat.format(
+                            "unable to process XML file: {0}:{1}, cause by: {2}",
+                            importDescriptor.getImportFileDescriptor().getFileEncoding(),
+                            line,
+                            exp.getMessage());
+                    statusListener.notifyError(msgErr, exp);
+                });
+
+        reader.setContentHandler(splitter);
+
+        pipeline.start();
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(fileToImport), StandardCharsets.UTF_8))) {
+
+            reader.parse(new InputSource(in));
+
+        } catch (Exception exp) {
+
+            pipeline.abort();
+            throw exp;
+
+        }
+
+        pipeline.finish(statusListener);
+
+    }
+
+    private boolean isPipelined(final XmlImportDescriptor importDescriptor, final XmlEntityImportHandler handler) {
+        if (pipelineExecutor == null || !pipelineHandlers.contains(importDescriptor.getXmlHandler())) {
+            return false;
+        }
+        if (!(handler instanceof XmlEntityKeyProvider)) {
+            // without entity key items for the same entity could be written concurrently
+            LOG.warn("XML handler {} does not provide entity keys, importing sequentially", importDescriptor.getXmlHandler());
+            return false;
+        }
+        return true;
+    }
+
+    private JAXBContext getJAXBContext(final String contextNamespace) throws JAXBException {
+        JAXBContext context = jaxbContexts.get(contextNamespace);
+        if (context == null) {
+            // JAXBContext is thread safe and expensive to create, so we only ever need one per namespace
+            context = JAXBContext.newInstance(contextNamespace);
+            final JAXBContext existing = jaxbContexts.putIfAbsent(contextNamespace, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        return context;
+    }
+
     /**
      * IoC.
      *
@@ -119,4 +238,70 @@ public class XmlFastBulkImportServiceImpl extends AbstractImportService<XmlImpor
     public void setHandlerMap(final Map<String, XmlEntityImportHandler> handlerMap) {
         this.handlerMap = handlerMap;
     }
+
+    /**
+     * Executor for pipeline writers. Pipelined import is disabled if executor is not set.
+     *
+     * @param pipelineExecutor executor
+     */
+    public void setPipelineExecutor(final TaskExecutor pipelineExecutor) {
+        this.pipelineExecutor = pipelineExecutor;
+    }
+
+    /**
+     * Transaction manager for pipeline writers, each batch is written in its own transaction.
+     *
+     * @param pipelineTransactionManager transaction manager
+     */
+    public void setPipelineTransactionManager(final PlatformTransactionManager pipelineTransactionManager) {
+        this.pipelineTransactionManager = pipelineTransactionManager;
+    }
+
+    /**
+     * DAO used to flush and clear the session after each batch.
+     *
+     * @param pipelineSessionDao DAO
+     */
+    public void setPipelineSessionDao(final GenericDAO<?, ?> pipelineSessionDao) {
+        this.pipelineSessionDao = pipelineSessionDao;
+    }
+
+    /**
+     * Handlers (keys in handler map) which can be imported using pipeline. Only handlers for which
+     * each XML item is independent of others can be pipelined, since items are written in parallel.
+     * Handler must also implement {@link XmlEntityKeyProvider}, so that items of the same entity
+     * are written by the same writer.
+     *
+     * @param pipelineHandlers handler keys
+     */
+    public void setPipelineHandlers(final Set<String> pipelineHandlers) {
+        this.pipelineHandlers = pipelineHandlers;
+    }
+
+    /**
+     * IoC.
+     *
+     * @param pipelineWorkers number of writers per file
+     */
+    public void setPipelineWorkers(final int pipelineWorkers) {
+        this.pipelineWorkers = pipelineWorkers;
+    }
+
+    /**
+     * IoC.
+     *
+     * @param pipelineBatchSize number of items written in single transaction
+     */
+    public void setPipelineBatchSize(final int pipelineBatchSize) {
+        this.pipelineBatchSize = pipelineBatchSize;
+    }
+
+    /**
+     * IoC.
+     *
+     * @param pipelineQueueSize max number of parsed batches awaiting writers
+     */
+    public void setPipelineQueueSize(final int pipelineQueueSize) {
+        this.pipelineQueueSize = pipelineQueueSize;
+    }
 }
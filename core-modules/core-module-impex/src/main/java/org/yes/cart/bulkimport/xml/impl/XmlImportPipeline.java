@@ -0,0 +1,298 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.xml.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yes.cart.bulkcommon.model.ImpExTuple;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.async.JobStatusListener;
+import org.yes.cart.service.async.impl.JobStatusListenerLoggerWrapperImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Import pipeline for a single file. Parser thread feeds tuples into bounded queues of batches,
+ * writer workers persist each batch in its own transaction and clear the session afterwards.
+ * <p>
+ * Each writer has its own queue and tuples are routed to writers by hash of the entity key, so
+ * all tuples for the same entity are written by the same writer in file order and two writers
+ * never update the same entity concurrently.
+ * <p>
+ * Status listener is only accessed by the parser thread, writers report errors back through
+ * the pipeline. After first failed batch remaining batches are skipped and the import is aborted,
+ * however batches that were already committed remain in the database.
+ * <p>
+ * Pipeline is not reusable, new instance must be created for each file.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:05
+ */
+public class XmlImportPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XmlImportPipeline.class);
+
+    private static final List<ImpExTuple<String, Object>> END = Collections.emptyList();
+
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final GenericDAO<?, ?> sessionDao;
+    private final int workers;
+    private final int batchSize;
+    private final int queueSize;
+    private final Function<ImpExTuple<String, Object>, String> keyOf;
+    private final BiConsumer<JobStatusListener, ImpExTuple<String, Object>> writer;
+
+    private final List<Writer> writers = new ArrayList<>();
+    private final Queue<Pair<String, Exception>> errors = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private CountDownLatch running;
+
+    /**
+     * Construct pipeline.
+     *
+     * @param executor            executor for writer workers
+     * @param transactionTemplate transaction template for writing batches
+     * @param sessionDao          DAO used to flush and clear session after each batch
+     * @param workers             number of writer workers
+     * @param batchSize           number of tuples in a batch
+     * @param queueSize           max number of batches awaiting for writers (split evenly between writers)
+     * @param keyOf               entity key of a tuple, used to route tuples to writers
+     * @param writer              writer that persists single tuple
+     */
+    public XmlImportPipeline(final TaskExecutor executor,
+                             final TransactionTemplate transactionTemplate,
+                             final GenericDAO<?, ?> sessionDao,
+                             final int workers,
+                             final int batchSize,
+                             final int queueSize,
+                             final Function<ImpExTuple<String, Object>, String> keyOf,
+                             final BiConsumer<JobStatusListener, ImpExTuple<String, Object>> writer) {
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+        this.sessionDao = sessionDao;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.queueSize = Math.max(1, queueSize / Math.max(1, workers));
+        this.keyOf = keyOf;
+        this.writer = writer;
+    }
+
+    /**
+     * Start writer workers.
+     */
+    public void start() {
+
+        final SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        running = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            final Writer next = new Writer(queueSize, batchSize);
+            try {
+                executor.execute(() -> write(securityContext, next));
+                writers.add(next);
+            } catch (TaskRejectedException tre) {
+                running.countDown();
+                LOG.warn("Unable to start XML import writer, proceeding with {} writers", writers.size());
+            }
+        }
+        if (writers.isEmpty()) {
+            throw new IllegalStateException("Unable to start XML import writers");
+        }
+
+    }
+
+    /**
+     * Add tuple to pipeline (parser thread).
+     *
+     * @param statusListener listener to report errors to
+     * @param tuple          tuple
+     *
+     * @throws InterruptedException if interrupted while waiting for writers
+     */
+    public void add(final JobStatusListener statusListener,
+                    final ImpExTuple<String, Object> tuple) throws InterruptedException {
+
+        reportErrors(statusListener);
+        if (failure.get() != null) {
+            throw new IllegalStateException("XML import aborted", failure.get());
+        }
+
+        final String key = keyOf.apply(tuple);
+        final Writer target = writers.get(key == null ? 0 : Math.floorMod(key.hashCode(), writers.size()));
+
+        target.batch.add(tuple);
+        if (target.batch.size() >= batchSize) {
+            if (!enqueue(target, target.batch)) {
+                throw new IllegalStateException("XML import aborted", failure.get());
+            }
+            target.batch = new ArrayList<>(batchSize);
+            statusListener.notifyPing("Importing XML, at " + tuple.getSourceId());
+        }
+
+    }
+
+    /**
+     * Submit last batch and wait for writers to complete (parser thread).
+     *
+     * @param statusListener listener to report errors to
+     *
+     * @throws Exception first writer failure
+     */
+    public void finish(final JobStatusListener statusListener) throws Exception {
+
+        try {
+            for (final Writer target : writers) {
+                if (!target.batch.isEmpty()) {
+                    enqueue(target, target.batch);
+                    target.batch = new ArrayList<>(batchSize);
+                }
+            }
+        } finally {
+            stop();
+        }
+
+        reportErrors(statusListener);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+    }
+
+    /**
+     * Stop writers without waiting for queued batches (parser thread), used when parsing fails.
+     */
+    public void abort() {
+
+        failure.compareAndSet(null, new IllegalStateException("XML import aborted"));
+        try {
+            stop();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+    }
+
+    private void stop() throws InterruptedException {
+
+        for (final Writer target : writers) {
+            enqueue(target, END);
+        }
+        writers.clear();
+        running.await();
+
+    }
+
+    /*
+     * Wait for space in writer queue, unless writer has terminated.
+     */
+    private boolean enqueue(final Writer target, final List<ImpExTuple<String, Object>> batch) throws InterruptedException {
+
+        while (!target.queue.offer(batch, 100L, TimeUnit.MILLISECONDS)) {
+            if (target.stopped) {
+                return false;
+            }
+        }
+        return true;
+
+    }
+
+    private void reportErrors(final JobStatusListener statusListener) {
+        Pair<String, Exception> error;
+        while ((error = errors.poll()) != null) {
+            statusListener.notifyError("unable to import XML batch starting at " + error.getFirst() + ", cause by: " + error.getSecond().getMessage(), error.getSecond());
+        }
+    }
+
+    private void write(final SecurityContext securityContext, final Writer self) {
+
+        SecurityContextHolder.setContext(securityContext);
+        // writer listener is thread confined and only logs, errors are reported to main listener via parser thread
+        final JobStatusListener writerListener = new JobStatusListenerLoggerWrapperImpl(LOG);
+        try {
+
+            while (true) {
+
+                final List<ImpExTuple<String, Object>> next = self.queue.take();
+                if (next == END) {
+                    break;
+                }
+                if (failure.get() != null) {
+                    continue; // drain remaining batches
+                }
+
+                try {
+                    transactionTemplate.execute(status -> {
+                        for (final ImpExTuple<String, Object> tuple : next) {
+                            writer.accept(writerListener, tuple);
+                        }
+                        sessionDao.flushClear();
+                        return null;
+                    });
+                } catch (Exception exp) {
+                    failure.compareAndSet(null, exp);
+                    errors.add(new Pair<>(next.get(0).getSourceId(), exp));
+                }
+
+            }
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ie);
+        } finally {
+            self.stopped = true;
+            SecurityContextHolder.clearContext();
+            running.countDown();
+        }
+
+    }
+
+    /*
+     * Writer state: queue is shared with writer thread, batch is only accessed by parser thread.
+     */
+    private static final class Writer {
+
+        private final BlockingQueue<List<ImpExTuple<String, Object>>> queue;
+        private List<ImpExTuple<String, Object>> batch;
+        private volatile boolean stopped;
+
+        private Writer(final int queueSize, final int batchSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.batch = new ArrayList<>(batchSize);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkcommon.service.support.common.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.bulkcommon.csv.CsvValueAdapter;
+import org.yes.cart.bulkcommon.service.support.csv.impl.ColumnValueLookUpQueryParameterStrategyValueProviderImpl;
+import org.yes.cart.bulkcommon.service.support.query.LookUpQuery;
+import org.yes.cart.bulkcommon.service.support.query.LookUpQueryParameterStrategyValueProvider;
+import org.yes.cart.bulkimport.csv.CsvImportColumn;
+import org.yes.cart.bulkimport.csv.CsvImportDescriptor;
+import org.yes.cart.bulkimport.csv.CsvImportTuple;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 19:10
+ */
+public class ImpExDescriptorNativeBatchStrategyTest {
+
+    private final Mockery mockery = new JUnit4Mockery();
+
+    @Test
+    public void testGetQuery() throws Exception {
+
+        final ImpExDescriptorNativeBatchStrategy strategy = new ImpExDescriptorNativeBatchStrategy();
+
+        strategy.setProviders(Collections.<String, LookUpQueryParameterStrategyValueProvider>emptyMap());
+        strategy.setDefaultProvider(new ColumnValueLookUpQueryParameterStrategyValueProviderImpl());
+
+        final CsvImportDescriptor descriptor = mockery.mock(CsvImportDescriptor.class, "descriptor");
+        final CsvImportColumn skuColumn = mockery.mock(CsvImportColumn.class, "skuColumn");
+        final CsvImportColumn qtyColumn = mockery.mock(CsvImportColumn.class, "qtyColumn");
+        final CsvImportColumn priceColumn = mockery.mock(CsvImportColumn.class, "priceColumn");
+        final CsvImportColumn tagColumn = mockery.mock(CsvImportColumn.class, "tagColumn");
+        final CsvImportTuple tuple = mockery.mock(CsvImportTuple.class, "tuple");
+        final CsvValueAdapter adapter = mockery.mock(CsvValueAdapter.class, "adapter");
+
+        mockery.checking(new Expectations() {{
+            oneOf(descriptor).getColumn("sku"); will(returnValue(skuColumn));
+            oneOf(descriptor).getColumn("qty"); will(returnValue(qtyColumn));
+            oneOf(descriptor).getColumn("price"); will(returnValue(priceColumn));
+            oneOf(descriptor).getColumn("tag"); will(returnValue(tagColumn));
+            oneOf(tuple).getColumnValue(skuColumn, adapter); will(returnValue("SKU'1"));
+            oneOf(tuple).getColumnValue(qtyColumn, adapter); will(returnValue("10"));
+            oneOf(tuple).getColumnValue(priceColumn, adapter); will(returnValue("9.99"));
+            oneOf(tuple).getColumnValue(tagColumn, adapter); will(returnValue(null));
+        }});
+
+        final LookUpQuery query = strategy.getQuery(descriptor, null, tuple, adapter,
+                "INSERT INTO TPRICE (SKU, QTY, PRICE, TAG, NOTE) VALUES ('{sku}', {qty}, {price}, {tag}, 'x')");
+
+        assertEquals("INSERT INTO TPRICE (SKU, QTY, PRICE, TAG, NOTE) VALUES (?, ?, ?, ?, 'x')", query.getQueryString());
+        assertArrayEquals(new Object[] { "SKU'1", 10L, new BigDecimal("9.99"), null }, query.getParameters());
+
+        mockery.assertIsSatisfied();
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetQueryInsideLiteral() throws Exception {
+
+        final ImpExDescriptorNativeBatchStrategy strategy = new ImpExDescriptorNativeBatchStrategy();
+
+        strategy.setProviders(Collections.<String, LookUpQueryParameterStrategyValueProvider>emptyMap());
+        strategy.setDefaultProvider(new ColumnValueLookUpQueryParameterStrategyValueProviderImpl());
+
+        final CsvImportDescriptor descriptor = mockery.mock(CsvImportDescriptor.class, "descriptor");
+        final CsvImportColumn nameColumn = mockery.mock(CsvImportColumn.class, "nameColumn");
+        final CsvImportTuple tuple = mockery.mock(CsvImportTuple.class, "tuple");
+        final CsvValueAdapter adapter = mockery.mock(CsvValueAdapter.class, "adapter");
+
+        mockery.checking(new Expectations() {{
+            allowing(descriptor).getColumn("name"); will(returnValue(nameColumn));
+            allowing(tuple).getColumnValue(nameColumn, adapter); will(returnValue("Name"));
+        }});
+
+        strategy.getQuery(descriptor, null, tuple, adapter,
+                "UPDATE TENTITY SET NAME = 'en#~#{name}' WHERE ID = 1");
+
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.dao.EntityFactory;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.Brand;
+import org.yes.cart.domain.misc.Pair;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:05
+ */
+public class CsvEntityLookupCacheTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testGetPutReference() throws Exception {
+
+        final GenericDAO<Object, Long> dao = context.mock(GenericDAO.class, "dao");
+        final Brand brand = context.mock(Brand.class, "brand");
+        final Brand brandRef = context.mock(Brand.class, "brandRef");
+
+        context.checking(new Expectations() {{
+            oneOf(dao).getEntityIdentifier(brand); will(returnValue(10L));
+            oneOf(dao).getEntityClass(brand); will(returnValue(Brand.class));
+            oneOf(dao).getEntityReference(Brand.class, 10L); will(returnValue(brandRef));
+        }});
+
+        final CsvEntityLookupCache cache = new CsvEntityLookupCache(dao, 10, 1024L * 1024L);
+
+        assertNull(cache.get("brand:A"));
+        cache.put("brand:A", new Pair<>(brand, Boolean.FALSE), null);
+
+        final Pair<Object, Boolean> cached = cache.get("brand:A");
+        assertSame(brandRef, cached.getFirst());
+        assertFalse(cached.getSecond());
+
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertEquals("look up cache: hits 1, misses 1, hit rate 50%, evictions 0, size 1 (~0KB)", cache.getStatistics());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGetPutNewAndValue() throws Exception {
+
+        final GenericDAO<Object, Long> dao = context.mock(GenericDAO.class, "dao");
+        final EntityFactory factory = context.mock(EntityFactory.class, "factory");
+        final Brand brand = context.mock(Brand.class, "brand");
+        final Brand newBrand = context.mock(Brand.class, "newBrand");
+
+        context.checking(new Expectations() {{
+            oneOf(dao).getEntityFactory(); will(returnValue(factory));
+            oneOf(factory).getByIface(Brand.class); will(returnValue(newBrand));
+        }});
+
+        final CsvEntityLookupCache cache = new CsvEntityLookupCache(dao, 10, 1024L * 1024L);
+
+        cache.put("brand:B", new Pair<>(brand, Boolean.TRUE), Brand.class);
+        cache.put("code:C", new Pair<>("C", Boolean.FALSE), null);
+        cache.put(null, new Pair<>("D", Boolean.FALSE), null);
+
+        final Pair<Object, Boolean> cachedNew = cache.get("brand:B");
+        assertSame(newBrand, cachedNew.getFirst());
+        assertTrue(cachedNew.getSecond());
+
+        final Pair<Object, Boolean> cachedValue = cache.get("code:C");
+        assertEquals("C", cachedValue.getFirst());
+        assertFalse(cachedValue.getSecond());
+
+        assertNull(cache.get(null));
+        assertEquals(2, cache.size());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+
+        final GenericDAO<Object, Long> dao = context.mock(GenericDAO.class, "dao");
+
+        final CsvEntityLookupCache cache = new CsvEntityLookupCache(dao, 2, 1024L * 1024L);
+
+        cache.put("A", new Pair<>("A", Boolean.FALSE), null);
+        cache.put("B", new Pair<>("B", Boolean.FALSE), null);
+        assertNotNull(cache.get("A")); // A is now most recent
+        cache.put("C", new Pair<>("C", Boolean.FALSE), null);
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getEvictions());
+        assertNotNull(cache.get("A"));
+        assertNull(cache.get("B"));
+        assertNotNull(cache.get("C"));
+
+        final CsvEntityLookupCache small = new CsvEntityLookupCache(dao, 100, 300L);
+        small.put("A", new Pair<>("A", Boolean.FALSE), null);
+        small.put("B", new Pair<>("B", Boolean.FALSE), null);
+        small.put("C", new Pair<>("C", Boolean.FALSE), null);
+
+        assertEquals(2, small.size()); // each entry is ~130 bytes
+
+        context.assertIsSatisfied();
+
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
+import org.junit.Test;
+import org.yes.cart.bulkcommon.service.support.query.LookUpQuery;
+import org.yes.cart.bulkcommon.service.support.query.impl.NativeSQLQuery;
+import org.yes.cart.dao.GenericDAO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 19:20
+ */
+public class CsvNativeBatchTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testAddFlush() throws Exception {
+
+        final GenericDAO<Object, Long> dao = context.mock(GenericDAO.class, "dao");
+
+        context.checking(new Expectations() {{
+            // all statements of the batch in one call, so that second level cache is evicted once
+            oneOf(dao).executeNativeBatchUpdates(with(any(Map.class))); will(new CustomAction("verify statements") {
+                @Override
+                public Object invoke(final Invocation invocation) throws Throwable {
+                    final Map<?, ?> statements = (Map<?, ?>) invocation.getParameter(0);
+                    assertEquals(Arrays.asList("INSERT INTO A VALUES (?)", "UPDATE B SET X = ?"), new ArrayList<>(statements.keySet()));
+                    assertEquals(2, ((List<?>) statements.get("INSERT INTO A VALUES (?)")).size());
+                    assertEquals(1, ((List<?>) statements.get("UPDATE B SET X = ?")).size());
+                    return 3;
+                }
+            });
+        }});
+
+        final CsvNativeBatch batch = new CsvNativeBatch(dao, 2);
+
+        assertEquals(0, batch.flush());
+
+        assertFalse(batch.add("file:1", Arrays.<LookUpQuery>asList(
+                new NativeSQLQuery("INSERT INTO A VALUES (?)", new Object[] { "A1" }),
+                new NativeSQLQuery("UPDATE B SET X = ?", new Object[] { 1L })
+        )));
+        assertTrue(batch.add("file:2", Collections.<LookUpQuery>singletonList(
+                new NativeSQLQuery("INSERT INTO A VALUES (?)", new Object[] { "A2" })
+        )));
+
+        assertEquals(2, batch.size());
+        assertEquals("file:1", batch.getFirstSourceId());
+        assertEquals("file:2", batch.getLastSourceId());
+
+        assertEquals(3, batch.flush());
+        assertEquals(0, batch.size());
+        assertEquals("batch sql: rows 2, batches 1, updated 3", batch.getStatistics());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testAddRepeatedKey() throws Exception {
+
+        final GenericDAO<Object, Long> dao = context.mock(GenericDAO.class, "dao");
+
+        context.checking(new Expectations() {{
+            exactly(2).of(dao).executeNativeBatchUpdates(with(any(Map.class))); will(returnValue(2));
+        }});
+
+        final CsvNativeBatch batch = new CsvNativeBatch(dao, 10);
+
+        final List<LookUpQuery> upsert = Arrays.<LookUpQuery>asList(
+                new NativeSQLQuery("INSERT INTO A SELECT ? WHERE NOT EXISTS (SELECT 1 FROM A WHERE X = ?)", new Object[] { "A1", "A1" }),
+                new NativeSQLQuery("UPDATE A SET Y = ? WHERE X = ?", new Object[] { 1L, "A1" })
+        );
+
+        assertFalse(batch.contains(null));
+        assertFalse(batch.contains("[A1]"));
+        assertFalse(batch.add("file:1", "[A1]", upsert));
+        assertTrue(batch.contains("[A1]"));
+        assertFalse(batch.contains("[A2]"));
+
+        try {
+            batch.add("file:2", "[A1]", upsert);
+            fail("Repeated key must be flushed first");
+        } catch (IllegalStateException ise) {
+            // OK
+        }
+        assertEquals(1, batch.size());
+
+        assertEquals(2, batch.flush());
+        assertFalse(batch.contains("[A1]"));
+        assertFalse(batch.add("file:2", "[A1]", upsert));
+        assertEquals(2, batch.flush());
+
+        assertEquals("batch sql: rows 2, batches 2, updated 4", batch.getStatistics());
+
+        context.assertIsSatisfied();
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.image.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.async.JobStatusListener;
+import org.yes.cart.service.domain.ImageService;
+import org.yes.cart.service.media.MediaFileNameStrategy;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:05
+ */
+public class ImageDerivativeServiceImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testGenerateDerivatives() throws Exception {
+
+        final ImageService imageService = context.mock(ImageService.class, "imageService");
+        final MediaFileNameStrategy strategy = context.mock(MediaFileNameStrategy.class, "strategy");
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+
+        context.checking(new Expectations() {{
+            oneOf(imageService).getAllowedSizes(); will(returnValue(Arrays.asList(new Pair<>("40", "40"), new Pair<>("80", "60"))));
+            oneOf(imageService).getImageNameStrategy("/imgvault/product/"); will(returnValue(strategy));
+            oneOf(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null); will(returnValue("product/A/A/img_A_a.jpg"));
+            oneOf(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null, "40", "40"); will(returnValue("product/40x40/A/A/img_A_a.jpg"));
+            oneOf(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null, "80", "60"); will(returnValue("product/80x60/A/A/img_A_a.jpg"));
+            oneOf(imageService).ensureImageResized("vault/product/A/A/img_A_a.jpg", "vault/product/40x40/A/A/img_A_a.jpg", "40", "40"); will(returnValue(true));
+            oneOf(imageService).ensureImageResized("vault/product/A/A/img_A_a.jpg", "vault/product/80x60/A/A/img_A_a.jpg", "80", "60"); will(returnValue(false));
+            oneOf(listener).notifyMessage("generating 2 image derivatives for 1 images in 2 sizes");
+            oneOf(listener).notifyWarning("unable to generate image derivative vault/product/80x60/A/A/img_A_a.jpg, it will be generated on first request");
+            oneOf(listener).notifyPing("Generated 1 of 2 image derivatives");
+            oneOf(listener).notifyPing("Generated 2 of 2 image derivatives");
+            oneOf(listener).notifyMessage("generated 1 image derivatives, 1 failed");
+        }});
+
+        new ImageDerivativeServiceImpl(imageService, new SyncTaskExecutor(), new SyncTaskExecutor())
+                .generateDerivatives("vault/", "/imgvault/product/", Collections.singletonList(new Pair<>("A", "img_A_a.jpg")), listener, false);
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGenerateDerivativesInterruptedResumedOnNextRun() throws Exception {
+
+        final ImageService imageService = context.mock(ImageService.class, "imageService");
+        final MediaFileNameStrategy strategy = context.mock(MediaFileNameStrategy.class, "strategy");
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+
+        context.checking(new Expectations() {{
+            allowing(imageService).getAllowedSizes(); will(returnValue(Arrays.asList(new Pair<>("40", "40"), new Pair<>("80", "60"))));
+            allowing(imageService).getImageNameStrategy("/imgvault/product/"); will(returnValue(strategy));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null); will(returnValue("product/A/A/img_A_a.jpg"));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null, "40", "40"); will(returnValue("product/40x40/A/A/img_A_a.jpg"));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_A_a.jpg", "A", null, "80", "60"); will(returnValue("product/80x60/A/A/img_A_a.jpg"));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_B_a.jpg", "B", null); will(returnValue("product/B/B/img_B_a.jpg"));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_B_a.jpg", "B", null, "40", "40"); will(returnValue("product/40x40/B/B/img_B_a.jpg"));
+            allowing(strategy).resolveRelativeInternalFileNamePath("img_B_a.jpg", "B", null, "80", "60"); will(returnValue("product/80x60/B/B/img_B_a.jpg"));
+            // first run
+            oneOf(listener).notifyMessage("generating 2 image derivatives for 1 images in 2 sizes");
+            oneOf(listener).notifyWarning("image derivatives generation interrupted after 0 of 2, remaining will be generated on next run or first request");
+            // second run
+            oneOf(listener).notifyMessage("generating 4 image derivatives for 1 images in 2 sizes");
+            oneOf(listener).notifyMessage("resuming 2 image derivatives from previous runs");
+            oneOf(imageService).ensureImageResized("vault/product/A/A/img_A_a.jpg", "vault/product/40x40/A/A/img_A_a.jpg", "40", "40"); will(returnValue(true));
+            oneOf(imageService).ensureImageResized("vault/product/A/A/img_A_a.jpg", "vault/product/80x60/A/A/img_A_a.jpg", "80", "60"); will(returnValue(true));
+            oneOf(imageService).ensureImageResized("vault/product/B/B/img_B_a.jpg", "vault/product/40x40/B/B/img_B_a.jpg", "40", "40"); will(returnValue(true));
+            oneOf(imageService).ensureImageResized("vault/product/B/B/img_B_a.jpg", "vault/product/80x60/B/B/img_B_a.jpg", "80", "60"); will(returnValue(true));
+            oneOf(listener).notifyPing("Generated 1 of 4 image derivatives");
+            oneOf(listener).notifyPing("Generated 2 of 4 image derivatives");
+            oneOf(listener).notifyPing("Generated 3 of 4 image derivatives");
+            oneOf(listener).notifyPing("Generated 4 of 4 image derivatives");
+            oneOf(listener).notifyMessage("generated 4 image derivatives, 0 failed");
+        }});
+
+        // saturated worker pool, all resizing is done in job thread
+        final ImageDerivativeServiceImpl service = new ImageDerivativeServiceImpl(imageService, new SyncTaskExecutor(), task -> {
+            throw new TaskRejectedException("Queue is full");
+        });
+
+        Thread.currentThread().interrupt();
+        try {
+            service.generateDerivatives("vault/", "/imgvault/product/", Collections.singletonList(new Pair<>("A", "img_A_a.jpg")), listener, false);
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(2, service.getCarryOverSize());
+
+        service.generateDerivatives("vault/", "/imgvault/product/", Collections.singletonList(new Pair<>("B", "img_B_a.jpg")), listener, false);
+
+        assertEquals(0, service.getCarryOverSize());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGenerateDerivativesNoSizes() throws Exception {
+
+        final ImageService imageService = context.mock(ImageService.class, "imageService");
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+
+        context.checking(new Expectations() {{
+            oneOf(imageService).getAllowedSizes(); will(returnValue(Collections.emptyList()));
+            oneOf(listener).notifyMessage("No allowed image sizes configured, skipping image derivatives generation");
+        }});
+
+        new ImageDerivativeServiceImpl(imageService, new SyncTaskExecutor(), new SyncTaskExecutor())
+                .generateDerivatives("vault/", "/imgvault/product/", Collections.singletonList(new Pair<>("A", "img_A_a.jpg")), listener, false);
+
+        context.assertIsSatisfied();
+
+    }
+
+}
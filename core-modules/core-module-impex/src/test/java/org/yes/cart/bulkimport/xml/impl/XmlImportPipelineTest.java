@@ -0,0 +1,214 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.xml.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yes.cart.bulkcommon.model.ImpExTuple;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.service.async.JobStatusListener;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:55
+ */
+public class XmlImportPipelineTest {
+
+    private final Mockery context = new JUnit4Mockery() {{
+        setThreadingPolicy(new Synchroniser());
+    }};
+
+    private TransactionTemplate transactionTemplate() {
+
+        final PlatformTransactionManager transactionManager = context.mock(PlatformTransactionManager.class, "transactionManager");
+        context.checking(new Expectations() {{
+            allowing(transactionManager).getTransaction(with(any(TransactionDefinition.class))); will(returnValue(new SimpleTransactionStatus()));
+            allowing(transactionManager).commit(with(any(SimpleTransactionStatus.class)));
+            allowing(transactionManager).rollback(with(any(SimpleTransactionStatus.class)));
+        }});
+        return new TransactionTemplate(transactionManager);
+
+    }
+
+    private GenericDAO<?, ?> sessionDao() {
+
+        final GenericDAO<?, ?> dao = context.mock(GenericDAO.class, "sessionDao");
+        context.checking(new Expectations() {{
+            allowing(dao).flushClear();
+        }});
+        return dao;
+
+    }
+
+    private ImpExTuple<String, Object> tuple(final String sourceId, final String key) {
+        return (ImpExTuple) new XmlImportTupleImpl(sourceId, key);
+    }
+
+    @Test
+    public void testSameKeyWrittenInOrderBySameWriter() throws Exception {
+
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+        context.checking(new Expectations() {{
+            allowing(listener).notifyPing(with(any(String.class)));
+        }});
+
+        final Map<String, List<Integer>> writtenSeq = new HashMap<>();
+        final Map<String, Set<String>> writtenBy = new HashMap<>();
+
+        final XmlImportPipeline pipeline = new XmlImportPipeline(
+                new SimpleAsyncTaskExecutor(), transactionTemplate(), sessionDao(), 4, 3, 8,
+                (tuple) -> (String) tuple.getData(),
+                (writerListener, tuple) -> {
+                    final String key = (String) tuple.getData();
+                    synchronized (writtenSeq) {
+                        writtenSeq.computeIfAbsent(key, k -> new ArrayList<>()).add(Integer.valueOf(tuple.getSourceId()));
+                        writtenBy.computeIfAbsent(key, k -> new HashSet<>()).add(Thread.currentThread().getName());
+                    }
+                });
+
+        pipeline.start();
+        for (int i = 0; i < 200; i++) {
+            pipeline.add(listener, tuple(String.valueOf(i), "KEY" + (i % 7)));
+        }
+        pipeline.finish(listener);
+
+        assertEquals(7, writtenSeq.size());
+        for (final Map.Entry<String, List<Integer>> key : writtenSeq.entrySet()) {
+            final List<Integer> seq = key.getValue();
+            final List<Integer> sorted = new ArrayList<>(seq);
+            Collections.sort(sorted);
+            assertEquals("Items of " + key.getKey() + " must be written in file order", sorted, seq);
+            assertEquals("Items of " + key.getKey() + " must be written by single writer", 1, writtenBy.get(key.getKey()).size());
+        }
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testWriterFailureAbortsImport() throws Exception {
+
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+        context.checking(new Expectations() {{
+            allowing(listener).notifyPing(with(any(String.class)));
+            oneOf(listener).notifyError(with(equal("unable to import XML batch starting at 0, cause by: bad item")), with(any(Exception.class)));
+        }});
+
+        final AtomicInteger written = new AtomicInteger();
+
+        final XmlImportPipeline pipeline = new XmlImportPipeline(
+                new SimpleAsyncTaskExecutor(), transactionTemplate(), sessionDao(), 1, 1, 2,
+                (tuple) -> (String) tuple.getData(),
+                (writerListener, tuple) -> {
+                    if ("0".equals(tuple.getSourceId())) {
+                        throw new IllegalArgumentException("bad item");
+                    }
+                    written.incrementAndGet();
+                });
+
+        pipeline.start();
+        pipeline.add(listener, tuple("0", "KEY"));
+
+        IllegalStateException aborted = null;
+        final long until = System.currentTimeMillis() + 5000L;
+        int i = 1;
+        while (aborted == null && System.currentTimeMillis() < until) {
+            try {
+                pipeline.add(listener, tuple(String.valueOf(i++), "KEY"));
+                Thread.sleep(10L);
+            } catch (IllegalStateException ise) {
+                aborted = ise;
+            }
+        }
+
+        assertNotNull("Parser must be stopped after writer failure", aborted);
+        assertEquals("bad item", aborted.getCause().getMessage());
+
+        pipeline.abort();
+
+        // batches queued after failure are drained without writing
+        assertEquals(0, written.get());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testAbortDrainsQueuedBatches() throws Exception {
+
+        final JobStatusListener listener = context.mock(JobStatusListener.class, "listener");
+        context.checking(new Expectations() {{
+            allowing(listener).notifyPing(with(any(String.class)));
+        }});
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger written = new AtomicInteger();
+
+        final XmlImportPipeline pipeline = new XmlImportPipeline(
+                new SimpleAsyncTaskExecutor(), transactionTemplate(), sessionDao(), 1, 1, 2,
+                (tuple) -> (String) tuple.getData(),
+                (writerListener, tuple) -> {
+                    writing.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    written.incrementAndGet();
+                });
+
+        pipeline.start();
+        pipeline.add(listener, tuple("0", "KEY"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        // writer is busy, these wait in queue
+        pipeline.add(listener, tuple("1", "KEY"));
+        pipeline.add(listener, tuple("2", "KEY"));
+
+        final Thread aborting = new Thread(pipeline::abort);
+        aborting.start();
+
+        Thread.sleep(100L);
+        release.countDown();
+
+        aborting.join(5000L);
+        assertFalse("Abort must complete once writer drains queue", aborting.isAlive());
+
+        // only batch in progress is written, queued batches are skipped
+        assertEquals(1, written.get());
+
+        context.assertIsSatisfied();
+
+    }
+
+}
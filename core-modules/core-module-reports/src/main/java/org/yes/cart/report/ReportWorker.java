@@ -16,6 +16,7 @@
 
 package org.yes.cart.report;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -38,14 +39,16 @@ public interface ReportWorker {
     List<ReportPair> getParameterValues(String lang, String param, Map<String, Object> currentSelection);
 
     /**
-     * Get results for given report criteria
+     * Get results for given report criteria. Results are consumed once while report is generated,
+     * so workers can stream them from DB using {@link org.yes.cart.dao.ResultsIterator}, which is
+     * closed by the caller.
      *
      * @param lang language
      * @param currentSelection  optional param value map for complex selectors
      *
-     * @return list of result object
+     * @return result objects
      */
-    List<Object> getResult(String lang, Map<String, Object> currentSelection);
+    Iterator<Object> getResult(String lang, Map<String, Object> currentSelection);
 
 
     /**
@@ -53,12 +56,13 @@ public interface ReportWorker {
      *
      * E.g. delivery objects can provide shopCode reference
      *
-     * @param result result from {@link #getResult(String, Map)}
+     * @param first first object from {@link #getResult(String, Map)} (results are not
+     *              available until report is generated)
      * @param currentSelection original parameters selected
      *
      * @return enhanced parameters
      */
-    Map<String, Object> getEnhancedParameterValues(List<Object> result, Map<String, Object> currentSelection);
+    Map<String, Object> getEnhancedParameterValues(Object first, Map<String, Object> currentSelection);
 
 
 }
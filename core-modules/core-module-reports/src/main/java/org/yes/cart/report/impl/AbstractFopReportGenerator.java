@@ -6,22 +6,34 @@ import org.apache.xmlgraphics.io.ResourceResolver;
 import org.apache.xmlgraphics.io.TempResourceResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.report.ReportDescriptor;
 import org.yes.cart.report.ReportGenerator;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.sax.SAXResult;
-import java.io.InputStream;
-import java.io.OutputStream;
+import javax.xml.transform.stream.StreamSource;
+import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Compiled XSLT {@link Templates} and configured {@link FopFactory} are cached per report, resource
+ * context (see {@link #getResourceContextKey(ReportDescriptor, Map, Object, String)}) and language.
+ * Template and FOP configuration are still read on each generation and cached instances are only
+ * reused if the content is unchanged, so changes to theme resources take effect immediately.
+ *
  * User: denispavlov
  * Date: 23/10/2015
  * Time: 15:24
@@ -30,6 +42,11 @@ public abstract class AbstractFopReportGenerator implements ReportGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractFopReportGenerator.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance("net.sf.saxon.TransformerFactoryImpl", null);
+
+    private final Map<String, Cached<FopFactory>> fopFactories = new ConcurrentHashMap<>();
+    private final Map<String, Cached<Templates>> templates = new ConcurrentHashMap<>();
+
     /**
      * {@inheritDoc}
      */
@@ -40,41 +57,31 @@ public abstract class AbstractFopReportGenerator implements ReportGenerator {
                                final String lang,
                                final OutputStream outputStream) {
 
-        if (data == null || data instanceof Collection && ((Collection) data).isEmpty()) {
+        if (data == null || data instanceof Collection && ((Collection) data).isEmpty()
+                || data instanceof Iterator && !((Iterator) data).hasNext()) {
             LOG.debug("No data, no report will be generated");
+            close(data);
             return;
 
         }
 
         try {
 
-            final InputStream config = getFopUserConfigInputStream(descriptor, parameters, data, lang);
-            if (config == null) {
+            final String contextKey = getResourceContextKey(descriptor, parameters, data, lang);
+
+            final FopFactory fopFactory = getFopFactory(contextKey, descriptor, parameters, data, lang);
+            if (fopFactory == null) {
                 LOG.error("FOP config file not  found, " +
                         "please put the fop-userconfig.xml file into the classpath of the  server, UTF-8 characters won't be displayed correctly");
                 return;
             }
 
-            final URI base = getBaseReportURI(descriptor, parameters, data, lang);
-
-            final ResourceResolver rr = ResourceResolverFactory.createTempAwareResourceResolver(
-                    getTempResourceResolver(descriptor, parameters, data, lang),
-                    getResourceResolver(descriptor, parameters, data, lang)
-            );
-            final FopFactoryBuilder confBuilder = new FopConfParser(
-                    config,
-                    EnvironmentalProfileFactory.createRestrictedIO(base, rr)
-            ).getFopFactoryBuilder();
-
-
-            final Source xsltfile = getXsltFile(descriptor, parameters, data, lang);
-            if (xsltfile == null) {
+            final Templates xslt = getTemplates(contextKey, descriptor, parameters, data, lang);
+            if (xslt == null) {
                 LOG.error("Unable to read XSLT-FO file for {} in {}", descriptor, lang);
                 return;
             }
 
-            // configure fopFactory as desired
-            final FopFactory fopFactory = confBuilder.build();
             final FOUserAgent foUserAgent = fopFactory.newFOUserAgent();
 
             final Source source = convertToSource(descriptor, parameters, data, lang);
@@ -84,8 +91,7 @@ public abstract class AbstractFopReportGenerator implements ReportGenerator {
             final Fop fop = fopFactory.newFop(mime, foUserAgent, outputStream);
 
             // Setup XSLT 2.0
-            final TransformerFactory factory = TransformerFactory.newInstance("net.sf.saxon.TransformerFactoryImpl", null);
-            final Transformer transformer = factory.newTransformer(xsltfile);
+            final Transformer transformer = xslt.newTransformer();
 
             // Set the value of a <param> in the stylesheet
             transformer.setParameter("versionParam", "2.0");
@@ -101,10 +107,155 @@ public abstract class AbstractFopReportGenerator implements ReportGenerator {
 
         } catch (Exception exp) {
             LOG.error("Unable to generate report for " + descriptor + " in " + lang, exp);
+        } finally {
+            close(data);
+        }
+
+    }
+
+    /*
+     * Release DB cursor if lazy results were not fully consumed (no data, no template or transformation error).
+     */
+    private void close(final Object data) {
+        if (data instanceof ResultsIterator) {
+            ((ResultsIterator) data).close();
+        }
+    }
+
+    private FopFactory getFopFactory(final String contextKey,
+                                     final ReportDescriptor descriptor,
+                                     final Map<String, Object> parameters,
+                                     final Object data,
+                                     final String lang) throws Exception {
+
+        final byte[] config = readFully(getFopUserConfigInputStream(descriptor, parameters, data, lang));
+        if (config == null) {
+            return null;
+        }
+
+        final Cached<FopFactory> cached = fopFactories.get(contextKey);
+        if (cached != null && cached.isFor(config)) {
+            // images may come from theme resources, so do not hold on to them between reports
+            cached.value.getImageManager().getCache().clearCache();
+            return cached.value;
+        }
+
+        final URI base = getBaseReportURI(descriptor, parameters, data, lang);
+
+        final ResourceResolver rr = ResourceResolverFactory.createTempAwareResourceResolver(
+                getTempResourceResolver(descriptor, parameters, data, lang),
+                getResourceResolver(descriptor, parameters, data, lang)
+        );
+        final FopFactoryBuilder confBuilder = new FopConfParser(
+                new ByteArrayInputStream(config),
+                EnvironmentalProfileFactory.createRestrictedIO(base, rr)
+        ).getFopFactoryBuilder();
+
+        // configure fopFactory as desired
+        final FopFactory fopFactory = confBuilder.build();
+        fopFactories.put(contextKey, new Cached<>(config, fopFactory));
+        LOG.debug("Configured FOP factory for {}", contextKey);
+        return fopFactory;
+
+    }
+
+    private Templates getTemplates(final String contextKey,
+                                   final ReportDescriptor descriptor,
+                                   final Map<String, Object> parameters,
+                                   final Object data,
+                                   final String lang) throws Exception {
+
+        final Source xsltfile = getXsltFile(descriptor, parameters, data, lang);
+        if (xsltfile == null) {
+            return null;
+        }
+
+        final byte[] xslt = readFully(xsltfile);
+        if (xslt == null) {
+            // not a stream source, so cannot tell if it has changed
+            synchronized (transformerFactory) {
+                return transformerFactory.newTemplates(xsltfile);
+            }
+        }
+
+        final String key = contextKey + "_" + descriptor.getReportId() + "_" + descriptor.getLangXslfo(lang);
+        final Cached<Templates> cached = templates.get(key);
+        if (cached != null && cached.isFor(xslt)) {
+            return cached.value;
+        }
+
+        final StreamSource source = new StreamSource(new ByteArrayInputStream(xslt), xsltfile.getSystemId());
+        final Templates compiled;
+        synchronized (transformerFactory) {
+            compiled = transformerFactory.newTemplates(source);
+        }
+        templates.put(key, new Cached<>(xslt, compiled));
+        LOG.debug("Compiled XSLT-FO template for {}", key);
+        return compiled;
+
+    }
+
+    private byte[] readFully(final Source source) throws IOException {
+
+        if (source instanceof StreamSource) {
+            final StreamSource stream = (StreamSource) source;
+            if (stream.getInputStream() != null) {
+                return readFully(stream.getInputStream());
+            } else if (stream.getReader() != null) {
+                final StringWriter out = new StringWriter();
+                try (Reader reader = stream.getReader()) {
+                    final char[] buffer = new char[4096];
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+                return out.toString().getBytes(StandardCharsets.UTF_8);
+            } else if (stream.getSystemId() != null) {
+                return readFully(new URL(stream.getSystemId()).openStream());
+            }
+        }
+        return null;
+
+    }
+
+    private byte[] readFully(final InputStream stream) throws IOException {
+
+        if (stream == null) {
+            return null;
+        }
+        try (InputStream in = stream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
         }
 
     }
 
+    /**
+     * Key that identifies context in which report resources are resolved, reports generated in
+     * same context share configured {@link FopFactory}.
+     *
+     * Default implementation uses language.
+     *
+     * @param descriptor descriptor
+     * @param parameters passed in parameter values
+     * @param data data object for report
+     * @param lang language
+     *
+     * @return resource context key
+     */
+    protected String getResourceContextKey(final ReportDescriptor descriptor,
+                                           final Map<String, Object> parameters,
+                                           final Object data,
+                                           final String lang) {
+        return String.valueOf(lang);
+    }
+
     /**
      * Create resource resolver.
      *
@@ -237,4 +388,19 @@ public abstract class AbstractFopReportGenerator implements ReportGenerator {
                                           final String lang);
 
 
+    private static final class Cached<T> {
+
+        private final byte[] content;
+        private final T value;
+
+        private Cached(final byte[] content, final T value) {
+            this.content = content;
+            this.value = value;
+        }
+
+        private boolean isFor(final byte[] content) {
+            return Arrays.equals(this.content, content);
+        }
+    }
+
 }
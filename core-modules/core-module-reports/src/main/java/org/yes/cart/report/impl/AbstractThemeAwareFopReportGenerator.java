@@ -94,6 +94,21 @@ public abstract class AbstractThemeAwareFopReportGenerator extends AbstractFopRe
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getResourceContextKey(final ReportDescriptor descriptor,
+                                           final Map<String, Object> parameters,
+                                           final Object data,
+                                           final String lang) {
+
+        // theme resources are resolved per shop (shop specific content and theme chain)
+        final Shop shop = resolveShop(descriptor, parameters, data, lang);
+        return (shop != null ? shop.getCode() : "-") + "_" + lang;
+
+    }
+
     /**
      * Resolve shop instance from parameters.
      *
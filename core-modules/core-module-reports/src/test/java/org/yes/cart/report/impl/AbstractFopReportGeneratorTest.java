@@ -12,6 +12,7 @@ import java.io.*;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -101,6 +102,94 @@ public class AbstractFopReportGeneratorTest {
 
     }
 
+    @Test
+    public void testGeneratePdfReportCachedFactory() throws Exception {
+
+        final AtomicInteger configReads = new AtomicInteger();
+        final AtomicInteger resolvers = new AtomicInteger();
+
+        final AbstractFopReportGenerator generator = new AbstractFopReportGenerator() {
+
+            @Override
+            protected InputStream getFopUserConfigInputStream(final ReportDescriptor descriptor,
+                                                              final Map<String, Object> parameters,
+                                                              final Object data,
+                                                              final String lang) {
+                configReads.incrementAndGet();
+                try {
+                    return new FileInputStream(new File(BASE + "fop-userconfig.xml"));
+                } catch (FileNotFoundException e) {
+                    fail("Unable to read " + BASE + "fop-userconfig.xml");
+                    return null;
+                }
+            }
+
+            @Override
+            protected Source getXsltFile(final ReportDescriptor descriptor,
+                                         final Map<String, Object> parameters,
+                                         final Object data,
+                                         final String lang) {
+                try {
+                    return new StreamSource(new FileInputStream(new File(BASE + descriptor.getLangXslfo(null))));
+                } catch (FileNotFoundException e) {
+                    fail("Unable to read " + BASE + descriptor.getLangXslfo(null));
+                    return null;
+                }
+            }
+
+            @Override
+            protected Source convertToSource(final ReportDescriptor descriptor,
+                                             final Map<String, Object> parameters,
+                                             final Object data,
+                                             final String lang) {
+                try {
+                    return new StreamSource(
+                            new InputStreamReader(new FileInputStream("src/test/resources/testdata/" + data), "UTF-8")
+                    );
+                } catch (Exception e) {
+                    fail(e.getMessage());
+                    return null;
+                }
+            }
+
+            @Override
+            protected TempResourceResolver getTempResourceResolver(final ReportDescriptor descriptor,
+                                                                   final Map<String, Object> parameters,
+                                                                   final Object data,
+                                                                   final String lang) {
+                return new TestTempResourceResolver();
+            }
+
+            @Override
+            protected ResourceResolver getResourceResolver(final ReportDescriptor descriptor,
+                                                           final Map<String, Object> parameters,
+                                                           final Object data,
+                                                           final String lang) {
+                resolvers.incrementAndGet();
+                return new TestResourceResolver();
+            }
+        };
+
+        final ReportDescriptor availableStock = new ReportDescriptor();
+        availableStock.setReportId("available-stock");
+        availableStock.setXslfoBase("stock-report/available-stock");
+        availableStock.setVisible(true);
+
+        for (int i = 0; i < 2; i++) {
+
+            final ByteArrayOutputStream baosAvailableStock = new ByteArrayOutputStream();
+
+            generator.generateReport(availableStock, new HashMap<String, Object>(), "available-stock-report.xml", "en", baosAvailableStock);
+
+            assertTrue(baosAvailableStock.toByteArray().length > 0);
+
+        }
+
+        assertEquals(2, configReads.get()); // config is checked for changes every time
+        assertEquals(1, resolvers.get()); // but factory is configured only once
+
+    }
+
 
 
 
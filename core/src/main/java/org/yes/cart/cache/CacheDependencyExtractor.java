@@ -0,0 +1,40 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache;
+
+import java.util.Collection;
+
+/**
+ * Extracts dependencies (e.g. "sku:CODE") of cached value, so that it can be evicted when dependency changes.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:05
+ */
+public interface CacheDependencyExtractor {
+
+    /**
+     * Get dependencies of cache entry.
+     *
+     * @param key   cache key
+     * @param value cached value
+     *
+     * @return dependencies or empty if dependencies cannot be determined (in which case entry is evicted
+     *         on any dependency change)
+     */
+    Collection<String> getDependencies(Object key, Object value);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache;
+
+import java.util.Collection;
+
+/**
+ * Resolves dependencies affected by change of an entity. Dependencies must be in the same format as
+ * produced by corresponding {@link CacheDependencyExtractor}.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:07
+ */
+public interface CacheDependencyResolver {
+
+    /**
+     * Resolve dependencies affected by entity change.
+     *
+     * @param entityName entity name
+     * @param pkValue    primary key
+     *
+     * @return dependencies or null if they cannot be resolved (e.g. entity was deleted), in which case
+     *         whole cache has to be cleared
+     */
+    Collection<String> resolveDependencies(String entityName, long pkValue);
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+
+/**
+ * Cache that keeps index of dependencies of its entries.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:10
+ */
+public interface DependencyTrackingCache extends Cache {
+
+    /**
+     * Evict all entries that depend on given dependencies (including entries with unknown dependencies).
+     *
+     * @param dependencies dependencies
+     *
+     * @return number of evicted entries
+     */
+    int evictDependents(Collection<String> dependencies);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache;
+
+import org.yes.cart.domain.dto.impl.CacheInfoDTO;
+
+/**
+ * Native cache that is able to describe itself for cache monitoring (i.e. other than Ehcache).
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:20
+ */
+public interface MonitoredCache {
+
+    /**
+     * @return cache information (configuration and statistics)
+     */
+    CacheInfoDTO getCacheInfo();
+
+    /**
+     * Enable/disable statistics.
+     *
+     * @param enabled true to enable
+     */
+    void setStatisticsEnabled(boolean enabled);
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Cache manager that delegates to cache provider selected by "cache.provider" configuration property
+ * ("ehcache" - default, or "tinylfu").
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:10
+ */
+public class ConfigurableCacheManagerImpl implements CacheManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurableCacheManagerImpl.class);
+
+    static final String PROVIDER = "cache.provider";
+    static final String PROVIDER_TINYLFU = "tinylfu";
+
+    private final CacheManager ehcacheCacheManager;
+    private final CacheManager tinyLfuCacheManager;
+
+    private CacheManager cacheManager;
+
+    public ConfigurableCacheManagerImpl(final CacheManager ehcacheCacheManager,
+                                        final CacheManager tinyLfuCacheManager) {
+        this.ehcacheCacheManager = ehcacheCacheManager;
+        this.tinyLfuCacheManager = tinyLfuCacheManager;
+        this.cacheManager = ehcacheCacheManager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Cache getCache(final String name) {
+        return this.cacheManager.getCache(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.cacheManager.getCacheNames();
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param config configuration properties
+     *
+     * @throws IOException on IO errors
+     */
+    public void setConfig(final Resource config) throws IOException {
+
+        if (!config.exists()) {
+            return;
+        }
+
+        final Properties properties = new Properties();
+        properties.load(config.getInputStream());
+
+        if (PROVIDER_TINYLFU.equals(properties.getProperty(PROVIDER))) {
+            this.cacheManager = this.tinyLfuCacheManager;
+        } else {
+            this.cacheManager = this.ehcacheCacheManager;
+        }
+        LOG.info("Using {} cache provider", this.cacheManager == this.tinyLfuCacheManager ? PROVIDER_TINYLFU : "ehcache");
+
+    }
+
+}
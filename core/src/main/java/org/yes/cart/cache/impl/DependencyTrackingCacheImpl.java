@@ -0,0 +1,301 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.yes.cart.cache.CacheDependencyExtractor;
+import org.yes.cart.cache.DependencyTrackingCache;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache decorator that records dependencies of every entry put into the cache, so that entries can be
+ * evicted by dependency rather than clearing the whole cache.
+ *
+ * Explicit puts record dependencies before the entry is put into the cache under per key lock (shared with
+ * eviction). Values loaded through {@link #get(Object, Callable)} are tracked after the delegate returns, since
+ * delegate holds its own per key lock during the load and taking ours inside it would invert the lock order.
+ * Evictions that race such load are detected by generation counters and the loaded entry is evicted. Values
+ * replaced by refresh ahead of the delegate keep dependencies recorded for the key.
+ *
+ * Entries evicted by underlying Ehcache or {@link TinyLfuCacheImpl} itself (expiry, size limits) are removed from
+ * the index by eviction listener. For other caches these removals are not visible to this decorator, hence the
+ * index is bounded by max tracked keys. Once the limit is reached the cache is cleared together with the index.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:15
+ */
+public class DependencyTrackingCacheImpl implements DependencyTrackingCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DependencyTrackingCacheImpl.class);
+
+    static final String UNKNOWN = "*";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Cache cache;
+    private final CacheDependencyExtractor extractor;
+    private final int maxTrackedKeys;
+    private final boolean pruned;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLongArray generations = new AtomicLongArray(LOCK_STRIPES);
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    private final Map<String, Set<Object>> keysByDependency = new ConcurrentHashMap<>();
+    private final Map<Object, Collection<String>> dependenciesByKey = new ConcurrentHashMap<>();
+
+    public DependencyTrackingCacheImpl(final Cache cache,
+                                       final CacheDependencyExtractor extractor,
+                                       final int maxTrackedKeys) {
+        this.cache = cache;
+        this.extractor = extractor;
+        this.maxTrackedKeys = maxTrackedKeys;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+        this.pruned = registerPruningListener(cache.getNativeCache());
+    }
+
+    private boolean registerPruningListener(final Object nativeCache) {
+
+        if (nativeCache instanceof Ehcache) {
+            return ((Ehcache) nativeCache).getCacheEventNotificationService().registerListener(new CacheEventListenerAdapter() {
+                @Override
+                public void notifyElementRemoved(final Ehcache ehcache, final Element element) throws CacheException {
+                    untrack(element.getObjectKey());
+                }
+
+                @Override
+                public void notifyElementExpired(final Ehcache ehcache, final Element element) {
+                    untrack(element.getObjectKey());
+                }
+
+                @Override
+                public void notifyElementEvicted(final Ehcache ehcache, final Element element) {
+                    untrack(element.getObjectKey());
+                }
+
+                @Override
+                public void notifyRemoveAll(final Ehcache ehcache) {
+                    keysByDependency.clear();
+                    dependenciesByKey.clear();
+                }
+            });
+        } else if (nativeCache instanceof TinyLfuCacheImpl) {
+            // notified asynchronously, so it is safe to lock here, entry could have been reloaded since
+            return ((TinyLfuCacheImpl) nativeCache).addEvictionListener(key -> {
+                synchronized (lock(key)) {
+                    if (cache.get(key) == null) {
+                        untrack(key);
+                    }
+                }
+            });
+        }
+        LOG.debug("Cache {} does not support eviction events, dependency index is bounded by {} keys", cache.getName(), maxTrackedKeys);
+        return false;
+
+    }
+
+    private int stripe(final Object key) {
+        return (key == null ? 0 : key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES;
+    }
+
+    private Object lock(final Object key) {
+        return this.locks[stripe(key)];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ValueWrapper get(final Object key) {
+        return cache.get(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T get(final Object key, final Class<T> type) {
+        return cache.get(key, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        final int stripe = stripe(key);
+        final long generation = generations.get(stripe);
+        final long cleared = clearGeneration.get();
+        // delegate cache takes care of concurrent loads (one load per key), so track only if this thread loaded
+        final boolean[] loaded = new boolean[1];
+        final T value = cache.get(key, () -> {
+            final T loadedValue = valueLoader.call();
+            loaded[0] = true;
+            return loadedValue;
+        });
+        if (loaded[0]) {
+            synchronized (locks[stripe]) {
+                if (generations.get(stripe) != generation || clearGeneration.get() != cleared) {
+                    // key was put or evicted (or dependents were evicted) while loading, so value may be stale
+                    cache.evict(key);
+                    untrack(key);
+                } else {
+                    track(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void put(final Object key, final Object value) {
+        final int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            generations.incrementAndGet(stripe);
+            track(key, value);
+            cache.put(key, value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        final int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            final ValueWrapper existing = cache.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            generations.incrementAndGet(stripe);
+            track(key, value);
+            return cache.putIfAbsent(key, value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void evict(final Object key) {
+        final int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            generations.incrementAndGet(stripe);
+            cache.evict(key);
+            untrack(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        clearGeneration.incrementAndGet();
+        cache.clear();
+        keysByDependency.clear();
+        dependenciesByKey.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int evictDependents(final Collection<String> dependencies) {
+
+        // entries being loaded are not yet in the index, so invalidate them
+        clearGeneration.incrementAndGet();
+
+        final Set<Object> keys = new HashSet<>();
+        for (final String dependency : dependencies) {
+            final Set<Object> dependents = keysByDependency.remove(dependency);
+            if (dependents != null) {
+                keys.addAll(dependents);
+            }
+        }
+        final Set<Object> unknown = keysByDependency.remove(UNKNOWN);
+        if (unknown != null) {
+            keys.addAll(unknown);
+        }
+
+        for (final Object key : keys) {
+            evict(key);
+        }
+
+        return keys.size();
+
+    }
+
+    private void track(final Object key, final Object value) {
+
+        if (!pruned && dependenciesByKey.size() >= maxTrackedKeys) {
+            LOG.debug("Dependency index of cache {} reached {} keys, clearing cache", getName(), maxTrackedKeys);
+            clear(); // entry is put after tracking, so it is still tracked below
+        }
+
+        final Collection<String> extracted = extractor.getDependencies(key, value);
+        final Collection<String> dependencies = extracted == null || extracted.isEmpty() ?
+                Collections.singletonList(UNKNOWN) : extracted;
+
+        final Collection<String> previous = dependenciesByKey.put(key, dependencies);
+        if (previous != null) {
+            removeDependents(key, previous);
+        }
+        for (final String dependency : dependencies) {
+            keysByDependency.compute(dependency, (k, v) -> {
+                final Set<Object> dependents = v == null ? ConcurrentHashMap.newKeySet() : v;
+                dependents.add(key);
+                return dependents;
+            });
+        }
+
+    }
+
+    private void untrack(final Object key) {
+
+        final Collection<String> dependencies = dependenciesByKey.remove(key);
+        if (dependencies != null) {
+            removeDependents(key, dependencies);
+        }
+
+    }
+
+    private void removeDependents(final Object key, final Collection<String> dependencies) {
+
+        for (final String dependency : dependencies) {
+            keysByDependency.computeIfPresent(dependency, (k, v) -> {
+                v.remove(key);
+                return v.isEmpty() ? null : v;
+            });
+        }
+
+    }
+
+}
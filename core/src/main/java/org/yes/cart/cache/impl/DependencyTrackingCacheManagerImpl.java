@@ -0,0 +1,94 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.CacheDependencyExtractor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager decorator that wraps caches configured with {@link CacheDependencyExtractor} into
+ * {@link DependencyTrackingCacheImpl}. All other caches are returned as is.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:40
+ */
+public class DependencyTrackingCacheManagerImpl implements CacheManager {
+
+    private final CacheManager cacheManager;
+
+    private final Map<String, Cache> trackingCaches = new ConcurrentHashMap<>();
+
+    private Map<String, CacheDependencyExtractor> dependencyExtractors = Collections.emptyMap();
+    private int maxTrackedKeys = 20000;
+
+    public DependencyTrackingCacheManagerImpl(final CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Cache getCache(final String name) {
+
+        final CacheDependencyExtractor extractor = this.dependencyExtractors.get(name);
+        if (extractor == null) {
+            return this.cacheManager.getCache(name);
+        }
+
+        final Cache tracking = this.trackingCaches.get(name);
+        if (tracking != null) {
+            return tracking;
+        }
+
+        final Cache cache = this.cacheManager.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        return this.trackingCaches.computeIfAbsent(name, k -> new DependencyTrackingCacheImpl(cache, extractor, this.maxTrackedKeys));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.cacheManager.getCacheNames();
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param dependencyExtractors cache name to dependency extractor
+     */
+    public void setDependencyExtractors(final Map<String, CacheDependencyExtractor> dependencyExtractors) {
+        this.dependencyExtractors = dependencyExtractors;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param maxTrackedKeys maximum keys tracked per cache
+     */
+    public void setMaxTrackedKeys(final int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+}
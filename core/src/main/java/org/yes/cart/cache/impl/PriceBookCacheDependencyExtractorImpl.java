@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import org.yes.cart.cache.CacheDependencyExtractor;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Price books are cached by "shop:ID:CURRENCY" key (see {@link SkuPriceCacheDependencyExtractorImpl#shopCurrency(long, String)}),
+ * which is also the only dependency of the book.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:10
+ */
+public class PriceBookCacheDependencyExtractorImpl implements CacheDependencyExtractor {
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getDependencies(final Object key, final Object value) {
+
+        if (key instanceof String && ((String) key).startsWith(SkuPriceCacheDependencyExtractorImpl.SHOP)) {
+            return Collections.singletonList((String) key);
+        }
+        return Collections.emptyList();
+
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import org.yes.cart.cache.CacheDependencyExtractor;
+import org.yes.cart.domain.entity.SkuPrice;
+
+import java.util.*;
+
+/**
+ * Price cache entries depend on SKU codes of prices they contain ("sku:CODE"). Blank prices (no price found) carry
+ * no SKU code, so entries with blank prices have unknown dependencies and are evicted by any price change.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:50
+ */
+public class SkuPriceCacheDependencyExtractorImpl implements CacheDependencyExtractor {
+
+    static final String SKU = "sku:";
+    static final String SHOP = "shop:";
+
+    /**
+     * Dependency on all prices of the shop in given currency (e.g. price books).
+     *
+     * @param shopId   shop PK
+     * @param currency currency
+     *
+     * @return "shop:ID:CURRENCY" dependency
+     */
+    public static String shopCurrency(final long shopId, final String currency) {
+        return SHOP + shopId + ':' + currency;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getDependencies(final Object key, final Object value) {
+
+        if (value instanceof SkuPrice) {
+            final String skuCode = ((SkuPrice) value).getSkuCode();
+            return skuCode == null ? Collections.emptyList() : Collections.singletonList(SKU + skuCode);
+        } else if (value instanceof Collection) {
+            final Set<String> dependencies = new HashSet<>();
+            for (final Object item : (Collection) value) {
+                if (item instanceof SkuPrice) {
+                    final String skuCode = ((SkuPrice) item).getSkuCode();
+                    if (skuCode == null) {
+                        return Collections.emptyList();
+                    }
+                    dependencies.add(SKU + skuCode);
+                }
+            }
+            return dependencies;
+        }
+        return Collections.emptyList();
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import org.yes.cart.cache.CacheDependencyResolver;
+import org.yes.cart.domain.entity.ProductSku;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.service.domain.PriceService;
+import org.yes.cart.service.domain.ProductSkuService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Price change affects all price entries of the product (e.g. minimal price for product may switch to another
+ * SKU), so price resolves to "sku:CODE" dependency for every SKU of the product. In addition price resolves
+ * to "shop:ID:CURRENCY" dependency of the price book it belongs to.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:55
+ */
+public class SkuPriceCacheDependencyResolverImpl implements CacheDependencyResolver {
+
+    private final PriceService priceService;
+    private final ProductSkuService productSkuService;
+
+    public SkuPriceCacheDependencyResolverImpl(final PriceService priceService,
+                                               final ProductSkuService productSkuService) {
+        this.priceService = priceService;
+        this.productSkuService = productSkuService;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> resolveDependencies(final String entityName, final long pkValue) {
+
+        final SkuPrice price = priceService.findById(pkValue);
+        if (price == null) {
+            return null; // deleted, we do not know which SKU it was
+        }
+
+        final String shopCurrency = SkuPriceCacheDependencyExtractorImpl.shopCurrency(price.getShop().getShopId(), price.getCurrency());
+
+        final ProductSku sku = productSkuService.findProductSkuBySkuCode(price.getSkuCode());
+        if (sku == null) {
+            return Arrays.asList(SkuPriceCacheDependencyExtractorImpl.SKU + price.getSkuCode(), shopCurrency);
+        }
+
+        final Collection<ProductSku> all = productSkuService.getAllProductSkus(sku.getProduct().getProductId());
+        final List<String> dependencies = new ArrayList<>(all.size() + 2);
+        dependencies.add(shopCurrency);
+        dependencies.add(SkuPriceCacheDependencyExtractorImpl.SKU + price.getSkuCode());
+        for (final ProductSku productSku : all) {
+            dependencies.add(SkuPriceCacheDependencyExtractorImpl.SKU + productSku.getCode());
+        }
+        return dependencies;
+
+    }
+
+}
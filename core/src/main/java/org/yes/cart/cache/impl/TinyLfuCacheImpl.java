@@ -0,0 +1,276 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.yes.cart.cache.MonitoredCache;
+import org.yes.cart.domain.dto.impl.CacheInfoDTO;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Spring cache adapter for Caffeine cache (W-TinyLFU admission and eviction).
+ *
+ * Values loaded through {@link #get(Object, Callable)} (i.e. synchronised {@code @Cacheable}) are loaded once per key
+ * and, if refresh ahead is configured, are reloaded asynchronously when they are older than refresh interval, so that
+ * hot entries never expire under load.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:30
+ */
+public class TinyLfuCacheImpl extends AbstractValueAdaptingCache implements MonitoredCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TinyLfuCacheImpl.class);
+
+    private final String name;
+    private final Cache<Object, Object> cache;
+
+    private final boolean eternal;
+    private final int timeToLiveSeconds;
+    private final int timeToIdleSeconds;
+    private final boolean weighted;
+
+    private final long refreshAheadMs;
+    private final Executor refreshExecutor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final List<Consumer<Object>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean statisticsEnabled;
+
+    public TinyLfuCacheImpl(final String name,
+                            final Cache<Object, Object> cache,
+                            final boolean eternal,
+                            final int timeToLiveSeconds,
+                            final int timeToIdleSeconds,
+                            final boolean weighted,
+                            final long refreshAheadMs,
+                            final Executor refreshExecutor,
+                            final boolean statisticsEnabled) {
+        super(true);
+        this.name = name;
+        this.cache = cache;
+        this.eternal = eternal;
+        this.timeToLiveSeconds = timeToLiveSeconds;
+        this.timeToIdleSeconds = timeToIdleSeconds;
+        this.weighted = weighted;
+        this.refreshAheadMs = refreshAheadMs;
+        this.refreshExecutor = refreshExecutor;
+        this.statisticsEnabled = statisticsEnabled;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    /**
+     * @return underlying Caffeine cache
+     */
+    public Cache<Object, Object> getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Register listener for keys evicted by this cache itself (size limit, expiry). Listeners are only notified
+     * if Caffeine cache is built with removal listener delegating to {@link #onRemoval(Object, RemovalCause)}.
+     *
+     * @param listener listener that receives evicted key
+     *
+     * @return true if listener was registered
+     */
+    public boolean addEvictionListener(final Consumer<Object> listener) {
+        return this.evictionListeners.add(listener);
+    }
+
+    /**
+     * Caffeine removal listener callback.
+     *
+     * @param key   removed key
+     * @param cause removal cause
+     */
+    public void onRemoval(final Object key, final RemovalCause cause) {
+        if (cause.wasEvicted()) {
+            for (final Consumer<Object> listener : this.evictionListeners) {
+                listener.accept(key);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object lookup(final Object key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+
+        final Object existing = this.cache.getIfPresent(key);
+        if (existing != null) {
+            refreshAheadIfNecessary(key, existing, valueLoader);
+            return (T) fromStoreValue(existing);
+        }
+
+        return (T) fromStoreValue(this.cache.get(key, k -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception exp) {
+                throw new ValueRetrievalException(key, valueLoader, exp);
+            }
+        }));
+
+    }
+
+    private void refreshAheadIfNecessary(final Object key, final Object existing, final Callable<?> valueLoader) {
+
+        if (this.refreshAheadMs <= 0L) {
+            return;
+        }
+
+        final Optional<Policy.Expiration<Object, Object>> expiration = this.cache.policy().expireAfterWrite();
+        if (!expiration.isPresent()) {
+            return;
+        }
+
+        final OptionalLong age = expiration.get().ageOf(key, TimeUnit.MILLISECONDS);
+        if (age.isPresent() && age.getAsLong() >= this.refreshAheadMs && this.refreshing.add(key)) {
+
+            try {
+                this.refreshExecutor.execute(() -> {
+                    try {
+                        // only replace the value we have seen, so that evicted entries are not resurrected
+                        this.cache.asMap().replace(key, existing, toStoreValue(valueLoader.call()));
+                    } catch (Exception exp) {
+                        LOG.warn("Unable to refresh cache {} key {}: {}", this.name, key, exp.getMessage());
+                    } finally {
+                        this.refreshing.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                // refresh executor is saturated, entry will be reloaded on expiry or on next access
+                this.refreshing.remove(key);
+                LOG.debug("Refresh of cache {} key {} skipped, executor is busy", this.name, key);
+            }
+
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void put(final Object key, final Object value) {
+        this.cache.put(key, toStoreValue(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        return toValueWrapper(this.cache.asMap().putIfAbsent(key, toStoreValue(value)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void evict(final Object key) {
+        this.cache.invalidate(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        this.cache.invalidateAll();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CacheInfoDTO getCacheInfo() {
+
+        final int size = (int) this.cache.estimatedSize();
+        final Optional<Policy.Eviction<Object, Object>> eviction = this.cache.policy().eviction();
+        final long max = eviction.isPresent() ? eviction.get().getMaximum() : 0L;
+        final long bytes = this.weighted && eviction.isPresent() ? eviction.get().weightedSize().orElse(0L) : 0L;
+        final String policy = this.weighted ? "W-TinyLFU (bytes)" : "W-TinyLFU";
+
+        final CacheInfoDTO info;
+        if (this.statisticsEnabled) {
+            final CacheStats stats = this.cache.stats();
+            info = new CacheInfoDTO(
+                    this.name,
+                    size,
+                    size,
+                    max,
+                    false,
+                    this.eternal,
+                    this.timeToLiveSeconds,
+                    this.timeToIdleSeconds,
+                    policy,
+                    0,
+                    stats.hitCount(),
+                    stats.missCount(),
+                    bytes,
+                    0L
+            );
+            info.setEvictions(stats.evictionCount());
+        } else {
+            info = new CacheInfoDTO(
+                    this.name,
+                    size,
+                    size,
+                    max,
+                    false,
+                    this.eternal,
+                    this.timeToLiveSeconds,
+                    this.timeToIdleSeconds,
+                    policy,
+                    0
+            );
+        }
+        return info;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setStatisticsEnabled(final boolean enabled) {
+        this.statisticsEnabled = enabled;
+    }
+
+}
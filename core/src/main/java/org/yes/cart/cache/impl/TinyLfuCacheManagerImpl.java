@@ -0,0 +1,274 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.pool.sizeof.ReflectionSizeOf;
+import net.sf.ehcache.pool.sizeof.SizeOf;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache manager that uses Caffeine caches with W-TinyLFU eviction, which keeps frequently used entries in cache
+ * and does not let one off scans (e.g. crawlers) flush them out.
+ *
+ * Cache names, sizes and expiry are taken from ehcache.xml, so that there is single cache configuration per
+ * deployment. Additionally following settings are read from configuration properties:
+ * cache.tinylfu.maxBytes.[cache name] - bound cache by estimated size of entries in bytes instead of number of entries,
+ * cache.tinylfu.entryBytes.[cache name] - declared size of single entry in bytes for caches bound by bytes (if not
+ * declared the size is estimated by measuring a sample of entries and average is used for the rest),
+ * cache.tinylfu.refreshAheadSeconds.[cache name] - asynchronously reload entries older than given age (only for
+ * caches with time to live and only if refresh executor is configured).
+ *
+ * Caches that rely on Ehcache specific API (listed in ehcache caches) are provided by Ehcache.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:50
+ */
+public class TinyLfuCacheManagerImpl implements CacheManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TinyLfuCacheManagerImpl.class);
+
+    private static final String MAX_BYTES = "cache.tinylfu.maxBytes.";
+    private static final String ENTRY_BYTES = "cache.tinylfu.entryBytes.";
+    private static final String REFRESH_AHEAD = "cache.tinylfu.refreshAheadSeconds.";
+
+    static final int SIZE_OF_MAX_DEPTH = 1000;
+    static final int SIZE_OF_FALLBACK = 1024;
+    static final int SIZE_OF_WARMUP = 32;
+    static final int SIZE_OF_SAMPLE_RATE = 64;
+
+    private final net.sf.ehcache.CacheManager ehcache;
+    private final CacheManager ehcacheCacheManager;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private Set<String> ehcacheCaches = Collections.emptySet();
+    private Map<String, Long> maxBytes = Collections.emptyMap();
+    private Map<String, Long> entryBytes = Collections.emptyMap();
+    private Map<String, Long> refreshAheadSeconds = Collections.emptyMap();
+    private Executor refreshExecutor;
+
+    public TinyLfuCacheManagerImpl(final net.sf.ehcache.CacheManager ehcache,
+                                   final CacheManager ehcacheCacheManager) {
+        this.ehcache = ehcache;
+        this.ehcacheCacheManager = ehcacheCacheManager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Cache getCache(final String name) {
+
+        if (this.ehcacheCaches.contains(name)) {
+            return this.ehcacheCacheManager.getCache(name);
+        }
+
+        final Cache cache = this.caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        return this.caches.computeIfAbsent(name, this::createCache);
+
+    }
+
+    private Cache createCache(final String name) {
+
+        final Ehcache config = this.ehcache.getEhcache(name);
+        if (config == null) {
+            return null;
+        }
+
+        final CacheConfiguration cfg = config.getCacheConfiguration();
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        final Long bytes = this.maxBytes.get(name);
+        final boolean weighted = bytes != null && bytes > 0L;
+        if (weighted) {
+            final Long declared = this.entryBytes.get(name);
+            if (declared != null && declared > 0L) {
+                final int weight = (int) Math.min(Integer.MAX_VALUE, declared);
+                builder.maximumWeight(bytes).weigher((k, v) -> weight);
+            } else {
+                builder.maximumWeight(bytes).weigher(new SampledWeigher(new ReflectionSizeOf()));
+            }
+        } else if (cfg.getMaxEntriesLocalHeap() > 0L) {
+            builder.maximumSize(cfg.getMaxEntriesLocalHeap());
+        }
+
+        final int ttl = cfg.isEternal() ? 0 : (int) cfg.getTimeToLiveSeconds();
+        final int tti = cfg.isEternal() ? 0 : (int) cfg.getTimeToIdleSeconds();
+        if (ttl > 0) {
+            builder.expireAfterWrite(ttl, TimeUnit.SECONDS);
+        }
+        if (tti > 0) {
+            builder.expireAfterAccess(tti, TimeUnit.SECONDS);
+        }
+
+        final Long refresh = this.refreshAheadSeconds.get(name);
+        long refreshMs = 0L;
+        if (refresh != null && refresh > 0L) {
+            if (ttl <= 0) {
+                LOG.warn("Cache {} refresh ahead is ignored since cache has no time to live", name);
+            } else if (this.refreshExecutor == null) {
+                LOG.warn("Cache {} refresh ahead is ignored since refresh executor is not configured", name);
+            } else {
+                refreshMs = TimeUnit.SECONDS.toMillis(refresh);
+            }
+        }
+
+        LOG.debug("Creating W-TinyLFU cache {} (max entries: {}, max bytes: {}, ttl: {}, tti: {}, refresh ahead: {}ms)",
+                name, weighted ? 0L : cfg.getMaxEntriesLocalHeap(), weighted ? bytes : 0L, ttl, tti, refreshMs);
+
+        // entries cannot be removed before cache is created, so reference is always set when notified
+        final AtomicReference<TinyLfuCacheImpl> created = new AtomicReference<>();
+        builder.removalListener((key, value, cause) -> {
+            final TinyLfuCacheImpl cache = created.get();
+            if (cache != null) {
+                cache.onRemoval(key, cause);
+            }
+        });
+
+        created.set(new TinyLfuCacheImpl(name, builder.build(), cfg.isEternal(), ttl, tti, weighted,
+                refreshMs, this.refreshExecutor, cfg.getStatistics()));
+        return created.get();
+
+    }
+
+    /**
+     * Weigher that measures deep size of first {@link #SIZE_OF_WARMUP} entries and then of every
+     * {@link #SIZE_OF_SAMPLE_RATE}th entry. Remaining entries are weighed by average of measured samples,
+     * so that put does not walk object graph of every value.
+     */
+    static class SampledWeigher implements Weigher<Object, Object> {
+
+        private final SizeOf sizeOf;
+
+        private final AtomicLong weighed = new AtomicLong();
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong sampledBytes = new AtomicLong();
+
+        SampledWeigher(final SizeOf sizeOf) {
+            this.sizeOf = sizeOf;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int weigh(final Object key, final Object value) {
+
+            final long count = this.weighed.getAndIncrement();
+            final long sampled = this.samples.get();
+            if (sampled == 0L || count < SIZE_OF_WARMUP || count % SIZE_OF_SAMPLE_RATE == 0L) {
+                final long size = measure(key, value);
+                this.sampledBytes.addAndGet(size);
+                this.samples.incrementAndGet();
+                return (int) Math.min(Integer.MAX_VALUE, size);
+            }
+            return (int) Math.min(Integer.MAX_VALUE, this.sampledBytes.get() / sampled);
+
+        }
+
+        private long measure(final Object key, final Object value) {
+            try {
+                return this.sizeOf.deepSizeOf(SIZE_OF_MAX_DEPTH, true, key, value).getCalculated();
+            } catch (RuntimeException exp) {
+                return SIZE_OF_FALLBACK; // too deep to measure
+            }
+        }
+
+        /**
+         * @return number of entries measured
+         */
+        long getSamples() {
+            return this.samples.get();
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableList(Arrays.asList(this.ehcache.getCacheNames()));
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param ehcacheCaches caches that must be provided by Ehcache
+     */
+    public void setEhcacheCaches(final Set<String> ehcacheCaches) {
+        this.ehcacheCaches = ehcacheCaches;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param refreshExecutor bounded executor for refresh ahead (refresh ahead is disabled if not set)
+     */
+    public void setRefreshExecutor(final Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param config configuration properties
+     *
+     * @throws IOException on IO errors
+     */
+    public void setConfig(final Resource config) throws IOException {
+
+        if (!config.exists()) {
+            return;
+        }
+
+        final Properties properties = new Properties();
+        properties.load(config.getInputStream());
+
+        final Map<String, Long> maxBytes = new HashMap<>();
+        final Map<String, Long> entryBytes = new HashMap<>();
+        final Map<String, Long> refreshAheadSeconds = new HashMap<>();
+        for (final String property : properties.stringPropertyNames()) {
+            if (property.startsWith(MAX_BYTES)) {
+                maxBytes.put(property.substring(MAX_BYTES.length()), NumberUtils.toLong(properties.getProperty(property), 0L));
+            } else if (property.startsWith(ENTRY_BYTES)) {
+                entryBytes.put(property.substring(ENTRY_BYTES.length()), NumberUtils.toLong(properties.getProperty(property), 0L));
+            } else if (property.startsWith(REFRESH_AHEAD)) {
+                refreshAheadSeconds.put(property.substring(REFRESH_AHEAD.length()), NumberUtils.toLong(properties.getProperty(property), 0L));
+            }
+        }
+        this.maxBytes = maxBytes;
+        this.entryBytes = entryBytes;
+        this.refreshAheadSeconds = refreshAheadSeconds;
+
+    }
+
+}
@@ -19,6 +19,7 @@ package org.yes.cart.cluster.service;
 import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service responsible  to evict particular cache(s) depending on entity and operation.
@@ -88,4 +89,12 @@ public interface CacheDirector {
      */
     int onCacheableBulkChange(String entityOperation, String entityName, Long[] pkValues);
 
+    /**
+     * Fire multiple entity change events at once. Caches affected by several changes are
+     * processed once, i.e. "all" caches are cleared once and each key is evicted once.
+     *
+     * @param changes entity name to operation type to primary keys
+     */
+    int onCacheableBulkChanges(Map<String, Map<String, long[]>> changes);
+
 }
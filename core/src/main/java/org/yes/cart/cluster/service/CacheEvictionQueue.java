@@ -25,7 +25,9 @@ import java.util.Collection;
 public interface CacheEvictionQueue {
 
     /**
-     * Push change to queue.
+     * Push change to queue. Same PK for the same user, operation and entity is queued once. If queue
+     * has reached its capacity the caller waits for queue to be processed (within configured limit)
+     * rather than change being dropped.
      *
      * @param entityOperation operation
      * @param entityName      entity
@@ -55,6 +57,8 @@ public interface CacheEvictionQueue {
 
         Collection<Long> getPKs();
 
+        long[] getPKValues();
+
     }
 
 }
@@ -21,6 +21,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.CacheDependencyResolver;
+import org.yes.cart.cache.DependencyTrackingCache;
+import org.yes.cart.cache.MonitoredCache;
 import org.yes.cart.cluster.service.CacheDirector;
 import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 import org.yes.cart.domain.misc.Pair;
@@ -44,6 +47,10 @@ public class CacheDirectorImpl implements CacheDirector {
 
     private Set<String> skipEvictAll = Collections.emptySet();
 
+    private Map<String, CacheDependencyResolver> dependencyResolvers = Collections.emptyMap();
+
+    private int maxDependencyResolve = 100;
+
     /**
      * {@inheritDoc}
      */
@@ -61,6 +68,10 @@ public class CacheDirectorImpl implements CacheDirector {
         final List<CacheInfoDTO> rez = new ArrayList<>(cacheNames.size());
         for (String cacheName : cacheNames) {
             final Cache cache = cacheManager.getCache(cacheName);
+            if (cache.getNativeCache() instanceof MonitoredCache) {
+                rez.add(((MonitoredCache) cache.getNativeCache()).getCacheInfo());
+                continue;
+            }
             final net.sf.ehcache.Cache nativeCache = (net.sf.ehcache.Cache) cache.getNativeCache();
             final CacheConfiguration cacheConfiguration = nativeCache.getCacheConfiguration();
             final LiveCacheStatistics stats = nativeCache.getLiveCacheStatistics();
@@ -147,6 +158,10 @@ public class CacheDirectorImpl implements CacheDirector {
         final CacheManager cm = getCacheManager();
         final Cache cache = cm.getCache(cacheName);
         if (cache != null) {
+            if (cache.getNativeCache() instanceof MonitoredCache) {
+                ((MonitoredCache) cache.getNativeCache()).setStatisticsEnabled(true);
+                return;
+            }
             final net.sf.ehcache.Cache nativeCache = (net.sf.ehcache.Cache) cache.getNativeCache();
             nativeCache.setStatisticsEnabled(true);
         }
@@ -157,6 +172,10 @@ public class CacheDirectorImpl implements CacheDirector {
         final CacheManager cm = getCacheManager();
         final Cache cache = cm.getCache(cacheName);
         if (cache != null) {
+            if (cache.getNativeCache() instanceof MonitoredCache) {
+                ((MonitoredCache) cache.getNativeCache()).setStatisticsEnabled(false);
+                return;
+            }
             final net.sf.ehcache.Cache nativeCache = (net.sf.ehcache.Cache) cache.getNativeCache();
             nativeCache.setStatisticsEnabled(false);
         }
@@ -169,6 +188,7 @@ public class CacheDirectorImpl implements CacheDirector {
     public int onCacheableChange(final String entityOperation, final String entityName, final Long pkValue) {
 
         int cnt = 0;
+        Optional<Collection<String>> dependencies = null; // resolve lazily once for all caches
 
         final Set<Pair<String, String>> cacheNames = resolveCacheNames(entityOperation, entityName);
 
@@ -194,6 +214,13 @@ public class CacheDirectorImpl implements CacheDirector {
 
                         cnt ++;
 
+                    } else if("dep".equals(cacheStrategy.getSecond())) {
+
+                        if (dependencies == null) {
+                            dependencies = Optional.ofNullable(resolveDependencies(entityName, Collections.singletonList(pkValue)));
+                        }
+                        cnt += evictDependents(cache, dependencies.orElse(null));
+
                     } else {
 
                         LOG.warn("The [{}] cache eviction strategy not supported", cacheStrategy.getSecond());
@@ -216,6 +243,7 @@ public class CacheDirectorImpl implements CacheDirector {
     public int onCacheableBulkChange(final String entityOperation, final String entityName, final Long[] pkValues) {
 
         int cnt = 0;
+        Optional<Collection<String>> dependencies = null; // resolve lazily once for all caches
 
         final Set<Pair<String, String>> cacheNames = resolveCacheNames(entityOperation, entityName);
 
@@ -245,6 +273,13 @@ public class CacheDirectorImpl implements CacheDirector {
 
                         }
 
+                    } else if("dep".equals(cacheStrategy.getSecond())) {
+
+                        if (dependencies == null) {
+                            dependencies = Optional.ofNullable(resolveDependencies(entityName, Arrays.asList(pkValues)));
+                        }
+                        cnt += evictDependents(cache, dependencies.orElse(null));
+
                     } else {
 
                         LOG.warn("The [{}] cache eviction strategy not supported", cacheStrategy.getSecond());
@@ -260,6 +295,173 @@ public class CacheDirectorImpl implements CacheDirector {
         return cnt;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int onCacheableBulkChanges(final Map<String, Map<String, long[]>> changes) {
+
+        int cnt = 0;
+
+        final Set<String> clearAll = new HashSet<>();
+        final Map<String, Set<Long>> evictKeys = new HashMap<>();
+        final Map<String, Set<String>> evictDependencies = new HashMap<>();
+
+        for (final Map.Entry<String, Map<String, long[]>> entity : changes.entrySet()) {
+
+            for (final Map.Entry<String, long[]> operation : entity.getValue().entrySet()) {
+
+                final Set<Pair<String, String>> cacheNames = resolveCacheNames(operation.getKey(), entity.getKey());
+
+                if (cacheNames != null) {
+
+                    Optional<Collection<String>> dependencies = null; // resolve lazily once for all caches
+
+                    for (Pair<String, String> cacheStrategy : cacheNames) {
+
+                        if("all".equals(cacheStrategy.getSecond())) {
+
+                            clearAll.add(cacheStrategy.getFirst());
+
+                        } else if("key".equals(cacheStrategy.getSecond())) {
+
+                            final Set<Long> keys = evictKeys.computeIfAbsent(cacheStrategy.getFirst(), k -> new HashSet<>());
+                            for (final long pkValue : operation.getValue()) {
+                                keys.add(pkValue);
+                            }
+
+                        } else if("dep".equals(cacheStrategy.getSecond())) {
+
+                            if (dependencies == null) {
+                                final List<Long> pkValues = new ArrayList<>(operation.getValue().length);
+                                for (final long pkValue : operation.getValue()) {
+                                    pkValues.add(pkValue);
+                                }
+                                dependencies = Optional.ofNullable(resolveDependencies(entity.getKey(), pkValues));
+                            }
+                            if (dependencies.isPresent()) {
+                                evictDependencies.computeIfAbsent(cacheStrategy.getFirst(), k -> new HashSet<>()).addAll(dependencies.get());
+                            } else {
+                                clearAll.add(cacheStrategy.getFirst());
+                            }
+
+                        } else {
+
+                            LOG.warn("The [{}] cache eviction strategy not supported", cacheStrategy.getSecond());
+
+                        }
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        final CacheManager cm = getCacheManager();
+
+        for (final String cacheName : clearAll) {
+
+            final Cache cache = cm.getCache(cacheName);
+
+            if (cache != null) {
+
+                cache.clear();
+
+                cnt++;
+
+            }
+
+        }
+
+        for (final Map.Entry<String, Set<String>> dependencies : evictDependencies.entrySet()) {
+
+            if (clearAll.contains(dependencies.getKey())) {
+                continue; // already cleared
+            }
+
+            final Cache cache = cm.getCache(dependencies.getKey());
+
+            if (cache != null) {
+
+                cnt += evictDependents(cache, dependencies.getValue());
+
+            }
+
+        }
+
+        for (final Map.Entry<String, Set<Long>> keys : evictKeys.entrySet()) {
+
+            if (clearAll.contains(keys.getKey())) {
+                continue; // already cleared
+            }
+
+            final Cache cache = cm.getCache(keys.getKey());
+
+            if (cache != null) {
+
+                for (final Long pkValue : keys.getValue()) {
+
+                    cache.evict(pkValue);
+
+                    cnt++;
+
+                }
+
+            }
+
+        }
+
+        return cnt;
+    }
+
+    /**
+     * Resolve dependencies affected by change of given entities.
+     *
+     * @param entityName entity name
+     * @param pkValues   changed entities
+     *
+     * @return dependencies or null if dependencies cannot be resolved
+     */
+    Collection<String> resolveDependencies(final String entityName, final Collection<Long> pkValues) {
+
+        final CacheDependencyResolver resolver = this.dependencyResolvers.get(entityName);
+        if (resolver == null || pkValues.size() > this.maxDependencyResolve) {
+            return null;
+        }
+
+        final Set<String> dependencies = new HashSet<>();
+        for (final Long pkValue : pkValues) {
+            final Collection<String> pkDependencies = resolver.resolveDependencies(entityName, pkValue);
+            if (pkDependencies == null) {
+                return null;
+            }
+            dependencies.addAll(pkDependencies);
+        }
+        return dependencies;
+
+    }
+
+    /**
+     * Evict cache entries that depend on given dependencies. If dependencies are unknown or cache does not track
+     * dependencies the cache is cleared.
+     *
+     * @param cache        cache
+     * @param dependencies dependencies
+     *
+     * @return number of evictions
+     */
+    int evictDependents(final Cache cache, final Collection<String> dependencies) {
+
+        if (dependencies != null && cache instanceof DependencyTrackingCache) {
+            return ((DependencyTrackingCache) cache).evictDependents(dependencies);
+        }
+        cache.clear();
+        return 1;
+
+    }
+
     /**
      * Resolve caches names for invalidation for given entity and operation.
      * @param entityOperation given operation
@@ -283,6 +485,16 @@ public class CacheDirectorImpl implements CacheDirector {
         this.entityOperationCache = entityOperationCache;
     }
 
+    /** IoC. Set dependency resolvers for "dep" eviction strategy (entity name to resolver). */
+    public void setDependencyResolvers(final Map<String, CacheDependencyResolver> dependencyResolvers) {
+        this.dependencyResolvers = dependencyResolvers;
+    }
+
+    /** IoC. Set maximum number of changed entities for which dependencies are resolved, above that cache is cleared. */
+    public void setMaxDependencyResolve(final int maxDependencyResolve) {
+        this.maxDependencyResolve = maxDependencyResolve;
+    }
+
     /** IoC. Set cache manager.  */
     public void setCacheManager(final CacheManager cacheManager) {
         this.cacheManager = cacheManager;
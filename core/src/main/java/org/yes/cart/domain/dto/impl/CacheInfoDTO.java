@@ -57,6 +57,8 @@ public class CacheInfoDTO implements Serializable {
 
     private long  misses;
 
+    private long  evictions;
+
     private boolean stats;
 
     private String nodeId;
@@ -191,6 +193,14 @@ public class CacheInfoDTO implements Serializable {
         this.misses = misses;
     }
 
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(final long evictions) {
+        this.evictions = evictions;
+    }
+
     public boolean isStats() {
         return stats;
     }
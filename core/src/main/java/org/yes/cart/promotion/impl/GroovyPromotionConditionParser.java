@@ -30,6 +30,10 @@ import org.yes.cart.util.log.Markers;
  * Groovy backed promotion parser. promotion.getEligibilityCondition() is assumed to be
  * groovy script. The
  *
+ * Conditions that start with "@CompileStatic" are compiled statically, in which case all
+ * top level variables and functions are strongly typed (e.g. shoppingCartItem is CartItem,
+ * product(SKU) returns Product), so condition must be valid statically compiled groovy.
+ *
  * User: denispavlov
  * Date: 13-10-28
  * Time: 8:47 AM
@@ -38,6 +42,8 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
 
     private static final Logger LOG = LoggerFactory.getLogger(GroovyPromotionConditionParser.class);
 
+    static final String COMPILE_STATIC = "@CompileStatic";
+
     private final GroovyClassLoader gcl = new GroovyClassLoader();
 
     /** {@inheritDoc} */
@@ -65,9 +71,15 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
 
         final StringBuilder script = new StringBuilder();
 
-        appendImports(script);
-        appendStartClass(script, promoId, promoCode);
-        appendBody(script, condition);
+        if (isCompileStatic(condition)) {
+            appendStaticImports(script);
+            appendStartStaticClass(script, promoId, promoCode);
+            appendBody(script, condition.trim().substring(COMPILE_STATIC.length()));
+        } else {
+            appendImports(script);
+            appendStartClass(script, promoId, promoCode);
+            appendBody(script, condition);
+        }
         appendEndClass(script);
 
         LOG.debug("Creating promotion condition class {}\n{}", promoCode, script);
@@ -76,6 +88,10 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
 
     }
 
+    boolean isCompileStatic(final String condition) {
+        return condition != null && condition.trim().startsWith(COMPILE_STATIC);
+    }
+
     String clensePromoCode(final String promoCode) {
         return promoCode.replaceAll("([^a-zA-Z0-9])", "_");
     }
@@ -127,6 +143,57 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
         script.append("def isSKUinCategory = { String code, String... categoryGUIDs -> context.conditionSupport.isProductInCategory(code, customerShopId, categoryGUIDs); }\n");
     }
 
+    /*
+     * Declare all necessary imports to compile static groovy class
+     */
+    void appendStaticImports(final StringBuilder script) {
+        appendImports(script);
+        script.append("import groovy.transform.CompileStatic;\n");
+        script.append("import org.yes.cart.domain.entity.*;\n");
+        script.append("import org.yes.cart.promotion.PromotionConditionSupport;\n");
+        script.append("import org.yes.cart.shoppingcart.CartItem;\n");
+        script.append("import org.yes.cart.shoppingcart.ShoppingCart;\n");
+        script.append("import org.yes.cart.shoppingcart.Total;\n");
+    }
+
+    /*
+     * Same as appendStartClass() but all variables and functions are typed, so that class can
+     * be compiled statically.
+     */
+    void appendStartStaticClass(final StringBuilder script, final long promoId, final String promoCode) {
+        script.append("@CompileStatic\n");
+        script.append("public class Promotion").append(clensePromoCode(promoCode)).append(" implements PromotionCondition {\n");
+        script.append("public long getPromotionId() {\n");
+        script.append("return ").append(promoId).append(";\n");
+        script.append("}\n");
+        script.append("public String getPromotionCode() {\n");
+        script.append("return '").append(promoCode).append("';\n");
+        script.append("}\n");
+        script.append("public boolean isEligible(Map<String, Object> context) {\n");
+        // Basic variables
+        script.append("final PromotionConditionSupport conditionSupport = (PromotionConditionSupport) context.get('conditionSupport');\n");
+        script.append("final Boolean registered = (Boolean) context.get('registered');\n");
+        script.append("final Customer customer = (Customer) context.get('customer');\n");
+        script.append("final List<String> customerTags = (List<String>) context.get('customerTags');\n");
+        script.append("final String customerType = (String) context.get('customerType');\n");
+        script.append("final List<String> pricingPolicy = (List<String>) context.get('pricingPolicy');\n");
+        script.append("final ShoppingCart shoppingCart = (ShoppingCart) context.get('shoppingCart');\n");
+        script.append("final CartItem shoppingCartItem = (CartItem) context.get('shoppingCartItem');\n");
+        script.append("final Total shoppingCartItemTotal = (Total) context.get('shoppingCartItemTotal');\n");
+        script.append("final Total shoppingCartOrderTotal = (Total) context.get('shoppingCartOrderTotal');\n");
+        script.append("final String SKU = shoppingCartItem?.productSkuCode;\n");
+        script.append("final Long shopId = shoppingCart?.shoppingContext?.shopId;\n");
+        script.append("final Long customerShopId = shoppingCart?.shoppingContext?.customerShopId;\n");
+        // Functions
+        script.append("final Closure<Product> product = { String code -> conditionSupport.getProductBySkuCode(code); }\n");
+        script.append("final Closure<ProductSku> productSku = { String code -> conditionSupport.getProductSkuByCode(code); }\n");
+        script.append("final Closure<Brand> brand = { String code -> conditionSupport.getProductBrand(code); }\n");
+        script.append("final Closure<Boolean> hasProductAttribute = { String code, String attr -> conditionSupport.hasProductAttribute(code, attr); }\n");
+        script.append("final Closure<String> productAttributeValue = { String code, String attr -> conditionSupport.getProductAttribute(code, attr); }\n");
+        script.append("final Closure<Boolean> isSKUofBrand = { String code, String... brandNames -> conditionSupport.isProductOfBrand(code, brandNames); }\n");
+        script.append("final Closure<Boolean> isSKUinCategory = { String code, String... categoryGUIDs -> conditionSupport.isProductInCategory(code, customerShopId, categoryGUIDs); }\n");
+    }
+
     /*
      * Append eligibility condition as body of the method. The return statement is assumed to
      * be inside the eligibility condition
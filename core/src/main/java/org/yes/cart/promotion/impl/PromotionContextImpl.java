@@ -44,6 +44,7 @@ public class PromotionContextImpl implements PromotionContext {
     private final Instant timestamp = TimeContext.getTime();
 
     private final Map<String, List<List<PromoTriplet>>> promotionBuckets = new HashMap<>();
+    private final PromotionEligibilityIndex eligibilityIndex = new PromotionEligibilityIndex();
 
     PromotionContextImpl(final String shopCode,
                          final String currency,
@@ -70,6 +71,8 @@ public class PromotionContextImpl implements PromotionContext {
 
         final PromoTriplet promo = new PromoTripletImpl(promotion, condition, action);
 
+        eligibilityIndex.add(promo, PromotionEligibilityFilter.fromCondition(promotion.getEligibilityCondition()));
+
         List<List<PromoTriplet>> buckets = promotionBuckets.get(promotion.getPromoType());
 
         if (buckets == null) {
@@ -254,7 +257,8 @@ public class PromotionContextImpl implements PromotionContext {
     private void applyPromotions(final List<List<PromoTriplet>> promoBuckets,
                                  final Map<String, Object> context) {
 
-        strategy.applyPromotions(promoBuckets, context);
+        // only candidate promotions are passed to strategy, so that heavy conditions are not evaluated needlessly
+        strategy.applyPromotions(eligibilityIndex.getCandidates(promoBuckets, context), context);
 
     }
 
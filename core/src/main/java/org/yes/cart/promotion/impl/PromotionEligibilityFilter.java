@@ -0,0 +1,266 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.yes.cart.promotion.PromotionCondition;
+import org.yes.cart.shoppingcart.Total;
+import org.yes.cart.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap pre-filter derived from promotion eligibility condition.
+ *
+ * Promotions do not carry structured metadata, so the filter is extracted from the condition
+ * text. Only simple conditions that are a conjunction (&&) of expressions are analysed and only
+ * conjuncts of well known form are used as guards, e.g.:
+ *
+ * ['SKU-001','SKU-002'].contains(SKU), SKU in ['SKU-001'], SKU == 'SKU-001',
+ * customerTags.contains('vip'), shoppingCartOrderTotal.subTotal > 200.00.
+ *
+ * Since each guard is a necessary condition failing any guard means the promotion is not
+ * eligible and groovy condition need not be evaluated. If guard cannot be evaluated (e.g.
+ * variable is not in context) promotion is always a candidate, so groovy condition decides.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:05
+ */
+final class PromotionEligibilityFilter {
+
+    static final PromotionEligibilityFilter ANY = new PromotionEligibilityFilter(null, Collections.emptyList(), Collections.emptyList());
+
+    private static final String QUOTED = "'([^']*)'|\"([^\"]*)\"";
+    private static final String QUOTED_LIST = "\\[\\s*((?:(?:" + QUOTED + ")\\s*,?\\s*)+)\\]";
+    private static final String SKU_VAR = "(?:SKU|shoppingCartItem\\??\\.productSkuCode)";
+    private static final String NUMBER = "(\\d+(?:\\.\\d+)?)";
+
+    private static final Pattern QUOTED_VALUE = Pattern.compile(QUOTED);
+    private static final Pattern SKU_LIST_CONTAINS = Pattern.compile("^" + QUOTED_LIST + "\\.contains\\(\\s*" + SKU_VAR + "\\s*\\)$");
+    private static final Pattern SKU_IN_LIST = Pattern.compile("^" + SKU_VAR + "\\s+in\\s+" + QUOTED_LIST + "$");
+    private static final Pattern SKU_EQUALS = Pattern.compile("^" + SKU_VAR + "\\s*==\\s*(?:" + QUOTED + ")$");
+    private static final Pattern TAG_CONTAINS = Pattern.compile("^customerTags\\??\\.contains\\(\\s*(?:" + QUOTED + ")\\s*\\)$");
+    private static final Pattern TOTAL_MIN = Pattern.compile("^(shoppingCartItemTotal|shoppingCartOrderTotal)\\??\\.(\\w+)\\s*(>=|>)\\s*" + NUMBER + "$");
+
+    private final Set<String> skuCodes;
+    private final List<String> customerTags;
+    private final List<MinTotal> minTotals;
+
+    private PromotionEligibilityFilter(final Set<String> skuCodes,
+                                       final List<String> customerTags,
+                                       final List<MinTotal> minTotals) {
+        this.skuCodes = skuCodes;
+        this.customerTags = customerTags;
+        this.minTotals = minTotals;
+    }
+
+    /**
+     * Create filter for given eligibility condition.
+     *
+     * @param condition eligibility condition (groovy)
+     *
+     * @return filter ({@link #ANY} if condition contains no recognisable guards)
+     */
+    static PromotionEligibilityFilter fromCondition(final String condition) {
+
+        final String expression = StringUtils.trimToEmpty(
+                StringUtils.removeStart(StringUtils.trimToEmpty(condition), GroovyPromotionConditionParser.COMPILE_STATIC));
+
+        // safe navigation is allowed, but not ternary, elvis, multiple statements or disjunction
+        final String plain = expression.replace("?.", ".");
+        if (plain.isEmpty()
+                || StringUtils.containsAny(plain, "?:;\n\r")
+                || plain.contains("||")
+                || plain.contains("return")) {
+            return ANY; // not a simple conjunction
+        }
+
+        Set<String> skuCodes = null;
+        final List<String> customerTags = new ArrayList<>();
+        final List<MinTotal> minTotals = new ArrayList<>();
+
+        for (final String part : StringUtils.splitByWholeSeparator(expression, "&&")) {
+
+            final String conjunct = unwrap(part.trim());
+
+            final Set<String> skus = matchSkuCodes(conjunct);
+            if (skus != null) {
+                if (skuCodes == null) {
+                    skuCodes = skus;
+                } else {
+                    skuCodes.retainAll(skus);
+                }
+                continue;
+            }
+
+            final Matcher tag = TAG_CONTAINS.matcher(conjunct);
+            if (tag.matches()) {
+                customerTags.add(tag.group(1) != null ? tag.group(1) : tag.group(2));
+                continue;
+            }
+
+            final Matcher total = TOTAL_MIN.matcher(conjunct);
+            if (total.matches() && MinTotal.isSupported(total.group(2))) {
+                minTotals.add(new MinTotal(
+                        "shoppingCartItemTotal".equals(total.group(1)) ? PromotionCondition.VAR_CART_ITEM_TOTAL : PromotionCondition.VAR_CART_ORDER_TOTAL,
+                        total.group(2),
+                        new BigDecimal(total.group(4)),
+                        ">=".equals(total.group(3))
+                ));
+            }
+
+        }
+
+        if (skuCodes == null && customerTags.isEmpty() && minTotals.isEmpty()) {
+            return ANY;
+        }
+        return new PromotionEligibilityFilter(skuCodes, customerTags, minTotals);
+    }
+
+    private static String unwrap(final String conjunct) {
+        String rez = conjunct;
+        while (rez.startsWith("(") && rez.endsWith(")") && StringUtils.countMatches(rez, "(") == 1) {
+            rez = rez.substring(1, rez.length() - 1).trim();
+        }
+        return rez;
+    }
+
+    private static Set<String> matchSkuCodes(final String conjunct) {
+
+        Matcher matcher = SKU_LIST_CONTAINS.matcher(conjunct);
+        if (!matcher.matches()) {
+            matcher = SKU_IN_LIST.matcher(conjunct);
+        }
+        if (matcher.matches()) {
+            return quotedValues(matcher.group(1));
+        }
+        matcher = SKU_EQUALS.matcher(conjunct);
+        if (matcher.matches()) {
+            return new HashSet<>(Collections.singletonList(matcher.group(1) != null ? matcher.group(1) : matcher.group(2)));
+        }
+        return null;
+    }
+
+    private static Set<String> quotedValues(final String list) {
+        final Set<String> values = new HashSet<>();
+        final Matcher value = QUOTED_VALUE.matcher(list);
+        while (value.find()) {
+            values.add(value.group(1) != null ? value.group(1) : value.group(2));
+        }
+        return values;
+    }
+
+    /**
+     * @return SKU codes this promotion is restricted to (or null if not restricted)
+     */
+    Set<String> getSkuCodes() {
+        return skuCodes;
+    }
+
+    /**
+     * @return true if this filter does not restrict promotion at all
+     */
+    boolean isAny() {
+        return this == ANY;
+    }
+
+    /**
+     * Check guards (except SKU, which is resolved by {@link PromotionEligibilityIndex}).
+     *
+     * @param context promotion context
+     *
+     * @return false if promotion is definitely not eligible, true if condition must be evaluated
+     */
+    boolean isCandidate(final Map<String, Object> context) {
+
+        if (!customerTags.isEmpty()) {
+            final Object tags = context.get(PromotionCondition.VAR_CUSTOMER_TAGS);
+            if (tags instanceof Collection && !((Collection) tags).containsAll(customerTags)) {
+                return false;
+            }
+        }
+
+        for (final MinTotal minTotal : minTotals) {
+            if (!minTotal.isCandidate(context)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Minimum value guard on the total object from context.
+     */
+    private static final class MinTotal {
+
+        private static final Set<String> SUPPORTED = new HashSet<>(Arrays.asList(
+                "listSubTotal", "saleSubTotal", "nonSaleSubTotal", "priceSubTotal", "subTotal", "subTotalAmount", "total", "totalAmount"
+        ));
+
+        private final String variable;
+        private final String property;
+        private final BigDecimal value;
+        private final boolean inclusive;
+
+        private MinTotal(final String variable, final String property, final BigDecimal value, final boolean inclusive) {
+            this.variable = variable;
+            this.property = property;
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+
+        private static boolean isSupported(final String property) {
+            return SUPPORTED.contains(property);
+        }
+
+        private boolean isCandidate(final Map<String, Object> context) {
+
+            final Object total = context.get(variable);
+            if (!(total instanceof Total)) {
+                return true; // unknown, let the condition decide
+            }
+
+            final BigDecimal amount = getAmount((Total) total);
+            if (amount == null) {
+                return true;
+            }
+
+            return inclusive ? MoneyUtils.isFirstBiggerThanOrEqualToSecond(amount, value) : MoneyUtils.isFirstBiggerThanSecond(amount, value);
+        }
+
+        private BigDecimal getAmount(final Total total) {
+            switch (property) {
+                case "listSubTotal": return total.getListSubTotal();
+                case "saleSubTotal": return total.getSaleSubTotal();
+                case "nonSaleSubTotal": return total.getNonSaleSubTotal();
+                case "priceSubTotal": return total.getPriceSubTotal();
+                case "subTotal": return total.getSubTotal();
+                case "subTotalAmount": return total.getSubTotalAmount();
+                case "total": return total.getTotal();
+                case "totalAmount": return total.getTotalAmount();
+                default: return null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.yes.cart.promotion.PromoTriplet;
+import org.yes.cart.promotion.PromotionCondition;
+import org.yes.cart.shoppingcart.CartItem;
+
+import java.util.*;
+
+/**
+ * Index of promotion pre-filters, which allows to select only candidate promotions from
+ * the buckets before groovy eligibility conditions are evaluated by
+ * {@link org.yes.cart.promotion.PromotionApplicationStrategy}.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:40
+ */
+final class PromotionEligibilityIndex {
+
+    private final Map<PromoTriplet, PromotionEligibilityFilter> filters = new HashMap<>();
+    private final Map<String, Set<PromoTriplet>> promotionsBySku = new HashMap<>();
+
+    /**
+     * Add promotion to the index.
+     *
+     * @param promo  promotion
+     * @param filter filter for this promotion
+     */
+    void add(final PromoTriplet promo, final PromotionEligibilityFilter filter) {
+
+        if (filter.isAny()) {
+            return;
+        }
+
+        filters.put(promo, filter);
+        if (filter.getSkuCodes() != null) {
+            for (final String sku : filter.getSkuCodes()) {
+                promotionsBySku.computeIfAbsent(sku, k -> new HashSet<>()).add(promo);
+            }
+        }
+    }
+
+    /**
+     * Select candidate promotions from given buckets. Bucket structure is preserved, buckets
+     * with no candidates are removed.
+     *
+     * @param promoBuckets all promotion buckets
+     * @param context      promotion context
+     *
+     * @return candidate buckets (same instance if there are no filters)
+     */
+    List<List<PromoTriplet>> getCandidates(final List<List<PromoTriplet>> promoBuckets, final Map<String, Object> context) {
+
+        if (filters.isEmpty()) {
+            return promoBuckets;
+        }
+
+        final Object item = context.get(PromotionCondition.VAR_CART_ITEM);
+        final Set<PromoTriplet> skuCandidates;
+        if (item instanceof CartItem) {
+            final Set<PromoTriplet> bySku = promotionsBySku.get(((CartItem) item).getProductSkuCode());
+            skuCandidates = bySku != null ? bySku : Collections.emptySet();
+        } else {
+            skuCandidates = null; // SKU is unknown, so SKU guards are not applicable
+        }
+
+        final List<List<PromoTriplet>> candidates = new ArrayList<>(promoBuckets.size());
+        for (final List<PromoTriplet> promoBucket : promoBuckets) {
+
+            List<PromoTriplet> bucket = null;
+            for (int i = 0; i < promoBucket.size(); i++) {
+                final PromoTriplet promo = promoBucket.get(i);
+                final boolean candidate = isCandidate(promo, skuCandidates, context);
+                if (candidate && bucket != null) {
+                    bucket.add(promo);
+                } else if (!candidate && bucket == null) {
+                    // first excluded promotion, copy all preceding candidates
+                    bucket = new ArrayList<>(promoBucket.subList(0, i));
+                }
+            }
+
+            if (bucket == null) {
+                candidates.add(promoBucket);
+            } else if (!bucket.isEmpty()) {
+                candidates.add(bucket);
+            }
+
+        }
+        return candidates;
+    }
+
+    private boolean isCandidate(final PromoTriplet promo,
+                                final Set<PromoTriplet> skuCandidates,
+                                final Map<String, Object> context) {
+
+        final PromotionEligibilityFilter filter = filters.get(promo);
+        if (filter == null) {
+            return true;
+        }
+        if (skuCandidates != null && filter.getSkuCodes() != null && !skuCandidates.contains(promo)) {
+            return false;
+        }
+        return filter.isCandidate(context);
+
+    }
+
+}
@@ -21,10 +21,12 @@ import org.springframework.cache.annotation.Cacheable;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.ResultsIteratorCallback;
 import org.yes.cart.domain.entity.SeoImage;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.domain.ImageService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -99,6 +101,30 @@ public class ImageServiceCachedImpl implements ImageService {
         return imageService.resizeImage(original, resized, width, height, cropToFit);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean writeImage(final String original, final String resized, final String width, final String height, final OutputStream out) throws IOException {
+        return imageService.writeImage(original, resized, width, height, out);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean resizeImageOnTheFly(final String original, final String resized, final String width, final String height) {
+        return imageService.resizeImageOnTheFly(original, resized, width, height);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean ensureImageResized(final String original, final String resized, final String width, final String height) {
+        return imageService.ensureImageResized(original, resized, width, height);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Pair<String, String>> getAllowedSizes() {
+        return imageService.getAllowedSizes();
+    }
+
 
     /** {@inheritDoc} */
     @Override
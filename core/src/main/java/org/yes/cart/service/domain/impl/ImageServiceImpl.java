@@ -21,13 +21,17 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.yes.cart.constants.AttributeNamesKeys;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.domain.entity.SeoImage;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.domain.ImageService;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
 import org.yes.cart.service.media.MediaFileNameStrategyResolver;
+import org.yes.cart.stream.io.FileSystemIOProvider;
 import org.yes.cart.stream.io.IOProvider;
 
 import javax.imageio.ImageIO;
@@ -35,10 +39,18 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Image service to resize and store resized image.
@@ -67,6 +79,12 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
     private final IOProvider ioProvider;
 
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> resizeInFlight = new ConcurrentHashMap<>();
+
+    private TaskExecutor resizeExecutor;
+
+    private long resizeTimeoutMs = 10000L;
+
 
     /**
      * Construct image service.
@@ -122,6 +140,7 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
         this.allowedSizes = properties.getProperty("imagevault.resize.allowed.sizes", this.allowedSizes);
         this.cropToFit = Boolean.valueOf(properties.getProperty("imagevault.resize.crop.to.fit", String.valueOf(this.cropToFit)));
         this.forceCropToFitOnSize = NumberUtils.toInt(properties.getProperty("imagevault.resize.force.crop.to.fit.on.size"), this.forceCropToFitOnSize);
+        this.resizeTimeoutMs = NumberUtils.toLong(properties.getProperty("imagevault.resize.timeout.ms"), this.resizeTimeoutMs);
 
         this.defaultBorder = new Color(
                 NumberUtils.toInt(properties.getProperty("imagevault.resize.border.color.R"), this.defaultBorder.getRed()),
@@ -131,6 +150,26 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
     }
 
+    /**
+     * Executor used to perform resizing, which allows to limit the number of concurrent (CPU and
+     * memory intensive) resize operations. If not set resizing is done in the calling thread.
+     *
+     * @param resizeExecutor resize executor
+     */
+    public void setResizeExecutor(final TaskExecutor resizeExecutor) {
+        this.resizeExecutor = resizeExecutor;
+    }
+
+    /**
+     * Maximum time request waits for resize of the same image by another request, after which
+     * original image is used.
+     *
+     * @param resizeTimeoutMs timeout in milliseconds
+     */
+    public void setResizeTimeoutMs(final long resizeTimeoutMs) {
+        this.resizeTimeoutMs = resizeTimeoutMs;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,7 +210,6 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
                 final int imageType = originalImg.getType();
 
                 final Image resizedImg;
-                //            final BufferedImage resizedImg;
                 final int padX, padY;
                 if (doCropToFit) {
                     // crop the original to best fit of target size
@@ -180,24 +218,13 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
                     padY = 0;
 
                     final BufferedImage croppedImg = originalImg.getSubimage(cropDims[0], cropDims[1], cropDims[2], cropDims[3]);
-                    resizedImg = croppedImg.getScaledInstance(x, y, Image.SCALE_SMOOTH);
-
-                    //                final BufferedImage croppedImg = originalImg.getSubimage(cropDims[0], cropDims[1], cropDims[2], cropDims[3]);
-                    //                resizedImg = new BufferedImage(y, x, imageType);
-                    //                Graphics2D graphics = resizedImg.createGraphics();
-                    //                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-                    //                graphics.drawImage(croppedImg, 0, 0, x, y, null);
+                    resizedImg = scaleImage(croppedImg, x, y);
                 } else {
                     int[] scaleDims = scaleImageToCenter(x, y, originalX, originalY);
                     padX = scaleDims[0];
                     padY = scaleDims[1];
 
-                    resizedImg = originalImg.getScaledInstance(scaleDims[2], scaleDims[3], Image.SCALE_SMOOTH);
-
-                    //                resizedImg = new BufferedImage(scaleDims[3], scaleDims[2], imageType);
-                    //                Graphics2D graphics = resizedImg.createGraphics();
-                    //                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-                    //                graphics.drawImage(originalImg, 0, 0, scaleDims[2], scaleDims[3], null);
+                    resizedImg = scaleImage(originalImg, scaleDims[2], scaleDims[3]);
                 }
 
                 // base canvas
@@ -210,6 +237,7 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
                 // insert scaled image
                 graphics.drawImage(resizedImg, padX, padY, null);
+                graphics.dispose();
 
                 final ByteArrayOutputStream bos = new ByteArrayOutputStream();
 
@@ -228,6 +256,46 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
     }
 
+    /**
+     * Progressive bilinear scaling. Image is halved using bilinear interpolation until it is
+     * within 2x of the target size and then scaled to exact size. This is much faster than
+     * area averaging (Image.SCALE_SMOOTH) and gives comparable quality when downscaling.
+     *
+     * @param source  source image
+     * @param targetX target width
+     * @param targetY target height
+     *
+     * @return scaled image
+     */
+    BufferedImage scaleImage(final BufferedImage source, final int targetX, final int targetY) {
+
+        final int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int currentX = source.getWidth();
+        int currentY = source.getHeight();
+
+        do {
+
+            final int nextX = currentX / 2 >= targetX ? currentX / 2 : targetX;
+            final int nextY = currentY / 2 >= targetY ? currentY / 2 : targetY;
+
+            final BufferedImage next = new BufferedImage(nextX, nextY, type);
+            final Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, nextX, nextY, null);
+            graphics.dispose();
+
+            current = next;
+            currentX = nextX;
+            currentY = nextY;
+
+        } while (currentX != targetX || currentY != targetY);
+
+        return current;
+
+    }
+
     /**
      * Get the image codec from filename's given extension
      * <p/>
@@ -325,6 +393,29 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
         return isSizeAllowed(width + "x" + height);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Pair<String, String>> getAllowedSizes() {
+
+        final SystemService systemService = getSystemService();
+        final String allowedSizes = systemService.getAttributeValue(AttributeNamesKeys.System.SYSTEM_ALLOWED_IMAGE_SIZES);
+        final String sizes = StringUtils.isNotBlank(allowedSizes) ? allowedSizes : this.allowedSizes;
+
+        final List<Pair<String, String>> rez = new ArrayList<>();
+        for (final String size : StringUtils.split(sizes, ',')) {
+            final String[] dims = StringUtils.split(size.trim(), 'x');
+            if (dims.length == 2 && NumberUtils.isDigits(dims[0]) && NumberUtils.isDigits(dims[1])) {
+                final Pair<String, String> dim = new Pair<>(dims[0], dims[1]);
+                if (!rez.contains(dim)) {
+                    rez.add(dim);
+                }
+            }
+        }
+        return rez;
+    }
+
     /** {@inheritDoc} */
     @Override
     public MediaFileNameStrategy getImageNameStrategy(final String url) {
@@ -391,6 +482,180 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean writeImage(final String original,
+                              final String resized,
+                              final String width,
+                              final String height,
+                              final OutputStream out) throws IOException {
+
+        final Map<String, Object> ctx = Collections.EMPTY_MAP;
+
+        String source = original;
+        try {
+
+            if (resized != null) {
+
+                if (resizeImageOnTheFly(original, resized, width, height)) {
+                    source = resized;
+                }
+                // else failed to resize or timed out (see #resizeImage(String, String, String, String, boolean)), so use original
+
+            }
+
+            if (ioProvider instanceof FileSystemIOProvider) {
+                final File file = ((FileSystemIOProvider) ioProvider).resolveFileFromUri(source, ctx);
+                if (file != null && file.isFile() && file.length() > 0L) {
+                    Files.copy(file.toPath(), out);
+                    return true;
+                }
+            }
+
+            final byte[] content = ioProvider.read(source, ctx);
+            if (content.length > 0) {
+                out.write(content);
+                return true;
+            }
+            return false;
+
+        } catch (FileNotFoundException fnf) {
+
+            LOG.error("Unable to write image {}, caused by: file not found", source);
+            return false;
+
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean resizeImageOnTheFly(final String original,
+                                       final String resized,
+                                       final String width,
+                                       final String height) {
+
+        return isResized(original, resized, width, height, false);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean ensureImageResized(final String original,
+                                      final String resized,
+                                      final String width,
+                                      final String height) {
+
+        return isResized(original, resized, width, height, true);
+
+    }
+
+    private boolean isResized(final String original,
+                              final String resized,
+                              final String width,
+                              final String height,
+                              final boolean inCallingThread) {
+
+        final CompletableFuture<Boolean> inFlight = resizeInFlight.get(resized);
+        if (inFlight != null) {
+            // do not read partially written file
+            return awaitResize(resized, inFlight);
+        }
+        return ioProvider.isNewerThan(resized, original, Collections.EMPTY_MAP) || ensureResized(original, resized, width, height, inCallingThread);
+
+    }
+
+    /*
+     * Single flight resize: only first request for given target resizes the image, all concurrent
+     * requests for the same target wait for the outcome.
+     */
+    private boolean ensureResized(final String original,
+                                  final String resized,
+                                  final String width,
+                                  final String height,
+                                  final boolean inCallingThread) {
+
+        final CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        final CompletableFuture<Boolean> inFlight = resizeInFlight.putIfAbsent(resized, mine);
+        if (inFlight != null) {
+            return awaitResize(resized, inFlight);
+        }
+
+        final Runnable job = () -> {
+            try {
+                mine.complete(resizeAndStore(original, resized, width, height));
+            } catch (Throwable thr) {
+                mine.completeExceptionally(thr);
+            } finally {
+                resizeInFlight.remove(resized, mine);
+            }
+        };
+
+        if (resizeExecutor != null && !inCallingThread) {
+            try {
+                resizeExecutor.execute(job);
+            } catch (TaskRejectedException rej) {
+                LOG.warn("Resize executor is saturated, resizing {} in calling thread", resized);
+                job.run();
+            }
+        } else {
+            job.run();
+        }
+
+        return awaitResize(resized, mine);
+
+    }
+
+    private boolean awaitResize(final String resized, final CompletableFuture<Boolean> inFlight) {
+
+        if (inFlight == null) {
+            return false;
+        }
+        try {
+            return inFlight.get(resizeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException te) {
+            LOG.warn("Resize of image {} is taking longer than {}ms, using original", resized, resizeTimeoutMs);
+            return false;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ee) {
+            LOG.error("Unable to resize image " + resized + ", caused by: " + ee.getCause().getMessage(), ee.getCause());
+            return false;
+        }
+
+    }
+
+    private boolean resizeAndStore(final String original,
+                                   final String resized,
+                                   final String width,
+                                   final String height) {
+
+        try {
+            final Map<String, Object> ctx = Collections.EMPTY_MAP;
+
+            if (ioProvider.isNewerThan(resized, original, ctx)) {
+                return true; // resized by other request while we were waiting
+            }
+
+            final byte[] resizedContent = resizeImage(original, ioProvider.read(original, ctx), width, height);
+            if (resizedContent.length > 0) {
+                ioProvider.write(resized, resizedContent, ctx);
+                return true;
+            }
+            return false;
+
+        } catch (FileNotFoundException fnf) {
+
+            LOG.error("Unable to resize image {} to {}, caused by: file not found", original, resized);
+            return false;
+
+        } catch (IOException ioe) {
+            LOG.error("Unable to resize image " + original + " to " + resized + ", caused by: " + ioe.getMessage(), ioe);
+            return false;
+        }
+
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean isImageInRepository(final String fullFileName,
@@ -20,6 +20,9 @@ import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.domain.entity.Mail;
 import org.yes.cart.service.domain.MailService;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * User: denispavlov
  * Date: 10/11/2013
@@ -39,4 +42,24 @@ public class MailServiceImpl extends BaseGenericServiceImpl<Mail> implements Mai
         }
         return getGenericDao().findSingleByNamedQuery("OLDEST.MAIL.AFTER", lastFailedMailId);
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> findMailShopCodes() {
+        final List<Object> codes = getGenericDao().findQueryObjectByNamedQuery("MAIL.SHOPCODES");
+        final List<String> shopCodes = new ArrayList<>(codes.size());
+        for (final Object code : codes) {
+            shopCodes.add((String) code);
+        }
+        return shopCodes;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Mail> findOldestMails(final String shopCode, final long afterMailId, final int max) {
+        if (shopCode == null) {
+            return getGenericDao().findRangeByNamedQuery("OLDEST.MAILS.NOSHOP.AFTER", 0, max, afterMailId);
+        }
+        return getGenericDao().findRangeByNamedQuery("OLDEST.MAILS.BY.SHOPCODE.AFTER", 0, max, shopCode, afterMailId);
+    }
 }
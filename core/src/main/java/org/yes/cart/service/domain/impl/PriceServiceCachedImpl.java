@@ -16,15 +16,19 @@
 
 package org.yes.cart.service.domain.impl;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.ResultsIteratorCallback;
 import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.domain.PriceService;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.*;
 
 /**
  * User: denispavlov
@@ -35,15 +39,19 @@ public class PriceServiceCachedImpl implements PriceService {
 
     private final PriceService priceService;
 
-    public PriceServiceCachedImpl(final PriceService priceService) {
+    private final Cache minimalPriceCache;
+
+    public PriceServiceCachedImpl(final PriceService priceService,
+                                  final CacheManager cacheManager) {
         this.priceService = priceService;
+        this.minimalPriceCache = cacheManager.getCache("priceService-minimalPrice");
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-minimalPrice")
+    @Cacheable(value = "priceService-minimalPrice", sync = true)
     public SkuPrice getMinimalPrice(final Long productId,
                                     final String selectedSku,
                                     final long customerShopId,
@@ -55,11 +63,68 @@ public class PriceServiceCachedImpl implements PriceService {
         return priceService.getMinimalPrice(productId, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
     }
 
+    /**
+     * Prices are looked up and populated in "priceService-minimalPrice" cache per sku using same key as
+     * {@link #getMinimalPrice(Long, String, long, Long, String, BigDecimal, boolean, String)}, so that
+     * only missing prices are loaded (in one query) and single price look ups benefit from bulk ones.
+     */
+    @Override
+    public Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus,
+                                                  final long customerShopId,
+                                                  final Long masterShopId,
+                                                  final String currencyCode,
+                                                  final BigDecimal quantity,
+                                                  final boolean enforceTier,
+                                                  final String pricingPolicy) {
+
+        if (selectedSkus == null || selectedSkus.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, SkuPrice> prices = new HashMap<>(selectedSkus.size() * 2);
+        final Set<String> missing = new HashSet<>();
+        for (final String sku : selectedSkus) {
+            if (sku == null || prices.containsKey(sku)) {
+                continue;
+            }
+            final Cache.ValueWrapper cached = minimalPriceCache.get(
+                    minimalPriceKey(sku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy));
+            if (cached != null) {
+                prices.put(sku, (SkuPrice) cached.get());
+            } else {
+                missing.add(sku);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            final Map<String, SkuPrice> loaded = priceService.getMinimalPrices(missing, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
+            for (final Map.Entry<String, SkuPrice> price : loaded.entrySet()) {
+                minimalPriceCache.put(
+                        minimalPriceKey(price.getKey(), customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy),
+                        price.getValue());
+                prices.put(price.getKey(), price.getValue());
+            }
+        }
+
+        return prices;
+    }
+
+    private Object minimalPriceKey(final String selectedSku,
+                                   final long customerShopId,
+                                   final Long masterShopId,
+                                   final String currencyCode,
+                                   final BigDecimal quantity,
+                                   final boolean enforceTier,
+                                   final String pricingPolicy) {
+        // same as default key generator for getMinimalPrice() with no product
+        return SimpleKeyGenerator.generateKey(null, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-allCurrentPrices")
+    @Cacheable(value = "priceService-allCurrentPrices", sync = true)
     public List<SkuPrice> getAllCurrentPrices(final Long productId,
                                               final String selectedSku,
                                               final long customerShopId,
@@ -74,11 +139,19 @@ public class PriceServiceCachedImpl implements PriceService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-allPrices")
+    @Cacheable(value = "priceService-allPrices", sync = true)
     public List<SkuPrice> getAllPrices(final Long productId, final String selectedSku, final String currencyCode) {
         return priceService.getAllPrices(productId, selectedSku, currencyCode);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Pair<Long, SkuPrice>> getAllShopPrices(final long shopId, final String currencyCode) {
+        return priceService.getAllShopPrices(shopId, currencyCode);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -119,7 +192,8 @@ public class PriceServiceCachedImpl implements PriceService {
             "imageService-seoImage" ,
             "priceService-minimalPrice",
             "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "priceService-allPrices",
+            "priceService-priceBook"
     }, allEntries = true)
     public SkuPrice create(final SkuPrice instance) {
         return priceService.create(instance);
@@ -133,7 +207,8 @@ public class PriceServiceCachedImpl implements PriceService {
             "imageService-seoImage" ,
             "priceService-minimalPrice",
             "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "priceService-allPrices",
+            "priceService-priceBook"
     }, allEntries = true)
     public SkuPrice update(final SkuPrice instance) {
         return priceService.update(instance);
@@ -147,7 +222,8 @@ public class PriceServiceCachedImpl implements PriceService {
             "imageService-seoImage" ,
             "priceService-minimalPrice",
             "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "priceService-allPrices",
+            "priceService-priceBook"
     }, allEntries = true)
     public void delete(final SkuPrice instance) {
         priceService.delete(instance);
@@ -157,7 +233,8 @@ public class PriceServiceCachedImpl implements PriceService {
     @CacheEvict(value = {
             "priceService-minimalPrice",
             "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "priceService-allPrices",
+            "priceService-priceBook"
     }, allEntries = true)
     public void refresh(final String shopCode, final String currency) {
         // clear all
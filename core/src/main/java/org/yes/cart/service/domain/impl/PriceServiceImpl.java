@@ -76,6 +76,37 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
         return getMinimalSkuPrice(skuPrices, selectedSku, quantity, enforceTier);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus,
+                                                  final long customerShopId,
+                                                  final Long masterShopId,
+                                                  final String currencyCode,
+                                                  final BigDecimal quantity,
+                                                  final boolean enforceTier,
+                                                  final String pricingPolicy) {
+
+        if (CollectionUtils.isEmpty(selectedSkus)) {
+            return Collections.emptyMap();
+        }
+
+        final Set<String> skus = new HashSet<>(selectedSkus);
+        skus.remove(null);
+
+        final Map<String, List<Pair<String, SkuPrice>>> pricesBySku = new HashMap<>();
+        for (final Pair<String, SkuPrice> price : getSkuPriceFilteredByShopCurrency(skus, customerShopId, masterShopId, currencyCode, pricingPolicy)) {
+            pricesBySku.computeIfAbsent(price.getFirst(), k -> new ArrayList<>()).add(price);
+        }
+
+        final Map<String, SkuPrice> rez = new HashMap<>(skus.size() * 2);
+        for (final String sku : skus) {
+            rez.put(sku, getMinimalSkuPrice(pricesBySku.getOrDefault(sku, Collections.emptyList()), sku, quantity, enforceTier));
+        }
+        return rez;
+    }
+
     private SkuPrice getMinimalSkuPrice(List<Pair<String, SkuPrice>> skuPrices,
                                         final String selectedSku,
                                         final BigDecimal quantity,
@@ -310,6 +341,45 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
 
     }
 
+    private List<Pair<String, SkuPrice>> getSkuPriceFilteredByShopCurrency(final Collection<String> skuCodes,
+                                                                           final long customerShopId,
+                                                                           final Long masterShopId,
+                                                                           final String currencyCode,
+                                                                           final String pricingPolicy) {
+
+        if (skuCodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<SkuPrice> prices;
+        if (StringUtils.isNotBlank(pricingPolicy)) {
+            if (masterShopId != null) {
+                prices = getGenericDao().findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY.AND.SHOPS.AND.POLICY",
+                        skuCodes, currencyCode, customerShopId, masterShopId, pricingPolicy);
+            } else {
+                prices = getGenericDao().findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY.AND.SHOP.AND.POLICY",
+                        skuCodes, currencyCode, customerShopId, pricingPolicy);
+            }
+        } else {
+            if (masterShopId != null) {
+                prices = getGenericDao().findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY.AND.SHOPS",
+                        skuCodes, currencyCode, customerShopId, masterShopId);
+            } else {
+                prices = getGenericDao().findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY.AND.SHOP",
+                        skuCodes, currencyCode, customerShopId);
+            }
+        }
+        if (CollectionUtils.isNotEmpty(prices)) {
+            final List<Pair<String, SkuPrice>> rez = new ArrayList<>(prices.size());
+            for (final SkuPrice price : prices) {
+                rez.add(new Pair<>(price.getSkuCode(), price));
+            }
+            return rez;
+        }
+        return Collections.emptyList();
+
+    }
+
     private List<Pair<String, SkuPrice>> getSkuPriceFilteredByShopCurrency(final long productId,
                                                                            final long customerShopId,
                                                                            final Long masterShopId,
@@ -362,6 +432,24 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
         return Collections.emptyList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Pair<Long, SkuPrice>> getAllShopPrices(final long shopId, final String currencyCode) {
+
+        final List<Object[]> prices = getGenericDao().findQueryObjectsByNamedQuery("SKUPRICE.BY.SHOP.AND.CURRENCY", shopId, currencyCode);
+        if (CollectionUtils.isNotEmpty(prices)) {
+            final List<Pair<Long, SkuPrice>> rez = new ArrayList<>(prices.size());
+            for (final Object[] price : prices) {
+                rez.add(new Pair<>((Long) price[1], (SkuPrice) price[0]));
+            }
+            return rez;
+        }
+        return Collections.emptyList();
+
+    }
+
 
     /**
      * Nice rounding for digits.
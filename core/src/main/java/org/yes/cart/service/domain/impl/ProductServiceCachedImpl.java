@@ -57,7 +57,7 @@ public class ProductServiceCachedImpl implements ProductService {
 
     /** {@inheritDoc} */
     @Override
-    @Cacheable(value = "productService-skuById")
+    @Cacheable(value = "productService-skuById", sync = true)
     public ProductSku getSkuById(final Long skuId, final boolean withAttributes) {
         return productService.getSkuById(skuId, withAttributes);
     }
@@ -70,7 +70,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * @return image file name if found.
      */
     @Override
-    @Cacheable(value = "productService-defaultImage")
+    @Cacheable(value = "productService-defaultImage", sync = true)
     public String getDefaultImage(final Long productId) {
         return productService.getDefaultImage(productId);
     }
@@ -88,7 +88,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-randomProductByCategory"/*, key = "category.getCategoryId()"*/)
+    @Cacheable(value = "productService-randomProductByCategory", sync = true/*, key = "category.getCategoryId()"*/)
     public Product getRandomProductByCategory(final Category category) {
         return productService.getRandomProductByCategory(category);
     }
@@ -99,7 +99,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productAttributes")
+    @Cacheable(value = "productService-productAttributes", sync = true)
     public Map<Pair<String, String>, Map<Pair<String, String>, List<Pair<String, String>>>> getProductAttributes(
             final String locale, final long productId, final long skuId, final long productTypeId) {
         return productService.getProductAttributes(locale, productId, skuId, productTypeId);
@@ -119,7 +119,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-allProductsAttributeValues")
+    @Cacheable(value = "productService-allProductsAttributeValues", sync = true)
     public Map<Long, String> getAllProductsAttributeValues(final String attributeCode) {
         return productService.getAllProductsAttributeValues(attributeCode);
     }
@@ -139,7 +139,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * @return product sku for this sku code
      */
     @Override
-    @Cacheable(value = "productService-productBySkuCode")
+    @Cacheable(value = "productService-productBySkuCode", sync = true)
     public Product getProductBySkuCode(final String skuCode) {
         return productService.getProductBySkuCode(skuCode);
     }
@@ -157,7 +157,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productById")
+    @Cacheable(value = "productService-productById", sync = true)
     public Product getProductById(final Long productId, final boolean withAttribute) {
         return productService.getProductById(productId, withAttribute);
     }
@@ -166,7 +166,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productSearchResultDTOByQuery")
+    @Cacheable(value = "productService-productSearchResultDTOByQuery", sync = true)
     public ProductSearchResultPageDTO getProductSearchResultDTOByQuery(final NavigationContext navigationContext, final int firstResult, final int maxResults, final String sortFieldName, final boolean reverse) {
         return productService.getProductSearchResultDTOByQuery(navigationContext, firstResult, maxResults, sortFieldName, reverse);
     }
@@ -184,7 +184,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productQtyByQuery")
+    @Cacheable(value = "productService-productQtyByQuery", sync = true)
     public int getProductQty(final NavigationContext navigationContext) {
         return productService.getProductQty(navigationContext);
     }
@@ -213,7 +213,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productByIdList")
+    @Cacheable(value = "productService-productByIdList", sync = true)
     public List<Product> getProductByIdList(final List idList) {
         return productService.getProductByIdList(idList);
     }
@@ -335,7 +335,7 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productQtyByCategoryId")
+    @Cacheable(value = "productService-productQtyByCategoryId", sync = true)
     public int getProductQty(final long categoryId) {
         return productService.getProductQty(categoryId);
     }
@@ -431,6 +431,14 @@ public class ProductServiceCachedImpl implements ProductService {
         productService.reindexProductSku(code);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reindexProductSkus(final Collection<String> codes) {
+        productService.reindexProductSkus(codes);
+    }
+
 
     /**
      * {@inheritDoc}
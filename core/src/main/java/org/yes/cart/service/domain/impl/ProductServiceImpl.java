@@ -817,6 +817,29 @@ public class ProductServiceImpl extends BaseGenericServiceImpl<Product> implemen
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reindexProductSkus(final Collection<String> codes) {
+        if (CollectionUtils.isEmpty(codes)) {
+            return;
+        }
+        final List<Object> ids = productSkuDao.findQueryObjectByNamedQuery("SKU.ID.AND.PRODUCT.ID.BY.CODES", new HashSet<>(codes));
+        if (ids.isEmpty()) {
+            return;
+        }
+        final Set<Long> skuIds = new LinkedHashSet<>(ids.size());
+        final Set<Long> productIds = new LinkedHashSet<>();
+        for (final Object id : ids) {
+            final Object[] skuAndProduct = (Object[]) id;
+            skuIds.add((Long) skuAndProduct[0]);
+            productIds.add((Long) skuAndProduct[1]);
+        }
+        productSkuDao.fullTextSearchReindexBatch(skuIds);
+        productDao.fullTextSearchReindexBatch(productIds);
+    }
+
 
     /**
      * {@inheritDoc}
@@ -16,6 +16,8 @@
 
 package org.yes.cart.shoppingcart;
 
+import java.util.Set;
+
 /**
  * Interface that allows to inject custom logic in shopping cart commands.
  *
@@ -32,4 +34,12 @@ public interface ConfigurableShoppingCartCommand extends ShoppingCartCommand {
      */
     void configure(ShoppingCartCommandConfigurationProvider provider);
 
+    /**
+     * Parameter keys this command reacts to. Command factory uses these keys to route bulk
+     * command execution only to commands that are relevant to the given parameters.
+     *
+     * @return parameter keys that trigger this command (empty set to execute command for any parameters)
+     */
+    Set<String> getTriggerKeys();
+
 }
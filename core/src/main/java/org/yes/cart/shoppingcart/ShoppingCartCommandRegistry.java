@@ -30,4 +30,15 @@ public interface ShoppingCartCommandRegistry {
      */
     void registerCommand(final ConfigurableShoppingCartCommand shoppingCartCommand);
 
+    /**
+     * Request recalculation of the cart after it has been modified by command. If the cart is
+     * currently processed by bulk command execution the recalculation is postponed until all
+     * commands in the chain are executed, so that cart is only recalculated once.
+     *
+     * @param shoppingCart cart modified by command
+     *
+     * @return true if recalculation is postponed, false if command should recalculate the cart
+     */
+    boolean deferRecalculation(final ShoppingCart shoppingCart);
+
 }
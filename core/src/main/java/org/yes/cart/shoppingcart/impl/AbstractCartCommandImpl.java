@@ -18,7 +18,9 @@ package org.yes.cart.shoppingcart.impl;
 
 import org.yes.cart.shoppingcart.*;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * User: Igor Azarny iazarny@yahoo.com
@@ -29,6 +31,8 @@ public abstract class AbstractCartCommandImpl implements ConfigurableShoppingCar
 
     private int priority = 0;
 
+    private final ShoppingCartCommandRegistry registry;
+
     private ShoppingCartCommandConfigurationProvider configurationProvider;
 
     /**
@@ -37,6 +41,7 @@ public abstract class AbstractCartCommandImpl implements ConfigurableShoppingCar
      * @param registry shopping cart command registry
      */
     protected AbstractCartCommandImpl(final ShoppingCartCommandRegistry registry) {
+        this.registry = registry;
         registry.registerCommand(this);
     }
 
@@ -48,6 +53,16 @@ public abstract class AbstractCartCommandImpl implements ConfigurableShoppingCar
         this.configurationProvider = provider;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * By default commands react to parameter with command key.
+     */
+    @Override
+    public Set<String> getTriggerKeys() {
+        return Collections.singleton(getCmdKey());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -66,13 +81,16 @@ public abstract class AbstractCartCommandImpl implements ConfigurableShoppingCar
     public abstract void execute(final MutableShoppingCart shoppingCart, final Map<String, Object> parameters);
 
     /**
-     * Recalculate shopping cart.
+     * Recalculate shopping cart. Recalculation is postponed if cart is processed by bulk command
+     * execution, see {@link ShoppingCartCommandRegistry#deferRecalculation(ShoppingCart)}.
      *
      * @param shoppingCart current cart
      */
     protected void recalculate(final MutableShoppingCart shoppingCart) {
-        shoppingCart.recalculate();
-        setCheckoutOptions(shoppingCart);
+        if (!registry.deferRecalculation(shoppingCart)) {
+            shoppingCart.recalculate();
+            setCheckoutOptions(shoppingCart);
+        }
     }
 
     /**
@@ -34,7 +34,9 @@ import org.yes.cart.util.MoneyUtils;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Default calculation strategy provides basic functionality necessary for promotion
@@ -55,6 +57,10 @@ import java.util.List;
  * either fixed price used from SLA (default strategy) or some carrier specific customisation
  * which should be implemented on per project basis.
  *
+ * Item level stages (item promotions and taxes) are skipped if the only input that changed
+ * since last recalculation is the carrier selection (see {@link MutableShoppingCart#getChangedInputs()}),
+ * in which case item prices and taxes already set on the cart items are reused.
+ *
  * Igor Azarny iazarny@yahoo.com
  * Date: 29/11/11
  * Time: 14:22
@@ -65,6 +71,9 @@ public class DefaultAmountCalculationStrategy implements AmountCalculationStrate
     private static final BigDecimal HUNDRED = MoneyUtils.HUNDRED;
     private static final Total ZERO_TOTAL = new TotalImpl();
 
+    private static final Set<MutableShoppingCart.CalculationInput> ITEM_STAGE_INPUTS =
+            EnumSet.complementOf(EnumSet.of(MutableShoppingCart.CalculationInput.CARRIER));
+
     private final TaxProvider taxProvider;
     private final DeliveryCostCalculationStrategy deliveryCostCalculationStrategy;
     private final PromotionContextFactory promotionContextFactory;
@@ -113,11 +122,21 @@ public class DefaultAmountCalculationStrategy implements AmountCalculationStrate
                 cart.getShoppingContext().getCustomerShopCode(), cart.getCurrencyCode()
         );
 
-        // 1. Apply all item level promotions as the first step
-        applyItemLevelPromotions(customer, cart, promoCtx);
+        final Total itemTotal;
+        if (isItemStageUpToDate(cart)) {
+
+            // 1-2. Items are already promoted and taxed, so just calculate current subtotal
+            itemTotal = calculateItemTotal(cart.getCartItemList());
+
+        } else {
+
+            // 1. Apply all item level promotions as the first step
+            applyItemLevelPromotions(customer, cart, promoCtx);
+
+            // 2. Calculate current subtotal (including item promotions, excluding delivery cost)
+            itemTotal = applyTaxToCartItemsAndCalculateItemTotal(cart);
 
-        // 2. Calculate current subtotal (including item promotions, excluding delivery cost)
-        final Total itemTotal = applyTaxToCartItemsAndCalculateItemTotal(cart);
+        }
 
         // 3. Calculate delivery costs (just for reference)
         final Total deliveryCostTotalNoTax = deliveryCostCalculationStrategy.calculate(cart);
@@ -139,6 +158,30 @@ public class DefaultAmountCalculationStrategy implements AmountCalculationStrate
 
     }
 
+    /**
+     * Item level stages can be skipped if none of their inputs changed since last recalculation. Carts with
+     * gifts are always fully recalculated, since order level promotions may add gifts that are only removed
+     * by item level stage.
+     *
+     * @param cart current cart
+     *
+     * @return true if item promotions and taxes set on cart items are still valid
+     */
+    boolean isItemStageUpToDate(final MutableShoppingCart cart) {
+
+        final Set<MutableShoppingCart.CalculationInput> changed = cart.getChangedInputs();
+        if (changed == null || changed.isEmpty()) {
+            return false; // unknown changes
+        }
+        for (final MutableShoppingCart.CalculationInput input : ITEM_STAGE_INPUTS) {
+            if (changed.contains(input)) {
+                return false;
+            }
+        }
+        return !cart.hasGifts();
+
+    }
+
     void applyItemLevelPromotions(final Customer customer,
                                   final MutableShoppingCart cart,
                                   final PromotionContext promoCtx) {
@@ -53,6 +53,8 @@ public class ExpireCartCommandImpl  extends AbstractCartCommandImpl implements S
 
             shoppingCart.getShoppingContext().clearContext();
             shoppingCart.getOrderInfo().clearInfo();
+            shoppingCart.markChanged(MutableShoppingCart.CalculationInput.CUSTOMER);
+            shoppingCart.markChanged(MutableShoppingCart.CalculationInput.ADDRESSES);
 
             setCustomerOptions(shoppingCart);
             setDefaultAddressesIfPossible(shoppingCart);
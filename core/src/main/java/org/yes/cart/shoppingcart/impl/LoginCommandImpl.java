@@ -104,6 +104,8 @@ public class LoginCommandImpl extends AbstractRecalculatePriceCartCommandImpl im
                 setDefaultCustomerOptions(shoppingCart);
                 setDefaultAddressesIfNecessary(current, customer, shoppingCart);
                 setDefaultTaxOptions(shoppingCart);
+                shoppingCart.markChanged(MutableShoppingCart.CalculationInput.CUSTOMER);
+                shoppingCart.markChanged(MutableShoppingCart.CalculationInput.ADDRESSES);
 
                 recalculatePricesInCart(shoppingCart);
                 recalculate(shoppingCart);
@@ -111,6 +113,8 @@ public class LoginCommandImpl extends AbstractRecalculatePriceCartCommandImpl im
             } else {
                 ctx.clearContext();
                 info.clearInfo();
+                shoppingCart.markChanged(MutableShoppingCart.CalculationInput.CUSTOMER);
+                shoppingCart.markChanged(MutableShoppingCart.CalculationInput.ADDRESSES);
                 setDefaultCustomerOptions(shoppingCart);
                 setDefaultTaxOptions(shoppingCart);
                 markDirty(shoppingCart);
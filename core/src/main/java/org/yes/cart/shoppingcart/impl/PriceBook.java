@@ -0,0 +1,175 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.domain.misc.SkuPriceQuantityComparatorImpl;
+import org.yes.cart.util.DateUtils;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Immutable in memory snapshot of all prices of a single shop in single currency.
+ *
+ * Prices are grouped by SKU code into tier arrays sorted by quantity (cheapest first within same tier),
+ * pricing policy and time frame boundaries are precomputed, so lookups do not need to touch entities
+ * other than to return the selected price.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:20
+ */
+final class PriceBook {
+
+    private static final Tier[] NO_TIERS = new Tier[0];
+    private static final String[] NO_SKU = new String[0];
+
+    private static final Comparator<SkuPrice> SORT_PRICE_BY_QUANTITY = new SkuPriceQuantityComparatorImpl();
+
+    private final long shopId;
+    private final String currency;
+    private final Map<String, Tier[]> tiersBySku;
+    private final Map<Long, String[]> skuByProduct;
+
+    /**
+     * @param shopId   shop PK
+     * @param currency currency
+     * @param prices   all prices of the shop in currency paired with product PK of the SKU
+     */
+    PriceBook(final long shopId, final String currency, final List<Pair<Long, SkuPrice>> prices) {
+        this.shopId = shopId;
+        this.currency = currency;
+
+        final Map<String, List<SkuPrice>> bySku = new HashMap<>();
+        final Map<Long, Set<String>> byProduct = new HashMap<>();
+        for (final Pair<Long, SkuPrice> price : prices) {
+            bySku.computeIfAbsent(price.getSecond().getSkuCode(), k -> new ArrayList<>()).add(price.getSecond());
+            if (price.getFirst() != null) {
+                byProduct.computeIfAbsent(price.getFirst(), k -> new HashSet<>()).add(price.getSecond().getSkuCode());
+            }
+        }
+
+        final Map<String, Tier[]> tiersBySku = new HashMap<>(bySku.size() * 2);
+        for (final Map.Entry<String, List<SkuPrice>> sku : bySku.entrySet()) {
+            final List<SkuPrice> skuPrices = sku.getValue();
+            skuPrices.sort(SORT_PRICE_BY_QUANTITY);
+            final Tier[] tiers = new Tier[skuPrices.size()];
+            for (int i = 0; i < tiers.length; i++) {
+                tiers[i] = new Tier(skuPrices.get(i));
+            }
+            tiersBySku.put(sku.getKey(), tiers);
+        }
+        this.tiersBySku = tiersBySku;
+
+        final Map<Long, String[]> skuByProduct = new HashMap<>(byProduct.size() * 2);
+        for (final Map.Entry<Long, Set<String>> product : byProduct.entrySet()) {
+            skuByProduct.put(product.getKey(), product.getValue().toArray(new String[product.getValue().size()]));
+        }
+        this.skuByProduct = skuByProduct;
+    }
+
+    /**
+     * @return shop PK
+     */
+    long getShopId() {
+        return shopId;
+    }
+
+    /**
+     * @return currency
+     */
+    String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @param skuCode SKU code
+     *
+     * @return all tiers for given SKU sorted by quantity (empty if no prices)
+     */
+    Tier[] getTiers(final String skuCode) {
+        final Tier[] tiers = tiersBySku.get(skuCode);
+        return tiers != null ? tiers : NO_TIERS;
+    }
+
+    /**
+     * @param productId product PK
+     *
+     * @return SKU codes of given product that have prices in this book (empty if none)
+     */
+    String[] getSkuCodes(final long productId) {
+        final String[] codes = skuByProduct.get(productId);
+        return codes != null ? codes : NO_SKU;
+    }
+
+    /**
+     * Single price entry with precomputed filtering criteria.
+     */
+    static final class Tier {
+
+        private final SkuPrice price;
+        private final BigDecimal quantity;
+        private final String pricingPolicy;
+        private final long from;
+        private final long to;
+
+        private Tier(final SkuPrice price) {
+            this.price = price;
+            this.quantity = price.getQuantity();
+            this.pricingPolicy = StringUtils.isBlank(price.getPricingPolicy()) ? null : price.getPricingPolicy();
+            this.from = price.getSalefrom() != null ? DateUtils.millis(price.getSalefrom()) : Long.MIN_VALUE;
+            this.to = price.getSaleto() != null ? DateUtils.millis(price.getSaleto()) : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return price entity
+         */
+        SkuPrice getPrice() {
+            return price;
+        }
+
+        /**
+         * @return quantity tier
+         */
+        BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @param now current time in millis (see {@link DateUtils#millis(java.time.LocalDateTime)})
+         *
+         * @return true if price is active at given time
+         */
+        boolean isAvailable(final long now) {
+            return from <= now && now <= to;
+        }
+
+        /**
+         * @param policy pricing policy (or null for default)
+         *
+         * @return true if price without policy or price of given policy
+         */
+        boolean isApplicable(final String policy) {
+            return pricingPolicy == null || pricingPolicy.equals(policy);
+        }
+
+    }
+
+}
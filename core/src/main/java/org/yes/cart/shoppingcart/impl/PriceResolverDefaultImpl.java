@@ -21,7 +21,9 @@ import org.yes.cart.service.domain.PriceService;
 import org.yes.cart.shoppingcart.PriceResolver;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -42,6 +44,12 @@ public class PriceResolverDefaultImpl implements PriceResolver {
         return this.priceService.getMinimalPrice(productId, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus, final long customerShopId, final Long masterShopId, final String currencyCode, final BigDecimal quantity, final boolean enforceTier, final String pricingPolicy) {
+        return this.priceService.getMinimalPrices(selectedSkus, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<SkuPrice> getAllCurrentPrices(final Long productId, final String selectedSku, final long customerShopId, final Long masterShopId, final String currencyCode, final String pricingPolicy) {
@@ -25,6 +25,7 @@ import org.yes.cart.domain.entity.SkuPrice;
 import org.yes.cart.shoppingcart.PriceResolver;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +56,12 @@ public class PriceResolverImpl
         return getPriceResolver(customerShopId).getMinimalPrice(productId, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus, final long customerShopId, final Long masterShopId, final String currencyCode, final BigDecimal quantity, final boolean enforceTier, final String pricingPolicy) {
+        return getPriceResolver(customerShopId).getMinimalPrices(selectedSkus, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<SkuPrice> getAllCurrentPrices(final Long productId, final String selectedSku, final long customerShopId, final Long masterShopId, final String currencyCode, final String pricingPolicy) {
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.impl.SkuPriceCacheDependencyExtractorImpl;
+import org.yes.cart.config.Configuration;
+import org.yes.cart.config.ConfigurationContext;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.SkuPriceQuantityComparatorImpl;
+import org.yes.cart.service.domain.PriceService;
+import org.yes.cart.shoppingcart.PriceResolver;
+import org.yes.cart.util.DateUtils;
+import org.yes.cart.util.MoneyUtils;
+import org.yes.cart.util.TimeContext;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Price resolver that reads prices from in memory price books (one per shop and currency) instead of
+ * querying prices on every call. Books are kept in "priceService-priceBook" cache, built on first access
+ * and evicted per shop and currency when prices change (or all on {@link PriceService#refresh(String, String)}).
+ *
+ * Resolver is optional and can be enabled per shop using SHOPCODE.priceResolver=priceResolverPriceBook.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:45
+ */
+public class PriceResolverPriceBookImpl implements PriceResolver, Configuration {
+
+    private static final Comparator<SkuPrice> SORT_PRICE_BY_QUANTITY = new SkuPriceQuantityComparatorImpl();
+
+    private final PriceService priceService;
+    private final Cache priceBookCache;
+
+    private ConfigurationContext cfgContext;
+
+    public PriceResolverPriceBookImpl(final PriceService priceService,
+                                      final CacheManager cacheManager) {
+        this.priceService = priceService;
+        this.priceBookCache = cacheManager.getCache("priceService-priceBook");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SkuPrice getMinimalPrice(final Long productId, final String selectedSku, final long customerShopId, final Long masterShopId, final String currencyCode, final BigDecimal quantity, final boolean enforceTier, final String pricingPolicy) {
+
+        final List<PriceBook.Tier> tiers;
+        if (selectedSku == null && productId != null) {
+            tiers = getTiers(productId, customerShopId, masterShopId, currencyCode, pricingPolicy, quantity);
+        } else if (selectedSku != null) {
+            tiers = getTiers(selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy, quantity);
+        } else {
+            tiers = Collections.emptyList();
+        }
+
+        return getMinimalSkuPrice(tiers, enforceTier);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus, final long customerShopId, final Long masterShopId, final String currencyCode, final BigDecimal quantity, final boolean enforceTier, final String pricingPolicy) {
+
+        if (CollectionUtils.isEmpty(selectedSkus)) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, SkuPrice> rez = new HashMap<>(selectedSkus.size() * 2);
+        for (final String sku : selectedSkus) {
+            if (sku != null && !rez.containsKey(sku)) {
+                rez.put(sku, getMinimalSkuPrice(getTiers(sku, customerShopId, masterShopId, currencyCode, pricingPolicy, quantity), enforceTier));
+            }
+        }
+        return rez;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<SkuPrice> getAllCurrentPrices(final Long productId, final String selectedSku, final long customerShopId, final Long masterShopId, final String currencyCode, final String pricingPolicy) {
+
+        final List<PriceBook.Tier> tiers;
+        if (selectedSku == null && productId != null) {
+            tiers = getTiers(productId, customerShopId, masterShopId, currencyCode, pricingPolicy, null);
+        } else if (selectedSku != null) {
+            tiers = getTiers(selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy, null);
+        } else {
+            tiers = Collections.emptyList();
+        }
+
+        final List<SkuPrice> prices = new ArrayList<>(tiers.size());
+        for (final PriceBook.Tier tier : tiers) {
+            prices.add(tier.getPrice());
+        }
+
+        prices.sort(SORT_PRICE_BY_QUANTITY);
+
+        final Iterator<SkuPrice> pricesIt = prices.iterator();
+        BigDecimal tier = null;
+        while (pricesIt.hasNext()) {
+            final SkuPrice price = pricesIt.next();
+            if (tier == null || !MoneyUtils.isFirstEqualToSecond(price.getQuantity(), tier)) {
+                // first item or next tier
+                tier = price.getQuantity();
+            } else {
+                // same tier but with higher price
+                pricesIt.remove();
+            }
+        }
+
+        return prices;
+    }
+
+    /*
+     * Same selection as in PriceServiceImpl, tiers are already filtered by time frame and quantity.
+     */
+    private SkuPrice getMinimalSkuPrice(final List<PriceBook.Tier> tiers, final boolean enforceTier) {
+
+        BigDecimal overallMinimalRegularPrice = null;
+        BigDecimal overallMinimalRegularPriceTier = null;
+        SkuPrice rez = null;
+        for (final PriceBook.Tier tier : tiers) {
+            final BigDecimal minPrice = MoneyUtils.minPositive(tier.getPrice().getSalePriceForCalculation());
+            if (
+                    // Starting point of search
+                    overallMinimalRegularPrice == null
+                    ||
+                    // We do not enforce tier and we look for cheapest price
+                    (
+                            !enforceTier &&
+                            MoneyUtils.isFirstBiggerThanSecond(overallMinimalRegularPrice, minPrice)
+                    )
+                    ||
+                    // We enforce tier and look for largest tier with cheapest price
+                    (
+                            enforceTier &&
+                            (
+                                    // Tier is higher, so enforce
+                                    MoneyUtils.isFirstBiggerThanSecond(tier.getQuantity(), overallMinimalRegularPriceTier)
+                            )
+                            ||
+                            (
+                                    // Tier is same but cheaper price
+                                    MoneyUtils.isFirstEqualToSecond(tier.getQuantity(), overallMinimalRegularPriceTier) &&
+                                    MoneyUtils.isFirstBiggerThanSecond(overallMinimalRegularPrice, minPrice)
+                            )
+                    )) {
+                overallMinimalRegularPrice = minPrice;
+                overallMinimalRegularPriceTier = tier.getQuantity();
+                rez = tier.getPrice();
+            }
+        }
+        if (rez == null) {
+            return priceService.getGenericDao().getEntityFactory().getByIface(SkuPrice.class);
+        }
+        return rez;
+    }
+
+    private List<PriceBook.Tier> getTiers(final long productId,
+                                          final long customerShopId,
+                                          final Long masterShopId,
+                                          final String currencyCode,
+                                          final String pricingPolicy,
+                                          final BigDecimal quantity) {
+
+        final String policy = StringUtils.isBlank(pricingPolicy) ? null : pricingPolicy;
+        final long now = now();
+
+        final List<PriceBook.Tier> rez = new ArrayList<>();
+        final PriceBook customer = getPriceBook(customerShopId, currencyCode);
+        for (final String sku : customer.getSkuCodes(productId)) {
+            collectTiers(customer.getTiers(sku), policy, quantity, now, rez);
+        }
+        if (masterShopId != null) {
+            final PriceBook master = getPriceBook(masterShopId, currencyCode);
+            for (final String sku : master.getSkuCodes(productId)) {
+                collectTiers(master.getTiers(sku), policy, quantity, now, rez);
+            }
+        }
+        return rez;
+    }
+
+    private List<PriceBook.Tier> getTiers(final String skuCode,
+                                          final long customerShopId,
+                                          final Long masterShopId,
+                                          final String currencyCode,
+                                          final String pricingPolicy,
+                                          final BigDecimal quantity) {
+
+        final String policy = StringUtils.isBlank(pricingPolicy) ? null : pricingPolicy;
+        final long now = now();
+
+        final List<PriceBook.Tier> rez = new ArrayList<>();
+        collectTiers(getPriceBook(customerShopId, currencyCode).getTiers(skuCode), policy, quantity, now, rez);
+        if (masterShopId != null) {
+            collectTiers(getPriceBook(masterShopId, currencyCode).getTiers(skuCode), policy, quantity, now, rez);
+        }
+        return rez;
+    }
+
+    private void collectTiers(final PriceBook.Tier[] tiers,
+                              final String policy,
+                              final BigDecimal quantity,
+                              final long now,
+                              final List<PriceBook.Tier> rez) {
+
+        for (final PriceBook.Tier tier : tiers) {
+            if (quantity != null && !MoneyUtils.isFirstBiggerThanOrEqualToSecond(quantity, tier.getQuantity())) {
+                break; // tiers are sorted by quantity, so all remaining tiers are higher
+            }
+            if (tier.isApplicable(policy) && tier.isAvailable(now)) {
+                rez.add(tier);
+            }
+        }
+    }
+
+    PriceBook getPriceBook(final long shopId, final String currencyCode) {
+
+        return this.priceBookCache.get(
+                SkuPriceCacheDependencyExtractorImpl.shopCurrency(shopId, currencyCode),
+                () -> new PriceBook(shopId, currencyCode, priceService.getAllShopPrices(shopId, currencyCode))
+        );
+
+    }
+
+    long now() {
+        return DateUtils.millis(TimeContext.getLocalDateTime());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ConfigurationContext getCfgContext() {
+        return cfgContext;
+    }
+
+    public void setCfgContext(final ConfigurationContext cfgContext) {
+        this.cfgContext = cfgContext;
+    }
+}
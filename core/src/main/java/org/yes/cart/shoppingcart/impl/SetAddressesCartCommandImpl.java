@@ -104,6 +104,7 @@ public class SetAddressesCartCommandImpl extends AbstractCartCommandImpl impleme
             }
 
             if (changed) {
+                shoppingCart.markChanged(MutableShoppingCart.CalculationInput.ADDRESSES);
                 recalculate(shoppingCart);
                 markDirty(shoppingCart);
             }
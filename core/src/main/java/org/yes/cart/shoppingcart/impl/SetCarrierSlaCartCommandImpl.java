@@ -91,6 +91,9 @@ public class SetCarrierSlaCartCommandImpl extends AbstractCartCommandImpl implem
 
                 if (!selection.isEmpty()) {
 
+                    final String countryCode = shoppingCart.getShoppingContext().getCountryCode();
+                    final String stateCode = shoppingCart.getShoppingContext().getStateCode();
+
                     for (final Map.Entry<String, Long> slaSelection : selection.entrySet()) {
                         LOG.debug("Set carrier sla to {} for '{}'", slaSelection.getValue(), slaSelection.getKey());
                         if (slaSelection.getValue() <= 0L) {
@@ -116,6 +119,12 @@ public class SetCarrierSlaCartCommandImpl extends AbstractCartCommandImpl implem
                     // if this is named delivery determine available dates
                     this.deliveryTimeEstimationVisitor.visit(shoppingCart);
 
+                    shoppingCart.markChanged(MutableShoppingCart.CalculationInput.CARRIER);
+                    if (!StringUtils.equals(countryCode, shoppingCart.getShoppingContext().getCountryCode())
+                            || !StringUtils.equals(stateCode, shoppingCart.getShoppingContext().getStateCode())) {
+                        shoppingCart.markChanged(MutableShoppingCart.CalculationInput.ADDRESSES);
+                    }
+
                     recalculate(shoppingCart);
                     markDirty(shoppingCart);
                 }
@@ -38,9 +38,11 @@ public class ShoppingCartCommandFactoryImpl implements ShoppingCartCommandFactor
 
     private final ShoppingCartCommandConfigurationProvider configurationProvider;
 
-    private ConfigurableShoppingCartCommand[] commands;
+    private volatile CommandChain chain = new CommandChain(new ConfigurableShoppingCartCommand[0]);
     private final Map<String, ConfigurableShoppingCartCommand> commandByKey = new HashMap<>();
 
+    private final ThreadLocal<ChainExecution> execution = new ThreadLocal<>();
+
     public ShoppingCartCommandFactoryImpl(final ShoppingCartCommandConfigurationProvider configurationProvider) {
         this.configurationProvider = configurationProvider;
     }
@@ -58,7 +60,7 @@ public class ShoppingCartCommandFactoryImpl implements ShoppingCartCommandFactor
             }
             command.configure(this.configurationProvider);
             commandByKey.put(command.getCmdKey(), command);
-            commands = remapCommandChain(commandByKey.values());
+            chain = new CommandChain(remapCommandChain(commandByKey.values()));
         }
     }
 
@@ -68,11 +70,56 @@ public class ShoppingCartCommandFactoryImpl implements ShoppingCartCommandFactor
         return ordered.toArray(new ConfigurableShoppingCartCommand[ordered.size()]);
     }
 
+    /**
+     * Determine commands triggered by given parameters.
+     *
+     * @param parameters command parameters
+     *
+     * @return triggered commands in priority order
+     */
+    ConfigurableShoppingCartCommand[] getTriggeredCommands(final Map<String, Object> parameters) {
+        return chain.getTriggered(parameters.keySet());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean deferRecalculation(final ShoppingCart shoppingCart) {
+        final ChainExecution current = execution.get();
+        if (current != null && current.cart == shoppingCart) {
+            current.recalculate = true;
+            return true;
+        }
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void execute(final ShoppingCart shoppingCart, final Map<String, Object> parameters) {
-        for (ShoppingCartCommand command : commands) {
-            command.execute(shoppingCart, parameters);
+
+        final ConfigurableShoppingCartCommand[] triggered = getTriggeredCommands(parameters);
+        if (triggered.length == 0) {
+            return;
+        }
+
+        final ChainExecution outer = execution.get();
+        final ChainExecution current = new ChainExecution(shoppingCart);
+        execution.set(current);
+        try {
+            for (final ShoppingCartCommand command : triggered) {
+                command.execute(shoppingCart, parameters);
+            }
+        } finally {
+            if (outer != null) {
+                execution.set(outer);
+            } else {
+                execution.remove();
+            }
+        }
+        // only reached if all commands succeeded, so that recalculation failure does not mask command failure
+        if (current.recalculate) {
+            // all recalculation requests within the chain are coalesced into single recalculation
+            ((MutableShoppingCart) shoppingCart).recalculate();
+            this.configurationProvider.provide("CHECKOUT").visit(shoppingCart);
         }
     }
 
@@ -97,4 +144,60 @@ public class ShoppingCartCommandFactoryImpl implements ShoppingCartCommandFactor
     public int getPriority() {
         return 0;
     }
+
+    /**
+     * Immutable snapshot of the command chain with index of commands by trigger key.
+     */
+    private static final class CommandChain {
+
+        private final ConfigurableShoppingCartCommand[] commands;
+        private final Map<String, BitSet> commandsByTriggerKey = new HashMap<>();
+        private final BitSet unconditional = new BitSet();
+
+        private CommandChain(final ConfigurableShoppingCartCommand[] commands) {
+            this.commands = commands;
+            for (int i = 0; i < commands.length; i++) {
+                final Set<String> keys = commands[i].getTriggerKeys();
+                if (keys == null || keys.isEmpty()) {
+                    unconditional.set(i);
+                } else {
+                    for (final String key : keys) {
+                        commandsByTriggerKey.computeIfAbsent(key, k -> new BitSet()).set(i);
+                    }
+                }
+            }
+        }
+
+        private ConfigurableShoppingCartCommand[] getTriggered(final Set<String> parameterKeys) {
+            final BitSet triggered = (BitSet) unconditional.clone();
+            for (final String key : parameterKeys) {
+                final BitSet byKey = commandsByTriggerKey.get(key);
+                if (byKey != null) {
+                    triggered.or(byKey);
+                }
+            }
+            final ConfigurableShoppingCartCommand[] rez = new ConfigurableShoppingCartCommand[triggered.cardinality()];
+            int pos = 0;
+            for (int i = triggered.nextSetBit(0); i >= 0; i = triggered.nextSetBit(i + 1)) {
+                rez[pos++] = commands[i];
+            }
+            return rez;
+        }
+
+    }
+
+    /**
+     * State of the bulk execution of command chain for a cart on current thread.
+     */
+    private static final class ChainExecution {
+
+        private final ShoppingCart cart;
+        private boolean recalculate;
+
+        private ChainExecution(final ShoppingCart cart) {
+            this.cart = cart;
+        }
+
+    }
+
 }
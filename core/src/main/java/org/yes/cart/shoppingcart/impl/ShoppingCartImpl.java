@@ -81,6 +81,8 @@ public class ShoppingCartImpl implements MutableShoppingCart {
 
     private transient AmountCalculationStrategy calculationStrategy;
 
+    private transient Set<CalculationInput> changedInputs;
+
 
     private AmountCalculationStrategy getCalculationStrategy() {
         if (calculationStrategy == null) {
@@ -117,6 +119,8 @@ public class ShoppingCartImpl implements MutableShoppingCart {
         orderInfo.clearInfo();
         total = new TotalImpl();
         modifiedTimestamp = now();
+        markChanged(CalculationInput.ITEMS);
+        markChanged(CalculationInput.COUPONS);
     }
 
     long now() {
@@ -127,6 +131,28 @@ public class ShoppingCartImpl implements MutableShoppingCart {
     @Override
     public void recalculate() {
         total = getCalculationStrategy().calculate(this);
+        if (changedInputs != null) {
+            changedInputs.clear();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void markChanged(final CalculationInput input) {
+        if (changedInputs == null) {
+            changedInputs = EnumSet.noneOf(CalculationInput.class);
+        }
+        changedInputs.add(input);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @JsonIgnore
+    public Set<CalculationInput> getChangedInputs() {
+        if (changedInputs == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(changedInputs);
     }
 
     /** {@inheritDoc} */
@@ -240,6 +266,8 @@ public class ShoppingCartImpl implements MutableShoppingCart {
     @Override
     public boolean addProductSkuToCart(final String sku, final String skuName, final BigDecimal quantity) {
 
+        markChanged(CalculationInput.ITEMS);
+
         final int skuIndex = indexOfProductSku(sku);
         if (skuIndex != -1) {
             getItems().get(skuIndex).addQuantity(quantity);
@@ -335,6 +363,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
             newItem.setSupplierCode(getItems().get(skuIndex).getSupplierCode());
             getItems().set(skuIndex, newItem);
         }
+        markChanged(CalculationInput.ITEMS);
         return true;
     }
 
@@ -354,6 +383,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
                 (bucket != null && !bucket.equals(deliveryBucket))) {
             item.setSupplierCode(deliveryBucket.getSupplier());
             item.setDeliveryGroup(deliveryBucket.getGroup());
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -375,6 +405,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
                 (bucket != null && !bucket.equals(deliveryBucket))) {
             item.setSupplierCode(deliveryBucket.getSupplier());
             item.setDeliveryGroup(deliveryBucket.getGroup());
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -386,6 +417,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
         final int skuIndex = indexOfProductSku(productSku);
         if (skuIndex != -1) {
             getItems().remove(skuIndex);
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -401,6 +433,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
             } catch (final CartItemRequiresDeletion cartItemRequiresDeletion) {
                 getItems().remove(skuIndex);
             }
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -439,6 +472,9 @@ public class ShoppingCartImpl implements MutableShoppingCart {
                 item.setFixedPrice(false);
             }
         }
+        if (removed) {
+            markChanged(CalculationInput.ITEMS);
+        }
         return removed;
     }
 
@@ -488,6 +524,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
                 cartItem.setAppliedPromo(null);
                 cartItem.setPromoApplied(false);
             }
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -553,6 +590,7 @@ public class ShoppingCartImpl implements MutableShoppingCart {
             cartItem.setAppliedPromo(authCode); // Only one Auth code for offer
             cartItem.setPromoApplied(false); // This is not promotion, promotions are removed every time we recalculate
             cartItem.setFixedPrice(true); // Offers do not participate in promotions
+            markChanged(CalculationInput.ITEMS);
             return true;
         }
         return false;
@@ -667,13 +705,21 @@ public class ShoppingCartImpl implements MutableShoppingCart {
     /** {@inheritDoc} */
     @Override
     public boolean addCoupon(final String coupon) {
-        return coupons.add(coupon);
+        if (coupons.add(coupon)) {
+            markChanged(CalculationInput.COUPONS);
+            return true;
+        }
+        return false;
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean removeCoupon(final String coupon) {
-        return coupons.remove(coupon);
+        if (coupons.remove(coupon)) {
+            markChanged(CalculationInput.COUPONS);
+            return true;
+        }
+        return false;
     }
 
     /** {@inheritDoc} */
@@ -759,6 +805,9 @@ public class ShoppingCartImpl implements MutableShoppingCart {
     /** {@inheritDoc} */
     @Override
     public void setCurrencyCode(final String currencyCode) {
+        if (!StringUtils.equals(this.currencyCode, currencyCode)) {
+            markChanged(CalculationInput.CURRENCY);
+        }
         this.currencyCode = currencyCode;
     }
 
@@ -799,6 +848,9 @@ public class ShoppingCartImpl implements MutableShoppingCart {
     /** {@inheritDoc} */
     @Override
     public void setPromotionsDisabled(final boolean promotionsDisabled) {
+        if (this.promotionsDisabled != promotionsDisabled) {
+            markChanged(CalculationInput.ITEMS);
+        }
         this.promotionsDisabled = promotionsDisabled;
     }
 
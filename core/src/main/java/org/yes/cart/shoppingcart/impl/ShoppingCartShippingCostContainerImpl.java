@@ -23,6 +23,7 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This is a read only container that allows to provide a view of cart with a different shipping
@@ -268,6 +269,16 @@ public class ShoppingCartShippingCostContainerImpl implements MutableShoppingCar
 
     }
 
+    @Override
+    public void markChanged(final CalculationInput input) {
+
+    }
+
+    @Override
+    public Set<CalculationInput> getChangedInputs() {
+        return Collections.emptySet();
+    }
+
     @Override
     public boolean addProductSkuToCart(final String sku, final String skuName, final BigDecimal quantity) {
         return false;
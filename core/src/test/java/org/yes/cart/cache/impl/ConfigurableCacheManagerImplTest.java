@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:55
+ */
+public class ConfigurableCacheManagerImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testDefaultEhcache() throws Exception {
+
+        final CacheManager ehcache = context.mock(CacheManager.class, "ehcache");
+        final CacheManager tinyLfu = context.mock(CacheManager.class, "tinyLfu");
+        final Cache cache = context.mock(Cache.class);
+
+        context.checking(new Expectations() {{
+            oneOf(ehcache).getCache("c1"); will(returnValue(cache));
+        }});
+
+        final ConfigurableCacheManagerImpl manager = new ConfigurableCacheManagerImpl(ehcache, tinyLfu);
+        manager.setConfig(new ClassPathResource("no-such-config.properties"));
+
+        assertSame(cache, manager.getCache("c1"));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testEhcache() throws Exception {
+
+        final CacheManager ehcache = context.mock(CacheManager.class, "ehcache");
+        final CacheManager tinyLfu = context.mock(CacheManager.class, "tinyLfu");
+        final Cache cache = context.mock(Cache.class);
+
+        context.checking(new Expectations() {{
+            oneOf(ehcache).getCache("c1"); will(returnValue(cache));
+        }});
+
+        final ConfigurableCacheManagerImpl manager = new ConfigurableCacheManagerImpl(ehcache, tinyLfu);
+        manager.setConfig(new ByteArrayResource("cache.provider=ehcache\n".getBytes("UTF-8")));
+
+        assertSame(cache, manager.getCache("c1"));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testTinyLfu() throws Exception {
+
+        final CacheManager ehcache = context.mock(CacheManager.class, "ehcache");
+        final CacheManager tinyLfu = context.mock(CacheManager.class, "tinyLfu");
+        final Cache cache = context.mock(Cache.class);
+
+        context.checking(new Expectations() {{
+            oneOf(tinyLfu).getCache("c1"); will(returnValue(cache));
+        }});
+
+        final ConfigurableCacheManagerImpl manager = new ConfigurableCacheManagerImpl(ehcache, tinyLfu);
+        manager.setConfig(new ByteArrayResource("cache.provider=tinylfu\n".getBytes("UTF-8")));
+
+        assertSame(cache, manager.getCache("c1"));
+
+        context.assertIsSatisfied();
+
+    }
+
+}
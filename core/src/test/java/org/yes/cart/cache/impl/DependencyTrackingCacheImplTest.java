@@ -0,0 +1,214 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.ehcache.EhCacheCache;
+import org.yes.cart.cache.CacheDependencyExtractor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:10
+ */
+public class DependencyTrackingCacheImplTest {
+
+    private final CacheDependencyExtractor extractor = (key, value) -> Collections.singletonList("dep:" + key);
+
+    @Test
+    public void testEvictDependents() throws Exception {
+
+        final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(new ConcurrentMapCache("deps"), extractor, 100);
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals("C", cache.get("c", () -> "C"));
+
+        assertEquals(1, cache.evictDependents(Collections.singletonList("dep:a")));
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+
+        assertEquals(2, cache.evictDependents(Arrays.asList("dep:b", "dep:c", "dep:x")));
+        assertNull(cache.get("b"));
+        assertNull(cache.get("c"));
+
+    }
+
+    @Test
+    public void testEvictDependentsWhileLoadingEvictsLoadedValue() throws Exception {
+
+        final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(new ConcurrentMapCache("deps"), extractor, 100);
+
+        assertEquals("A", cache.get("a", () -> {
+            cache.evictDependents(Collections.singletonList("dep:a")); // data changed while loading
+            return "A";
+        }));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.evictDependents(Collections.singletonList("dep:a")));
+
+        assertEquals("A", cache.get("a", () -> "A"));
+        assertNotNull(cache.get("a"));
+
+    }
+
+    @Test
+    public void testPutWhileLoadingDoesNotDeadlock() throws Exception {
+
+        final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(newTinyLfu(10), extractor, 100);
+
+        final CountDownLatch loading = new CountDownLatch(1);
+        final Thread loader = new Thread(() -> cache.get("a", () -> {
+            loading.countDown();
+            Thread.sleep(200L); // let writer block on the key
+            return "A1";
+        }));
+        final Thread writer = new Thread(() -> {
+            try {
+                loading.await();
+                cache.put("a", "A2");
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        loader.start();
+        writer.start();
+        loader.join(TimeUnit.SECONDS.toMillis(5L));
+        writer.join(TimeUnit.SECONDS.toMillis(5L));
+
+        assertFalse(loader.isAlive());
+        assertFalse(writer.isAlive());
+
+        // whatever is in cache must be tracked
+        final boolean cached = cache.get("a") != null;
+        assertEquals(cached ? 1 : 0, cache.evictDependents(Collections.singletonList("dep:a")));
+        assertNull(cache.get("a"));
+
+    }
+
+    @Test
+    public void testTinyLfuEvictionPrunesIndex() throws Exception {
+
+        final TinyLfuCacheImpl tinyLfu = newTinyLfu(2);
+
+        // limit is not applied since index is pruned by eviction events
+        final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(tinyLfu, extractor, 1);
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        tinyLfu.getCache().cleanUp();
+
+        assertEquals(2L, tinyLfu.getCache().estimatedSize());
+
+        int evicted = 0;
+        for (final String key : Arrays.asList("a", "b", "c")) {
+            final boolean cached = cache.get(key) != null;
+            // evicted by Caffeine, hence no longer in index
+            assertEquals(cached ? 1 : 0, cache.evictDependents(Collections.singletonList("dep:" + key)));
+            assertNull(cache.get(key));
+            if (!cached) {
+                evicted++;
+            }
+        }
+        assertEquals(1, evicted);
+
+    }
+
+    private TinyLfuCacheImpl newTinyLfu(final long maxSize) {
+        final AtomicReference<TinyLfuCacheImpl> created = new AtomicReference<>();
+        created.set(new TinyLfuCacheImpl("deps", Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .executor(Runnable::run)
+                .removalListener((key, value, cause) -> created.get().onRemoval(key, cause))
+                .build(), true, 0, 0, false, 0L, null, false));
+        return created.get();
+    }
+
+    @Test
+    public void testMaxTrackedKeysWithoutEvictionEvents() throws Exception {
+
+        final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(new ConcurrentMapCache("deps"), extractor, 2);
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C"); // index is full, cache is cleared, but new entry is still tracked
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        assertEquals(1, cache.evictDependents(Collections.singletonList("dep:c")));
+        assertNull(cache.get("c"));
+
+    }
+
+    @Test
+    public void testEhcacheEvictionPrunesIndex() throws Exception {
+
+        final CacheManager manager = new CacheManager(new Configuration().name("DependencyTrackingCacheImplTest"));
+        try {
+
+            final net.sf.ehcache.Cache ehcache = new net.sf.ehcache.Cache(new CacheConfiguration("deps", 2).eternal(true));
+            manager.addCache(ehcache);
+
+            // limit is not applied since index is pruned by eviction events
+            final DependencyTrackingCacheImpl cache = new DependencyTrackingCacheImpl(new EhCacheCache(ehcache), extractor, 1);
+
+            cache.put("a", "A");
+            cache.put("b", "B");
+            cache.put("c", "C");
+
+            assertEquals(2, ehcache.getSize());
+
+            int evicted = 0;
+            for (final String key : Arrays.asList("a", "b", "c")) {
+                final boolean cached = cache.get(key) != null;
+                // evicted by Ehcache, hence no longer in index
+                assertEquals(cached ? 1 : 0, cache.evictDependents(Collections.singletonList("dep:" + key)));
+                assertNull(cache.get(key));
+                if (!cached) {
+                    evicted++;
+                }
+            }
+            assertEquals(1, evicted);
+
+            cache.put("d", "D");
+            ehcache.remove("d");
+            assertEquals(0, cache.evictDependents(Collections.singletonList("dep:d")));
+
+        } finally {
+            manager.shutdown();
+        }
+
+    }
+
+}
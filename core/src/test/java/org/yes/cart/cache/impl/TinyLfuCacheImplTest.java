@@ -0,0 +1,165 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Test;
+import org.yes.cart.domain.dto.impl.CacheInfoDTO;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:30
+ */
+public class TinyLfuCacheImplTest {
+
+    private final AtomicLong ticker = new AtomicLong(0L);
+
+    private Cache<Object, Object> newCaffeine(final long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(60, TimeUnit.SECONDS)
+                .ticker(ticker::get)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl("test", newCaffeine(2), false, 60, 0, false, 0L, null, true);
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.getCache().cleanUp();
+
+        final CacheInfoDTO info = cache.getCacheInfo();
+        assertEquals(2, info.getCacheSize());
+        assertEquals(2L, info.getInMemorySizeMax());
+        assertEquals(1L, info.getEvictions());
+        assertEquals("W-TinyLFU", info.getMemoryStoreEvictionPolicy());
+
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl("test", newCaffeine(10), false, 60, 0, false, 0L, null, true);
+
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a").get());
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(61L));
+
+        assertNull(cache.get("a"));
+
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl("test", newCaffeine(10), false, 60, 0, false,
+                TimeUnit.SECONDS.toMillis(30L), Runnable::run, true);
+
+        final AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("V1", cache.get("a", () -> "V" + loads.incrementAndGet()));
+
+        // not old enough
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10L));
+        assertEquals("V1", cache.get("a", () -> "V" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+
+        // old enough, current value is returned and reloaded in background
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(25L));
+        assertEquals("V1", cache.get("a", () -> "V" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+        assertEquals("V2", cache.get("a").get());
+
+        // refresh resets age, so entry does not expire at original time to live
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(40L));
+        assertEquals("V2", cache.get("a").get());
+
+    }
+
+    @Test
+    public void testRefreshAheadRejected() throws Exception {
+
+        final AtomicInteger executed = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger(1);
+
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl("test", newCaffeine(10), false, 60, 0, false,
+                TimeUnit.SECONDS.toMillis(30L), command -> {
+                    if (rejected.getAndDecrement() > 0) {
+                        throw new RejectedExecutionException("busy");
+                    }
+                    executed.incrementAndGet();
+                    command.run();
+                }, true);
+
+        assertEquals("V1", cache.get("a", () -> "V1"));
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(35L));
+
+        // executor is busy, value is still served
+        assertEquals("V1", cache.get("a", () -> "V2"));
+        assertEquals(0, executed.get());
+        assertEquals("V1", cache.get("a").get());
+
+        // key is not stuck in refreshing state
+        assertEquals("V1", cache.get("a", () -> "V3"));
+        assertEquals(1, executed.get());
+        assertEquals("V3", cache.get("a").get());
+
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+
+        final TinyLfuCacheImpl cache = new TinyLfuCacheImpl("test", newCaffeine(10), false, 60, 0, false, 0L, null, true);
+
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a").get());
+        assertEquals("A", cache.get("a", () -> "B"));
+
+        CacheInfoDTO info = cache.getCacheInfo();
+        assertTrue(info.isStats());
+        assertEquals(2L, info.getHits());
+        assertEquals(1L, info.getMisses());
+
+        cache.setStatisticsEnabled(false);
+
+        info = cache.getCacheInfo();
+        assertFalse(info.isStats());
+        assertEquals(-1L, info.getHits());
+        assertEquals(-1L, info.getMisses());
+        assertEquals(1, info.getCacheSize());
+
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.pool.sizeof.ReflectionSizeOf;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.ehcache.EhCacheCache;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
+import org.springframework.core.io.ByteArrayResource;
+import org.yes.cart.domain.dto.impl.CacheInfoDTO;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:45
+ */
+public class TinyLfuCacheManagerImplTest {
+
+    private CacheManager ehcache;
+    private TinyLfuCacheManagerImpl cacheManager;
+
+    @Before
+    public void setUp() throws Exception {
+
+        ehcache = new CacheManager(new Configuration()
+                .name("TinyLfuCacheManagerImplTest")
+                .cache(new CacheConfiguration("ttl", 100).timeToLiveSeconds(60).statistics(true))
+                .cache(new CacheConfiguration("eternal", 5).eternal(true))
+                .cache(new CacheConfiguration("bytes", 1000).eternal(true))
+                .cache(new CacheConfiguration("sampled", 1000).eternal(true))
+                .cache(new CacheConfiguration("ehonly", 10).eternal(true)));
+
+        final EhCacheCacheManager ehcacheCacheManager = new EhCacheCacheManager(ehcache);
+        ehcacheCacheManager.afterPropertiesSet();
+
+        cacheManager = new TinyLfuCacheManagerImpl(ehcache, ehcacheCacheManager);
+        cacheManager.setEhcacheCaches(Collections.singleton("ehonly"));
+        cacheManager.setConfig(new ByteArrayResource((
+                "cache.tinylfu.maxBytes.bytes=1000\n" +
+                "cache.tinylfu.entryBytes.bytes=100\n" +
+                "cache.tinylfu.maxBytes.sampled=1000000\n" +
+                "cache.tinylfu.refreshAheadSeconds.ttl=30\n"
+        ).getBytes("UTF-8")));
+
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ehcache.shutdown();
+    }
+
+    @Test
+    public void testGetCache() throws Exception {
+
+        final Cache ttl = cacheManager.getCache("ttl");
+        assertTrue(ttl instanceof TinyLfuCacheImpl);
+        assertSame(ttl, cacheManager.getCache("ttl"));
+
+        final CacheInfoDTO ttlInfo = ((TinyLfuCacheImpl) ttl).getCacheInfo();
+        assertEquals(100L, ttlInfo.getInMemorySizeMax());
+        assertEquals(60, ttlInfo.getTimeToLiveSeconds());
+        assertFalse(ttlInfo.isEternal());
+        assertTrue(ttlInfo.isStats());
+
+        final CacheInfoDTO eternalInfo = ((TinyLfuCacheImpl) cacheManager.getCache("eternal")).getCacheInfo();
+        assertTrue(eternalInfo.isEternal());
+        assertFalse(eternalInfo.isStats());
+
+        assertTrue(cacheManager.getCache("ehonly") instanceof EhCacheCache);
+        assertNull(cacheManager.getCache("unknown"));
+
+        assertEquals(5, cacheManager.getCacheNames().size());
+
+    }
+
+    @Test
+    public void testEvictionByCount() throws Exception {
+
+        final TinyLfuCacheImpl cache = (TinyLfuCacheImpl) cacheManager.getCache("eternal");
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, "V" + i);
+        }
+        cache.getCache().cleanUp();
+
+        assertEquals(5L, cache.getCache().estimatedSize());
+
+    }
+
+    @Test
+    public void testEvictionByDeclaredEntryBytes() throws Exception {
+
+        final TinyLfuCacheImpl cache = (TinyLfuCacheImpl) cacheManager.getCache("bytes");
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, "V" + i);
+        }
+        cache.getCache().cleanUp();
+
+        // 1000 bytes / 100 bytes per entry
+        assertEquals(10L, cache.getCache().estimatedSize());
+        assertEquals("W-TinyLFU (bytes)", cache.getCacheInfo().getMemoryStoreEvictionPolicy());
+
+    }
+
+    @Test
+    public void testSampledWeigher() throws Exception {
+
+        final TinyLfuCacheManagerImpl.SampledWeigher weigher = new TinyLfuCacheManagerImpl.SampledWeigher(new ReflectionSizeOf());
+
+        for (int i = 0; i < TinyLfuCacheManagerImpl.SIZE_OF_WARMUP; i++) {
+            assertTrue(weigher.weigh(i, "V" + i) > 0);
+        }
+        assertEquals(TinyLfuCacheManagerImpl.SIZE_OF_WARMUP, weigher.getSamples());
+
+        // after warm up only every n-th entry is measured
+        for (int i = TinyLfuCacheManagerImpl.SIZE_OF_WARMUP; i < 200; i++) {
+            assertTrue(weigher.weigh(i, "V" + i) > 0);
+        }
+        assertEquals(TinyLfuCacheManagerImpl.SIZE_OF_WARMUP + 3, weigher.getSamples()); // 64, 128, 192
+
+        final TinyLfuCacheImpl cache = (TinyLfuCacheImpl) cacheManager.getCache("sampled");
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a").get());
+        assertEquals(1L, cache.getCacheInfo().getInMemorySize());
+
+    }
+
+    @Test
+    public void testRefreshAheadRequiresExecutor() throws Exception {
+
+        // no executor, refresh ahead is disabled, hence loader is never called for cached value
+        final TinyLfuCacheImpl noRefresh = (TinyLfuCacheImpl) cacheManager.getCache("ttl");
+        noRefresh.put("a", "A");
+        assertEquals("A", noRefresh.get("a", () -> {
+            throw new IllegalStateException("Must not refresh");
+        }));
+
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+
+        final TinyLfuCacheImpl cache = (TinyLfuCacheImpl) cacheManager.getCache("ttl");
+
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a").get());
+
+        final CacheInfoDTO info = cache.getCacheInfo();
+        assertEquals(1L, info.getHits());
+        assertEquals(1L, info.getMisses());
+        assertEquals(1, info.getCacheSize());
+
+    }
+
+}
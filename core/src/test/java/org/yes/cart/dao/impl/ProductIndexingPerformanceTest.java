@@ -19,6 +19,9 @@ package org.yes.cart.dao.impl;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.yes.cart.dao.GenericFTSCapableDAO;
@@ -35,6 +38,7 @@ public class ProductIndexingPerformanceTest extends AbstractTestDAO {
 
     private int maxIterations = 500;
     private int batchSize = 250;
+    private int indexWorkers = 4;
 
     private GenericFTSCapableDAO<Product, Long, Object> productDao;
     private GenericFTSCapableDAO<ProductSku, Long, Object> productSkuDao;
@@ -92,5 +96,41 @@ public class ProductIndexingPerformanceTest extends AbstractTestDAO {
 
     }
 
+    private void runPartitionedIndexing(final String entity, final String indexBuilder, final GenericFTSCapableDAO dao, final int maxIterations, final int batchSize, final int indexWorkers) throws InterruptedException {
+
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(indexWorkers);
+        executor.setMaxPoolSize(indexWorkers);
+        executor.initialize();
+
+        final BeanWrapper builder = new BeanWrapperImpl(ctx().getBean(indexBuilder));
+        builder.setPropertyValue("indexWorkerExecutor", executor);
+        builder.setPropertyValue("indexWorkers", indexWorkers);
+
+        try {
+            runIndexing(entity + " (" + indexWorkers + " workers)", dao, maxIterations, batchSize);
+        } finally {
+            builder.setPropertyValue("indexWorkers", 1);
+            executor.shutdown();
+        }
+
+    }
+
+    @Ignore("Performance sampling only")
+    @Test
+    public void testProductPartitionedIndexPerformance() throws InterruptedException {
+
+        runPartitionedIndexing("product", "productIndexBuilder", this.productDao, maxIterations, batchSize, indexWorkers);
+
+    }
+
+    @Ignore("Performance sampling only")
+    @Test
+    public void testProductSkuPartitionedIndexPerformance() throws InterruptedException {
+
+        runPartitionedIndexing("sku", "productSkuIndexBuilder", this.productSkuDao, maxIterations, batchSize, indexWorkers);
+
+    }
+
 
 }
@@ -28,6 +28,8 @@ import org.yes.cart.shoppingcart.CartItem;
 import org.yes.cart.shoppingcart.ShoppingCart;
 import org.yes.cart.shoppingcart.ShoppingContext;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 import static org.junit.Assert.*;
@@ -205,5 +207,41 @@ public class GroovyPromotionConditionParserTest {
 
 
 
+    }
+
+    @Test
+    public void testParseGroovyConditionCompileStatic() throws Exception {
+
+        final ShoppingCart cart = mockery.mock(ShoppingCart.class, "cart");
+        final ShoppingContext cartCtx = mockery.mock(ShoppingContext.class, "cartCtx");
+        final CartItem cartItem = mockery.mock(CartItem.class, "cartItem");
+
+        mockery.checking(new Expectations() {{
+            allowing(cart).getShoppingContext(); will(returnValue(cartCtx));
+            allowing(cartCtx).getShopId(); will(returnValue(10L));
+            allowing(cartCtx).getCustomerShopId(); will(returnValue(1010L));
+            allowing(cartItem).getProductSkuCode(); will(returnValue("SKU001"));
+        }});
+
+        final GroovyPromotionConditionParser parser = new GroovyPromotionConditionParser();
+
+        final Class cl = parser.parseGroovyCondition(1L, "ABC#", "@CompileStatic ['SKU001'].contains(SKU) && customerTags.contains('vip')");
+
+        assertEquals("PromotionABC_", cl.getSimpleName());
+
+        final PromotionCondition condition = ((PromotionCondition) cl.newInstance());
+
+        assertTrue(condition.isEligible(new HashMap<String, Object>() {{
+            put("shoppingCart", cart);
+            put("shoppingCartItem", cartItem);
+            put("customerTags", Arrays.asList("vip", "new"));
+        }}));
+
+        assertFalse(condition.isEligible(new HashMap<String, Object>() {{
+            put("shoppingCart", cart);
+            put("shoppingCartItem", cartItem);
+            put("customerTags", Collections.singletonList("new"));
+        }}));
+
     }
 }
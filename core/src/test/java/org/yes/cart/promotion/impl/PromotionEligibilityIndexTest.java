@@ -0,0 +1,133 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.domain.entity.Promotion;
+import org.yes.cart.promotion.PromoTriplet;
+import org.yes.cart.promotion.PromotionCondition;
+import org.yes.cart.shoppingcart.CartItem;
+import org.yes.cart.shoppingcart.Total;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 11:10
+ */
+public class PromotionEligibilityIndexTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testFromCondition() throws Exception {
+
+        assertTrue(PromotionEligibilityFilter.fromCondition(null).isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("true").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("product(SKU)?.featured").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("['A'].contains(SKU) || customerTags.contains('vip')").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("!['A'].contains(SKU)").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("!(['A'].contains(SKU) && registered)").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("['A'].contains(SKU) ? false : true").isAny());
+        assertTrue(PromotionEligibilityFilter.fromCondition("['A'].contains(SKU); return false").isAny());
+
+        assertEquals(new HashSet<>(Arrays.asList("CC_TEST4", "CC_TEST5")),
+                PromotionEligibilityFilter.fromCondition("['CC_TEST4', 'CC_TEST5'].contains(shoppingCartItem.productSkuCode)").getSkuCodes());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")),
+                PromotionEligibilityFilter.fromCondition("SKU in [\"A\",\"B\"] && registered").getSkuCodes());
+        assertEquals(Collections.singleton("B"),
+                PromotionEligibilityFilter.fromCondition("@CompileStatic (SKU == 'B') && ['A', 'B'].contains(SKU)").getSkuCodes());
+
+        final PromotionEligibilityFilter tagAndTotal =
+                PromotionEligibilityFilter.fromCondition("customerTags.contains('vip') && shoppingCartOrderTotal.subTotal > 200.00");
+        assertFalse(tagAndTotal.isAny());
+        assertNull(tagAndTotal.getSkuCodes());
+
+    }
+
+    @Test
+    public void testGetCandidates() throws Exception {
+
+        final PromoTriplet skuA = promo(1L, "['A'].contains(SKU)");
+        final PromoTriplet skuB = promo(2L, "SKU == 'B'");
+        final PromoTriplet vip = promo(3L, "customerTags.contains('vip')");
+        final PromoTriplet over200 = promo(4L, "shoppingCartOrderTotal.subTotal >= 200.00");
+        final PromoTriplet any = promo(5L, "product(SKU)?.featured");
+
+        final CartItem itemA = context.mock(CartItem.class, "itemA");
+        final Total total150 = context.mock(Total.class, "total150");
+
+        context.checking(new Expectations() {{
+            allowing(itemA).getProductSkuCode(); will(returnValue("A"));
+            allowing(total150).getSubTotal(); will(returnValue(new BigDecimal("150.00")));
+        }});
+
+        final PromotionEligibilityIndex index = new PromotionEligibilityIndex();
+        for (final PromoTriplet promo : Arrays.asList(skuA, skuB, vip, over200, any)) {
+            index.add(promo, PromotionEligibilityFilter.fromCondition(promo.getPromotion().getEligibilityCondition()));
+        }
+
+        final List<List<PromoTriplet>> buckets = Arrays.asList(
+                Arrays.asList(skuA, skuB, any),
+                Collections.singletonList(vip),
+                Collections.singletonList(over200)
+        );
+
+        final Map<String, Object> itemCtx = new HashMap<>();
+        itemCtx.put(PromotionCondition.VAR_CART_ITEM, itemA);
+        itemCtx.put(PromotionCondition.VAR_CUSTOMER_TAGS, Collections.singletonList("vip"));
+
+        // SKU B is not a candidate, order total is unknown so promotion is candidate
+        assertEquals(Arrays.asList(
+                Arrays.asList(skuA, any),
+                Collections.singletonList(vip),
+                Collections.singletonList(over200)
+        ), index.getCandidates(buckets, itemCtx));
+
+        final Map<String, Object> orderCtx = new HashMap<>();
+        orderCtx.put(PromotionCondition.VAR_CUSTOMER_TAGS, Collections.emptyList());
+        orderCtx.put(PromotionCondition.VAR_CART_ORDER_TOTAL, total150);
+
+        // No item, so SKU guards are left for the condition
+        assertEquals(Collections.singletonList(
+                Arrays.asList(skuA, skuB, any)
+        ), index.getCandidates(buckets, orderCtx));
+
+        context.assertIsSatisfied();
+
+    }
+
+    private PromoTriplet promo(final long id, final String condition) {
+
+        final Promotion promotion = context.mock(Promotion.class, "promotion" + id);
+        context.checking(new Expectations() {{
+            allowing(promotion).getPromotionId(); will(returnValue(id));
+            allowing(promotion).getEligibilityCondition(); will(returnValue(condition));
+        }});
+        return new PromoTripletImpl(promotion, null, null);
+
+    }
+
+}
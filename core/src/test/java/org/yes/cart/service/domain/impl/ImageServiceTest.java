@@ -22,22 +22,34 @@ import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
+import org.yes.cart.constants.AttributeNamesKeys;
 import org.yes.cart.constants.Constants;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.domain.entity.AttrValueProduct;
 import org.yes.cart.domain.entity.SeoImage;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
 import org.yes.cart.service.media.MediaFileNameStrategyResolver;
 import org.yes.cart.service.media.impl.ProductMediaFileNameStrategyImpl;
 import org.yes.cart.service.misc.LanguageService;
 import org.yes.cart.stream.io.IOProvider;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -112,6 +124,202 @@ public class ImageServiceTest {
         FileUtils.writeByteArrayToFile(new File(destinationFileName), resized);
     }
 
+    @Test
+    public void testWriteImage() throws Exception {
+
+        imageService = new ImageServiceImpl(seoImageDao, mediaFileNameStrategyResolver, "50x150", 255, 255, 255, false, 50, true, ioProvider);
+
+        final String original = "src/test/resources/imgrepo/a/aron/aron_a.png";
+        final String resized = "target/test/resources/imgrepo/50x150/a/aron/aron_a.png";
+        final String missing = "src/test/resources/imgrepo/a/aron/missing_a.png";
+        final byte[] content = FileUtils.readFileToByteArray(new File(original));
+
+        mockery.checking(new Expectations() {{
+            // first request resizes and stores the image
+            exactly(2).of(ioProvider).isNewerThan(resized, original, Collections.EMPTY_MAP); will(returnValue(false));
+            oneOf(ioProvider).read(original, Collections.EMPTY_MAP); will(returnValue(content));
+            oneOf(ioProvider).write(with(equal(resized)), with(any(byte[].class)), with(equal(Collections.EMPTY_MAP)));
+            oneOf(ioProvider).read(resized, Collections.EMPTY_MAP); will(returnValue(new byte[] { 1, 2, 3 }));
+            // second request reads resized image
+            oneOf(ioProvider).isNewerThan(resized, original, Collections.EMPTY_MAP); will(returnValue(true));
+            oneOf(ioProvider).read(resized, Collections.EMPTY_MAP); will(returnValue(new byte[] { 1, 2, 3 }));
+            // original is missing
+            oneOf(ioProvider).read(missing, Collections.EMPTY_MAP); will(throwException(new FileNotFoundException(missing)));
+        }});
+
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        assertTrue(imageService.writeImage(original, resized, "50", "150", first));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, first.toByteArray());
+
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        assertTrue(imageService.writeImage(original, resized, "50", "150", second));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, second.toByteArray());
+
+        final ByteArrayOutputStream none = new ByteArrayOutputStream();
+        assertFalse(imageService.writeImage(missing, null, null, null, none));
+        assertEquals(0, none.size());
+
+        mockery.assertIsSatisfied();
+    }
+
+    /**
+     * IO provider that blocks first read of the original until released.
+     */
+    private static class BlockingIOProvider implements IOProvider {
+
+        private final String original;
+        private final byte[] content;
+        private final CountDownLatch release;
+
+        private final AtomicInteger originalReads = new AtomicInteger();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicBoolean written = new AtomicBoolean();
+        private final CountDownLatch resizeStarted = new CountDownLatch(1);
+
+        private BlockingIOProvider(final String original, final byte[] content, final CountDownLatch release) {
+            this.original = original;
+            this.content = content;
+            this.release = release;
+        }
+
+        @Override
+        public boolean supports(final String uri) {
+            return true;
+        }
+
+        @Override
+        public boolean exists(final String uri, final Map<String, Object> context) {
+            return true;
+        }
+
+        @Override
+        public boolean isNewerThan(final String uriToCheck, final String uriToCheckAgainst, final Map<String, Object> context) {
+            return written.get();
+        }
+
+        @Override
+        public byte[] read(final String uri, final Map<String, Object> context) throws IOException {
+            if (original.equals(uri) && originalReads.getAndIncrement() == 0) {
+                resizeStarted.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    throw new IOException(ie);
+                }
+            }
+            return original.equals(uri) ? content : new byte[] { 1, 2, 3 };
+        }
+
+        @Override
+        public void write(final String uri, final byte[] content, final Map<String, Object> context) throws IOException {
+            writes.incrementAndGet();
+            written.set(true);
+        }
+
+        @Override
+        public void delete(final String uri, final Map<String, Object> context) throws IOException {
+        }
+    }
+
+    @Test
+    public void testEnsureImageResizedSingleFlight() throws Exception {
+
+        final String original = "src/test/resources/imgrepo/a/aron/aron_a.png";
+        final String resized = "target/test/resources/imgrepo/50x150/a/aron/aron_a_sf.png";
+        final byte[] content = FileUtils.readFileToByteArray(new File(original));
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingIOProvider io = new BlockingIOProvider(original, content, release);
+
+        imageService = new ImageServiceImpl(seoImageDao, mediaFileNameStrategyResolver, "50x150", 255, 255, 255, false, 50, true, io);
+
+        final int requests = 8;
+        final ExecutorService requestThreads = Executors.newFixedThreadPool(requests);
+        try {
+
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(requestThreads.submit(() -> imageService.ensureImageResized(original, resized, "50", "150")));
+            }
+
+            // first request is resizing, all others must wait for it
+            assertTrue(io.resizeStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200L);
+            release.countDown();
+
+            for (final Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+
+        } finally {
+            requestThreads.shutdownNow();
+        }
+
+        assertEquals(1, io.originalReads.get());
+        assertEquals(1, io.writes.get());
+
+    }
+
+    @Test
+    public void testWriteImageResizeTimeoutUsesOriginal() throws Exception {
+
+        final String original = "src/test/resources/imgrepo/a/aron/aron_a.png";
+        final String resized = "target/test/resources/imgrepo/50x150/a/aron/aron_a_to.png";
+        final byte[] content = FileUtils.readFileToByteArray(new File(original));
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingIOProvider io = new BlockingIOProvider(original, content, release);
+
+        imageService = new ImageServiceImpl(seoImageDao, mediaFileNameStrategyResolver, "50x150", 255, 255, 255, false, 50, true, io);
+        imageService.setResizeTimeoutMs(100L);
+
+        final ExecutorService resizeThread = Executors.newSingleThreadExecutor();
+        try {
+
+            final Future<Boolean> slow = resizeThread.submit(() -> imageService.ensureImageResized(original, resized, "50", "150"));
+            assertTrue(io.resizeStarted.await(5, TimeUnit.SECONDS));
+
+            // resize of the same image is in flight and takes longer than timeout, so original is served
+            assertFalse(imageService.resizeImageOnTheFly(original, resized, "50", "150"));
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(imageService.writeImage(original, resized, "50", "150", out));
+            assertArrayEquals(content, out.toByteArray());
+
+            release.countDown();
+            assertTrue(slow.get(10, TimeUnit.SECONDS));
+
+        } finally {
+            release.countDown();
+            resizeThread.shutdownNow();
+        }
+
+        assertEquals(1, io.writes.get());
+
+    }
+
+    @Test
+    public void testGetAllowedSizes() throws Exception {
+
+        final SystemService systemService = mockery.mock(SystemService.class, "systemService");
+
+        mockery.checking(new Expectations() {{
+            oneOf(systemService).getAttributeValue(AttributeNamesKeys.System.SYSTEM_ALLOWED_IMAGE_SIZES); will(returnValue(null));
+            oneOf(systemService).getAttributeValue(AttributeNamesKeys.System.SYSTEM_ALLOWED_IMAGE_SIZES); will(returnValue("40x40, 80x60,bad,40x40"));
+        }});
+
+        imageService = new ImageServiceImpl(seoImageDao, mediaFileNameStrategyResolver, "50x150,200x200", 255, 255, 255, false, 50, true, ioProvider) {
+            @Override
+            public SystemService getSystemService() {
+                return systemService;
+            }
+        };
+
+        assertEquals(Arrays.asList(new Pair<>("50", "150"), new Pair<>("200", "200")), imageService.getAllowedSizes());
+        assertEquals(Arrays.asList(new Pair<>("40", "40"), new Pair<>("80", "60")), imageService.getAllowedSizes());
+
+        mockery.assertIsSatisfied();
+    }
+
     @Test
     public void testAddImageToRepository() throws Exception {
 
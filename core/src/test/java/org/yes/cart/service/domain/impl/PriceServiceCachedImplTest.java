@@ -0,0 +1,136 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.yes.cart.service.domain.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jmock.Expectations;
+import org.jmock.api.Invocation;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.yes.cart.cache.impl.DependencyTrackingCacheManagerImpl;
+import org.yes.cart.cache.impl.SkuPriceCacheDependencyExtractorImpl;
+import org.yes.cart.cache.impl.TinyLfuCacheImpl;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.service.domain.PriceService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:10
+ */
+public class PriceServiceCachedImplTest {
+
+    private final JUnit4Mockery context = new JUnit4Mockery() {{
+        setThreadingPolicy(new Synchroniser());
+    }};
+
+    @Test
+    public void testConcurrentMissesLoadOncePerKey() throws Exception {
+
+        final PriceService priceService = context.mock(PriceService.class, "priceService");
+        final SkuPrice priceA = context.mock(SkuPrice.class, "priceA");
+        final SkuPrice priceB = context.mock(SkuPrice.class, "priceB");
+
+        context.checking(new Expectations() {{
+            allowing(priceA).getSkuCode(); will(returnValue("A"));
+            allowing(priceB).getSkuCode(); will(returnValue("B"));
+            // exactly one load per key, however many threads miss concurrently
+            oneOf(priceService).getMinimalPrice(1L, "A", 10L, null, "EUR", BigDecimal.ONE, false, null); will(slowly(priceA));
+            oneOf(priceService).getMinimalPrice(1L, "B", 10L, null, "EUR", BigDecimal.ONE, false, null); will(slowly(priceB));
+        }});
+
+        final SimpleCacheManager caches = new SimpleCacheManager();
+        caches.setCaches(Collections.<Cache>singletonList(
+                new TinyLfuCacheImpl("priceService-minimalPrice", Caffeine.newBuilder().maximumSize(100L).build(),
+                        true, 0, 0, false, 0L, null, false)));
+        caches.afterPropertiesSet();
+
+        final DependencyTrackingCacheManagerImpl cacheManager = new DependencyTrackingCacheManagerImpl(caches);
+        cacheManager.setDependencyExtractors(Collections.singletonMap("priceService-minimalPrice", new SkuPriceCacheDependencyExtractorImpl()));
+
+        final CacheInterceptor interceptor = new CacheInterceptor();
+        interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+        interceptor.setCacheManager(cacheManager);
+        interceptor.afterPropertiesSet();
+        interceptor.afterSingletonsInstantiated();
+
+        final ProxyFactory proxyFactory = new ProxyFactory(new PriceServiceCachedImpl(priceService, cacheManager));
+        proxyFactory.addAdvice(interceptor);
+        final PriceService cached = (PriceService) proxyFactory.getProxy();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            final String sku = i % 2 == 0 ? "A" : "B";
+            final SkuPrice expected = i % 2 == 0 ? priceA : priceB;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    assertSame(expected, cached.getMinimalPrice(1L, sku, 10L, null, "EUR", BigDecimal.ONE, false, null));
+                } catch (Throwable thr) {
+                    errors.add(thr);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10L));
+            assertFalse(thread.isAlive());
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        // served from cache
+        assertSame(priceA, cached.getMinimalPrice(1L, "A", 10L, null, "EUR", BigDecimal.ONE, false, null));
+        assertSame(priceB, cached.getMinimalPrice(1L, "B", 10L, null, "EUR", BigDecimal.ONE, false, null));
+
+        context.assertIsSatisfied();
+
+    }
+
+    private static CustomAction slowly(final SkuPrice price) {
+        return new CustomAction("return price after delay") {
+            @Override
+            public Object invoke(final Invocation invocation) throws Throwable {
+                Thread.sleep(200L); // let other threads miss on the same key
+                return price;
+            }
+        };
+    }
+
+}
@@ -28,7 +28,10 @@ import org.yes.cart.service.domain.ProductService;
 import org.yes.cart.service.domain.ShopService;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -409,6 +412,36 @@ public class PriceServiceImplTest extends BaseCoreDBTestCase {
 
     }
 
+    @Test
+    public void testGetMinimalPrices() throws Exception {
+        Shop shop = shopService.getShopByDomainName("www.gadget.yescart.org");
+
+        final Map<String, SkuPrice> prices = priceService.getMinimalPrices(
+                Arrays.asList("SOBOT-ORIG", "SOBOT-LIGHT", "NO-SUCH-SKU"), shop.getShopId(), null, "EUR", new BigDecimal("2"), false, null);
+        assertEquals(3, prices.size());
+
+        for (final String sku : Arrays.asList("SOBOT-ORIG", "SOBOT-LIGHT")) {
+            final SkuPrice single = priceService.getMinimalPrice(null, sku, shop.getShopId(), null, "EUR", new BigDecimal("2"), false, null);
+            final SkuPrice bulk = prices.get(sku);
+            assertNotNull(bulk);
+            assertEquals(sku, bulk.getSkuCode());
+            assertEquals(single.getSkuPriceId(), bulk.getSkuPriceId());
+            assertEquals(single.getRegularPrice(), bulk.getRegularPrice());
+            assertEquals(single.getSalePrice(), bulk.getSalePrice());
+        }
+
+        final SkuPrice none = prices.get("NO-SUCH-SKU");
+        assertNotNull(none);
+        assertNull(none.getSkuCode());
+        assertNull(none.getRegularPrice());
+
+        // second call is served from cache
+        final Map<String, SkuPrice> cached = priceService.getMinimalPrices(
+                Collections.singletonList("SOBOT-ORIG"), shop.getShopId(), null, "EUR", new BigDecimal("2"), false, null);
+        assertSame(prices.get("SOBOT-ORIG"), cached.get("SOBOT-ORIG"));
+
+    }
+
     @Test
     public void testGetAllCurrentPrices() throws Exception {
         Shop shop = shopService.getShopByDomainName("www.gadget.yescart.org");
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.domain.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.dao.GenericFTSCapableDAO;
+import org.yes.cart.domain.entity.Product;
+import org.yes.cart.domain.entity.ProductSku;
+
+import java.util.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:55
+ */
+public class ProductServiceImplReindexTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testReindexProductSkusEmpty() throws Exception {
+
+        final GenericFTSCapableDAO<Product, Long, Object> productDao = context.mock(GenericFTSCapableDAO.class, "productDao");
+        final GenericFTSCapableDAO<ProductSku, Long, Object> productSkuDao = context.mock(GenericFTSCapableDAO.class, "productSkuDao");
+
+        final ProductServiceImpl service = new ProductServiceImpl(productDao, productSkuDao, null, null, null, null, null, null);
+
+        service.reindexProductSkus(null);
+        service.reindexProductSkus(Collections.<String>emptyList());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testReindexProductSkusUnknownCodes() throws Exception {
+
+        final GenericFTSCapableDAO<Product, Long, Object> productDao = context.mock(GenericFTSCapableDAO.class, "productDao");
+        final GenericFTSCapableDAO<ProductSku, Long, Object> productSkuDao = context.mock(GenericFTSCapableDAO.class, "productSkuDao");
+
+        context.checking(new Expectations() {{
+            oneOf(productSkuDao).findQueryObjectByNamedQuery("SKU.ID.AND.PRODUCT.ID.BY.CODES", new HashSet<>(Arrays.asList("X1", "X2")));
+            will(returnValue(Collections.emptyList()));
+        }});
+
+        final ProductServiceImpl service = new ProductServiceImpl(productDao, productSkuDao, null, null, null, null, null, null);
+
+        service.reindexProductSkus(Arrays.asList("X1", "X2", "X1"));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testReindexProductSkus() throws Exception {
+
+        final GenericFTSCapableDAO<Product, Long, Object> productDao = context.mock(GenericFTSCapableDAO.class, "productDao");
+        final GenericFTSCapableDAO<ProductSku, Long, Object> productSkuDao = context.mock(GenericFTSCapableDAO.class, "productSkuDao");
+
+        context.checking(new Expectations() {{
+            // codes are de-duplicated before lookup
+            oneOf(productSkuDao).findQueryObjectByNamedQuery("SKU.ID.AND.PRODUCT.ID.BY.CODES", new HashSet<>(Arrays.asList("SKU-1", "SKU-2", "SKU-3")));
+            will(returnValue(Arrays.<Object>asList(
+                    new Object[] { 101L, 10L },
+                    new Object[] { 102L, 10L },
+                    new Object[] { 103L, 11L }
+            )));
+            // single batch per index, product of multi SKU product is reindexed once
+            oneOf(productSkuDao).fullTextSearchReindexBatch(new LinkedHashSet<>(Arrays.asList(101L, 102L, 103L)));
+            oneOf(productDao).fullTextSearchReindexBatch(new LinkedHashSet<>(Arrays.asList(10L, 11L)));
+        }});
+
+        final ProductServiceImpl service = new ProductServiceImpl(productDao, productSkuDao, null, null, null, null, null, null);
+
+        service.reindexProductSkus(Arrays.asList("SKU-1", "SKU-2", "SKU-3", "SKU-2"));
+
+        context.assertIsSatisfied();
+
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.domain.PriceService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:25
+ */
+public class PriceResolverPriceBookImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testPriceBookLookups() throws Exception {
+
+        final PriceService priceService = context.mock(PriceService.class, "priceService");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+
+        final SkuPrice a1 = mockPrice("a1", "A", "1", "100", null, null, null);
+        final SkuPrice a5 = mockPrice("a5", "A", "5", "90", null, null, null);
+        final SkuPrice a1vip = mockPrice("a1vip", "A", "1", "80", "VIP", null, null);
+        final SkuPrice a1expired = mockPrice("a1expired", "A", "1", "50", null, null, LocalDateTime.of(2017, 1, 1, 0, 0));
+        final SkuPrice a1future = mockPrice("a1future", "A", "1", "40", null, LocalDateTime.of(2099, 1, 1, 0, 0), null);
+        final SkuPrice b1 = mockPrice("b1", "B", "1", "70", null, null, null);
+        final SkuPrice b1master = mockPrice("b1master", "B", "1", "60", null, null, null);
+
+        context.checking(new Expectations() {{
+            allowing(cacheManager).getCache("priceService-priceBook"); will(returnValue(new ConcurrentMapCache("priceService-priceBook")));
+            oneOf(priceService).getAllShopPrices(10L, "EUR"); will(returnValue(Arrays.asList(
+                    new Pair<>(1L, a1), new Pair<>(1L, a5), new Pair<>(1L, a1vip), new Pair<>(1L, a1expired),
+                    new Pair<>(1L, a1future), new Pair<>(1L, b1)
+            )));
+            oneOf(priceService).getAllShopPrices(1L, "EUR"); will(returnValue(Collections.singletonList(
+                    new Pair<>(1L, b1master)
+            )));
+        }});
+
+        final PriceResolverPriceBookImpl resolver = new PriceResolverPriceBookImpl(priceService, cacheManager);
+
+        assertSame(a1, resolver.getMinimalPrice(null, "A", 10L, null, "EUR", BigDecimal.ONE, false, null));
+        assertSame(a5, resolver.getMinimalPrice(null, "A", 10L, null, "EUR", new BigDecimal(5), false, null));
+        assertSame(a5, resolver.getMinimalPrice(null, "A", 10L, null, "EUR", new BigDecimal(10), true, null));
+        assertSame(a1vip, resolver.getMinimalPrice(null, "A", 10L, null, "EUR", BigDecimal.ONE, false, "VIP"));
+        assertSame(a1, resolver.getMinimalPrice(null, "A", 10L, null, "EUR", BigDecimal.ONE, false, "OTHER"));
+        assertSame(b1master, resolver.getMinimalPrice(1L, null, 10L, 1L, "EUR", BigDecimal.ONE, false, null));
+
+        final Map<String, SkuPrice> minimal = resolver.getMinimalPrices(Arrays.asList("A", "B"), 10L, null, "EUR", BigDecimal.ONE, false, null);
+        assertEquals(2, minimal.size());
+        assertSame(a1, minimal.get("A"));
+        assertSame(b1, minimal.get("B"));
+
+        final List<SkuPrice> current = resolver.getAllCurrentPrices(null, "A", 10L, null, "EUR", null);
+        assertEquals(Arrays.asList(a1, a5), current);
+
+        context.assertIsSatisfied();
+
+    }
+
+    private SkuPrice mockPrice(final String name,
+                               final String sku,
+                               final String qty,
+                               final String price,
+                               final String policy,
+                               final LocalDateTime from,
+                               final LocalDateTime to) {
+
+        final SkuPrice skuPrice = context.mock(SkuPrice.class, name);
+        context.checking(new Expectations() {{
+            allowing(skuPrice).getSkuCode(); will(returnValue(sku));
+            allowing(skuPrice).getQuantity(); will(returnValue(new BigDecimal(qty)));
+            allowing(skuPrice).getSalePriceForCalculation(); will(returnValue(new Pair<>(new BigDecimal(price), null)));
+            allowing(skuPrice).getPricingPolicy(); will(returnValue(policy));
+            allowing(skuPrice).getSalefrom(); will(returnValue(from));
+            allowing(skuPrice).getSaleto(); will(returnValue(to));
+        }});
+        return skuPrice;
+
+    }
+
+}
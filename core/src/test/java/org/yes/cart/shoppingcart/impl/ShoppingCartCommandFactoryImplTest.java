@@ -20,12 +20,9 @@ import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
-import org.yes.cart.shoppingcart.ConfigurableShoppingCartCommand;
-import org.yes.cart.shoppingcart.ShoppingCartCommand;
+import org.yes.cart.shoppingcart.*;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -125,4 +122,118 @@ public class ShoppingCartCommandFactoryImplTest {
 
 
     }
+
+    @Test
+    public void testExecuteRoutesByTriggerKeysAndCoalescesRecalculation() throws Exception {
+
+        final ShoppingCartCommandConfigurationProvider provider = mockery.mock(ShoppingCartCommandConfigurationProvider.class, "provider");
+        final ShoppingCartCommandConfigurationVisitor checkout = mockery.mock(ShoppingCartCommandConfigurationVisitor.class, "checkout");
+        final MutableShoppingCart cart = mockery.mock(MutableShoppingCart.class, "cart");
+
+        mockery.checking(new Expectations() {{
+            allowing(provider).provide("CHECKOUT"); will(returnValue(checkout));
+            oneOf(cart).recalculate();
+            oneOf(checkout).visit(cart);
+        }});
+
+        final ShoppingCartCommandFactoryImpl factory = new ShoppingCartCommandFactoryImpl(provider);
+
+        final List<String> executed = new ArrayList<>();
+        new RecordingCommand(factory, "cmd1", 2, executed);
+        new RecordingCommand(factory, "cmd2", 1, executed);
+        new RecordingCommand(factory, "cmd3", 0, executed);
+
+        final Map<String, Object> params = new HashMap<>();
+        params.put("cmd1", "1");
+        params.put("cmd2", "2");
+        params.put("other", "x");
+
+        assertEquals(2, factory.getTriggeredCommands(params).length);
+
+        factory.execute(cart, params);
+
+        assertEquals(Arrays.asList("cmd2", "cmd1"), executed);
+
+        assertEquals(0, factory.getTriggeredCommands(Collections.singletonMap("other", "x")).length);
+
+        mockery.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testExecuteSkipsRecalculationIfCommandFails() throws Exception {
+
+        final ShoppingCartCommandConfigurationProvider provider = mockery.mock(ShoppingCartCommandConfigurationProvider.class, "provider");
+        final MutableShoppingCart cart = mockery.mock(MutableShoppingCart.class, "cart");
+
+        final ShoppingCartCommandFactoryImpl factory = new ShoppingCartCommandFactoryImpl(provider);
+
+        final List<String> executed = new ArrayList<>();
+        new RecordingCommand(factory, "cmd1", 0, executed);
+        new RecordingCommand(factory, "cmd2", 1, executed) {
+            @Override
+            public void execute(final MutableShoppingCart shoppingCart, final Map<String, Object> parameters) {
+                super.execute(shoppingCart, parameters);
+                throw new IllegalStateException("cmd2 failed");
+            }
+        };
+
+        final Map<String, Object> params = new HashMap<>();
+        params.put("cmd1", "1");
+        params.put("cmd2", "2");
+
+        try {
+            factory.execute(cart, params);
+            fail("Command failure must propagate");
+        } catch (IllegalStateException ise) {
+            assertEquals("cmd2 failed", ise.getMessage());
+        }
+
+        assertEquals(Arrays.asList("cmd1", "cmd2"), executed);
+        assertFalse(factory.deferRecalculation(cart));
+
+        mockery.assertIsSatisfied();
+
+    }
+
+    private static class RecordingCommand extends AbstractCartCommandImpl {
+
+        private final String key;
+        private final List<String> executed;
+
+        private RecordingCommand(final ShoppingCartCommandRegistry registry,
+                                 final String key,
+                                 final int priority,
+                                 final List<String> executed) {
+            super(new ShoppingCartCommandRegistry() {
+                @Override
+                public void registerCommand(final ConfigurableShoppingCartCommand shoppingCartCommand) {
+                    // register after construction
+                }
+
+                @Override
+                public boolean deferRecalculation(final ShoppingCart shoppingCart) {
+                    return registry.deferRecalculation(shoppingCart);
+                }
+            });
+            this.key = key;
+            this.executed = executed;
+            setPriority(priority);
+            registry.registerCommand(this);
+        }
+
+        @Override
+        public void execute(final MutableShoppingCart shoppingCart, final Map<String, Object> parameters) {
+            if (parameters.containsKey(getCmdKey())) {
+                executed.add(getCmdKey());
+                recalculate(shoppingCart);
+            }
+        }
+
+        @Override
+        public String getCmdKey() {
+            return key;
+        }
+    }
+
 }
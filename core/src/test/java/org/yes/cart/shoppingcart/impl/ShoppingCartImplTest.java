@@ -16,14 +16,17 @@
 
 package org.yes.cart.shoppingcart.impl;
 
+import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.yes.cart.shoppingcart.AmountCalculationStrategy;
 import org.yes.cart.shoppingcart.CartItem;
+import org.yes.cart.shoppingcart.MutableShoppingCart;
 import org.yes.cart.util.MoneyUtils;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -239,6 +242,33 @@ public class ShoppingCartImplTest {
 
     }
 
+    @Test
+    public void testChangedInputs() throws Exception {
+
+        final AmountCalculationStrategy strategy = mockery.mock(AmountCalculationStrategy.class);
+
+        mockery.checking(new Expectations() {{
+            allowing(strategy).calculate(cart); will(returnValue(new TotalImpl()));
+        }});
+
+        cart.initialise(strategy);
+        assertTrue(cart.getChangedInputs().isEmpty());
+
+        cart.addProductSkuToCart("ABC001", "SKU name", BigDecimal.ONE);
+        cart.addCoupon("COUPON1");
+        assertEquals(EnumSet.of(MutableShoppingCart.CalculationInput.ITEMS, MutableShoppingCart.CalculationInput.COUPONS), cart.getChangedInputs());
+
+        cart.recalculate();
+        assertTrue(cart.getChangedInputs().isEmpty());
+
+        cart.addCoupon("COUPON1"); // already added
+        cart.setCurrencyCode("EUR");
+        cart.setCurrencyCode("EUR");
+        cart.markChanged(MutableShoppingCart.CalculationInput.CARRIER);
+        assertEquals(EnumSet.of(MutableShoppingCart.CalculationInput.CURRENCY, MutableShoppingCart.CalculationInput.CARRIER), cart.getChangedInputs());
+
+    }
+
     /**
      * Test shows that only promotions are removed.
      */
@@ -18,6 +18,7 @@ package org.yes.cart.dao;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -46,6 +47,27 @@ public interface GenericDAO<T, PK extends Serializable> {
      */
     <I> I getEntityIdentifier(Object entity);
 
+    /**
+     * Get persistent class of an object (unwraps proxies).
+     *
+     * @param entity entity object
+     *
+     * @return persistent class
+     */
+    Class<?> getEntityClass(Object entity);
+
+    /**
+     * Get reference to entity in current session. Does not hit the database if entity
+     * is not yet loaded, instead an uninitialised proxy is returned.
+     *
+     * @param entityClass persistent class
+     * @param id          primary key
+     * @param <E>         type
+     *
+     * @return entity or proxy
+     */
+    <E> E getEntityReference(Class<E> entityClass, Serializable id);
+
     /**
      * Find entity by Id.
      *
@@ -419,6 +441,29 @@ public interface GenericDAO<T, PK extends Serializable> {
      */
     int executeNativeUpdate(String nativeQuery, Object... parameters);
 
+    /**
+     * Execute native insert / update sql as a single JDBC batch. Session is flushed
+     * before the batch and second level cache is evicted once after the batch (same
+     * as for native updates, but once per batch rather than once per statement).
+     *
+     * @param nativeQuery native sql with JDBC positional parameters (?)
+     * @param parameters  parameters for each statement in the batch
+     *
+     * @return quantity of updated / inserted rows
+     */
+    int executeNativeBatchUpdate(String nativeQuery, List<Object[]> parameters);
+
+    /**
+     * Execute several native insert / update sql statements, each as a single JDBC batch, in
+     * iteration order of given map. Session is flushed before the batches and second level
+     * cache is evicted once after all batches.
+     *
+     * @param statements native sql with JDBC positional parameters (?) to parameters for each statement in the batch
+     *
+     * @return quantity of updated / inserted rows
+     */
+    int executeNativeBatchUpdates(Map<String, List<Object[]>> statements);
+
     /**
      * Flush clear session.
      */
@@ -22,6 +22,7 @@ import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -62,9 +63,17 @@ public interface GenericFTSCapableDAO<T, PK extends Serializable, FTQ> extends G
      */
     void fullTextSearchReindex(PK primaryKey, boolean purgeOnly);
 
+    /**
+     * Force reindex given entities as a single index update (i.e. with single commit and refresh).
+     *
+     * @param primaryKeys to reindex.
+     */
+    void fullTextSearchReindexBatch(Collection<PK> primaryKeys);
+
 
     /**
-     * Get the full text search result.
+     * Get the full text search result. Results are not ranked (index order) and are limited
+     * by configured max results, use paged search for ordered results.
      *
      * @param query raw search query
      *
@@ -74,7 +83,8 @@ public interface GenericFTSCapableDAO<T, PK extends Serializable, FTQ> extends G
 
 
     /**
-     * Get the full text search result.
+     * Get the full text search result. Results are not ranked (index order) and are limited
+     * by configured max results, use paged search for ordered results.
      *
      * @param query full text search query
      *
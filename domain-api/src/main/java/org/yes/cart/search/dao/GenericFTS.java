@@ -34,7 +34,8 @@ import java.util.Map;
 public interface GenericFTS<PK extends Serializable, FTQ> {
 
     /**
-     * Get the full text search result.
+     * Get the full text search result. Results are not ranked (index order) and are limited
+     * by configured max results, use paged search for ordered results.
      *
      * @param query raw search query
      *
@@ -44,7 +45,8 @@ public interface GenericFTS<PK extends Serializable, FTQ> {
 
 
     /**
-     * Get the full text search result.
+     * Get the full text search result. Results are not ranked (index order) and are limited
+     * by configured max results, use paged search for ordered results.
      *
      * @param query lucene search query
      *
@@ -17,6 +17,7 @@
 package org.yes.cart.search.dao;
 
 import java.io.Serializable;
+import java.util.Collection;
 
 /**
  * Index builder uses {@link GenericFTS} and {@link org.yes.cart.dao.GenericDAO} to mediate data and store it in
@@ -88,4 +89,11 @@ public interface IndexBuilder<T, PK extends Serializable> {
      */
     void fullTextSearchReindex(PK primaryKey, boolean purgeOnly);
 
+    /**
+     * Force reindex given entities as a single index update (i.e. with single commit and refresh).
+     *
+     * @param primaryKeys to reindex.
+     */
+    void fullTextSearchReindexBatch(Collection<PK> primaryKeys);
+
 }
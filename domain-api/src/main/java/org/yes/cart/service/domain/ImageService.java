@@ -17,9 +17,12 @@
 package org.yes.cart.service.domain;
 
 import org.yes.cart.domain.entity.SeoImage;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.media.MediaFileNameStrategy;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * User: Igor Azarny iazarny@yahoo.com
@@ -91,6 +94,58 @@ public interface ImageService extends GenericService<SeoImage> {
      */
     byte[] resizeImage(String original, byte[] content, String width, String height, boolean cropToFit);
 
+    /**
+     * Resize given file (if necessary) to requested width and height and write the image to
+     * given stream. Concurrent requests for the same resized file are resized only once and
+     * the image content is streamed from the repository rather than loaded into memory.
+     *
+     * @param original path to original image
+     * @param resized  path to resized image (or null if original is required)
+     * @param width    requested width
+     * @param height   requested height
+     * @param out      stream to write the image to
+     *
+     * @return true if image was written, false if image is not available (nothing is written)
+     *
+     * @throws IOException in case writing to the stream fails
+     */
+    boolean writeImage(String original, String resized, String width, String height, OutputStream out) throws IOException;
+
+    /**
+     * Resize given file (if necessary) to requested width and height for on the fly requests. Concurrent
+     * requests for the same resized file are resized only once and wait for the resize at most resize timeout.
+     *
+     * @param original path to original image
+     * @param resized  path to resized image
+     * @param width    requested width
+     * @param height   requested height
+     *
+     * @return true if resized image is up to date, false if resizing failed or timed out (original should
+     *         only be served as temporary, non cacheable, substitute)
+     */
+    boolean resizeImageOnTheFly(String original, String resized, String width, String height);
+
+    /**
+     * Ensure that resized image exists and is newer than original. Image is only resized if
+     * resized file is missing or stale. Resizing is done in the calling thread, so that
+     * callers with own worker pools (e.g. bulk generation) do not occupy on the fly resize pool.
+     *
+     * @param original path to original image
+     * @param resized  path to resized image
+     * @param width    requested width
+     * @param height   requested height
+     *
+     * @return true if resized image is up to date, false if resizing failed
+     */
+    boolean ensureImageResized(String original, String resized, String width, String height);
+
+    /**
+     * Get all allowed image sizes.
+     *
+     * @return allowed sizes as width/height pairs
+     */
+    List<Pair<String, String>> getAllowedSizes();
+
     /**
      * Is given image size allowed check.
      *
@@ -18,6 +18,8 @@ package org.yes.cart.service.domain;
 
 import org.yes.cart.domain.entity.Mail;
 
+import java.util.List;
+
 /**
  * User: denispavlov
  * Date: 10/11/2013
@@ -32,4 +34,18 @@ public interface MailService extends GenericService<Mail> {
      */
     Mail findOldestMail(Long lastFailedMailId);
 
+    /**
+     * @return distinct shop codes for which there are emails in the queue
+     */
+    List<String> findMailShopCodes();
+
+    /**
+     * @param shopCode    shop code (null for emails without shop)
+     * @param afterMailId only emails with PK greater than this (use 0 for start of the queue)
+     * @param max         max number of emails to return
+     *
+     * @return batch of shop emails in queue order
+     */
+    List<Mail> findOldestMails(String shopCode, long afterMailId, int max);
+
 }
@@ -17,9 +17,12 @@
 package org.yes.cart.service.domain;
 
 import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Price service.
@@ -56,6 +59,29 @@ public interface PriceService extends GenericService<SkuPrice> {
                              final boolean enforceTier,
                              final String pricingPolicy);
 
+    /**
+     * Get minimal prices for given skus, shop, currency and quantity in one go (e.g. for a page of search results).
+     * Result for each sku is the same as {@link #getMinimalPrice(Long, String, long, Long, String, BigDecimal, boolean, String)}
+     * with selected sku.
+     *
+     * @param selectedSkus   skus to get prices for
+     * @param customerShopId shop for which to get the price for
+     * @param masterShopId   optional fallback shop (if specified the result will be a merge of prices available in both shops)
+     * @param currencyCode   desirable currency
+     * @param quantity       quantity tier
+     * @param enforceTier    force to pick closest tier price rather than cheapest
+     * @param pricingPolicy  optional pricing policy
+     *
+     * @return lowest available sku price by sku code
+     */
+    Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus,
+                                           final long customerShopId,
+                                           final Long masterShopId,
+                                           final String currencyCode,
+                                           final BigDecimal quantity,
+                                           final boolean enforceTier,
+                                           final String pricingPolicy);
+
     /**
      * Get all prices for given product skus (all), shop, currency and quantity.
      *
@@ -90,6 +116,18 @@ public interface PriceService extends GenericService<SkuPrice> {
                                 final String selectedSku,
                                 final String currencyCode);
 
+    /**
+     * Get all prices of given shop and currency (all skus and pricing policies), no date filtering.
+     *
+     * @param shopId       shop PK (no master shop fallback)
+     * @param currencyCode desirable currency
+     *
+     * @return all sku prices of the shop paired with product PK of the sku (null if sku code does not
+     *         belong to a product, e.g. delivery cost prices)
+     */
+    List<Pair<Long, SkuPrice>> getAllShopPrices(final long shopId,
+                                    final String currencyCode);
+
     /**
      * Get promotion context for given shop for
      * current time frame.
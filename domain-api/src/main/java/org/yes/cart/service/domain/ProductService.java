@@ -326,6 +326,14 @@ public interface ProductService extends GenericService<Product> {
      */
     void reindexProductSku(String code);
 
+    /**
+     * Reindex the products for given SKU codes in single batch. Each SKU and product is reindexed
+     * once, regardless of how many times it appears in codes, and index is committed once per batch.
+     *
+     * @param codes the product SKU codes
+     */
+    void reindexProductSkus(Collection<String> codes);
+
 
     /**
      * Get product sku by code.
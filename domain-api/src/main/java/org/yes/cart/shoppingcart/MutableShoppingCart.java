@@ -20,6 +20,7 @@ import org.yes.cart.service.order.DeliveryBucket;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.Set;
 
 /**
  * User: denispavlov
@@ -28,6 +29,24 @@ import java.math.BigDecimal;
  */
 public interface MutableShoppingCart extends ShoppingCart, Serializable {
 
+    /**
+     * Inputs of cart calculation that are tracked between recalculations.
+     */
+    enum CalculationInput {
+        /** Cart items, their quantities, prices and delivery buckets. */
+        ITEMS,
+        /** Billing/delivery addresses (i.e. country and state used for taxes). */
+        ADDRESSES,
+        /** Selected carrier SLA. */
+        CARRIER,
+        /** Coupons. */
+        COUPONS,
+        /** Logged in customer. */
+        CUSTOMER,
+        /** Cart currency. */
+        CURRENCY
+    }
+
 
     /**
      * Set amount calculation strategy.
@@ -51,6 +70,23 @@ public interface MutableShoppingCart extends ShoppingCart, Serializable {
      */
     void recalculate();
 
+    /**
+     * Record that given calculation input has changed since last {@link #recalculate()}. Cart records changes
+     * of items, coupons and currency itself, changes in shopping context or order info (customer, addresses,
+     * carrier) must be marked by the commands that make them.
+     *
+     * @param input changed input
+     */
+    void markChanged(CalculationInput input);
+
+    /**
+     * Calculation inputs changed since last {@link #recalculate()}. Empty set means that changes are unknown
+     * and hence cart must be recalculated fully.
+     *
+     * @return changed inputs
+     */
+    Set<CalculationInput> getChangedInputs();
+
     /**
      * Add product sku to cart.
      *
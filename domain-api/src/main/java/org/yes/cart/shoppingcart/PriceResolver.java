@@ -19,7 +19,9 @@ package org.yes.cart.shoppingcart;
 import org.yes.cart.domain.entity.SkuPrice;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -54,6 +56,29 @@ public interface PriceResolver {
                              final boolean enforceTier,
                              final String pricingPolicy);
 
+    /**
+     * Get minimal prices for given skus, shop, currency and quantity in one go (e.g. for a page of search results).
+     * Result for each sku is the same as {@link #getMinimalPrice(Long, String, long, Long, String, BigDecimal, boolean, String)}
+     * with selected sku.
+     *
+     * @param selectedSkus   skus to get prices for
+     * @param customerShopId shop for which to get the price for
+     * @param masterShopId   optional fallback shop (if specified the result will be a merge of prices available in both shops)
+     * @param currencyCode   desirable currency
+     * @param quantity       quantity tier
+     * @param enforceTier    force to pick closest tier price rather than cheapest
+     * @param pricingPolicy  optional pricing policy
+     *
+     * @return lowest available sku price by sku code
+     */
+    Map<String, SkuPrice> getMinimalPrices(final Collection<String> selectedSkus,
+                                           final long customerShopId,
+                                           final Long masterShopId,
+                                           final String currencyCode,
+                                           final BigDecimal quantity,
+                                           final boolean enforceTier,
+                                           final String pricingPolicy);
+
     /**
      * Get all prices for given product skus (all), shop, currency and quantity.
      *
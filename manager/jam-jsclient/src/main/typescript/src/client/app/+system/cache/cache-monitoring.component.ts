@@ -190,10 +190,11 @@ export class CacheMonitoringComponent implements OnInit {
 
   protected getHitsAndMissed(row:CacheInfoVO):string {
     if (row.stats) {
+      let _evictions = row.evictions > 0 ? ' / ' + row.evictions : '';
       if (row.hits <= 0) {
-        return '0/' + row.misses;
+        return '0/' + row.misses + _evictions;
       }
-      return row.hits + '/' + row.misses + ' (' + (row.misses > 0 ? Math.floor(row.misses * 100 / row.hits) + '%' : '0%') + ')';
+      return row.hits + '/' + row.misses + ' (' + (row.misses > 0 ? Math.floor(row.misses * 100 / row.hits) + '%' : '0%') + ')' + _evictions;
     }
     return '-';
   }
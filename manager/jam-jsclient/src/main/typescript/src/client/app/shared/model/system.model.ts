@@ -47,6 +47,7 @@ export interface CacheInfoVO {
 
   hits : number;
   misses : number;
+  evictions : number;
 
   stats : number;
 
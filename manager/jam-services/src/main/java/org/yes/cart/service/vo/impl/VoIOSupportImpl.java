@@ -20,6 +20,9 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.yes.cart.bulkimport.image.ImageDerivativeService;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.service.async.impl.JobStatusListenerLoggerWrapperImpl;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.dto.DtoFileService;
 import org.yes.cart.service.dto.DtoImageService;
@@ -28,6 +31,7 @@ import org.yes.cart.util.MimeTypesUtils;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -44,6 +48,7 @@ public class VoIOSupportImpl implements VoIOSupport {
     private final DtoFileService dtoFileService;
     private final SystemService systemService;
 
+    private ImageDerivativeService imageDerivativeService;
 
     public VoIOSupportImpl(final DtoImageService dtoImageService,
                            final DtoFileService dtoFileService,
@@ -53,6 +58,16 @@ public class VoIOSupportImpl implements VoIOSupport {
         this.systemService = systemService;
     }
 
+    /**
+     * Service to generate resized images in background after upload. If not set resized images
+     * are generated on first request.
+     *
+     * @param imageDerivativeService derivative service
+     */
+    public void setImageDerivativeService(final ImageDerivativeService imageDerivativeService) {
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
 
     /**
      * {@inheritDoc}
@@ -118,11 +133,19 @@ public class VoIOSupportImpl implements VoIOSupport {
             throw new IOException("Unable to read BASE64 image");
         }
 
-        return dtoImageService.addImageToRepository(
+        final String added = dtoImageService.addImageToRepository(
                 ensureCorrectFileName(fileName, code, attributeImageCode),
                 code, imgBody, storagePrefix, path
         );
 
+        if (imageDerivativeService != null) {
+            imageDerivativeService.generateDerivatives(
+                    path, storagePrefix, Collections.singletonList(new Pair<>(code, added)),
+                    new JobStatusListenerLoggerWrapperImpl(LOG), true);
+        }
+
+        return added;
+
     }
 
     private static final Pattern MEDIA_ATTR_PATTERN = Pattern.compile("^([^\\d]*)(\\d+)(_[a-z]{2})?$");
@@ -68,6 +68,9 @@ public class VoCacheInfo {
     @DtoField(readOnly = true)
     private long  misses;
 
+    @DtoField(readOnly = true)
+    private long  evictions;
+
     @DtoField(readOnly = true)
     private boolean stats;
 
@@ -205,6 +208,14 @@ public class VoCacheInfo {
         this.misses = misses;
     }
 
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(final long evictions) {
+        this.evictions = evictions;
+    }
+
     public boolean isStats() {
         return stats;
     }
@@ -47,6 +47,7 @@ public class CacheEvictionQueueProcessorImpl implements Runnable, DisposableBean
     private CacheEvictionQueue cacheEvictionQueue;
     private NodeService nodeService;
     private AsyncContextFactory asyncContextFactory;
+    private int maxPksPerMessage = 10000;
 
     /**
      * {@inheritDoc}
@@ -55,52 +56,88 @@ public class CacheEvictionQueueProcessorImpl implements Runnable, DisposableBean
     public void run() {
 
         int count = 0;
+        int items = 0;
 
         try {
 
+            // Coalesce all changes per user, so that each node receives single message with PKs for all entities
+            final Map<String, HashMap<String, Map<String, long[]>>> changes = new LinkedHashMap<>();
+            int pks = 0;
+
             CacheEvictionQueue.CacheEvictionItem item;
             while (!this.shutdown.get() && (item = this.cacheEvictionQueue.dequeue()) != null) {
 
-                try {
-                    SecurityContextHolder.getContext().setAuthentication(new RunAsUserAuthentication(item.getUser(), "", Collections.EMPTY_LIST));
-                    final Map<String, Object> params = new HashMap<>();
-                    params.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_CACHE_TIMEOUT_MS);
-                    final AsyncContext threadContext = asyncContextFactory.getInstance(params);
-
-                    final List<Node> cluster = nodeService.getSfNodes();
-                    final List<String> targets = new ArrayList<>();
-                    for (final Node node : cluster) {
-                        targets.add(node.getId());
-                    }
-
-                    final HashMap<String, Object> payload = new HashMap<>();
-                    payload.put("entityOperation", item.getOperation());
-                    payload.put("entityName", item.getEntityName());
-                    payload.put("pkValues", item.getPKs().toArray(new Long[item.getPKs().size()]));
-
-                    final RspMessage message = new ContextRspMessageImpl(
-                            nodeService.getCurrentNodeId(),
-                            targets,
-                            "CacheDirector.onCacheableBulkChange",
-                            payload,
-                            threadContext
-                    );
-
-                    nodeService.broadcast(message);
-                    count++;
-                } finally {
-                    SecurityContextHolder.clearContext();
+                changes
+                        .computeIfAbsent(item.getUser(), k -> new HashMap<>())
+                        .computeIfAbsent(item.getEntityName(), k -> new HashMap<>())
+                        .merge(item.getOperation(), item.getPKValues(), CacheEvictionQueueProcessorImpl::concat);
+                items++;
+                pks += item.getPKValues().length;
+
+                if (pks >= this.maxPksPerMessage) {
+                    count += broadcast(changes);
+                    changes.clear();
+                    pks = 0;
                 }
+
             }
 
+            count += broadcast(changes);
+
         } catch (Exception exp) {
             LOG.error("Unable to perform remote cache eviction: " + exp.getMessage(), exp);
         }
 
-        LOG.info("Performed {} cache eviction calls", count);
+        LOG.info("Performed {} cache eviction calls for {} changes", count, items);
 
     }
 
+    private int broadcast(final Map<String, HashMap<String, Map<String, long[]>>> changes) {
+
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        final List<Node> cluster = nodeService.getSfNodes();
+        final List<String> targets = new ArrayList<>();
+        for (final Node node : cluster) {
+            targets.add(node.getId());
+        }
+
+        int count = 0;
+        for (final Map.Entry<String, HashMap<String, Map<String, long[]>>> userChanges : changes.entrySet()) {
+
+            try {
+                SecurityContextHolder.getContext().setAuthentication(new RunAsUserAuthentication(userChanges.getKey(), "", Collections.EMPTY_LIST));
+                final Map<String, Object> params = new HashMap<>();
+                params.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_CACHE_TIMEOUT_MS);
+                final AsyncContext threadContext = asyncContextFactory.getInstance(params);
+
+                final RspMessage message = new ContextRspMessageImpl(
+                        nodeService.getCurrentNodeId(),
+                        targets,
+                        "CacheDirector.onCacheableBulkChanges",
+                        userChanges.getValue(),
+                        threadContext
+                );
+
+                nodeService.broadcast(message);
+                count++;
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+
+        }
+        return count;
+
+    }
+
+    private static long[] concat(final long[] first, final long[] second) {
+        final long[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -136,4 +173,13 @@ public class CacheEvictionQueueProcessorImpl implements Runnable, DisposableBean
         this.asyncContextFactory = asyncContextFactory;
     }
 
+    /**
+     * Spring IoC.
+     *
+     * @param maxPksPerMessage maximum number of PKs coalesced into single cache eviction message
+     */
+    public void setMaxPksPerMessage(final int maxPksPerMessage) {
+        this.maxPksPerMessage = maxPksPerMessage;
+    }
+
 }
@@ -31,6 +31,7 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -55,10 +56,16 @@ public class AdminReportGeneratorImpl extends AbstractThemeAwareFopReportGenerat
      */
     @Override
     protected Source convertToSource(final ReportDescriptor descriptor, final Map<String, Object> parameters, final Object data, final String lang) {
-        if (data instanceof Collection) {
-            return getXml((Collection) data);
+        if (LOG.isDebugEnabled() && data instanceof Collection) {
+            return getXml(((Collection<?>) data).iterator()); // buffered so that XML can be logged
+        } else if (LOG.isDebugEnabled() && data instanceof Iterator) {
+            return getXml((Iterator<?>) data); // buffered so that XML can be logged
+        } else if (data instanceof Collection) {
+            return ReportObjectStreamFactory.getSource(((Collection) data).iterator());
+        } else if (data instanceof Iterator) {
+            return ReportObjectStreamFactory.getSource((Iterator) data);
         } else if (data != null) {
-            return getXml(Collections.singletonList(data));
+            return ReportObjectStreamFactory.getSource(Collections.singletonList(data).iterator());
         }
         return new StreamSource(new ByteArrayInputStream(new byte[0]));
     }
@@ -67,11 +74,11 @@ public class AdminReportGeneratorImpl extends AbstractThemeAwareFopReportGenerat
     /**
      * Write into given file name xml result.
      *
-     * @param rez list of objects.
+     * @param rez objects.
      *
      * @return xml as source
      */
-    Source getXml(final Collection<Object> rez) {
+    Source getXml(final Iterator<?> rez) {
 
         final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
         ObjectOutputStream os = null;
@@ -80,8 +87,8 @@ public class AdminReportGeneratorImpl extends AbstractThemeAwareFopReportGenerat
 
             os = ReportObjectStreamFactory.getObjectOutputStream(new OutputStreamWriter(bytesOut));
 
-            for (Object obj : rez) {
-                os.writeObject(obj);
+            while (rez.hasNext()) {
+                os.writeObject(rez.next());
             }
 
         } catch (Exception e) {
@@ -16,7 +16,6 @@
 
 package org.yes.cart.report.impl;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,10 +29,7 @@ import org.yes.cart.service.domain.CustomerOrderService;
 import org.yes.cart.service.domain.ShopService;
 import org.yes.cart.service.federation.ShopFederationStrategy;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * User: denispavlov
@@ -68,12 +64,12 @@ public class DeliveryReportWorker implements ReportWorker {
      * {@inheritDoc}
      */
     @Override
-    public List<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
+    public Iterator<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
 
         final String orderNumber = (String) currentSelection.get("orderNumber");
 
         if (StringUtils.isBlank(orderNumber)) {
-            return Collections.emptyList();
+            return Collections.emptyIterator();
         }
 
         try {
@@ -82,12 +78,12 @@ public class DeliveryReportWorker implements ReportWorker {
                 if (!shopFederationStrategy.isShopAccessibleByCurrentManager(order.getShop().getCode())) {
                     throw new AccessDeniedException("Access is denied");
                 }
-                return (List) Collections.singletonList(new Pair(order, order.getDelivery()));
+                return Collections.<Object>singletonList(new Pair(order, order.getDelivery())).iterator();
             }
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
-        return Collections.emptyList();
+        return Collections.emptyIterator();
 
     }
 
@@ -96,9 +92,9 @@ public class DeliveryReportWorker implements ReportWorker {
      * {@inheritDoc}
      */
     @Override
-    public Map<String, Object> getEnhancedParameterValues(final List<Object> result, final Map<String, Object> currentSelection) {
-        if (CollectionUtils.isNotEmpty(result)) {
-            final long shopId = ((CustomerOrder) ((Pair) result.get(0)).getFirst()).getShop().getShopId();
+    public Map<String, Object> getEnhancedParameterValues(final Object first, final Map<String, Object> currentSelection) {
+        if (first != null) {
+            final long shopId = ((CustomerOrder) ((Pair) first).getFirst()).getShop().getShopId();
             final Shop shop = shopService.getById(shopId);
             if (shop != null) {
                 final Map<String, Object> enhanced = new HashMap<>(currentSelection);
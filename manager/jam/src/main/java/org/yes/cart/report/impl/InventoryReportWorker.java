@@ -16,11 +16,17 @@
 
 package org.yes.cart.report.impl;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.dao.ResultsIterator;
+import org.yes.cart.domain.dto.WarehouseDTO;
+import org.yes.cart.domain.entity.SkuWarehouse;
 import org.yes.cart.domain.vo.VoFulfilmentCentre;
 import org.yes.cart.domain.vo.VoInventory;
 import org.yes.cart.report.ReportPair;
 import org.yes.cart.report.ReportWorker;
+import org.yes.cart.service.federation.FederationFacade;
 import org.yes.cart.service.vo.VoFulfilmentService;
 
 import java.util.*;
@@ -33,9 +39,18 @@ import java.util.*;
 public class InventoryReportWorker implements ReportWorker {
 
     private final VoFulfilmentService fulfilmentService;
+    private final FederationFacade federationFacade;
+    private final GenericDAO<SkuWarehouse, Long> skuWarehouseDAO;
+    private final GenericDAO<Object, Long> genericDAO;
 
-    public InventoryReportWorker(final VoFulfilmentService fulfilmentService) {
+    public InventoryReportWorker(final VoFulfilmentService fulfilmentService,
+                                 final FederationFacade federationFacade,
+                                 final GenericDAO<SkuWarehouse, Long> skuWarehouseDAO,
+                                 final GenericDAO<Object, Long> genericDAO) {
         this.fulfilmentService = fulfilmentService;
+        this.federationFacade = federationFacade;
+        this.skuWarehouseDAO = skuWarehouseDAO;
+        this.genericDAO = genericDAO;
     }
 
     /**
@@ -61,13 +76,22 @@ public class InventoryReportWorker implements ReportWorker {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Full warehouse stock is streamed from DB, filtered stock uses inventory search of the fulfilment service.
      */
     @Override
-    public List<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
+    public Iterator<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
         final String warehouse = (String) currentSelection.get("warehouse");
         final String skuCode = (String) currentSelection.get("skuCode");
         final long warehouseId = NumberUtils.toLong(warehouse);
-        if (warehouseId > 0L) {
+        if (warehouseId > 0L && StringUtils.isBlank(skuCode)) {
+            if (federationFacade.isManageable(warehouseId, WarehouseDTO.class)) {
+                return new InventoryIterator(skuWarehouseDAO.findByCriteriaIterator(
+                        " where e.warehouse.warehouseId = ?1 order by e.skuCode, e.quantity, e.skuWarehouseId",
+                        warehouseId
+                ));
+            }
+        } else if (warehouseId > 0L) {
             try {
                 final List<VoInventory> result = fulfilmentService.getFilteredInventory(warehouseId, skuCode, Integer.MAX_VALUE);
                 result.sort((i1, i2) -> {
@@ -81,20 +105,76 @@ public class InventoryReportWorker implements ReportWorker {
                     return comp;
                 });
 
-                return (List) result;
+                return ((List) result).iterator();
             } catch (Exception e) {
                 // do nothing
             }
         }
-        return Collections.emptyList();
+        return Collections.emptyIterator();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Map<String, Object> getEnhancedParameterValues(final List<Object> result, final Map<String, Object> currentSelection) {
+    public Map<String, Object> getEnhancedParameterValues(final Object first, final Map<String, Object> currentSelection) {
         return new HashMap<>(currentSelection);
     }
 
+    /**
+     * Converts inventory records into report objects one at a time. Records are evicted once
+     * converted, so that session does not grow with the size of the warehouse.
+     */
+    private class InventoryIterator implements ResultsIterator<Object> {
+
+        private final ResultsIterator<SkuWarehouse> records;
+
+        private InventoryIterator(final ResultsIterator<SkuWarehouse> records) {
+            this.records = records;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            return records.hasNext();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Object next() {
+            final SkuWarehouse record = records.next();
+            final VoInventory inventory = new VoInventory();
+            inventory.setSkuWarehouseId(record.getSkuWarehouseId());
+            inventory.setSkuCode(record.getSkuCode());
+            inventory.setSkuName(getSkuName(record.getSkuCode()));
+            inventory.setWarehouseCode(record.getWarehouse().getCode());
+            inventory.setWarehouseName(record.getWarehouse().getName());
+            inventory.setQuantity(record.getQuantity());
+            inventory.setReserved(record.getReserved());
+            skuWarehouseDAO.evict(record);
+            return inventory;
+        }
+
+        private String getSkuName(final String skuCode) {
+            final List<Object> names = genericDAO.findQueryObjectByNamedQuery("SKU.NAME.BY.CODE", skuCode);
+            if (names != null && !names.isEmpty() && names.get(0) instanceof String) {
+                return (String) names.get(0);
+            }
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("This is a read only iterator");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            records.close();
+        }
+
+    }
+
 }
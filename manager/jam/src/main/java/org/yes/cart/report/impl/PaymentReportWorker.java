@@ -23,10 +23,7 @@ import org.yes.cart.report.ReportPair;
 import org.yes.cart.report.ReportWorker;
 import org.yes.cart.service.vo.VoPaymentService;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * User: denispavlov
@@ -55,7 +52,7 @@ public class PaymentReportWorker implements ReportWorker {
      * {@inheritDoc}
      */
     @Override
-    public List<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
+    public Iterator<Object> getResult(final String lang, final Map<String, Object> currentSelection) {
         final String orderNumber = (String) currentSelection.get("orderNumber");
         final String fromDate = (String) currentSelection.get("fromDate");
         final String tillDate = (String) currentSelection.get("tillDate");
@@ -75,10 +72,10 @@ public class PaymentReportWorker implements ReportWorker {
         }
 
         try {
-            return (List) paymentService.getFiltered(filter.length() > 0 ? filter.toString() : null, null, null, Integer.MAX_VALUE);
+            return ((List) paymentService.getFiltered(filter.length() > 0 ? filter.toString() : null, null, null, Integer.MAX_VALUE)).iterator();
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
-            return Collections.emptyList();
+            return Collections.emptyIterator();
         }
     }
 
@@ -86,7 +83,7 @@ public class PaymentReportWorker implements ReportWorker {
      * {@inheritDoc}
      */
     @Override
-    public Map<String, Object> getEnhancedParameterValues(final List<Object> result, final Map<String, Object> currentSelection) {
+    public Map<String, Object> getEnhancedParameterValues(final Object first, final Map<String, Object> currentSelection) {
         return new HashMap<>(currentSelection);
     }
 }
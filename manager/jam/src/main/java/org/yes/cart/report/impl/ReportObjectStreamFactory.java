@@ -27,6 +27,7 @@ import org.hibernate.collection.internal.AbstractPersistentCollection;
 import org.hibernate.collection.internal.PersistentBag;
 import org.hibernate.collection.internal.PersistentList;
 import org.hibernate.collection.internal.PersistentSet;
+import org.xml.sax.InputSource;
 import org.yes.cart.domain.dto.impl.*;
 import org.yes.cart.domain.entity.impl.*;
 import org.yes.cart.domain.misc.Pair;
@@ -34,6 +35,8 @@ import org.yes.cart.domain.vo.VoInventory;
 import org.yes.cart.domain.vo.VoPayment;
 import org.yes.cart.util.DateUtils;
 
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Writer;
@@ -44,6 +47,7 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  *
@@ -184,4 +188,17 @@ public class ReportObjectStreamFactory {
         
     }
 
+    /**
+     * Get streaming source, which produces same xml as object output stream directly as
+     * SAX events while objects are consumed from iterator.
+     *
+     * @param objects objects to transform
+     * @return {@link Source}
+     */
+    public static Source getSource(final Iterator<?> objects) {
+
+        return new SAXSource(new ReportObjectXMLReader(X_STREAM, ROOT_NODE, objects), new InputSource());
+
+    }
+
 }
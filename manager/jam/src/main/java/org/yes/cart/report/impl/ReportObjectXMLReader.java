@@ -0,0 +1,277 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.report.impl;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.io.xml.AbstractXmlWriter;
+import org.xml.sax.*;
+import org.xml.sax.helpers.AttributesImpl;
+import org.yes.cart.dao.ResultsIterator;
+
+import java.util.*;
+
+/**
+ * SAX reader that marshals report objects with configured XStream directly into content handler
+ * (e.g. XSLT transformer), so that report XML is not written to a buffer and parsed again. Objects
+ * are consumed from the iterator one at a time, so lazy iterators (e.g. {@link ResultsIterator}) are
+ * not loaded into memory as objects.
+ * <p>
+ * Note that Saxon (XSLT 2.0 without streaming) still builds a tree of the whole source document
+ * before the transformation, which is compact compared to objects and serialised XML, but is still
+ * proportional to the report size.
+ * <p>
+ * Produces same XML as XStream object output stream: objects wrapped into root node.
+ * Reader can only be parsed once.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 20:10
+ */
+public class ReportObjectXMLReader extends AbstractXmlWriter implements XMLReader {
+
+    private static final String NAMESPACES = "http://xml.org/sax/features/namespaces";
+
+    private final XStream xStream;
+    private final String rootNode;
+    private final Iterator<?> objects;
+
+    private final Map<String, Boolean> features = new HashMap<>();
+    private final Map<String, Object> properties = new HashMap<>();
+
+    private EntityResolver entityResolver;
+    private DTDHandler dtdHandler;
+    private ContentHandler contentHandler;
+    private ErrorHandler errorHandler;
+
+    private final LinkedList<String> elements = new LinkedList<>();
+    private final AttributesImpl attributes = new AttributesImpl();
+    private boolean startTagInProgress = false;
+
+    /**
+     * Construct reader.
+     *
+     * @param xStream  configured XStream
+     * @param rootNode root node name
+     * @param objects  objects to marshal
+     */
+    public ReportObjectXMLReader(final XStream xStream,
+                                 final String rootNode,
+                                 final Iterator<?> objects) {
+        this.xStream = xStream;
+        this.rootNode = rootNode;
+        this.objects = objects;
+        this.features.put(NAMESPACES, Boolean.TRUE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean getFeature(final String name) {
+        return Boolean.TRUE.equals(features.get(name));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setFeature(final String name, final boolean value) {
+        features.put(name, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getProperty(final String name) {
+        return properties.get(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setProperty(final String name, final Object value) {
+        properties.put(name, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntityResolver(final EntityResolver resolver) {
+        this.entityResolver = resolver;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public EntityResolver getEntityResolver() {
+        return entityResolver;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setDTDHandler(final DTDHandler handler) {
+        this.dtdHandler = handler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DTDHandler getDTDHandler() {
+        return dtdHandler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setContentHandler(final ContentHandler handler) {
+        this.contentHandler = handler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ContentHandler getContentHandler() {
+        return contentHandler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setErrorHandler(final ErrorHandler handler) {
+        this.errorHandler = handler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void parse(final InputSource input) throws SAXException {
+        parse();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void parse(final String systemId) throws SAXException {
+        parse();
+    }
+
+    private void parse() throws SAXException {
+
+        if (contentHandler == null) {
+            throw new SAXException("Content handler is not set");
+        }
+
+        try {
+
+            contentHandler.startDocument();
+            contentHandler.startElement("", rootNode, rootNode, new AttributesImpl());
+            while (objects.hasNext()) {
+                final Object next = objects.next();
+                if (next != null) {
+                    xStream.marshal(next, this);
+                }
+            }
+            contentHandler.endElement("", rootNode, rootNode);
+            contentHandler.endDocument();
+
+        } catch (StreamException se) {
+            if (se.getCause() instanceof SAXException) {
+                throw (SAXException) se.getCause();
+            }
+            throw new SAXException(se);
+        } finally {
+            if (objects instanceof ResultsIterator) {
+                ((ResultsIterator) objects).close();
+            }
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void startNode(final String name) {
+        try {
+            flushStartTag();
+            elements.push(escapeXmlName(name));
+            startTagInProgress = true;
+        } catch (SAXException se) {
+            throw new StreamException(se);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void startNode(final String name, final Class clazz) {
+        startNode(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addAttribute(final String name, final String value) {
+        if (!startTagInProgress) {
+            throw new StreamException(new IllegalStateException("No startElement being processed"));
+        }
+        final String escaped = escapeXmlName(name);
+        attributes.addAttribute("", escaped, escaped, "CDATA", value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setValue(final String text) {
+        try {
+            flushStartTag();
+            final char[] chars = text.toCharArray();
+            contentHandler.characters(chars, 0, chars.length);
+        } catch (SAXException se) {
+            throw new StreamException(se);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endNode() {
+        try {
+            flushStartTag();
+            final String name = elements.pop();
+            contentHandler.endElement("", name, name);
+        } catch (SAXException se) {
+            throw new StreamException(se);
+        }
+    }
+
+    private void flushStartTag() throws SAXException {
+        if (startTagInProgress) {
+            final String name = elements.peek();
+            contentHandler.startElement("", name, name, attributes);
+            attributes.clear();
+            startTagInProgress = false;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() {
+        // events are passed to content handler immediately
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public HierarchicalStreamWriter underlyingWriter() {
+        return this;
+    }
+
+}
@@ -17,7 +17,8 @@
 package org.yes.cart.report.impl;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.xml.sax.SAXException;
+import org.apache.commons.collections.IteratorUtils;
+import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.misc.MutablePair;
 import org.yes.cart.domain.vo.VoReportDescriptor;
 import org.yes.cart.domain.vo.VoReportParameter;
@@ -29,7 +30,6 @@ import org.yes.cart.util.DateUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
 
@@ -187,45 +187,46 @@ public class ReportServiceImpl implements ReportService {
                                  final OutputStream reportStream,
                                  final Map<String, Object> currentSelection) throws Exception {
 
-        final List<Object> rez = getQueryResult(lang, reportId, currentSelection);
-        final Map<String, Object> enhancedSelection = getEnhancedParameterValues(reportId, rez, currentSelection);
-        return createReport(lang, reportId, reportStream, rez, enhancedSelection);
+        final Iterator<Object> rez = getQueryResult(lang, reportId, currentSelection);
+        try {
 
-    }
+            if (rez.hasNext()) {
 
-    private boolean createReport(final String lang,
-                                 final String reportId,
-                                 final OutputStream reportStream,
-                                 final List<Object> rez,
-                                 final Map<String, Object> currentSelection) throws SAXException, IOException {
+                final Object first = rez.next();
+                final Map<String, Object> enhancedSelection = getEnhancedParameterValues(reportId, first, currentSelection);
+                final ReportDescriptor descriptor = getReportDescriptorById(reportId);
 
-        final ReportDescriptor descriptor = getReportDescriptorById(reportId);
+                this.reportGenerator.generateReport(descriptor, enhancedSelection,
+                        IteratorUtils.chainedIterator(Collections.singletonList(first).iterator(), rez), lang, reportStream);
+                return true;
 
-        if (CollectionUtils.isNotEmpty(rez)) {
+            }
 
-            this.reportGenerator.generateReport(descriptor, currentSelection, rez, lang, reportStream);
-            return true;
+            return false;
 
+        } finally {
+            if (rez instanceof ResultsIterator) {
+                ((ResultsIterator) rez).close();
+            }
         }
 
-        return false;
     }
 
     /**
-     * Get query result as object list.
+     * Get query result.
      *
      * @param lang language
      * @param reportId reportId
      * @param currentSelection parameters.
      *
-     * @return list of objects.
+     * @return objects (if DB results iterator is returned, it must be closed).
      */
-    List<Object> getQueryResult(final String lang, final String reportId, final Map<String, Object> currentSelection) {
+    Iterator<Object> getQueryResult(final String lang, final String reportId, final Map<String, Object> currentSelection) {
 
         if (reportWorkers.containsKey(reportId)) {
             return reportWorkers.get(reportId).getResult(lang, currentSelection);
         }
-        return Collections.emptyList();
+        return Collections.emptyIterator();
 
     }
 
@@ -233,15 +234,15 @@ public class ReportServiceImpl implements ReportService {
      * Enhance parameters by adding inferred values.
      *
      * @param reportId reportId
-     * @param result results
+     * @param first first result object
      * @param currentSelection parameters
      *
      * @return enhanced parameters
      */
-    Map<String, Object> getEnhancedParameterValues(final String reportId, final List<Object> result, final Map<String, Object> currentSelection) {
+    Map<String, Object> getEnhancedParameterValues(final String reportId, final Object first, final Map<String, Object> currentSelection) {
 
         if (reportWorkers.containsKey(reportId)) {
-            return reportWorkers.get(reportId).getEnhancedParameterValues(result, currentSelection);
+            return reportWorkers.get(reportId).getEnhancedParameterValues(first, currentSelection);
         }
         final Map<String, Object> params = new HashMap<>();
         if (currentSelection != null) {
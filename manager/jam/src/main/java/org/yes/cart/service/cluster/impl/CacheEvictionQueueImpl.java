@@ -27,15 +27,21 @@ import org.yes.cart.service.async.model.AsyncContext;
 import org.yes.cart.service.async.utils.ThreadLocalAsyncContextUtils;
 import org.yes.cart.util.log.Markers;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Cache eviction queue that accumulates changed PKs per user, operation and entity.
+ *
+ * PKs are kept in primitive sets, so duplicate changes of the same entity are merged in constant time.
+ * Queue capacity is measured in pending PKs. When capacity is reached enqueue waits (up to
+ * {@link #setMaxEnqueueWaitMs(long)}) for the processor to drain the queue. If queue is still full after
+ * waiting changes are accepted without further waits until next drain, so that no eviction is ever lost.
+ *
  * User: denispavlov
  * Date: 26/05/2018
  * Time: 08:42
@@ -44,18 +50,18 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheEvictionQueueImpl.class);
 
-    private final Map<Key, Set<Long>> queue = new ConcurrentHashMap<>();
+    private final Map<Key, PkSet> queue = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final Object capacity = new Object();
+    private volatile boolean overflow = false;
 
     private int maxQueueSize = 1000;
+    private long maxEnqueueWaitMs = 1000L;
 
     @Override
     public void enqueue(final String entityOperation, final String entityName, final Long pkValue) {
 
-        if (this.queue.size() > maxQueueSize) {
-            LOG.error(Markers.alert(), "Cache eviction queue is full");
-            return;
-        }
-
         final Authentication auth = SecurityContextHolder.getContext() != null ? SecurityContextHolder.getContext().getAuthentication() : null;
         String username = auth != null && auth.isAuthenticated() ? auth.getName() : null;
         if (username == null) {
@@ -68,26 +74,77 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
             return;
         }
 
-        queue.compute(new Key(username, entityOperation, entityName), (k, v) ->
-                (v == null) ? Collections.singleton(pkValue) :
-                        (v.contains(pkValue) ? v :
-                        Stream.of(v, Collections.singleton(pkValue))
-                                .flatMap(Collection::stream)
-                                .collect(Collectors.toSet())));
+        if (pkValue == null) {
+            LOG.debug("Cannot invalidate cache for entity [" + entityName + "] - no pk value");
+            return;
+        }
+
+        awaitCapacity();
+
+        final Key key = new Key(username, entityOperation, entityName);
+        while (true) {
+            final int added = queue.computeIfAbsent(key, k -> new PkSet()).add(pkValue);
+            if (added != PkSet.DRAINED) {
+                if (added == PkSet.ADDED) {
+                    pending.incrementAndGet();
+                }
+                return;
+            }
+            // set was drained by processor after we got it, retry with new one
+        }
+
+    }
+
+    private void awaitCapacity() {
+
+        if (this.overflow || this.pending.get() < this.maxQueueSize) {
+            return;
+        }
+
+        synchronized (this.capacity) {
+            final long until = System.currentTimeMillis() + this.maxEnqueueWaitMs;
+            long wait;
+            try {
+                while (!this.overflow && this.pending.get() >= this.maxQueueSize
+                        && (wait = until - System.currentTimeMillis()) > 0L) {
+                    this.capacity.wait(wait);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            if (!this.overflow && this.pending.get() >= this.maxQueueSize) {
+                this.overflow = true;
+                LOG.error(Markers.alert(), "Cache eviction queue is full ({} PKs pending), accepting changes without waiting until next eviction run", this.pending.get());
+            }
+        }
+
+    }
+
+    private void releaseCapacity(final int drained) {
+
+        this.pending.addAndGet(-drained);
+        synchronized (this.capacity) {
+            this.overflow = false;
+            this.capacity.notifyAll();
+        }
 
     }
 
     @Override
     public CacheEvictionItem dequeue() {
 
-        final Key key = this.queue.isEmpty() ? null : this.queue.keySet().iterator().next();
-        if (key == null) {
-            return null;
-        }
+        for (final Key key : this.queue.keySet()) {
+
+            final PkSet update = this.queue.remove(key);
+            if (update != null) {
+                final long[] pks = update.drain();
+                releaseCapacity(pks.length);
+                return new Item(key, pks);
+            }
 
-        final Set<Long> update = this.queue.remove(key);
+        }
 
-        return new Item(key, update);
+        return null;
 
     }
 
@@ -95,22 +152,115 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
     public void clear() {
 
         queue.clear();
+        this.pending.set(0);
+        releaseCapacity(0);
 
     }
 
     @Override
     public void destroy() throws Exception {
         LOG.debug("Shutting down cache eviction queue");
-        this.queue.clear();
+        clear();
+    }
+
+    /**
+     * Open addressing set of primitive PKs. Set is only used for accumulation, once drained it no longer
+     * accepts PKs, so that concurrent enqueue can retry with new set.
+     */
+    private static final class PkSet {
+
+        private static final int ADDED = 1;
+        private static final int EXISTS = 0;
+        private static final int DRAINED = -1;
+
+        private long[] table = new long[16];
+        private int size = 0;
+        private boolean zero = false;
+        private boolean drained = false;
+
+        synchronized int add(final long pk) {
+
+            if (drained) {
+                return DRAINED;
+            }
+
+            if (pk == 0L) { // 0 marks free slot
+                if (zero) {
+                    return EXISTS;
+                }
+                zero = true;
+                size++;
+                return ADDED;
+            }
+
+            if ((size + 1) << 1 > table.length) {
+                rehash();
+            }
+
+            final int mask = table.length - 1;
+            int i = mix(pk) & mask;
+            while (table[i] != 0L) {
+                if (table[i] == pk) {
+                    return EXISTS;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = pk;
+            size++;
+            return ADDED;
+
+        }
+
+        synchronized long[] drain() {
+
+            drained = true;
+
+            final long[] pks = new long[size];
+            int pos = 0;
+            if (zero) {
+                pks[pos++] = 0L;
+            }
+            for (final long pk : table) {
+                if (pk != 0L) {
+                    pks[pos++] = pk;
+                }
+            }
+            table = null;
+            return pks;
+
+        }
+
+        private void rehash() {
+
+            final long[] old = table;
+            table = new long[old.length << 1];
+            final int mask = table.length - 1;
+            for (final long pk : old) {
+                if (pk != 0L) {
+                    int i = mix(pk) & mask;
+                    while (table[i] != 0L) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = pk;
+                }
+            }
+
+        }
+
+        private static int mix(final long pk) {
+            final long h = pk * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
     }
 
     private static class Item implements CacheEvictionItem {
 
         private final Key key;
-        private final Set<Long> pks;
+        private final long[] pks;
 
 
-        private Item(final Key key, final Set<Long> pks) {
+        private Item(final Key key, final long[] pks) {
             this.key = key;
             this.pks = pks;
         }
@@ -131,7 +281,16 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
         }
 
         @Override
-        public Set<Long> getPKs() {
+        public List<Long> getPKs() {
+            final List<Long> list = new ArrayList<>(pks.length);
+            for (final long pk : pks) {
+                list.add(pk);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        @Override
+        public long[] getPKValues() {
             return pks;
         }
     }
@@ -170,11 +329,20 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
     }
 
     /**
-     * Maximum cache eviction items in queue.
+     * Maximum pending PKs in queue after which enqueue waits for queue to be processed.
      *
      * @param maxQueueSize max size
      */
     public void setMaxQueueSize(final int maxQueueSize) {
         this.maxQueueSize = maxQueueSize;
     }
+
+    /**
+     * Maximum time enqueue waits for full queue to be processed.
+     *
+     * @param maxEnqueueWaitMs max wait in millis
+     */
+    public void setMaxEnqueueWaitMs(final long maxEnqueueWaitMs) {
+        this.maxEnqueueWaitMs = maxEnqueueWaitMs;
+    }
 }
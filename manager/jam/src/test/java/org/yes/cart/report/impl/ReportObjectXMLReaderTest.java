@@ -0,0 +1,131 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.report.impl;
+
+import org.junit.Test;
+import org.yes.cart.dao.ResultsIterator;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.domain.vo.VoInventory;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:40
+ */
+public class ReportObjectXMLReaderTest {
+
+    @Test
+    public void testSaxOutputSameAsXStreamOutput() throws Exception {
+
+        final VoInventory inv1 = new VoInventory();
+        inv1.setSkuWarehouseId(1L);
+        inv1.setSkuCode("SKU-1");
+        inv1.setSkuName("Name <with> & \"special\" 'chars'");
+        inv1.setWarehouseCode("WH1");
+        inv1.setWarehouseName("Warehouse 1");
+        inv1.setQuantity(new BigDecimal("10.50"));
+        inv1.setReserved(BigDecimal.ONE);
+
+        final VoInventory inv2 = new VoInventory();
+        inv2.setSkuWarehouseId(2L);
+        inv2.setSkuCode("SKU-2");
+        inv2.setSkuName("");
+        inv2.setWarehouseCode("WH1");
+        inv2.setQuantity(BigDecimal.ZERO);
+
+        final List<Object> objects = Arrays.asList(inv1, inv2, new Pair<>("first", 2L));
+
+        final StringWriter xstream = new StringWriter();
+        try (ObjectOutputStream os = ReportObjectStreamFactory.getObjectOutputStream(xstream)) {
+            for (final Object object : objects) {
+                os.writeObject(object);
+            }
+        }
+
+        final String expected = normalise(new StreamSource(new StringReader(xstream.toString())));
+        final String actual = normalise(ReportObjectStreamFactory.getSource(objects.iterator()));
+
+        assertTrue(expected, expected.contains("<inventoryDto><skuWarehouseId>1</skuWarehouseId>"));
+        assertEquals(expected, actual);
+
+    }
+
+    @Test
+    public void testResultsIteratorClosed() throws Exception {
+
+        final VoInventory inv = new VoInventory();
+        inv.setSkuCode("SKU-1");
+
+        final boolean[] closed = new boolean[1];
+        final Iterator<Object> delegate = Arrays.<Object>asList(inv).iterator();
+        final ResultsIterator<Object> results = new ResultsIterator<Object>() {
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                return delegate.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        final String actual = normalise(ReportObjectStreamFactory.getSource(results));
+
+        assertTrue(actual, actual.contains("<yes-report><inventoryDto>"));
+        assertTrue(actual, actual.contains("<skuCode>SKU-1</skuCode>"));
+        assertTrue(closed[0]);
+
+    }
+
+    private String normalise(final Source source) throws Exception {
+
+        final Transformer identity = TransformerFactory.newInstance().newTransformer();
+        final StringWriter out = new StringWriter();
+        identity.transform(source, new StreamResult(out));
+        // XStream output is indented, SAX output is not
+        return out.toString().replaceAll(">\\s+<", "><");
+
+    }
+
+}
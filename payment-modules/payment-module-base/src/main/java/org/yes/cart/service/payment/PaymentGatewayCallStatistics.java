@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.payment;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error statistics of a single gateway operation.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:45
+ */
+public final class PaymentGatewayCallStatistics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    /**
+     * Record call outcome.
+     *
+     * @param time    call duration in millis
+     * @param success true if call was successful
+     */
+    public void record(final long time, final boolean success) {
+        calls.increment();
+        if (!success) {
+            errors.increment();
+        }
+        totalTime.add(time);
+        maxTime.accumulateAndGet(time, Math::max);
+    }
+
+    /**
+     * @return number of calls
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return number of failed calls
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return average call duration in millis
+     */
+    public long getAverageTime() {
+        final long count = calls.sum();
+        return count == 0L ? 0L : totalTime.sum() / count;
+    }
+
+    /**
+     * @return longest call duration in millis
+     */
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentGatewayCallStatistics{" +
+                "calls=" + getCalls() +
+                ", errors=" + getErrors() +
+                ", averageTime=" + getAverageTime() +
+                ", maxTime=" + getMaxTime() +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.payment;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * HTTP transport shared by payment gateways, which keeps connections to gateway endpoints
+ * alive between calls and collects call statistics per gateway operation.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:40
+ */
+public interface PaymentGatewayHttpClient {
+
+    /**
+     * Perform HTTP POST.
+     *
+     * @param gateway     gateway label (used for timeouts and statistics)
+     * @param operation   gateway operation (used for statistics)
+     * @param url         endpoint URL
+     * @param body        request body
+     * @param contentType content type of the body
+     *
+     * @return response body
+     *
+     * @throws IOException if call failed or response status is an error
+     */
+    String post(String gateway, String operation, String url, String body, String contentType) throws IOException;
+
+    /**
+     * Get call statistics.
+     *
+     * @return statistics per gateway operation (key is "gateway:operation")
+     */
+    Map<String, PaymentGatewayCallStatistics> getStatistics();
+
+}
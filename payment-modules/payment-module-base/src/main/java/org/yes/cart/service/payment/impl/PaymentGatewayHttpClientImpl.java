@@ -0,0 +1,259 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.payment.impl;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.Resource;
+import org.yes.cart.service.payment.PaymentGatewayCallStatistics;
+import org.yes.cart.service.payment.PaymentGatewayHttpClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled HTTP client. Connections (and therefore TLS sessions) are kept alive and reused
+ * by subsequent calls to the same gateway endpoint.
+ * <p>
+ * Pool and timeouts can be overridden in configuration (see {@link #setConfig(Resource)}).
+ * Statistics are available via {@link #getStatisticsReport()} (e.g. JMX) and are logged on shutdown.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:50
+ */
+public class PaymentGatewayHttpClientImpl implements PaymentGatewayHttpClient, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayHttpClientImpl.class);
+
+    private static final String SOCKET_TIMEOUT_PREFIX = "payment.http.socket.timeout.ms.";
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private volatile CloseableHttpClient httpClient;
+    private volatile RequestConfig defaultConfig;
+    private long connectionTimeToLive;
+
+    private final Map<String, RequestConfig> gatewayConfigs = new ConcurrentHashMap<>();
+    private final Map<String, PaymentGatewayCallStatistics> statistics = new ConcurrentHashMap<>();
+
+    private Map<String, Integer> gatewaySocketTimeouts = Collections.emptyMap();
+
+    /**
+     * Construct pooled client.
+     *
+     * @param maxConnections         max connections in pool
+     * @param maxConnectionsPerRoute max connections per gateway endpoint
+     * @param connectTimeout         connect timeout in millis (also used as timeout for leasing connection from pool)
+     * @param socketTimeout          default socket timeout in millis
+     * @param connectionTimeToLive   max life time of a pooled connection in millis
+     */
+    public PaymentGatewayHttpClientImpl(final int maxConnections,
+                                        final int maxConnectionsPerRoute,
+                                        final int connectTimeout,
+                                        final int socketTimeout,
+                                        final long connectionTimeToLive) {
+
+        initPool(maxConnections, maxConnectionsPerRoute, connectTimeout, socketTimeout, connectionTimeToLive);
+
+    }
+
+    private void initPool(final int maxConnections,
+                          final int maxConnectionsPerRoute,
+                          final int connectTimeout,
+                          final int socketTimeout,
+                          final long connectionTimeToLive) {
+
+        this.connectionTimeToLive = connectionTimeToLive;
+        this.connectionManager = new PoolingHttpClientConnectionManager(connectionTimeToLive, TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(maxConnections);
+        this.connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        this.defaultConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setStaleConnectionCheckEnabled(true)
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(this.connectionManager)
+                .setDefaultRequestConfig(this.defaultConfig)
+                .build();
+
+        this.gatewayConfigs.clear();
+
+    }
+
+    /**
+     * Override pool settings and timeouts from configuration:
+     * <pre>
+     * payment.http.pool.max
+     * payment.http.pool.max.per.route
+     * payment.http.connect.timeout.ms
+     * payment.http.socket.timeout.ms
+     * payment.http.connection.ttl.ms
+     * payment.http.socket.timeout.ms.[gateway label]
+     * </pre>
+     * Must be set before client is used, since pool is recreated.
+     *
+     * @param config configuration
+     *
+     * @throws IOException in case configuration cannot be read
+     */
+    public void setConfig(final Resource config) throws IOException {
+
+        final Properties properties = new Properties();
+        properties.load(config.getInputStream());
+
+        final int maxConnections = NumberUtils.toInt(properties.getProperty("payment.http.pool.max"), this.connectionManager.getMaxTotal());
+        final int maxConnectionsPerRoute = NumberUtils.toInt(properties.getProperty("payment.http.pool.max.per.route"), this.connectionManager.getDefaultMaxPerRoute());
+        final int connectTimeout = NumberUtils.toInt(properties.getProperty("payment.http.connect.timeout.ms"), this.defaultConfig.getConnectTimeout());
+        final int socketTimeout = NumberUtils.toInt(properties.getProperty("payment.http.socket.timeout.ms"), this.defaultConfig.getSocketTimeout());
+        final long connectionTimeToLive = NumberUtils.toLong(properties.getProperty("payment.http.connection.ttl.ms"), this.connectionTimeToLive);
+
+        final CloseableHttpClient previous = this.httpClient;
+        initPool(maxConnections, maxConnectionsPerRoute, connectTimeout, socketTimeout, connectionTimeToLive);
+        previous.close();
+
+        final Map<String, Integer> timeouts = new HashMap<>(this.gatewaySocketTimeouts);
+        for (final String property : properties.stringPropertyNames()) {
+            if (property.startsWith(SOCKET_TIMEOUT_PREFIX)) {
+                final int timeout = NumberUtils.toInt(properties.getProperty(property), -1);
+                if (timeout > 0) {
+                    timeouts.put(property.substring(SOCKET_TIMEOUT_PREFIX.length()), timeout);
+                }
+            }
+        }
+        setGatewaySocketTimeouts(timeouts);
+
+        LOG.info("Payment gateway HTTP client: max {}, max per route {}, connect timeout {}ms, socket timeout {}ms, ttl {}ms, gateway socket timeouts {}",
+                maxConnections, maxConnectionsPerRoute, connectTimeout, socketTimeout, connectionTimeToLive, timeouts);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String post(final String gateway,
+                       final String operation,
+                       final String url,
+                       final String body,
+                       final String contentType) throws IOException {
+
+        final HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(getRequestConfig(gateway));
+        httpPost.setEntity(new StringEntity(body, ContentType.create(contentType, StandardCharsets.UTF_8)));
+
+        final long start = System.currentTimeMillis();
+        boolean success = false;
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+
+            final int status = response.getStatusLine().getStatusCode();
+            // always consume the entity so that connection is returned to pool
+            final String content = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : "";
+            if (status >= 400) {
+                throw new IOException("HTTP " + status + " from " + url);
+            }
+            success = true;
+            return content;
+
+        } finally {
+
+            final long time = System.currentTimeMillis() - start;
+            statistics.computeIfAbsent(gateway + ":" + operation, k -> new PaymentGatewayCallStatistics()).record(time, success);
+            LOG.debug("{}:{} call to {} took {}ms, success: {}", gateway, operation, url, time, success);
+
+        }
+    }
+
+    private RequestConfig getRequestConfig(final String gateway) {
+
+        final RequestConfig config = defaultConfig;
+        final Integer socketTimeout = gatewaySocketTimeouts.get(gateway);
+        if (socketTimeout == null) {
+            return config;
+        }
+        return gatewayConfigs.computeIfAbsent(gateway, k -> RequestConfig.copy(config).setSocketTimeout(socketTimeout).build());
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, PaymentGatewayCallStatistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<>(statistics));
+    }
+
+    /**
+     * Human readable statistics, one line per gateway operation.
+     *
+     * @return statistics report
+     */
+    public String getStatisticsReport() {
+
+        final StringBuilder report = new StringBuilder();
+        for (final Map.Entry<String, PaymentGatewayCallStatistics> entry : getStatistics().entrySet()) {
+            final PaymentGatewayCallStatistics stats = entry.getValue();
+            report.append(entry.getKey())
+                    .append(": calls ").append(stats.getCalls())
+                    .append(", errors ").append(stats.getErrors())
+                    .append(", avg ").append(stats.getAverageTime()).append("ms")
+                    .append(", max ").append(stats.getMaxTime()).append("ms\n");
+        }
+        return report.toString();
+
+    }
+
+    /**
+     * Reset all statistics.
+     */
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    /**
+     * Socket timeouts for gateways that need to differ from default.
+     *
+     * @param gatewaySocketTimeouts gateway label to socket timeout in millis
+     */
+    public void setGatewaySocketTimeouts(final Map<String, Integer> gatewaySocketTimeouts) {
+        this.gatewaySocketTimeouts = new HashMap<>(gatewaySocketTimeouts);
+        this.gatewayConfigs.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void destroy() throws Exception {
+        if (!statistics.isEmpty()) {
+            LOG.info("Payment gateway HTTP client statistics:\n{}", getStatisticsReport());
+        }
+        httpClient.close();
+        connectionManager.shutdown();
+    }
+}
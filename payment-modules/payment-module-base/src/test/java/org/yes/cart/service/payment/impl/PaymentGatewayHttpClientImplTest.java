@@ -0,0 +1,108 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.payment.impl;
+
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.yes.cart.service.payment.PaymentGatewayCallStatistics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:10
+ */
+public class PaymentGatewayHttpClientImplTest {
+
+    @Test
+    public void testPostFailureRecordedInStatistics() throws Exception {
+
+        final PaymentGatewayHttpClientImpl client = new PaymentGatewayHttpClientImpl(2, 1, 1000, 1000, 1000L);
+        client.setGatewaySocketTimeouts(Collections.singletonMap("testGateway", 500));
+
+        try {
+            client.post("testGateway", "refund", "http://localhost:1/api", "a=b", "application/x-www-form-urlencoded");
+            fail("Connection to port 1 must fail");
+        } catch (IOException ioe) {
+            // expected
+        } finally {
+            client.destroy();
+        }
+
+        final Map<String, PaymentGatewayCallStatistics> stats = client.getStatistics();
+        assertEquals(1, stats.size());
+        final PaymentGatewayCallStatistics refund = stats.get("testGateway:refund");
+        assertNotNull(refund);
+        assertEquals(1L, refund.getCalls());
+        assertEquals(1L, refund.getErrors());
+
+    }
+
+    @Test
+    public void testConfigAndStatisticsReport() throws Exception {
+
+        final PaymentGatewayHttpClientImpl client = new PaymentGatewayHttpClientImpl(2, 1, 1000, 1000, 1000L);
+        client.setConfig(new ByteArrayResource((
+                "payment.http.pool.max=4\n" +
+                "payment.http.connect.timeout.ms=500\n" +
+                "payment.http.socket.timeout.ms.testGateway=300\n" +
+                "payment.http.socket.timeout.ms.badGateway=abc\n"
+        ).getBytes(StandardCharsets.UTF_8)));
+
+        try {
+            client.post("testGateway", "capture", "http://localhost:1/api", "a=b", "application/x-www-form-urlencoded");
+            fail("Connection to port 1 must fail");
+        } catch (IOException ioe) {
+            // expected
+        } finally {
+            client.destroy();
+        }
+
+        final String report = client.getStatisticsReport();
+        assertTrue(report, report.startsWith("testGateway:capture: calls 1, errors 1, avg "));
+
+        client.resetStatistics();
+        assertTrue(client.getStatistics().isEmpty());
+        assertEquals("", client.getStatisticsReport());
+
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+
+        final PaymentGatewayCallStatistics stats = new PaymentGatewayCallStatistics();
+
+        assertEquals(0L, stats.getAverageTime());
+
+        stats.record(100L, true);
+        stats.record(300L, false);
+        stats.record(200L, true);
+
+        assertEquals(3L, stats.getCalls());
+        assertEquals(1L, stats.getErrors());
+        assertEquals(200L, stats.getAverageTime());
+        assertEquals(300L, stats.getMaxTime());
+
+    }
+
+}
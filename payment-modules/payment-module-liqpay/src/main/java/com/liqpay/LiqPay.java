@@ -27,6 +27,7 @@ import java.util.Map;
 
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
+import org.yes.cart.service.payment.PaymentGatewayHttpClient;
 
 public class LiqPay {
 
@@ -34,6 +35,9 @@ public class LiqPay {
     private Proxy __PROXY = null;
     private String __PROXY_AUTH = null;
 
+    private PaymentGatewayHttpClient httpClient = null;  // YC changes
+    private String gateway = null;
+
     private String host = "https://www.liqpay.com/api/";
     private String pub_key = "";
     private String priv_key = "";
@@ -72,7 +76,12 @@ public class LiqPay {
         HashMap<String, String> data = new HashMap<String, String>();
         data.put("data", dataJson);
         data.put("signature", signature);
-        String resp = LiqPayRequest.post(host + path, data, this);
+        String resp;
+        if (httpClient != null && __PROXY == null) {   // YC changes
+            resp = LiqPayRequest.post(httpClient, gateway, path, host + path, data);
+        } else {
+            resp = LiqPayRequest.post(host + path, data, this);
+        }
 
         JSONParser parser = new JSONParser();
         Object obj = parser.parse(resp);
@@ -188,6 +197,17 @@ public class LiqPay {
         __PROXY_AUTH = new String(LiqPayUtil.base64_encode(new String(login + ":" + password).getBytes()));
     }
 
+    /**
+     * YC changes: use shared pooled HTTP client for API calls (unless proxy is configured).
+     *
+     * @param httpClient client
+     * @param gateway    gateway label
+     */
+    public void setHttpClient(PaymentGatewayHttpClient httpClient, String gateway){
+        this.httpClient = httpClient;
+        this.gateway = gateway;
+    }
+
     public Proxy getProxy(){
         return __PROXY;
     }
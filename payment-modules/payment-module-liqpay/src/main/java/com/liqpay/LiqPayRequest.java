@@ -24,6 +24,7 @@ package com.liqpay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yes.cart.payment.impl.LiqPayPaymentGatewayImpl;
+import org.yes.cart.service.payment.PaymentGatewayHttpClient;
 
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
@@ -46,14 +47,36 @@ public class LiqPayRequest {
     private static final int CONNECT_TIMEOUT = 60000;
     private static final int READ_TIMEOUT = 60000;
 
-    public static String post(String url, HashMap<String, String> list, LiqPay lp) throws Exception {
+    // YC changes: post via shared pooled client
+    public static String post(PaymentGatewayHttpClient client, String gateway, String operation,
+                              String url, HashMap<String, String> list) throws Exception {
+
+        String urlParameters = toUrlParameters(list);
+
+        LOG.debug("LiqPay request: {}", urlParameters);
 
+        String response = client.post(gateway, operation, url, urlParameters, "application/x-www-form-urlencoded");
+
+        LOG.debug("LiqPay response: {}", response);
+
+        return response;
+    }
+
+    private static String toUrlParameters(HashMap<String, String> list) throws Exception {
 
         String urlParameters = "";
 
         for (Map.Entry<String, String> entry: list.entrySet())
             urlParameters += entry.getKey() + "=" + URLEncoder.encode(entry.getValue(), "UTF-8") + "&";
 
+        return urlParameters;
+    }
+
+    public static String post(String url, HashMap<String, String> list, LiqPay lp) throws Exception {
+
+
+        String urlParameters = toUrlParameters(list);
+
         LOG.debug("LiqPay request: {}", urlParameters);
 
         URL obj = new URL(url);
@@ -31,6 +31,7 @@ import org.yes.cart.payment.dto.PaymentMiscParam;
 import org.yes.cart.payment.dto.impl.BasicCallbackInfoImpl;
 import org.yes.cart.payment.dto.impl.PaymentGatewayFeatureImpl;
 import org.yes.cart.payment.dto.impl.PaymentImpl;
+import org.yes.cart.service.payment.PaymentGatewayHttpClient;
 import org.yes.cart.util.HttpParamsUtils;
 import org.yes.cart.util.log.Markers;
 
@@ -79,6 +80,7 @@ public class LiqPayPaymentGatewayImpl extends AbstractLiqPayPaymentGatewayImpl
     // payment way
     static final String LP_PAYWAY_URL = "LP_PAYWAY_URL";
 
+    private PaymentGatewayHttpClient paymentGatewayHttpClient;
 
     /**
      * {@inheritDoc}
@@ -279,7 +281,20 @@ public class LiqPayPaymentGatewayImpl extends AbstractLiqPayPaymentGatewayImpl
     }
 
     private LiqPay getLiqPayAPI() {
-        return new LiqPay(getParameterValue(LP_MERCHANT_ID), getParameterValue(LP_MERCHANT_KEY), getParameterValue(LP_POST_URL));
+        final LiqPay api = new LiqPay(getParameterValue(LP_MERCHANT_ID), getParameterValue(LP_MERCHANT_KEY), getParameterValue(LP_POST_URL));
+        if (paymentGatewayHttpClient != null) {
+            api.setHttpClient(paymentGatewayHttpClient, getLabel());
+        }
+        return api;
+    }
+
+    /**
+     * Set shared pooled HTTP client. If not set a new connection is opened for every call.
+     *
+     * @param paymentGatewayHttpClient client
+     */
+    public void setPaymentGatewayHttpClient(final PaymentGatewayHttpClient paymentGatewayHttpClient) {
+        this.paymentGatewayHttpClient = paymentGatewayHttpClient;
     }
 
     /**
@@ -9,6 +9,7 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yes.cart.payment.dto.Payment;
+import org.yes.cart.service.payment.PaymentGatewayHttpClient;
 import org.yes.cart.util.log.Markers;
 
 import java.io.BufferedReader;
@@ -60,6 +61,7 @@ public abstract class AbstractPayPalNVPPaymentGatewayImpl extends AbstractPayPal
     public static final String PP_EC_TOKEN = "TOKEN";     //this will be return from pay pall ec
     public static final String PP_EC_PAYERID  = "PAYERID";     // the payer id on paypal  side
 
+    private PaymentGatewayHttpClient paymentGatewayHttpClient;
 
 
     /**
@@ -186,18 +188,26 @@ public abstract class AbstractPayPalNVPPaymentGatewayImpl extends AbstractPayPal
         npvb.addAllRaw(nvp);
 
         return deformatNVP(
-                performPayPalApiCall(getParameterValue(PP_EC_API_URL), npvb.toQuery())
+                performPayPalApiCall(method, getParameterValue(PP_EC_API_URL), npvb.toQuery())
         );
 
     }
 
 
-    private String performPayPalApiCall(final String endpoint, final String callParams) throws IOException {
+    private String performPayPalApiCall(final String method, final String endpoint, final String callParams) throws IOException {
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("PayPal NPV call:\n{}", callParams.replace('&', '\n'));
         }
 
+        if (paymentGatewayHttpClient != null) {
+            final String response = paymentGatewayHttpClient.post(getLabel(), method, endpoint, callParams, "application/x-www-form-urlencoded");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("PayPal NPV response:\n{}", response.replace('&', '\n'));
+            }
+            return response;
+        }
+
         final StringBuilder respBuilder = new StringBuilder();
 
         final HttpPost httpPost = new HttpPost(endpoint);
@@ -219,6 +229,15 @@ public abstract class AbstractPayPalNVPPaymentGatewayImpl extends AbstractPayPal
         return respBuilder.toString();
     }
 
+    /**
+     * Set shared pooled HTTP client. If not set a new client is created for every call.
+     *
+     * @param paymentGatewayHttpClient client
+     */
+    public void setPaymentGatewayHttpClient(final PaymentGatewayHttpClient paymentGatewayHttpClient) {
+        this.paymentGatewayHttpClient = paymentGatewayHttpClient;
+    }
+
     /**
      * Encode value as URL compatible UTF-8.
      *
@@ -22,6 +22,7 @@ import org.yes.cart.dao.ResultsIterator;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Delegate DAO is a wrapper class so that we can configure transaction properties
@@ -55,6 +56,22 @@ public class DelegateDAOImpl<T, PK extends Serializable> implements GenericDAO<T
         return delegate.getEntityIdentifier(entity);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getEntityClass(final Object entity) {
+        return delegate.getEntityClass(entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> E getEntityReference(final Class<E> entityClass, final Serializable id) {
+        return delegate.getEntityReference(entityClass, id);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -351,6 +368,22 @@ public class DelegateDAOImpl<T, PK extends Serializable> implements GenericDAO<T
         return delegate.executeNativeUpdate(nativeQuery, parameters);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdate(final String nativeQuery, final List<Object[]> parameters) {
+        return delegate.executeNativeBatchUpdate(nativeQuery, parameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdates(final Map<String, List<Object[]>> statements) {
+        return delegate.executeNativeBatchUpdates(statements);
+    }
+
     /**
      * {@inheritDoc}
      */
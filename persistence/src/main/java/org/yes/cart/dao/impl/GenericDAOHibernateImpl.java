@@ -28,8 +28,14 @@ import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.entity.Identifiable;
 
 import java.io.Serializable;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -104,6 +110,22 @@ public class GenericDAOHibernateImpl<T, PK extends Serializable> implements Gene
         throw new IllegalArgumentException("Cannot get PK from object: " + entity);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getEntityClass(final Object entity) {
+        return Hibernate.getClass(entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> E getEntityReference(final Class<E> entityClass, final Serializable id) {
+        return sessionFactory.getCurrentSession().load(entityClass, id);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -546,6 +568,107 @@ public class GenericDAOHibernateImpl<T, PK extends Serializable> implements Gene
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdate(final String nativeQuery, final List<Object[]> parameters) {
+
+        if (parameters == null || parameters.isEmpty()) {
+            return 0;
+        }
+
+        final Session session = sessionFactory.getCurrentSession();
+        session.flush(); // pending entity changes must precede the batch
+
+        final int updated = executeBatch(session, nativeQuery, parameters);
+
+        evictSecondLevelCache();
+
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdates(final Map<String, List<Object[]>> statements) {
+
+        if (statements == null || statements.isEmpty()) {
+            return 0;
+        }
+
+        final Session session = sessionFactory.getCurrentSession();
+        session.flush(); // pending entity changes must precede the batches
+
+        int updated = 0;
+        for (final Map.Entry<String, List<Object[]>> statement : statements.entrySet()) {
+            if (statement.getValue() != null && !statement.getValue().isEmpty()) {
+                updated += executeBatch(session, statement.getKey(), statement.getValue());
+            }
+        }
+
+        evictSecondLevelCache();
+
+        return updated;
+    }
+
+    private int executeBatch(final Session session, final String nativeQuery, final List<Object[]> parameters) {
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(nativeQuery)) {
+                int[] nullTypes = null;
+                for (final Object[] row : parameters) {
+                    for (int i = 0; i < row.length; i++) {
+                        if (row[i] == null) {
+                            if (nullTypes == null) {
+                                nullTypes = getParameterTypes(statement, row.length);
+                            }
+                            statement.setNull(i + 1, nullTypes[i]);
+                        } else {
+                            statement.setObject(i + 1, row[i]);
+                        }
+                    }
+                    statement.addBatch();
+                }
+                int total = 0;
+                for (final int count : statement.executeBatch()) {
+                    if (count > 0) {
+                        total += count;
+                    } else if (count == Statement.SUCCESS_NO_INFO) {
+                        total++;
+                    }
+                }
+                return total;
+            }
+        });
+
+    }
+
+    private void evictSecondLevelCache() {
+        // JDBC batch bypasses hibernate, so invalidate second level cache once for the whole batch
+        sessionFactory.getCache().evictEntityRegions();
+        sessionFactory.getCache().evictCollectionRegions();
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    private int[] getParameterTypes(final PreparedStatement statement, final int count) {
+        final int[] types = new int[count];
+        try {
+            final ParameterMetaData meta = statement.getParameterMetaData();
+            for (int i = 0; i < count; i++) {
+                types[i] = meta.getParameterType(i + 1);
+            }
+        } catch (SQLException | RuntimeException exp) {
+            // not all drivers support parameter meta data, VARCHAR is accepted by most for NULL
+            for (int i = 0; i < count; i++) {
+                types[i] = Types.VARCHAR;
+            }
+        }
+        return types;
+    }
+
+
     /**
      * {@inheritDoc}
      */
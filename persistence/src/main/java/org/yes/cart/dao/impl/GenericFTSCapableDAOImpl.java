@@ -29,6 +29,7 @@ import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -78,6 +79,22 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         return genericDAO.getEntityIdentifier(entity);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getEntityClass(final Object entity) {
+        return genericDAO.getEntityClass(entity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> E getEntityReference(final Class<E> entityClass, final Serializable id) {
+        return genericDAO.getEntityReference(entityClass, id);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -374,6 +391,22 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         return genericDAO.executeNativeUpdate(nativeQuery, parameters);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdate(final String nativeQuery, final List<Object[]> parameters) {
+        return genericDAO.executeNativeBatchUpdate(nativeQuery, parameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int executeNativeBatchUpdates(final Map<String, List<Object[]>> statements) {
+        return genericDAO.executeNativeBatchUpdates(statements);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -481,6 +514,14 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         indexBuilder.fullTextSearchReindex(primaryKey, purgeOnly);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fullTextSearchReindexBatch(final Collection<PK> primaryKeys) {
+        indexBuilder.fullTextSearchReindexBatch(primaryKeys);
+    }
+
     private List<T> getEntitiesByPks(final List<PK> pks) {
         final List<T> entities = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(pks)) {
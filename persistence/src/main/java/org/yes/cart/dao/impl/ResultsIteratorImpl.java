@@ -30,6 +30,7 @@ public class ResultsIteratorImpl<T> implements ResultsIterator<T> {
 
     private final ScrollableResults scrollableResults;
     private boolean hasNext = false;
+    private boolean advanced = false;
 
 
     public ResultsIteratorImpl(final ScrollableResults scrollableResults) {
@@ -41,7 +42,11 @@ public class ResultsIteratorImpl<T> implements ResultsIterator<T> {
      */
     @Override
     public boolean hasNext() {
-        hasNext = scrollableResults.next();
+        if (!advanced) {
+            // repeated calls must not skip rows
+            hasNext = scrollableResults.next();
+            advanced = true;
+        }
         return hasNext;
     }
 
@@ -50,7 +55,8 @@ public class ResultsIteratorImpl<T> implements ResultsIterator<T> {
      */
     @Override
     public T next() {
-        if (hasNext) {
+        if (hasNext()) {
+            advanced = false;
             final T next = (T) scrollableResults.get(0);
             Hibernate.initialize(next);
             return next;
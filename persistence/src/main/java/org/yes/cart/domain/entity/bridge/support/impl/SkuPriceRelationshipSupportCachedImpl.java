@@ -21,6 +21,7 @@ import org.yes.cart.domain.entity.Shop;
 import org.yes.cart.domain.entity.SkuPrice;
 import org.yes.cart.search.dao.support.SkuPriceRelationshipSupport;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,4 +73,10 @@ public class SkuPriceRelationshipSupportCachedImpl implements SkuPriceRelationsh
     public List<SkuPrice> getSkuPrices(final String sku) {
         return support.getSkuPrices(sku);
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, List<SkuPrice>> getSkuPrices(final Collection<String> skus) {
+        return support.getSkuPrices(skus);
+    }
 }
@@ -30,6 +30,9 @@ import java.util.*;
  */
 public class SkuPriceRelationshipSupportImpl implements SkuPriceRelationshipSupport {
 
+    // keep IN list of bulk queries within database parameter limits
+    private static final int CHUNK_SIZE = 500;
+
     private final GenericDAO<Shop, Long> shopDao;
     private final GenericDAO<SkuPrice, Long> skuPriceDao;
 
@@ -80,6 +83,25 @@ public class SkuPriceRelationshipSupportImpl implements SkuPriceRelationshipSupp
         return skuPriceDao.findByNamedQuery("SKUPRICE.BY.SKUCODE.ALL", sku);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, List<SkuPrice>> getSkuPrices(final Collection<String> skus) {
+
+        if (skus == null || skus.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<String> unique = new ArrayList<>(new HashSet<>(skus));
+        final Map<String, List<SkuPrice>> prices = new HashMap<>();
+        for (int from = 0; from < unique.size(); from += CHUNK_SIZE) {
+            final List<String> chunk = unique.subList(from, Math.min(unique.size(), from + CHUNK_SIZE));
+            for (final SkuPrice price : skuPriceDao.findByNamedQuery("SKUPRICE.BY.SKUCODES.ALL", new ArrayList<>(chunk))) {
+                prices.computeIfAbsent(price.getSkuCode(), k -> new ArrayList<>()).add(price);
+            }
+        }
+        return prices;
+    }
+
 
     private SkuPriceRelationshipSupport self;
 
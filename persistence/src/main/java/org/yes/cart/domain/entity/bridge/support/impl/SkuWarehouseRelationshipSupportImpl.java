@@ -22,10 +22,7 @@ import org.yes.cart.domain.entity.SkuWarehouse;
 import org.yes.cart.domain.entity.Warehouse;
 import org.yes.cart.search.dao.support.SkuWarehouseRelationshipSupport;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * User: denispavlov
@@ -34,6 +31,9 @@ import java.util.List;
  */
 public class SkuWarehouseRelationshipSupportImpl implements SkuWarehouseRelationshipSupport {
 
+    // keep IN list of bulk queries within database parameter limits
+    private static final int CHUNK_SIZE = 500;
+
     private final GenericDAO<Warehouse, Long> warehouseDao;
     private final GenericDAO<SkuWarehouse, Long> skuWarehouseDao;
 
@@ -63,6 +63,25 @@ public class SkuWarehouseRelationshipSupportImpl implements SkuWarehouseRelation
         return skuWarehouseDao.findByNamedQuery("SKUS.ON.WAREHOUSES.BY.SKUCODE.ALL", sku);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, List<SkuWarehouse>> getQuantityOnWarehouse(final Collection<String> skus) {
+
+        if (CollectionUtils.isEmpty(skus)) {
+            return Collections.emptyMap();
+        }
+
+        final List<String> unique = new ArrayList<>(new HashSet<>(skus));
+        final Map<String, List<SkuWarehouse>> inventory = new HashMap<>();
+        for (int from = 0; from < unique.size(); from += CHUNK_SIZE) {
+            final List<String> chunk = unique.subList(from, Math.min(unique.size(), from + CHUNK_SIZE));
+            for (final SkuWarehouse stock : skuWarehouseDao.findByNamedQuery("SKUS.ON.WAREHOUSES.BY.SKUCODES.ALL", new ArrayList<>(chunk))) {
+                inventory.computeIfAbsent(stock.getSkuCode(), k -> new ArrayList<>()).add(stock);
+            }
+        }
+        return inventory;
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<SkuWarehouse> getQuantityOnWarehouse(final String sku, final Warehouse warehouse) {
@@ -19,6 +19,7 @@ package org.yes.cart.search.dao.impl;
 import org.yes.cart.search.dao.IndexBuilder;
 
 import java.io.Serializable;
+import java.util.Collection;
 
 /**
  * User: denispavlov
@@ -66,4 +67,9 @@ public class NoopIndexBuilderImpl<T, PK extends Serializable> implements IndexBu
     public void fullTextSearchReindex(final PK primaryKey, final boolean purgeOnly) {
         // noop
     }
+
+    @Override
+    public void fullTextSearchReindexBatch(final Collection<PK> primaryKeys) {
+        // noop
+    }
 }
@@ -25,6 +25,12 @@ import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.constants.DaoServiceBeanKeys;
 import org.yes.cart.domain.entity.Brand;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -75,6 +81,53 @@ public class GenericDAOTest extends AbstractTestDAO {
 
     }
 
+    @Test
+    public void testUpdateWithNativeBatchQuery() {
+
+        getTx().execute(new TransactionCallbackWithoutResult() {
+            @Override
+            public void doInTransactionWithoutResult(TransactionStatus status) {
+
+                assertEquals("Unknown", brandDao.findById(101L).getDescription());
+
+                String sql = "update tbrand set description = ? where brand_id = ?";
+                assertEquals(0, brandDao.executeNativeBatchUpdate(sql, Collections.<Object[]>emptyList()));
+                assertEquals(3, brandDao.executeNativeBatchUpdate(sql, Arrays.asList(
+                        new Object[] { "Batch101", 101L },
+                        new Object[] { "Batch102", 102L },
+                        new Object[] { null, 103L },
+                        new Object[] { "Batch999", 999L }
+                )));
+                brandDao.clear();
+                assertEquals("Batch101", brandDao.findById(101L).getDescription());
+                assertEquals("Batch102", brandDao.findById(102L).getDescription());
+                assertNull(brandDao.findById(103L).getDescription());
+                assertEquals("Samsung", brandDao.findById(104L).getDescription());
+
+                // same key repeated within a batch is applied in order
+                assertEquals(2, brandDao.executeNativeBatchUpdate(sql, Arrays.asList(
+                        new Object[] { "First", 104L },
+                        new Object[] { "Second", 104L }
+                )));
+                brandDao.clear();
+                assertEquals("Second", brandDao.findById(104L).getDescription());
+
+                // statements are executed in order
+                final Map<String, List<Object[]>> statements = new LinkedHashMap<>();
+                statements.put(sql, Collections.singletonList(new Object[] { "Insert", 101L }));
+                statements.put("update tbrand set description = concat(description, ?) where brand_id = ?",
+                        Collections.singletonList(new Object[] { "Update", 101L }));
+                assertEquals(2, brandDao.executeNativeBatchUpdates(statements));
+                brandDao.clear();
+                assertEquals("InsertUpdate", brandDao.findById(101L).getDescription());
+
+                status.setRollbackOnly();
+
+            }
+        });
+
+    }
+
     @Test
     public void testDeleteWithNativeQuery() {
 
@@ -19,6 +19,7 @@ package org.yes.cart.search.dao.support;
 import org.yes.cart.domain.entity.Shop;
 import org.yes.cart.domain.entity.SkuPrice;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -69,4 +70,13 @@ public interface SkuPriceRelationshipSupport {
      */
     List<SkuPrice> getSkuPrices(String sku);
 
+    /**
+     * Get prices for given skus on all shops.
+     *
+     * @param skus sku codes
+     *
+     * @return all prices for given skus on the system (by sku code, skus without prices are omitted)
+     */
+    Map<String, List<SkuPrice>> getSkuPrices(Collection<String> skus);
+
 }
@@ -21,6 +21,7 @@ import org.yes.cart.domain.entity.Warehouse;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -47,6 +48,15 @@ public interface SkuWarehouseRelationshipSupport {
      */
     List<SkuWarehouse> getQuantityOnWarehouse(String sku);
 
+    /**
+     * Get quantities for given skus on all warehouses.
+     *
+     * @param skus sku codes
+     *
+     * @return all inventory for given skus on the system (by sku code, skus without inventory are omitted)
+     */
+    Map<String, List<SkuWarehouse>> getQuantityOnWarehouse(Collection<String> skus);
+
     /**
      * Get quantities for given sku on given warehouse.
      *
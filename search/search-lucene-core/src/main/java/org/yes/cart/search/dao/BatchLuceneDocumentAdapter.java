@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao;
+
+import org.apache.lucene.document.Document;
+import org.yes.cart.domain.misc.Pair;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Document adapter that is able to adapt several entities at once, so that relationship data
+ * (e.g. prices, inventory) is loaded for the whole batch rather than per entity.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:05
+ */
+public interface BatchLuceneDocumentAdapter<T, PK extends Serializable> extends LuceneDocumentAdapter<T, PK> {
+
+    /**
+     * Adapt entities to Lucene documents.
+     *
+     * @param entities entities to adapt
+     *
+     * @return lucene documents in the same order as entities (same as {@link #toDocument(Object)} for each entity)
+     */
+    List<Pair<PK, Document[]>> toDocuments(List<T> entities);
+
+}
@@ -16,6 +16,7 @@
 
 package org.yes.cart.search.dao;
 
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
 import org.apache.lucene.index.IndexWriter;
@@ -70,6 +71,17 @@ public interface LuceneIndexProvider {
      */
     void refreshIndexIfNecessary();
 
+    /**
+     * Sorted set facet state for given field. State holds global ordinals for the field, which are
+     * expensive to compute, so implementations may cache it for as long as the reader behind given
+     * searcher is current (i.e. until {@link #refreshIndexIfNecessary()} opens a new reader).
+     *
+     * @param searcher searcher acquired via {@link #provideIndexReader()}
+     * @param field    facet field (must be indexed with sorted set doc values)
+     *
+     * @return facet state for given searcher and field
+     */
+    SortedSetDocValuesReaderState provideFacetsState(IndexSearcher searcher, String field);
 
     /**
      * Searcher for given index. Note that provided index searcher operated on cached
@@ -111,5 +123,20 @@ public interface LuceneIndexProvider {
      */
     void refreshIfNecessary();
 
+    /**
+     * Make changes written through {@link #provideIndexWriter()} durable. Implementations may defer the
+     * actual commit (i.e. only flush buffered documents and commit on a longer interval), hence this
+     * should be used by batch operations instead of committing writer directly.
+     */
+    void commitIfNecessary();
+
+    /**
+     * Replica index receives commit points published by another node and cannot be written to, in which
+     * case {@link #refreshIfNecessary()} pulls latest published commit.
+     *
+     * @return true if this index is a read only replica
+     */
+    boolean isReplica();
+
 
 }
@@ -17,6 +17,7 @@
 package org.yes.cart.search.dao.entity;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.document.*;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
 import org.apache.lucene.index.IndexOptions;
@@ -46,6 +47,11 @@ public class LuceneDocumentAdapterUtils {
 
     public static final int CHAR_THRESHOLD = 2;
 
+    /**
+     * Numeric doc values copy of {@link AdapterUtils#FIELD_PK}, allows to collect PK's without loading stored fields.
+     */
+    public static final String FIELD_PK_VALUE = "_PK_value";
+
     private LuceneDocumentAdapterUtils() {
         // no instance
     }
@@ -154,6 +160,13 @@ public class LuceneDocumentAdapterUtils {
              */
             document.add(new StringField(FIELD_PK, value, Field.Store.YES));
 
+            /*
+                Doc values for non scoring PK collection, see GenericFTSLuceneImpl#fullTextSearch(Query)
+             */
+            if (NumberUtils.isDigits(value)) {
+                document.add(new NumericDocValuesField(FIELD_PK_VALUE, Long.parseLong(value)));
+            }
+
             /*
                 Additional field to save type of the object
              */
@@ -32,7 +32,7 @@ import org.yes.cart.domain.entity.*;
 import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.i18n.impl.StringI18NModel;
 import org.yes.cart.domain.misc.Pair;
-import org.yes.cart.search.dao.LuceneDocumentAdapter;
+import org.yes.cart.search.dao.BatchLuceneDocumentAdapter;
 import org.yes.cart.search.dao.support.*;
 import org.yes.cart.search.util.SearchUtil;
 import org.yes.cart.util.DomainApiUtils;
@@ -51,7 +51,7 @@ import static org.yes.cart.search.query.ProductSearchQueryBuilder.*;
  * Date: 07/04/2017
  * Time: 14:21
  */
-public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Product, Long> {
+public class ProductLuceneDocumentAdapter implements BatchLuceneDocumentAdapter<Product, Long> {
 
     private static final Logger LOGFTQ = LoggerFactory.getLogger("FTQ");
 
@@ -63,6 +63,46 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
     private SkuPriceRelationshipSupport skuPriceSupport;
     private NavigatableAttributesSupport attributesSupport;
 
+    private final ThreadLocal<RelationshipPrefetch> prefetch = new ThreadLocal<>();
+
+    /**
+     * Prices and inventory for all SKU in the batch are loaded upfront and then used by
+     * {@link #toDocument(Product)} instead of per SKU queries.
+     */
+    @Override
+    public List<Pair<Long, Document[]>> toDocuments(final List<Product> entities) {
+
+        final Set<String> skus = new HashSet<>();
+        final Set<String> skusWithInventory = new HashSet<>();
+        for (final Product entity : entities) {
+            if (entity != null) {
+                for (final ProductSku sku : entity.getSku()) {
+                    skus.add(sku.getCode());
+                    if (entity.getAvailability() != Product.AVAILABILITY_ALWAYS) {
+                        skusWithInventory.add(sku.getCode());
+                    }
+                }
+            }
+        }
+
+        prefetch.set(new RelationshipPrefetch(
+                skus, skuPriceSupport.getSkuPrices(skus),
+                skusWithInventory, skuWarehouseSupport.getQuantityOnWarehouse(skusWithInventory)
+        ));
+        try {
+
+            final List<Pair<Long, Document[]>> documents = new ArrayList<>(entities.size());
+            for (final Product entity : entities) {
+                documents.add(toDocument(entity));
+            }
+            return documents;
+
+        } finally {
+            prefetch.remove();
+        }
+
+    }
+
     /**
      * Product search result is bound to supplier (fulfilment centre).
      * Therefore for every supplier there will be a separate product search result
@@ -374,13 +414,29 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
 
         for (final ProductSku sku : entity.getSku()) {
 
-            all.addAll(skuPriceSupport.getSkuPrices(sku.getCode()));
+            all.addAll(getSkuPrices(sku.getCode()));
 
         }
 
         return all;
     }
 
+    private List<SkuPrice> getSkuPrices(final String sku) {
+        final RelationshipPrefetch batch = prefetch.get();
+        if (batch != null && batch.skus.contains(sku)) {
+            return batch.prices.getOrDefault(sku, Collections.emptyList());
+        }
+        return skuPriceSupport.getSkuPrices(sku);
+    }
+
+    private List<SkuWarehouse> getQuantityOnWarehouse(final String sku) {
+        final RelationshipPrefetch batch = prefetch.get();
+        if (batch != null && batch.skusWithInventory.contains(sku)) {
+            return batch.inventory.getOrDefault(sku, Collections.emptyList());
+        }
+        return skuWarehouseSupport.getQuantityOnWarehouse(sku);
+    }
+
     /**
      * Determine lowest price and set it as facet field.
      * @param document    index document
@@ -771,7 +827,7 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                     DomainApiUtils.isObjectAvailableNow(!sku.getProduct().isDisabled(), sku.getProduct().getAvailablefrom(), null, now);
 
             if (sku.getProduct().getAvailability() != Product.AVAILABILITY_ALWAYS) {
-                final List<SkuWarehouse> inventory = skuWarehouseSupport.getQuantityOnWarehouse(sku.getCode());
+                final List<SkuWarehouse> inventory = getQuantityOnWarehouse(sku.getCode());
 
                 if (CollectionUtils.isNotEmpty(inventory)) {
                     for (final SkuWarehouse stock : inventory) {
@@ -989,4 +1045,22 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
         this.attributesSupport = attributesSupport;
     }
 
+    private static final class RelationshipPrefetch {
+
+        private final Set<String> skus;
+        private final Map<String, List<SkuPrice>> prices;
+        private final Set<String> skusWithInventory;
+        private final Map<String, List<SkuWarehouse>> inventory;
+
+        private RelationshipPrefetch(final Set<String> skus,
+                                     final Map<String, List<SkuPrice>> prices,
+                                     final Set<String> skusWithInventory,
+                                     final Map<String, List<SkuWarehouse>> inventory) {
+            this.skus = skus;
+            this.prices = prices;
+            this.skusWithInventory = skusWithInventory;
+            this.inventory = inventory;
+        }
+    }
+
 }
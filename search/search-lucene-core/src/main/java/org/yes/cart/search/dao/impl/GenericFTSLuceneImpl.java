@@ -23,7 +23,6 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.*;
 import org.apache.lucene.facet.range.LongRange;
 import org.apache.lucene.facet.range.LongRangeFacetCounts;
-import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
@@ -58,6 +57,8 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
     private LuceneIndexProvider luceneIndexProvider;
 
+    private int fullTextSearchMaxResults = Integer.MAX_VALUE;
+
 
     /**
      * {@inheritDoc}
@@ -93,16 +94,18 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         LOGFTQ.debug("Run count query {}", query);
 
-        final List<Long> pks = new ArrayList<>();
+        List<Long> pks = Collections.emptyList();
 
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
-            final TopDocs topDocs = searcher.search(query, Integer.MAX_VALUE);
-            if (topDocs.totalHits > 0) {
-                for (final ScoreDoc hit : topDocs.scoreDocs) {
-                    final Document doc = searcher.doc(hit.doc, PKS);
-                    pks.add(Long.valueOf(doc.get("_PK")));
-                    logExplanation(searcher, query, null, hit.doc);
+            // Non scoring collection (index order), no need for priority queue since all matches up to max are returned
+            final boolean explain = LOGFTQ.isTraceEnabled();
+            final PrimaryKeyCollector collector = new PrimaryKeyCollector(explain, this.fullTextSearchMaxResults);
+            searcher.search(query, collector);
+            pks = collector.getPks();
+            if (explain) {
+                for (int i = 0; i < collector.getSize(); i++) {
+                    logExplanation(searcher, query, null, collector.getDoc(i));
                 }
             }
         } catch (IllegalStateException ise) {
@@ -139,7 +142,8 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
                 topDocs = searcher.search(query, firstResult + maxResults);
             }
             if (topDocs.totalHits > 0) {
-                for (int i = firstResult; i < firstResult + maxResults; i++) {
+                final int lastResult = Math.min(firstResult + maxResults, topDocs.scoreDocs.length);
+                for (int i = firstResult; i < lastResult; i++) {
                     final ScoreDoc hit = topDocs.scoreDocs[i];
                     final Document doc = searcher.doc(hit.doc, PKS);
                     pks.add(Long.valueOf(doc.get("_PK")));
@@ -174,6 +178,10 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
+            if (lastResult == Integer.MAX_VALUE) {
+                // unbounded request, so size queue by actual number of hits rather than whole index
+                lastResult = Math.max(1, searcher.count(query));
+            }
             final Set<String> retrieve = new HashSet<>(Arrays.asList(fields));
             final TopDocs topDocs;
             Sort sort = null;
@@ -287,7 +295,7 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
                     } else {
 
-                        facets = new SortedSetDocValuesFacetCounts(new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader(), request.getField()), fc);
+                        facets = new SortedSetDocValuesFacetCounts(this.luceneIndexProvider.provideFacetsState(searcher, request.getField()), fc);
 
                     }
 
@@ -411,4 +419,13 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
         this.luceneIndexProvider = luceneIndexProvider;
     }
 
+    /**
+     * Spring IoC.
+     *
+     * @param fullTextSearchMaxResults max number of distinct PKs returned by full text search
+     */
+    public void setFullTextSearchMaxResults(final int fullTextSearchMaxResults) {
+        this.fullTextSearchMaxResults = fullTextSearchMaxResults;
+    }
+
 }
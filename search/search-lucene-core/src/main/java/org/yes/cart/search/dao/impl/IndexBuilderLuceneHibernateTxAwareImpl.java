@@ -24,10 +24,14 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.ResultsIterator;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.LuceneDocumentAdapter;
 import org.yes.cart.search.dao.LuceneIndexProvider;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * User: denispavlov
@@ -40,6 +44,8 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
     protected SessionFactory sessionFactory;
     protected PlatformTransactionManager platformTransactionManager;
     protected String findAllNamedQuery;
+    protected String findAllPkRangeNamedQuery;
+    protected String findAllByPkRangeNamedQuery;
 
     public IndexBuilderLuceneHibernateTxAwareImpl(final LuceneDocumentAdapter<T, PK> documentAdapter,
                                                   final LuceneIndexProvider indexProvider,
@@ -63,6 +69,38 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
         return genericDao.findByNamedQueryIterator(this.findAllNamedQuery);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected List<Pair<PK, PK>> findAllPartitions(final int partitions) {
+        if (StringUtils.isBlank(this.findAllPkRangeNamedQuery) || StringUtils.isBlank(this.findAllByPkRangeNamedQuery)) {
+            return Collections.emptyList();
+        }
+        final List<Object> range = genericDao.findQueryObjectByNamedQuery(this.findAllPkRangeNamedQuery);
+        if (range.isEmpty() || !(range.get(0) instanceof Object[])) {
+            return Collections.emptyList();
+        }
+        final Object[] minMax = (Object[]) range.get(0);
+        if (minMax[0] == null || minMax[1] == null) {
+            return Collections.emptyList(); // no data
+        }
+        final long min = ((Number) minMax[0]).longValue();
+        final long max = ((Number) minMax[1]).longValue();
+        final long step = Math.max(1L, (max - min) / partitions + 1L);
+
+        final List<Pair<PK, PK>> ranges = new ArrayList<>(partitions);
+        for (long from = min; from <= max; from += step) {
+            final long to = Math.min(max, from + step - 1L);
+            ranges.add(new Pair<>((PK) Long.valueOf(from), (PK) Long.valueOf(to)));
+        }
+        return ranges;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected ResultsIterator<T> findAllIterator(final Pair<PK, PK> partition) {
+        return genericDao.findByNamedQueryIterator(this.findAllByPkRangeNamedQuery, partition.getFirst(), partition.getSecond());
+    }
+
     /** {@inheritDoc} */
     @Override
     protected T unproxyEntity(final T entity) {
@@ -119,4 +157,22 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
     public void setFindAllNamedQuery(final String findAllNamedQuery) {
         this.findAllNamedQuery = findAllNamedQuery;
     }
+
+    /**
+     * Sprig IoC.
+     *
+     * @param findAllPkRangeNamedQuery named query to determine min and max PK for partitioned reindex
+     */
+    public void setFindAllPkRangeNamedQuery(final String findAllPkRangeNamedQuery) {
+        this.findAllPkRangeNamedQuery = findAllPkRangeNamedQuery;
+    }
+
+    /**
+     * Sprig IoC.
+     *
+     * @param findAllByPkRangeNamedQuery named query to perform find all within PK range (two parameters: min and max inclusive)
+     */
+    public void setFindAllByPkRangeNamedQuery(final String findAllByPkRangeNamedQuery) {
+        this.findAllByPkRangeNamedQuery = findAllByPkRangeNamedQuery;
+    }
 }
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.task.TaskExecutor;
 import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.search.dao.BatchLuceneDocumentAdapter;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dao.LuceneDocumentAdapter;
 import org.yes.cart.search.dao.LuceneIndexProvider;
@@ -38,6 +39,14 @@ import org.yes.cart.util.TimeContext;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -56,6 +65,9 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
     private final LuceneIndexProvider indexProvider;
 
     private TaskExecutor indexExecutor;
+    private TaskExecutor indexWorkerExecutor;
+    private int indexWorkers = 1;
+    private int indexPrefetchSize = 50;
 
     public IndexBuilderLuceneImpl(final LuceneDocumentAdapter<T, PK> documentAdapter,
                                   final LuceneIndexProvider indexProvider) {
@@ -72,6 +84,36 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         this.indexExecutor = indexExecutor;
     }
 
+    /**
+     * Executor that will perform partitioned full reindex. Each partition is processed by a separate
+     * worker, so executor must be able to run {@link #setIndexWorkers(int)} tasks concurrently.
+     *
+     * @param indexWorkerExecutor index worker executor
+     */
+    public void setIndexWorkerExecutor(final TaskExecutor indexWorkerExecutor) {
+        this.indexWorkerExecutor = indexWorkerExecutor;
+    }
+
+    /**
+     * Number of workers for full reindex. Values greater than 1 enable partitioned full reindex (provided
+     * that {@link #setIndexWorkerExecutor(TaskExecutor)} is set and persistence layer supports partitions).
+     *
+     * @param indexWorkers number of workers
+     */
+    public void setIndexWorkers(final int indexWorkers) {
+        this.indexWorkers = indexWorkers;
+    }
+
+    /**
+     * Number of entities adapted to documents at once. Adapters that support batches ({@link BatchLuceneDocumentAdapter})
+     * load relationship data for all entities in the batch in a few queries. Values less than 2 disable batching.
+     *
+     * @param indexPrefetchSize number of entities to adapt at once
+     */
+    public void setIndexPrefetchSize(final int indexPrefetchSize) {
+        this.indexPrefetchSize = indexPrefetchSize;
+    }
+
     /**
      * Extension hook for persistence layer.
      *
@@ -87,6 +129,11 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
     @Override
     public void fullTextSearchReindex(final PK primaryKey, final boolean purgeOnly) {
 
+        if (indexProvider.isReplica()) {
+            LOGFTQ.trace("Skipping reindex of {} with PK {}, index is a replica", indexProvider.getName(), primaryKey);
+            return;
+        }
+
         boolean remove = purgeOnly;
 
         Pair<PK, Document[]> documents = null;
@@ -118,6 +165,123 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fullTextSearchReindexBatch(final Collection<PK> primaryKeys) {
+
+        if (primaryKeys == null || primaryKeys.isEmpty()) {
+            return;
+        }
+
+        if (indexProvider.isReplica()) {
+            LOGFTQ.trace("Skipping reindex of {} with PKs {}, index is a replica", indexProvider.getName(), primaryKeys);
+            return;
+        }
+
+        final long indexTime = now();
+        final String name = indexProvider.getName();
+        final IndexWriter iw = indexProvider.provideIndexWriter();
+        final long counts[] = new long[] { 0L, 0L, 0L };
+
+        final List<PK> unique = new ArrayList<>(new LinkedHashSet<>(primaryKeys));
+        final int prefetch = Math.max(1, this.indexPrefetchSize);
+
+        for (int from = 0; from < unique.size(); from += prefetch) {
+
+            final List<PK> entityPks = new ArrayList<>(prefetch);
+            final List<T> entities = new ArrayList<>(prefetch);
+
+            for (final PK primaryKey : unique.subList(from, Math.min(unique.size(), from + prefetch))) {
+
+                try {
+
+                    final T entity = this.findById(primaryKey);
+                    if (entity != null) {
+                        entityPks.add(primaryKey);
+                        entities.add(entity);
+                    } else {
+                        fullTextSearchReindexSingleEntity(iw, name, new Pair<>(primaryKey, null), true, indexTime, counts);
+                    }
+
+                } catch (Exception exp) {
+                    LOGFTQ.error("Unable to reindex " + name + " document with _PK:" + primaryKey, exp);
+                    counts[2]++;
+                }
+
+            }
+
+            final List<Pair<PK, Document[]>> adapted;
+            try {
+                adapted = toDocuments(entities);
+            } catch (Exception exp) {
+                LOGFTQ.error("Unable to reindex " + name + " documents with _PK:" + entityPks, exp);
+                counts[2] += entityPks.size();
+                continue;
+            }
+
+            for (int i = 0; i < entityPks.size(); i++) {
+
+                final PK primaryKey = entityPks.get(i);
+                try {
+
+                    Pair<PK, Document[]> documents = adapted.get(i);
+                    final boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+                    if (remove) {
+                        documents = new Pair<>(primaryKey, null);
+                    }
+
+                    fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+
+                } catch (Exception exp) {
+                    LOGFTQ.error("Unable to reindex " + name + " document with _PK:" + primaryKey, exp);
+                    counts[2]++;
+                }
+
+            }
+
+        }
+
+        try {
+
+            // Single commit and refresh for the whole batch
+            indexProvider.commitIfNecessary();
+            indexProvider.refreshIfNecessary();
+
+        } catch (Exception exp) {
+            LOGFTQ.error("Unable to commit " + name + " batch of " + primaryKeys.size(), exp);
+        }
+
+        if (LOGFTQ.isDebugEnabled()) {
+            LOGFTQ.debug("Processed index batch {} with {} PKs, added: {}, removed: {}, failed: {}",
+                    name, primaryKeys.size(), counts[0], counts[1], counts[2]);
+        }
+
+    }
+
+    /**
+     * Adapt entities to documents. If adapter supports batches all entities are adapted at once,
+     * otherwise each entity is adapted separately.
+     *
+     * @param entities entities
+     *
+     * @return documents in the same order as entities
+     */
+    protected List<Pair<PK, Document[]>> toDocuments(final List<T> entities) {
+
+        if (entities.size() > 1 && this.documentAdapter instanceof BatchLuceneDocumentAdapter) {
+            return ((BatchLuceneDocumentAdapter<T, PK>) this.documentAdapter).toDocuments(entities);
+        }
+
+        final List<Pair<PK, Document[]>> documents = new ArrayList<>(entities.size());
+        for (final T entity : entities) {
+            documents.add(this.documentAdapter.toDocument(entity));
+        }
+        return documents;
+
+    }
+
     /**
      * Process single entity update in the FT index.
      *
@@ -252,6 +416,29 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
      */
     protected abstract ResultsIterator<T> findAllIterator();
 
+    /**
+     * Extension hook for persistence layer. Splits all entities into PK ranges so that full reindex
+     * can be processed by several workers.
+     *
+     * @param partitions maximum number of partitions
+     *
+     * @return PK ranges (inclusive), empty list if partitioning is not supported
+     */
+    protected List<Pair<PK, PK>> findAllPartitions(final int partitions) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Extension hook for persistence layer.
+     *
+     * @param partition PK range (inclusive), see {@link #findAllPartitions(int)}
+     *
+     * @return scroll through results in given partition
+     */
+    protected ResultsIterator<T> findAllIterator(final Pair<PK, PK> partition) {
+        throw new UnsupportedOperationException("Partitioned indexing is not supported by " + getClass().getName());
+    }
+
     /**
      * Extension hook for persistence layer.
      *
@@ -293,6 +480,12 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
                     log.info("Full reindex for {} class", name);
                 }
 
+                if (indexProvider.isReplica()) {
+                    log.info("Full reindex for {} class skipped, index is a replica ... pulling latest snapshot", name);
+                    indexProvider.refreshIfNecessary();
+                    return;
+                }
+
                 if (async) {
                     tx = startTx();
                 }
@@ -300,41 +493,66 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
                 final long indexTime = now();
                 final IndexWriter iw = indexProvider.provideIndexWriter();
 
-                final ResultsIterator<T> all = findAllIterator();
+                final List<Pair<PK, PK>> partitions = indexWorkers > 1 && indexWorkerExecutor != null ?
+                        findAllPartitions(indexWorkers) : Collections.<Pair<PK, PK>>emptyList();
 
-                try {
+                if (partitions.size() > 1) {
+
+                    if (log.isInfoEnabled()) {
+                        log.info("Full reindex for {} class using {} partitions", name, partitions.size());
+                    }
 
-                    while (all.hasNext()) {
+                    index = fullTextSearchReindexPartitions(iw, name, partitions, indexTime, batchSize, counts);
 
-                        final T entity = unproxyEntity(all.next());
+                } else {
 
-                        final Pair<PK, Document[]> documents = documentAdapter.toDocument(entity);
-                        boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+                    final ResultsIterator<T> all = findAllIterator();
+                    final int prefetch = Math.max(1, indexPrefetchSize);
+                    final List<T> entities = new ArrayList<>(prefetch);
 
-                        fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+                    try {
+
+                        boolean hasNext = all.hasNext();
+                        while (hasNext) {
+
+                            entities.add(unproxyEntity(all.next()));
+                            hasNext = all.hasNext();
+                            if (hasNext && entities.size() < prefetch) {
+                                continue;
+                            }
+
+                            // documents for the whole batch are created before commit, which clears the session
+                            for (final Pair<PK, Document[]> documents : toDocuments(entities)) {
 
-                        index++;
+                                boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
 
-                        if (index % batchSize == 0) {
-                            // TODO: may need to revisit this in favour of iw.flush()
-                            iw.commit();  //apply changes to indexes
-                            indexProvider.refreshIfNecessary(); // make changes visible
-                            endBatch(tx);
-                            if (log.isInfoEnabled()) {
-                                log.info("Indexed {} items of {} class", index, indexProvider.getName());
+                                fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+
+                                index++;
+
+                                if (index % batchSize == 0) {
+                                    indexProvider.commitIfNecessary();  //apply changes to indexes
+                                    indexProvider.refreshIfNecessary(); // make changes visible
+                                    endBatch(tx);
+                                    if (log.isInfoEnabled()) {
+                                        log.info("Indexed {} items of {} class", index, indexProvider.getName());
+                                    }
+                                }
+                                currentIndexingCount.compareAndSet(index - 1, index);
                             }
+                            entities.clear();
                         }
-                        currentIndexingCount.compareAndSet(index - 1, index);
-                    }
 
-                    // Remove unindexed values
-                    iw.deleteDocuments(LongPoint.newRangeQuery(AdapterUtils.FIELD_INDEXTIME, 0, indexTime - 1));
+                    } finally {
+                        all.close();
+                    }
 
-                } finally {
-                    all.close();
                 }
 
-                iw.commit();  //apply changes to indexes
+                // Remove unindexed values
+                iw.deleteDocuments(LongPoint.newRangeQuery(AdapterUtils.FIELD_INDEXTIME, 0, indexTime - 1));
+
+                indexProvider.commitIfNecessary();  //apply changes to indexes
                 indexProvider.refreshIfNecessary(); // make changes visible
                 endBatch(tx);
                 if (log.isInfoEnabled()) {
@@ -361,6 +579,127 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         };
     }
 
+    /**
+     * Run full reindex for each partition in a separate worker. Each worker uses own transaction, all workers
+     * write to the same index writer. If any of the workers fails all remaining workers are stopped and
+     * exception is thrown, so that unindexed documents are not removed from index.
+     *
+     * @param iw         index writer
+     * @param indexName  index name
+     * @param partitions PK ranges
+     * @param indexTime  time of this index
+     * @param batchSize  batch size
+     * @param counts     counts[3] = { added, removed, failed }
+     *
+     * @return number of indexed entities
+     *
+     * @throws Exception if any of the workers failed
+     */
+    private long fullTextSearchReindexPartitions(final IndexWriter iw,
+                                                 final String indexName,
+                                                 final List<Pair<PK, PK>> partitions,
+                                                 final long indexTime,
+                                                 final int batchSize,
+                                                 final long[] counts) throws Exception {
+
+        final Instant time = TimeContext.getTime();
+        final CountDownLatch done = new CountDownLatch(partitions.size());
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final AtomicLong index = new AtomicLong(0L);
+        final long[][] partitionCounts = new long[partitions.size()][];
+
+        for (int i = 0; i < partitions.size(); i++) {
+
+            final Pair<PK, PK> partition = partitions.get(i);
+            final long[] workerCounts = partitionCounts[i] = new long[] { 0L, 0L, 0L };
+
+            indexWorkerExecutor.execute(() -> {
+
+                Object tx = null;
+                try {
+                    TimeContext.setTime(time);
+                    tx = startTx();
+
+                    final ResultsIterator<T> all = findAllIterator(partition);
+                    final int prefetch = Math.max(1, indexPrefetchSize);
+                    final List<T> entities = new ArrayList<>(prefetch);
+
+                    try {
+
+                        long batch = 0L;
+                        boolean hasNext = all.hasNext();
+                        while (!failed.get() && hasNext) {
+
+                            entities.add(unproxyEntity(all.next()));
+                            hasNext = all.hasNext();
+                            if (hasNext && entities.size() < prefetch) {
+                                continue;
+                            }
+
+                            // documents for the whole batch are created before commit, which clears the session
+                            for (final Pair<PK, Document[]> documents : toDocuments(entities)) {
+
+                                boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+
+                                fullTextSearchReindexSingleEntity(iw, indexName, documents, remove, indexTime, workerCounts);
+
+                                final long total = index.incrementAndGet();
+                                currentIndexingCount.set(total);
+
+                                if (++batch % batchSize == 0) {
+                                    indexProvider.commitIfNecessary();  //apply changes to indexes
+                                    indexProvider.refreshIfNecessary(); // make changes visible
+                                    endBatch(tx);
+                                    if (LOGFTQ.isInfoEnabled()) {
+                                        LOGFTQ.info("Indexed {} items of {} class", total, indexName);
+                                    }
+                                }
+                            }
+                            entities.clear();
+                        }
+
+                    } finally {
+                        all.close();
+                    }
+
+                    endBatch(tx);
+
+                } catch (Exception exp) {
+                    failed.set(true);
+                    LOGFTQ.error("Error during indexing partition " + partition.getFirst() + "-" + partition.getSecond() + " of " + indexName, exp);
+                } finally {
+                    if (tx != null) {
+                        try {
+                            endTx(tx);
+                        } catch (Exception exp) {
+                            // OK
+                        }
+                    }
+                    LuceneSearchUtil.destroy(); // ensure analysers are unloaded
+                    TimeContext.destroy();
+                    done.countDown();
+                }
+
+            });
+
+        }
+
+        done.await();
+
+        for (final long[] workerCounts : partitionCounts) {
+            counts[0] += workerCounts[0];
+            counts[1] += workerCounts[1];
+            counts[2] += workerCounts[2];
+        }
+
+        if (failed.get()) {
+            throw new IllegalStateException("Partitioned indexing of " + indexName + " failed, indexed " + index.get() + " items");
+        }
+
+        return index.get();
+
+    }
+
     long now() {
         return TimeContext.getMillis();
     }
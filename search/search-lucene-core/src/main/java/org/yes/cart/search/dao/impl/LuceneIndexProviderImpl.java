@@ -16,12 +16,16 @@
 
 package org.yes.cart.search.dao.impl;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.*;
 import org.slf4j.Logger;
@@ -34,6 +38,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In Memory implementation of Lucene index provider.
@@ -54,10 +63,36 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
     private SearcherManager indexReaderManager;
     private IndexWriter indexWriter;
 
+    private volatile FacetsStates facetsStates = null;
+
     private Directory facets = null;
     private SearcherTaxonomyManager facetsReaderManager;
     private DirectoryTaxonomyWriter facetsWriter;
 
+    private long refreshMaxStaleMs = 0L;
+    private long commitIntervalMs = 0L;
+
+    private ControlledRealTimeReopenThread<IndexSearcher> indexReopenThread;
+    private ControlledRealTimeReopenThread<SearcherTaxonomyManager.SearcherAndTaxonomy> facetsReopenThread;
+    private IndexTaskThread indexCommitThread;
+
+    private String publishSnapshotUri = null;
+    private Directory publishIndex = null;
+    private Directory publishFacets = null;
+    private SnapshotDeletionPolicy indexSnapshotPolicy = null;
+    private Collection<String> publishedIndexFiles = Collections.emptyList();
+    private Collection<String> publishedFacetsFiles = Collections.emptyList();
+
+    private String subscribeSnapshotUri = null;
+    private long subscribeIntervalMs = 60000L;
+    private Directory subscribeIndex = null;
+    private Directory subscribeFacets = null;
+    private String subscribedIndexCommit = null;
+    private String subscribedFacetsCommit = null;
+    private IndexTaskThread subscribeThread;
+
+    private final Object snapshotLock = new Object();
+
     private final String name;
     private final String uri;
 
@@ -105,9 +140,17 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public IndexWriter provideIndexWriter() {
+        if (isReplica()) {
+            throw new UnsupportedOperationException("Index " + name + " is a replica of " + subscribeSnapshotUri);
+        }
         if (indexWriter == null) {
             final IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
             config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            if (isPublisher()) {
+                // published commit must not be removed while it is being copied
+                indexSnapshotPolicy = new SnapshotDeletionPolicy(config.getIndexDeletionPolicy());
+                config.setIndexDeletionPolicy(indexSnapshotPolicy);
+            }
             try {
                 return indexWriter = new IndexWriter(index, config);
             } catch (IOException e) {
@@ -123,6 +166,9 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void refreshIndexIfNecessary() {
+        if (indexReopenThread != null) {
+            return; // background thread reopens index within target staleness
+        }
         try {
             indexReaderManager.maybeRefreshBlocking();
         } catch (IOException e) {
@@ -130,6 +176,66 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSetDocValuesReaderState provideFacetsState(final IndexSearcher searcher, final String field) {
+
+        final IndexReader reader = searcher.getIndexReader();
+
+        FacetsStates states = this.facetsStates;
+        if (states == null || states.reader != reader) {
+            synchronized (this) {
+                states = this.facetsStates;
+                if (states == null || (states.reader != reader && states.generation < generationOf(reader))) {
+                    states = new FacetsStates(reader);
+                    this.facetsStates = states;
+                }
+            }
+        }
+
+        try {
+            if (states.reader != reader) {
+                // searcher for older generation that is still in use, do not pollute cache with it
+                return new DefaultSortedSetDocValuesReaderState(reader, field);
+            }
+            SortedSetDocValuesReaderState state = states.states.get(field);
+            if (state == null) {
+                state = new DefaultSortedSetDocValuesReaderState(reader, field);
+                final SortedSetDocValuesReaderState existing = states.states.putIfAbsent(field, state);
+                if (existing != null) {
+                    state = existing;
+                }
+            }
+            return state;
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to create facets state " + name + ":" + field + ", cause: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long generationOf(final IndexReader reader) {
+        if (reader instanceof DirectoryReader) {
+            return ((DirectoryReader) reader).getVersion();
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Facet states for a single reader generation.
+     */
+    private static final class FacetsStates {
+
+        private final IndexReader reader;
+        private final long generation;
+        private final Map<String, SortedSetDocValuesReaderState> states = new ConcurrentHashMap<>();
+
+        private FacetsStates(final IndexReader reader) {
+            this.reader = reader;
+            this.generation = generationOf(reader);
+        }
+    }
 
     /**
      * {@inheritDoc}
@@ -162,6 +268,9 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public DirectoryTaxonomyWriter provideFacetsWriter() {
+        if (isReplica()) {
+            throw new UnsupportedOperationException("Index " + name + " is a replica of " + subscribeSnapshotUri);
+        }
         if (facetsWriter == null) {
             try {
                 return facetsWriter = new DirectoryTaxonomyWriter(facets, IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
@@ -178,6 +287,9 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void refreshFacetsIfNecessary() {
+        if (facetsReopenThread != null) {
+            return; // background thread reopens facets within target staleness
+        }
         try {
             facetsReaderManager.maybeRefreshBlocking();
         } catch (IOException e) {
@@ -190,10 +302,134 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void refreshIfNecessary() {
+        if (isReplica()) {
+            this.pullSnapshot();
+        }
         this.refreshIndexIfNecessary();
         this.refreshFacetsIfNecessary();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isReplica() {
+        return StringUtils.isNotBlank(subscribeSnapshotUri);
+    }
+
+    private boolean isPublisher() {
+        return StringUtils.isNotBlank(publishSnapshotUri);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void commitIfNecessary() {
+        if (isReplica()) {
+            return; // replicas receive commits from publisher
+        }
+        try {
+            if (indexCommitThread != null) {
+                indexWriter.flush(); // background thread will commit within commit interval
+            } else {
+                indexWriter.commit();
+                publishSnapshot();
+            }
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to commit index " + name + ", cause: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Copy last commit point of index and taxonomy to publish location, so that replicas can pull them.
+     * Taxonomy is published first, so that replicas never see index that refers to unknown categories.
+     */
+    void publishSnapshot() {
+
+        if (!isPublisher()) {
+            return;
+        }
+
+        synchronized (snapshotLock) {
+
+            IndexCommit commit = null;
+            try {
+
+                final long start = System.currentTimeMillis();
+
+                facetsWriter.commit();
+                final SegmentInfos facetsInfos = SegmentInfos.readLatestCommit(facets);
+                final Collection<String> facetsFiles = facetsInfos.files(true);
+                LuceneIndexSnapshotSupport.copyCommit(facets, facetsFiles, facetsInfos.getSegmentsFileName(), publishFacets);
+
+                commit = indexSnapshotPolicy.snapshot();
+                final Collection<String> indexFiles = commit.getFileNames();
+                final int copied = LuceneIndexSnapshotSupport.copyCommit(index, indexFiles, commit.getSegmentsFileName(), publishIndex);
+
+                // keep previous commit as well, replicas may still be copying it
+                LuceneIndexSnapshotSupport.purge(publishFacets, union(facetsFiles, publishedFacetsFiles));
+                LuceneIndexSnapshotSupport.purge(publishIndex, union(indexFiles, publishedIndexFiles));
+                publishedFacetsFiles = facetsFiles;
+                publishedIndexFiles = indexFiles;
+
+                LOGFTQ.info("Published snapshot {} for {} ({} files copied) in {}ms",
+                        commit.getSegmentsFileName(), name, copied, System.currentTimeMillis() - start);
+
+            } catch (IOException | RuntimeException e) {
+                LOGFTQ.error("Unable to publish snapshot " + name + ", cause: " + e.getMessage(), e);
+            } finally {
+                if (commit != null) {
+                    try {
+                        indexSnapshotPolicy.release(commit);
+                        indexWriter.deleteUnusedFiles();
+                    } catch (IOException e) {
+                        LOGFTQ.error("Unable to release snapshot " + name + ", cause: " + e.getMessage());
+                    }
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Pull latest published commit point of index and taxonomy into local directories.
+     * Readers are not refreshed by this method.
+     */
+    void pullSnapshot() {
+
+        synchronized (snapshotLock) {
+
+            try {
+
+                final long start = System.currentTimeMillis();
+
+                final String facetsCommit = LuceneIndexSnapshotSupport.pullLatestCommit(subscribeFacets, facets, subscribedFacetsCommit);
+                if (facetsCommit != null) {
+                    subscribedFacetsCommit = facetsCommit;
+                }
+                final String indexCommit = LuceneIndexSnapshotSupport.pullLatestCommit(subscribeIndex, index, subscribedIndexCommit);
+                if (indexCommit != null) {
+                    subscribedIndexCommit = indexCommit;
+                    LOGFTQ.info("Pulled snapshot {} for {} in {}ms", indexCommit, name, System.currentTimeMillis() - start);
+                }
+
+            } catch (IOException | RuntimeException e) {
+                LOGFTQ.error("Unable to pull snapshot " + name + " from " + subscribeSnapshotUri + ", cause: " + e.getMessage());
+            }
+
+        }
+
+    }
+
+    private static Collection<String> union(final Collection<String> first, final Collection<String> second) {
+        final Collection<String> all = new HashSet<>(first);
+        all.addAll(second);
+        return all;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -201,13 +437,168 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
     public void afterPropertiesSet() throws Exception {
 
         index = getInstance(uri + File.separatorChar + name + File.separatorChar + "index");
+        facets = getInstance(uri + File.separatorChar + name + File.separatorChar + "taxonomy");
+
+        if (isReplica()) {
+            afterPropertiesSetReplica();
+            return;
+        }
+
+        if (isPublisher()) {
+            LOGFTQ.info("Publishing snapshots for {} to {}", name, publishSnapshotUri);
+            publishIndex = getInstance(publishSnapshotUri + File.separatorChar + name + File.separatorChar + "index");
+            publishFacets = getInstance(publishSnapshotUri + File.separatorChar + name + File.separatorChar + "taxonomy");
+        }
+
         provideIndexWriter();
         indexReaderManager = new SearcherManager(indexWriter, null);
+        indexReaderManager.addListener(new FacetsStatesResetListener());
 
-        facets = getInstance(uri + File.separatorChar + name + File.separatorChar + "taxonomy");
         provideFacetsWriter();
         facetsReaderManager = new SearcherTaxonomyManager(indexWriter, null, facetsWriter);
 
+        if (refreshMaxStaleMs > 0L) {
+
+            final double maxStaleSec = refreshMaxStaleMs / 1000d;
+            final double minStaleSec = Math.min(0.025d, maxStaleSec);
+
+            LOGFTQ.info("Starting background refresh for {} with max staleness {}ms", name, refreshMaxStaleMs);
+
+            indexReopenThread = new ControlledRealTimeReopenThread<>(indexWriter, indexReaderManager, maxStaleSec, minStaleSec);
+            indexReopenThread.setName("Lucene index refresh " + name);
+            indexReopenThread.setDaemon(true);
+            indexReopenThread.start();
+
+            facetsReopenThread = new ControlledRealTimeReopenThread<>(indexWriter, facetsReaderManager, maxStaleSec, minStaleSec);
+            facetsReopenThread.setName("Lucene facets refresh " + name);
+            facetsReopenThread.setDaemon(true);
+            facetsReopenThread.start();
+
+        }
+
+        if (commitIntervalMs > 0L) {
+
+            LOGFTQ.info("Starting background commit for {} with interval {}ms", name, commitIntervalMs);
+
+            indexCommitThread = new IndexTaskThread("Lucene index commit " + name, commitIntervalMs, this::commitIfChanged);
+            indexCommitThread.start();
+
+        }
+
+    }
+
+    /**
+     * Replica has no writers, readers are opened on local directories that receive published commits.
+     */
+    private void afterPropertiesSetReplica() throws Exception {
+
+        LOGFTQ.info("Subscribing {} to snapshots from {}", name, subscribeSnapshotUri);
+
+        subscribeIndex = getInstance(subscribeSnapshotUri + File.separatorChar + name + File.separatorChar + "index");
+        subscribeFacets = getInstance(subscribeSnapshotUri + File.separatorChar + name + File.separatorChar + "taxonomy");
+
+        pullSnapshot();
+
+        if (!DirectoryReader.indexExists(index)) {
+            // nothing published yet, start with empty index until publisher commits
+            final IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+            new IndexWriter(index, config).close();
+        }
+        if (!DirectoryReader.indexExists(facets)) {
+            new DirectoryTaxonomyWriter(facets, IndexWriterConfig.OpenMode.CREATE).close();
+        }
+
+        indexReaderManager = new SearcherManager(index, null);
+        indexReaderManager.addListener(new FacetsStatesResetListener());
+
+        facetsReaderManager = new SearcherTaxonomyManager(index, facets, null);
+
+        if (subscribeIntervalMs > 0L) {
+
+            LOGFTQ.info("Starting background snapshot pull for {} with interval {}ms", name, subscribeIntervalMs);
+
+            subscribeThread = new IndexTaskThread("Lucene index subscribe " + name, subscribeIntervalMs, this::refreshIfNecessary);
+            subscribeThread.start();
+
+        }
+
+    }
+
+    /**
+     * Commit index if there are any uncommitted changes.
+     */
+    void commitIfChanged() {
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+                LOGFTQ.debug("Committed index {}", name);
+                publishSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGFTQ.error("Unable to commit index " + name + ", cause: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resets facet ordinals once searcher is refreshed, since new reader generation requires new ordinals.
+     */
+    private final class FacetsStatesResetListener implements ReferenceManager.RefreshListener {
+
+        @Override
+        public void beforeRefresh() {
+            // nothing to do
+        }
+
+        @Override
+        public void afterRefresh(final boolean didRefresh) {
+            if (didRefresh) {
+                facetsStates = null;
+            }
+        }
+
+    }
+
+    /**
+     * Daemon that runs index maintenance task on fixed interval (e.g. commit pending changes, so that writers
+     * can just flush or pull published snapshots).
+     */
+    private static final class IndexTaskThread extends Thread {
+
+        private final long intervalMs;
+        private final Runnable task;
+        private volatile boolean finish = false;
+
+        private IndexTaskThread(final String name, final long intervalMs, final Runnable task) {
+            super(name);
+            this.intervalMs = intervalMs;
+            this.task = task;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!finish) {
+                try {
+                    Thread.sleep(intervalMs);
+                } catch (InterruptedException e) {
+                    // OK, either close or spurious
+                }
+                if (!finish) {
+                    task.run();
+                }
+            }
+        }
+
+        void close() {
+            finish = true;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     Directory getInstance(final String uri) throws Exception {
@@ -245,6 +636,23 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
     public void destroy() throws Exception {
 
         LOGFTQ.info("Closing directory for {}", name);
+        if (indexReopenThread != null) {
+            indexReopenThread.close();
+        }
+        if (facetsReopenThread != null) {
+            facetsReopenThread.close();
+        }
+        if (indexCommitThread != null) {
+            indexCommitThread.close();
+            commitIfChanged(); // make sure last changes are not lost
+        }
+        if (subscribeThread != null) {
+            subscribeThread.close();
+        }
+        closeSnapshotDirectory(publishIndex);
+        closeSnapshotDirectory(publishFacets);
+        closeSnapshotDirectory(subscribeIndex);
+        closeSnapshotDirectory(subscribeFacets);
         try {
             indexReaderManager.close();
         } catch (IOException e) {
@@ -280,4 +688,66 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
             LOGFTQ.error("Unable to release facet directory " + name + ", cause: " + e.getMessage());
         }
     }
+
+    private void closeSnapshotDirectory(final Directory directory) {
+        if (directory != null) {
+            try {
+                directory.close();
+            } catch (IOException e) {
+                LOGFTQ.error("Unable to release snapshot directory " + name + ", cause: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Target maximum staleness of readers. If set to positive value index and facet readers are reopened by
+     * background threads, so {@link #refreshIfNecessary()} does not block callers. Zero (default) means
+     * readers are only refreshed synchronously on {@link #refreshIfNecessary()}.
+     *
+     * @param refreshMaxStaleMs max staleness in milliseconds
+     */
+    public void setRefreshMaxStaleMs(final long refreshMaxStaleMs) {
+        this.refreshMaxStaleMs = refreshMaxStaleMs;
+    }
+
+    /**
+     * Interval for committing index changes. If set to positive value {@link #commitIfNecessary()} only
+     * flushes buffered documents and commit is done by background thread. Zero (default) means commit on
+     * every {@link #commitIfNecessary()}.
+     *
+     * @param commitIntervalMs commit interval in milliseconds
+     */
+    public void setCommitIntervalMs(final long commitIntervalMs) {
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    /**
+     * Location (same format as index URI) to publish commit points to, so that replicas on other nodes
+     * can pull them instead of building own index from the database. Blank (default) means no publishing.
+     *
+     * @param publishSnapshotUri publish location
+     */
+    public void setPublishSnapshotUri(final String publishSnapshotUri) {
+        this.publishSnapshotUri = publishSnapshotUri;
+    }
+
+    /**
+     * Location (same format as index URI) to pull published commit points from. Setting this makes this index
+     * a read only replica. Blank (default) means this index is built locally.
+     *
+     * @param subscribeSnapshotUri subscribe location
+     */
+    public void setSubscribeSnapshotUri(final String subscribeSnapshotUri) {
+        this.subscribeSnapshotUri = subscribeSnapshotUri;
+    }
+
+    /**
+     * Interval for pulling published commit points for replicas. Zero means that snapshot is only pulled
+     * on {@link #refreshIfNecessary()}.
+     *
+     * @param subscribeIntervalMs pull interval in milliseconds
+     */
+    public void setSubscribeIntervalMs(final long subscribeIntervalMs) {
+        this.subscribeIntervalMs = subscribeIntervalMs;
+    }
 }
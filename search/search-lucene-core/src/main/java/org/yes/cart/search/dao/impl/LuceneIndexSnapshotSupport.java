@@ -0,0 +1,180 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.StringHelper;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Utility methods for copying Lucene commit points between directories. Lucene segment files are
+ * write once, so only files that are missing in target directory or differ from source (by length or
+ * codec footer checksum) are copied. Segments file is always copied last, so that readers of target
+ * directory never see incomplete commit.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 12:40
+ */
+final class LuceneIndexSnapshotSupport {
+
+    private static final String WRITE_LOCK = "write.lock";
+
+    private LuceneIndexSnapshotSupport() {
+        // no instance
+    }
+
+    /**
+     * Copy commit point files to target directory.
+     *
+     * @param source       source directory
+     * @param files        all files of the commit point (including segments file)
+     * @param segmentsFile segments file of the commit point
+     * @param target       target directory
+     *
+     * @return number of files copied
+     *
+     * @throws IOException on IO errors
+     */
+    static int copyCommit(final Directory source,
+                          final Collection<String> files,
+                          final String segmentsFile,
+                          final Directory target) throws IOException {
+
+        final Set<String> existing = new HashSet<>(Arrays.asList(target.listAll()));
+        final List<String> copied = new ArrayList<>();
+
+        for (final String file : files) {
+            if (file.equals(segmentsFile)) {
+                continue;
+            }
+            if (existing.contains(file)) {
+                if (isSameFile(source, target, file)) {
+                    continue; // write once files, so same name, length and checksum means same file
+                }
+                target.deleteFile(file);
+            }
+            target.copyFrom(source, file, file, IOContext.READONCE);
+            copied.add(file);
+        }
+        target.sync(copied);
+
+        if (existing.contains(segmentsFile)) {
+            target.deleteFile(segmentsFile);
+        }
+        target.copyFrom(source, segmentsFile, segmentsFile, IOContext.READONCE);
+        target.sync(Collections.singletonList(segmentsFile));
+
+        return copied.size() + 1;
+
+    }
+
+    /**
+     * Compare file in two directories by length and checksum stored in codec footer. Names of segment files
+     * can be reused (e.g. source index was recreated), so length alone is not enough.
+     *
+     * @param source source directory
+     * @param target target directory
+     * @param file   file name
+     *
+     * @return true if files are the same, false if they differ or checksum cannot be read
+     */
+    static boolean isSameFile(final Directory source, final Directory target, final String file) {
+
+        try {
+            if (target.fileLength(file) != source.fileLength(file)) {
+                return false;
+            }
+            return retrieveChecksum(source, file) == retrieveChecksum(target, file);
+        } catch (IOException ioe) {
+            return false; // corrupt or truncated footer, recopy
+        }
+
+    }
+
+    private static long retrieveChecksum(final Directory directory, final String file) throws IOException {
+        try (IndexInput in = directory.openInput(file, IOContext.READONCE)) {
+            return CodecUtil.retrieveChecksum(in);
+        }
+    }
+
+    /**
+     * Copy latest commit point of source directory to target, unless it was already copied.
+     *
+     * @param source     source directory
+     * @param target     target directory
+     * @param lastCommit identifier of last copied commit (as returned by this method)
+     *
+     * @return identifier of latest commit or null if there is no new commit
+     *
+     * @throws IOException on IO errors
+     */
+    static String pullLatestCommit(final Directory source,
+                                   final Directory target,
+                                   final String lastCommit) throws IOException {
+
+        if (SegmentInfos.getLastCommitGeneration(source.listAll()) <= 0L) {
+            return null; // nothing published yet
+        }
+
+        final SegmentInfos infos = SegmentInfos.readLatestCommit(source);
+        final String commit = infos.getSegmentsFileName() + ":" + StringHelper.idToString(infos.getId());
+        if (commit.equals(lastCommit)) {
+            return null;
+        }
+
+        final Collection<String> files = infos.files(true);
+        copyCommit(source, files, infos.getSegmentsFileName(), target);
+        purge(target, files);
+
+        return commit;
+
+    }
+
+    /**
+     * Remove all files (apart from lock) that do not belong to given commit(s). Files that cannot be removed
+     * (e.g. open by readers on some OS) are left to be removed on next purge.
+     *
+     * @param target target directory
+     * @param keep   files to keep
+     */
+    static void purge(final Directory target, final Collection<String> keep) throws IOException {
+
+        for (final String file : target.listAll()) {
+            if (WRITE_LOCK.equals(file) || keep.contains(file)) {
+                continue;
+            }
+            if (file.startsWith(IndexFileNames.PENDING_SEGMENTS)) {
+                continue;
+            }
+            try {
+                target.deleteFile(file);
+            } catch (IOException ioe) {
+                // OK, will try again next time
+            }
+        }
+
+    }
+
+}
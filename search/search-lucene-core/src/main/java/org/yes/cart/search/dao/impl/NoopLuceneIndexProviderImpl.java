@@ -16,6 +16,7 @@
 
 package org.yes.cart.search.dao.impl;
 
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
 import org.apache.lucene.index.IndexWriter;
@@ -54,6 +55,11 @@ public class NoopLuceneIndexProviderImpl implements LuceneIndexProvider {
 
     }
 
+    @Override
+    public SortedSetDocValuesReaderState provideFacetsState(final IndexSearcher searcher, final String field) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SearcherTaxonomyManager.SearcherAndTaxonomy provideFacetsReader() {
         throw new UnsupportedOperationException();
@@ -78,4 +84,14 @@ public class NoopLuceneIndexProviderImpl implements LuceneIndexProvider {
     public void refreshIfNecessary() {
 
     }
+
+    @Override
+    public void commitIfNecessary() {
+
+    }
+
+    @Override
+    public boolean isReplica() {
+        return false;
+    }
 }
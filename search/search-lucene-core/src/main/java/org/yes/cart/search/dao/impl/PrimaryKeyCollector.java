@@ -0,0 +1,240 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.util.Bits;
+import org.yes.cart.search.dao.entity.AdapterUtils;
+import org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Non scoring collector that gathers primary keys of all matching documents into primitive array.
+ *
+ * Primary keys are read from {@link LuceneDocumentAdapterUtils#FIELD_PK_VALUE} doc values. Documents
+ * that were indexed without doc values (i.e. index created by previous version) fall back to reading
+ * stored {@link AdapterUtils#FIELD_PK} field.
+ *
+ * Entities indexed as several documents yield same PK more than once, so PKs are de-duplicated
+ * (first occurrence wins). Collection stops once maximum number of distinct PKs is reached.
+ *
+ * Collector is not thread safe and must be used for single search only.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:12
+ */
+class PrimaryKeyCollector extends SimpleCollector {
+
+    private static final Set<String> PKS = Collections.singleton(AdapterUtils.FIELD_PK);
+
+    private final boolean trackDocs;
+    private final int maxResults;
+
+    private long[] pks = new long[64];
+    private int[] docs;
+    private int size = 0;
+
+    // open addressing set of collected PKs, 0 is used as empty slot marker
+    private long[] seen = new long[128];
+    private int seenSize = 0;
+    private boolean seenZero = false;
+
+    private LeafReader reader;
+    private int docBase;
+    private NumericDocValues values;
+    private Bits valuesPresent;
+
+    /**
+     * @param trackDocs keep global doc ids of collected documents (e.g. for explain)
+     */
+    PrimaryKeyCollector(final boolean trackDocs) {
+        this(trackDocs, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param trackDocs  keep global doc ids of collected documents (e.g. for explain)
+     * @param maxResults max number of distinct PKs to collect
+     */
+    PrimaryKeyCollector(final boolean trackDocs, final int maxResults) {
+        this.trackDocs = trackDocs;
+        this.maxResults = maxResults;
+        this.docs = trackDocs ? new int[64] : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doSetNextReader(final LeafReaderContext context) throws IOException {
+        if (this.size >= this.maxResults) {
+            throw new CollectionTerminatedException();
+        }
+        this.reader = context.reader();
+        this.docBase = context.docBase;
+        this.values = this.reader.getNumericDocValues(LuceneDocumentAdapterUtils.FIELD_PK_VALUE);
+        this.valuesPresent = this.values != null ? this.reader.getDocsWithField(LuceneDocumentAdapterUtils.FIELD_PK_VALUE) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void collect(final int doc) throws IOException {
+
+        if (this.size >= this.maxResults) {
+            throw new CollectionTerminatedException();
+        }
+
+        final long pk;
+        if (this.values != null && this.valuesPresent.get(doc)) {
+            pk = this.values.get(doc);
+        } else {
+            final Document stored = this.reader.document(doc, PKS);
+            final String value = stored.get(AdapterUtils.FIELD_PK);
+            if (value == null) {
+                return;
+            }
+            pk = Long.parseLong(value);
+        }
+
+        if (!addSeen(pk)) {
+            return; // duplicate
+        }
+
+        if (this.size == this.pks.length) {
+            this.pks = Arrays.copyOf(this.pks, this.size << 1);
+            if (this.trackDocs) {
+                this.docs = Arrays.copyOf(this.docs, this.size << 1);
+            }
+        }
+        this.pks[this.size] = pk;
+        if (this.trackDocs) {
+            this.docs[this.size] = this.docBase + doc;
+        }
+        this.size++;
+
+    }
+
+    private boolean addSeen(final long pk) {
+
+        if (pk == 0L) {
+            if (this.seenZero) {
+                return false;
+            }
+            this.seenZero = true;
+            return true;
+        }
+
+        if ((this.seenSize + 1) << 1 > this.seen.length) {
+            final long[] old = this.seen;
+            this.seen = new long[old.length << 1];
+            for (final long value : old) {
+                if (value != 0L) {
+                    insertSeen(value);
+                }
+            }
+        }
+        if (insertSeen(pk)) {
+            this.seenSize++;
+            return true;
+        }
+        return false;
+
+    }
+
+    private boolean insertSeen(final long pk) {
+        final int mask = this.seen.length - 1;
+        int slot = Long.hashCode(pk * 0x9E3779B97F4A7C15L) & mask;
+        while (this.seen[slot] != 0L) {
+            if (this.seen[slot] == pk) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.seen[slot] = pk;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    /**
+     * @return number of collected documents
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @param index collected document index
+     *
+     * @return global doc id (only available if collector tracks docs)
+     */
+    int getDoc(final int index) {
+        return docs[index];
+    }
+
+    /**
+     * @return read only list view of collected primary keys
+     */
+    List<Long> getPks() {
+        return new PrimaryKeyList(this.pks, this.size);
+    }
+
+    private static final class PrimaryKeyList extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] pks;
+        private final int size;
+
+        private PrimaryKeyList(final long[] pks, final int size) {
+            this.pks = pks;
+            this.size = size;
+        }
+
+        @Override
+        public Long get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return pks[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
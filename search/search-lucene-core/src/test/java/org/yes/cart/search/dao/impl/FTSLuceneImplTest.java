@@ -20,13 +20,16 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.TermQuery;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.misc.Pair;
@@ -37,6 +40,7 @@ import org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 import org.yes.cart.search.dto.impl.FilteredNavigationRecordRequestImpl;
 
+import java.nio.file.Files;
 import java.util.*;
 
 import static org.junit.Assert.*;
@@ -166,6 +170,8 @@ public class FTSLuceneImplTest {
     private static class MapIndexBuilderLucene extends IndexBuilderLuceneImpl<Map<String, Object>, Long> {
 
         private List<Map<String, Object>> docs = null;
+        private final Set<String> partitionThreads = Collections.synchronizedSet(new HashSet<>());
+        private volatile Long failPartition = null;
 
         public MapIndexBuilderLucene(final LuceneDocumentAdapter<Map<String, Object>, Long> documentAdapter,
                                      final LuceneIndexProvider indexProvider) {
@@ -220,6 +226,64 @@ public class FTSLuceneImplTest {
             };
         }
 
+        @Override
+        protected List<Pair<Long, Long>> findAllPartitions(final int partitions) {
+
+            final List<Long> pks = new ArrayList<>();
+            for (final Map<String, Object> doc : this.docs) {
+                pks.add(NumberUtils.toLong((String) doc.get(AdapterUtils.FIELD_PK)));
+            }
+            Collections.sort(pks);
+
+            final List<Pair<Long, Long>> ranges = new ArrayList<>();
+            final int size = (pks.size() + partitions - 1) / partitions;
+            for (int i = 0; i < pks.size(); i += size) {
+                ranges.add(new Pair<>(pks.get(i), pks.get(Math.min(i + size, pks.size()) - 1)));
+            }
+            return ranges;
+        }
+
+        @Override
+        protected ResultsIterator<Map<String, Object>> findAllIterator(final Pair<Long, Long> partition) {
+
+            partitionThreads.add(Thread.currentThread().getName());
+
+            if (partition.getFirst().equals(failPartition)) {
+                throw new RuntimeException("Partition failed " + partition);
+            }
+
+            final List<Map<String, Object>> inRange = new ArrayList<>();
+            for (final Map<String, Object> doc : this.docs) {
+                final long pk = NumberUtils.toLong((String) doc.get(AdapterUtils.FIELD_PK));
+                if (pk >= partition.getFirst() && pk <= partition.getSecond()) {
+                    inRange.add(doc);
+                }
+            }
+            final Iterator<Map<String, Object>> it = inRange.iterator();
+
+            return new ResultsIterator<Map<String, Object>>() {
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+
+                @Override
+                public void close() {
+
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map<String, Object> next() {
+                    return it.next();
+                }
+            };
+        }
+
         @Override
         protected Map<String, Object> unproxyEntity(final Map<String, Object> entity) {
             return entity;
@@ -490,6 +554,338 @@ public class FTSLuceneImplTest {
 
     }
 
+    @Test
+    public void testFullTextSearchNavigationFacetsStateCache() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        docs.add(new HashMap<String, Object>() {{
+            put("_PK", "100000");
+            put("name", "item one");
+        }});
+        docs.add(new HashMap<String, Object>() {{
+            put("_PK", "100001");
+            put("name", "element");
+        }});
+
+        indexBuilderLucene.setDocs(docs);
+        documentAdapter.setFacets(Collections.singletonList("name"));
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        final IndexSearcher before = provider.provideIndexReader();
+        final SortedSetDocValuesReaderState state;
+        try {
+            state = provider.provideFacetsState(before, "name_facet");
+            assertSame(state, provider.provideFacetsState(before, "name_facet"));
+        } finally {
+            provider.releaseIndexReader(before);
+        }
+
+        final List<FilteredNavigationRecordRequest> fr = Collections.singletonList(
+                (FilteredNavigationRecordRequest) new FilteredNavigationRecordRequestImpl("Names", "name_facet", false));
+
+        Map<String, List<Pair<Pair<String, I18NModel>, Integer>>> rez;
+
+        rez = genericFTSLucene.fullTextSearchNavigation(new MatchAllDocsQuery(), fr);
+        assertEquals(2, rez.get("Names").size());
+        checkFacetValue(rez.get("Names"), "element", 1);
+
+        // Index change must invalidate cached ordinals
+        docs.add(new HashMap<String, Object>() {{
+            put("_PK", "100002");
+            put("name", "element");
+        }});
+        indexBuilderLucene.fullTextSearchReindex(100002L, false);
+
+        final IndexSearcher after = provider.provideIndexReader();
+        try {
+            assertNotSame(state, provider.provideFacetsState(after, "name_facet"));
+        } finally {
+            provider.releaseIndexReader(after);
+        }
+
+        rez = genericFTSLucene.fullTextSearchNavigation(new MatchAllDocsQuery(), fr);
+        assertEquals(2, rez.get("Names").size());
+        checkFacetValue(rez.get("Names"), "element", 2);
+
+    }
+
+    @Test
+    public void testFullTextSearchReindexPartitioned() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final String pk = String.valueOf(100000 + i);
+            final String name = "item " + (i % 2 == 0 ? "even" : "odd") + " number" + i;
+            docs.add(new HashMap<String, Object>() {{
+                put("_PK", pk);
+                put("name", name);
+            }});
+        }
+
+        indexBuilderLucene.setDocs(docs);
+        indexBuilderLucene.setIndexWorkers(3);
+        indexBuilderLucene.setIndexWorkerExecutor(new SimpleAsyncTaskExecutor("ftsworker"));
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        // Each partition is processed by own worker
+        assertEquals(3, indexBuilderLucene.partitionThreads.size());
+        assertEquals(10L, indexBuilderLucene.getFullTextIndexState().getLastIndexCount());
+
+        List<Long> pks;
+
+        assertEquals(10, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        pks = genericFTSLucene.fullTextSearch(new MatchAllDocsQuery());
+        assertEquals(10, pks.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(pks.contains(100000L + i));
+        }
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "even")));
+        assertEquals(new HashSet<>(Arrays.asList(100000L, 100002L, 100004L, 100006L, 100008L)), new HashSet<>(pks));
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "number7")));
+        assertEquals(Collections.singletonList(100007L), new ArrayList<>(pks));
+
+        // Failed partition must not purge documents that were not reindexed
+        docs.remove(9);
+        docs.remove(0);
+        indexBuilderLucene.failPartition = 100004L;
+        Thread.sleep(5L); // ensure new index time
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        assertEquals(10, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        // Successful run purges removed entities
+        indexBuilderLucene.failPartition = null;
+        Thread.sleep(5L); // ensure new index time
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        assertEquals(8, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        pks = genericFTSLucene.fullTextSearch(new MatchAllDocsQuery());
+        assertFalse(pks.contains(100000L));
+        assertFalse(pks.contains(100009L));
+        assertTrue(pks.contains(100004L));
+
+    }
+
+    @Test
+    public void testFullTextSearchReindexBatch() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final String pk = String.valueOf(100000 + i);
+            final String name = "item number" + i;
+            docs.add(new HashMap<String, Object>() {{
+                put("_PK", pk);
+                put("name", name);
+            }});
+        }
+
+        indexBuilderLucene.setDocs(docs);
+        indexBuilderLucene.fullTextSearchReindex(false, 10);
+
+        assertEquals(5, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        // Update two, remove one, leave the rest intact
+        docs.get(1).put("name", "item changed");
+        docs.get(3).put("name", "item changed");
+        docs.remove(4);
+
+        // Batch is split into prefetch chunks, duplicates are reindexed once
+        indexBuilderLucene.setIndexPrefetchSize(2);
+        indexBuilderLucene.fullTextSearchReindexBatch(Arrays.asList(100001L, 100003L, 100004L, 100001L));
+
+        assertEquals(4, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        List<Long> pks;
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "changed")));
+        assertEquals(new HashSet<>(Arrays.asList(100001L, 100003L)), new HashSet<>(pks));
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "number1")));
+        assertTrue(pks.isEmpty());
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "number4")));
+        assertTrue(pks.isEmpty());
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "number2")));
+        assertEquals(Collections.singletonList(100002L), new ArrayList<>(pks));
+
+        // Empty batch is a no-op
+        indexBuilderLucene.fullTextSearchReindexBatch(Collections.<Long>emptyList());
+        assertEquals(4, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+    }
+
+    @Test
+    public void testFullTextSearchPrimaryKeyCollector() throws Exception {
+
+        indexBuilderLucene.setDocs(
+                (List) Arrays.asList(
+                        new HashMap<String, String>() {{
+                            put("_PK", "100000");
+                            put("name", "item one");
+                        }},
+                        new HashMap<String, String>() {{
+                            put("_PK", "100001");
+                            put("name", "item two");
+                        }},
+                        new HashMap<String, String>() {{
+                            put("_PK", "100002");
+                            put("name", "item three");
+                        }}
+                )
+        );
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        // Entity indexed as several documents (e.g. product with SKU documents) yields same PK more than once
+        for (final String pk : Arrays.asList("100000", "100001", "100000")) {
+            final Document ldoc = documentAdapter.toDocument(new HashMap<String, Object>() {{
+                put("_PK", pk);
+                put("name", "item extra");
+            }}).getSecond()[0];
+            provider.provideIndexWriter().addDocument(ldoc);
+        }
+        provider.provideIndexWriter().commit();
+        provider.refreshIfNecessary();
+
+        assertEquals(6, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        List<Long> pks;
+
+        // Duplicates are removed, first occurrence wins
+        pks = genericFTSLucene.fullTextSearch(new MatchAllDocsQuery());
+        assertEquals(3, pks.size());
+        assertEquals(new HashSet<>(Arrays.asList(100000L, 100001L, 100002L)), new HashSet<>(pks));
+
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "extra")));
+        assertEquals(Arrays.asList(100000L, 100001L), new ArrayList<>(pks));
+
+        // Cap limits number of distinct PKs, duplicates do not count towards the cap
+        genericFTSLucene.setFullTextSearchMaxResults(2);
+        pks = genericFTSLucene.fullTextSearch(new MatchAllDocsQuery());
+        assertEquals(2, pks.size());
+        assertEquals(2, new HashSet<>(pks).size());
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "extra")));
+        assertEquals(Arrays.asList(100000L, 100001L), new ArrayList<>(pks));
+
+        genericFTSLucene.setFullTextSearchMaxResults(1);
+        pks = genericFTSLucene.fullTextSearch(new TermQuery(new Term("name", "extra")));
+        assertEquals(Collections.singletonList(100000L), new ArrayList<>(pks));
+
+    }
+
+    @Test
+    public void testFullTextSearchBackgroundRefreshAndCommit() throws Exception {
+
+        final LuceneIndexProviderImpl nrtProvider = new LuceneIndexProviderImpl("testnrt", "ram");
+        nrtProvider.setRefreshMaxStaleMs(50L);
+        nrtProvider.setCommitIntervalMs(50L);
+        nrtProvider.afterPropertiesSet();
+
+        try {
+
+            final GenericFTSLuceneImpl nrtFTSLucene = new GenericFTSLuceneImpl();
+            nrtFTSLucene.setLuceneIndexProvider(nrtProvider);
+            final MapIndexBuilderLucene nrtIndexBuilderLucene = new MapIndexBuilderLucene(documentAdapter, nrtProvider);
+
+            nrtIndexBuilderLucene.setDocs(
+                    (List) Arrays.asList(
+                            new HashMap<String, String>() {{
+                                put("_PK", "100000");
+                                put("name", "item one");
+                            }},
+                            new HashMap<String, String>() {{
+                                put("_PK", "100001");
+                                put("name", "item two");
+                            }}
+                    )
+            );
+
+            nrtIndexBuilderLucene.fullTextSearchReindex(false, 1);
+
+            // Refresh is done in background, so changes become visible within max staleness
+            final long deadline = System.currentTimeMillis() + 5000L;
+            while (nrtFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertEquals(2, nrtFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+            while (nrtProvider.provideIndexWriter().hasUncommittedChanges() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertFalse(nrtProvider.provideIndexWriter().hasUncommittedChanges());
+
+        } finally {
+            nrtProvider.destroy();
+        }
+
+    }
+
+    @Test
+    public void testFullTextSearchSnapshotReplica() throws Exception {
+
+        final String shared = "nio://" + Files.createTempDirectory("ftsnapshot").toFile().getAbsolutePath();
+
+        final LuceneIndexProviderImpl publisher = new LuceneIndexProviderImpl("testsnapshot", "ram");
+        publisher.setPublishSnapshotUri(shared);
+        publisher.afterPropertiesSet();
+
+        final LuceneIndexProviderImpl replica = new LuceneIndexProviderImpl("testsnapshot", "ram");
+        replica.setSubscribeSnapshotUri(shared);
+        replica.setSubscribeIntervalMs(0L);
+        replica.afterPropertiesSet();
+
+        try {
+
+            assertFalse(publisher.isReplica());
+            assertTrue(replica.isReplica());
+
+            final GenericFTSLuceneImpl replicaFTSLucene = new GenericFTSLuceneImpl();
+            replicaFTSLucene.setLuceneIndexProvider(replica);
+
+            final MapIndexBuilderLucene publisherIndexBuilderLucene = new MapIndexBuilderLucene(documentAdapter, publisher);
+            publisherIndexBuilderLucene.setDocs(
+                    (List) Arrays.asList(
+                            new HashMap<String, String>() {{
+                                put("_PK", "100000");
+                                put("name", "item one");
+                            }},
+                            new HashMap<String, String>() {{
+                                put("_PK", "100001");
+                                put("name", "item two");
+                            }}
+                    )
+            );
+
+            // Nothing published yet
+            assertEquals(0, replicaFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+            publisherIndexBuilderLucene.fullTextSearchReindex(false, 1);
+
+            // Replica does not see changes until it pulls snapshot
+            assertEquals(0, replicaFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+            replica.refreshIfNecessary();
+            assertEquals(2, replicaFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+            // Writes to replica are ignored
+            final MapIndexBuilderLucene replicaIndexBuilderLucene = new MapIndexBuilderLucene(documentAdapter, replica);
+            replicaIndexBuilderLucene.setDocs(Collections.<Map<String, Object>>emptyList());
+            replicaIndexBuilderLucene.fullTextSearchReindex(100000L, true);
+            assertEquals(2, replicaFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        } finally {
+            replica.destroy();
+            publisher.destroy();
+        }
+
+    }
+
     private void checkFacetValue(List<Pair<Pair<String, I18NModel>, Integer>> facets, String expectedValue, Integer expectedCount) {
         for (final Pair<Pair<String, I18NModel>, Integer> facet : facets) {
             if (expectedValue.equals(facet.getFirst().getFirst())) {
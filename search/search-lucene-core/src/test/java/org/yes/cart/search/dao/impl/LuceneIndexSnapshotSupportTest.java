@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:40
+ */
+public class LuceneIndexSnapshotSupportTest {
+
+    @Test
+    public void testCopyCommitReplacesSameLengthFiles() throws Exception {
+
+        final Directory source = new RAMDirectory();
+        final Directory target = new RAMDirectory();
+
+        try (IndexWriter iw = new IndexWriter(source, new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (int i = 0; i < 3; i++) {
+                final Document doc = new Document();
+                doc.add(new StringField("_PK", String.valueOf(i), Field.Store.YES));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+
+        final SegmentInfos infos = SegmentInfos.readLatestCommit(source);
+        final Collection<String> files = infos.files(true);
+        final int total = files.size();
+
+        assertEquals(total, LuceneIndexSnapshotSupport.copyCommit(source, files, infos.getSegmentsFileName(), target));
+
+        // Unchanged files are not copied again, only segments file
+        assertEquals(1, LuceneIndexSnapshotSupport.copyCommit(source, files, infos.getSegmentsFileName(), target));
+
+        // Same name and length, but different content (e.g. source index was recreated)
+        String replaced = null;
+        for (final String file : files) {
+            if (!file.equals(infos.getSegmentsFileName())) {
+                replaced = file;
+                break;
+            }
+        }
+        assertNotNull(replaced);
+        final long length = source.fileLength(replaced);
+        target.deleteFile(replaced);
+        try (IndexOutput out = target.createOutput(replaced, IOContext.DEFAULT)) {
+            for (long i = 0; i < length; i++) {
+                out.writeByte((byte) 7);
+            }
+        }
+        assertEquals(length, target.fileLength(replaced));
+        assertFalse(LuceneIndexSnapshotSupport.isSameFile(source, target, replaced));
+
+        assertEquals(2, LuceneIndexSnapshotSupport.copyCommit(source, files, infos.getSegmentsFileName(), target));
+        assertTrue(LuceneIndexSnapshotSupport.isSameFile(source, target, replaced));
+
+        try (IndexInput in = target.openInput(replaced, IOContext.READONCE)) {
+            assertNotEquals(7, in.readByte());
+        }
+
+        try (DirectoryReader reader = DirectoryReader.open(target)) {
+            assertEquals(3, reader.numDocs());
+        }
+
+    }
+
+}
@@ -33,6 +33,8 @@ import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.util.DateUtils;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -130,6 +132,9 @@ public class ProductInventoryChangedProcessorImpl extends AbstractLastRunDepende
                 }
             }
 
+            // Same SKU may be stocked in many warehouses, so reindex it once only
+            productSkus = new ArrayList<>(new LinkedHashSet<>(productSkus));
+
             // Check whether we need batch or full
             count = productSkus.size();
             runBatch = count < full;
@@ -200,10 +205,8 @@ public class ProductInventoryChangedProcessorImpl extends AbstractLastRunDepende
             productService.reindexProductsSku(getBatchSize(), true);
 
         } else {
-            for (final String sku : skuCodes) {
-                // batch only
-                productService.reindexProductSku(sku);
-            }
+            // batch only, single index update per batch
+            productService.reindexProductSkus(skuCodes);
         }
 
     }
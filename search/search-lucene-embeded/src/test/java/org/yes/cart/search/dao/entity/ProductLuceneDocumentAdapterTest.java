@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.entity;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.dao.constants.DaoServiceBeanKeys;
+import org.yes.cart.dao.impl.AbstractTestDAO;
+import org.yes.cart.domain.entity.Product;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.search.dao.support.*;
+import org.yes.cart.util.TimeContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:10
+ */
+public class ProductLuceneDocumentAdapterTest extends AbstractTestDAO {
+
+    private GenericDAO<Product, Long> productDao;
+    private ProductLuceneDocumentAdapter adapter;
+
+    @Override
+    @Before
+    public void setUp() {
+        productDao = (GenericDAO<Product, Long>) ctx().getBean(DaoServiceBeanKeys.PRODUCT_DAO);
+
+        adapter = new ProductLuceneDocumentAdapter();
+        adapter.setAttributesSupport(ctx().getBean("navigatableAttributesSupport", NavigatableAttributesSupport.class));
+        adapter.setShopCategorySupport(ctx().getBean("shopCategoryRelationshipSupport", ShopCategoryRelationshipSupport.class));
+        adapter.setShopWarehouseSupport(ctx().getBean("shopWarehouseRelationshipSupport", ShopWarehouseRelationshipSupport.class));
+        adapter.setSkuPriceSupport(ctx().getBean("skuPriceRelationshipSupport", SkuPriceRelationshipSupport.class));
+        adapter.setSkuWarehouseSupport(ctx().getBean("skuWarehouseRelationshipSupport", SkuWarehouseRelationshipSupport.class));
+
+        TimeContext.setTime(Instant.now());
+
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        TimeContext.destroy();
+    }
+
+    @Test
+    public void testToDocumentsSameAsToDocument() throws Exception {
+
+        getTxReadOnly().execute(new TransactionCallbackWithoutResult() {
+            @Override
+            public void doInTransactionWithoutResult(TransactionStatus status) {
+
+                final List<Product> products = productDao.findAll();
+                assertFalse(products.isEmpty());
+
+                final List<Pair<Long, Document[]>> batch = adapter.toDocuments(products);
+                assertEquals(products.size(), batch.size());
+
+                int indexed = 0;
+                for (int i = 0; i < products.size(); i++) {
+
+                    final Pair<Long, Document[]> single = adapter.toDocument(products.get(i));
+
+                    assertEquals(single.getFirst(), batch.get(i).getFirst());
+                    assertEquals("Product " + products.get(i).getCode(),
+                            toComparable(single.getSecond()), toComparable(batch.get(i).getSecond()));
+
+                    if (single.getSecond() != null && single.getSecond().length > 0) {
+                        indexed++;
+                    }
+
+                }
+
+                // make sure we compare actual documents, not just empty results
+                assertTrue(indexed > 0);
+
+            }
+        });
+
+    }
+
+    private List<String> toComparable(final Document[] documents) {
+
+        if (documents == null) {
+            return Collections.emptyList();
+        }
+
+        // order of fields and documents may depend on order of prices and inventory returned by queries
+        final List<String> all = new ArrayList<>();
+        for (final Document document : documents) {
+            final List<String> fields = new ArrayList<>();
+            for (final IndexableField field : document) {
+                fields.add(field.toString());
+            }
+            Collections.sort(fields);
+            all.add(fields.toString());
+        }
+        Collections.sort(all);
+        return all;
+
+    }
+
+}
@@ -712,21 +712,36 @@ public class SearchController {
 
             final Pair<String, Boolean> symbol = currencySymbolService.getCurrencySymbol(cart.getCurrencyCode());
 
+            final List<ProductAvailabilityModel> pams = new ArrayList<>(products.getResults().size());
+            final Set<String> skuCodes = new HashSet<>();
             for (final ProductSearchResultDTO hit : products.getResults()) {
-
                 final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(hit, context.getCustomerShopId());
+                pams.add(skuPam);
+                skuCodes.add(skuPam.getFirstAvailableSkuCode());
+            }
+
+            // Resolve prices for the whole page at once
+            final Map<String, PriceModel> prices = productServiceFacade.getSkuPrices(cart, skuCodes, BigDecimal.ONE);
+
+            for (int i = 0; i < pams.size(); i++) {
+
+                final ProductSearchResultDTO hit = products.getResults().get(i);
+                final ProductAvailabilityModel skuPam = pams.get(i);
 
                 final ProductSearchResultRO ro = mappingMixin.map(hit, ProductSearchResultRO.class, ProductSearchResultDTO.class);
 
                 final ProductAvailabilityModelRO amRo = mappingMixin.map(skuPam, ProductAvailabilityModelRO.class, ProductAvailabilityModel.class);
                 ro.setProductAvailabilityModel(amRo);
 
-                final PriceModel price = productServiceFacade.getSkuPrice(
-                        cart,
-                        null,
-                        skuPam.getFirstAvailableSkuCode(),
-                        BigDecimal.ONE
-                );
+                PriceModel price = prices.get(skuPam.getFirstAvailableSkuCode());
+                if (price == null) {
+                    price = productServiceFacade.getSkuPrice(
+                            cart,
+                            null,
+                            skuPam.getFirstAvailableSkuCode(),
+                            BigDecimal.ONE
+                    );
+                }
 
                 final SkuPriceRO priceRo = mappingMixin.map(price, SkuPriceRO.class, PriceModel.class);
                 priceRo.setSymbol(symbol.getFirst());
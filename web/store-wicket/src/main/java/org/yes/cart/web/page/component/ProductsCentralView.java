@@ -38,7 +38,10 @@ import org.yes.cart.web.support.constants.StorefrontServiceSpringKeys;
 import org.yes.cart.web.support.constants.WebParametersKeys;
 import org.yes.cart.web.support.service.ProductServiceFacade;
 
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * User: Igor Azarny iazarny@yahoo.com
@@ -136,6 +139,15 @@ public class ProductsCentralView extends AbstractCentralView {
 
         final boolean hasResults = products.getTotalHits() > 0L;
 
+        if (!products.getResults().isEmpty()) {
+            // Resolve prices for the whole page at once, so that each product in list view gets its price from cache
+            final Set<String> skuCodes = new HashSet<>();
+            for (final ProductSearchResultDTO product : products.getResults()) {
+                skuCodes.add(product.getDefaultSkuCode());
+            }
+            productServiceFacade.getSkuPrices(getCurrentCart(), skuCodes, BigDecimal.ONE);
+        }
+
         final SortableProductDataProvider dataProvider = new SortableProductDataProvider(products);
 
         final GridView<ProductSearchResultDTO> productDataView = new GridView<ProductSearchResultDTO>(PRODUCT_LIST, dataProvider) {
@@ -96,6 +96,13 @@ public class WsCacheDirectorImpl extends CacheDirectorImpl implements CacheDirec
             );
 
         });
+        nodeService.subscribe("CacheDirector.onCacheableBulkChanges", message -> {
+
+            final Map<String, Map<String, long[]>> payload = (Map<String, Map<String, long[]>>) message.getPayload();
+
+            return WsCacheDirectorImpl.this.onCacheableBulkChanges(payload);
+
+        });
     }
 
 }
@@ -33,6 +33,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.ZonedDateTime;
 
 /**
@@ -47,8 +48,11 @@ import java.time.ZonedDateTime;
  * resized
  * repository_folder/widthxheight/c/code/seo_name_code_[a-z]
  * <p/>
- * No need to use nio, becuse images will be cached
- * on apache or ngnix
+ * Images are streamed directly from the repository to the response and
+ * concurrent requests for the same size are resized only once
+ * (see {@link ImageService#resizeImageOnTheFly(String, String, String, String)}). If resize fails or
+ * times out the original image is served without validators and with "Cache-Control: no-store", so that
+ * it is not cached under resized image URL.
  * <p/>
  * User: Igor Azarny iazarny@yahoo.com
  * Date: 2011-May-17
@@ -66,6 +70,8 @@ public class ImageFilter extends AbstractFilter implements Filter {
 
     private static final String LAST_MODIFIED = "Last-Modified";
 
+    private static final String CACHE_CONTROL = "Cache-Control";
+
     private final MimetypesFileTypeMap fileTypeMap;
 
     private final ImageService imageService;
@@ -116,14 +122,13 @@ public class ImageFilter extends AbstractFilter implements Filter {
         final String previousToken = httpServletRequest.getHeader(IF_NONE_MATCH);
         final String currentToken = getETagValue(httpServletRequest);
 
-        httpServletResponse.setHeader(ETAG, currentToken);
-
         if (currentToken.equals(previousToken) &&
                 ZonedDateTime.now(
                         DateUtils.zone()
                 ).isBefore(
                         DateUtils.zdtFrom(httpServletRequest.getDateHeader(IF_MODIFIED_SINCE)).plusMinutes(getEtagExpiration())
                 )) {
+            httpServletResponse.setHeader(ETAG, currentToken);
             httpServletResponse.sendError(HttpServletResponse.SC_NOT_MODIFIED);
             // use the same date we sent when we created the ETag the first time through
             httpServletResponse.setHeader(LAST_MODIFIED, httpServletRequest.getHeader(IF_MODIFIED_SINCE));
@@ -146,8 +151,6 @@ public class ImageFilter extends AbstractFilter implements Filter {
             final String contextPath = httpServletRequest.getContextPath();
             final String servletPath = requestPath.substring(contextPath.length());
 
-            httpServletResponse.setDateHeader(LAST_MODIFIED, System.currentTimeMillis());
-
             final String width = httpServletRequest.getParameter(Constants.WIDTH);
             final String height = httpServletRequest.getParameter(Constants.HEIGHT);
 
@@ -183,9 +186,25 @@ public class ImageFilter extends AbstractFilter implements Filter {
                                 mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale, width, height);
             }
 
-            final byte[] imageFile = getImageFile(absolutePathToOriginal, absolutePathToResized, width, height);
-            if (imageFile != null && imageFile.length > 0) {
-                httpServletResponse.getOutputStream().write(imageFile);
+            String source = absolutePathToOriginal;
+            boolean cacheable = true;
+            if (absolutePathToResized != null) {
+                if (imageService.resizeImageOnTheFly(absolutePathToOriginal, absolutePathToResized, width, height)) {
+                    source = absolutePathToResized;
+                } else {
+                    // resize failed or is taking too long, original must not be cached under resized image URL
+                    cacheable = false;
+                }
+            }
+
+            if (cacheable) {
+                httpServletResponse.setHeader(ETAG, currentToken);
+                httpServletResponse.setDateHeader(LAST_MODIFIED, System.currentTimeMillis());
+            } else {
+                httpServletResponse.setHeader(CACHE_CONTROL, "no-store");
+            }
+
+            if (writeImageFile(source, httpServletResponse.getOutputStream())) {
                 httpServletResponse.flushBuffer();
             } else {
                 httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
@@ -237,12 +256,10 @@ public class ImageFilter extends AbstractFilter implements Filter {
         //do nothing
     }
 
-    byte[] getImageFile(final String absolutePathToOriginal,
-                        final String absolutePathToResized,
-                        final String width,
-                        final String height) throws IOException {
+    boolean writeImageFile(final String absolutePath,
+                           final OutputStream out) throws IOException {
 
-        return imageService.resizeImage(absolutePathToOriginal, absolutePathToResized, width, height);
+        return imageService.writeImage(absolutePath, null, null, null, out);
 
     }
 
@@ -25,6 +25,7 @@ import org.yes.cart.shoppingcart.CartItem;
 import org.yes.cart.shoppingcart.ShoppingCart;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -329,6 +330,19 @@ public interface ProductServiceFacade {
      */
     PriceModel getSkuPrice(ShoppingCart cart, Long productId, String skuCode, BigDecimal quantity);
 
+    /**
+     * Get currently active SKU prices (or blank objects) for several SKU at once (e.g. page of search results).
+     * Same as {@link #getSkuPrice(ShoppingCart, Long, String, BigDecimal)} with SKU code for each SKU, but
+     * all prices that are not yet cached are resolved in one go.
+     *
+     * @param cart      current cart
+     * @param skuCodes  selected SKUs
+     * @param quantity  quantity tier
+     *
+     * @return active SKU prices (or blank objects) by SKU code
+     */
+    Map<String, PriceModel> getSkuPrices(ShoppingCart cart, Collection<String> skuCodes, BigDecimal quantity);
+
     /**
      * Get price model (or blank object) with respect to current shop tax display settings.
      *
@@ -436,6 +436,37 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
     }
 
 
+    /**
+     * Same as {@link #resolveMinimalPrice(ShoppingCart, Long, String, BigDecimal)} but for several SKU at once.
+     *
+     * @param cart      cart
+     * @param skus      skus to resolve price for
+     * @param qty       quantity
+     *
+     * @return resolved SKU prices by SKU code
+     */
+    protected Map<String, SkuPrice> resolveMinimalPrices(final ShoppingCart cart,
+                                                         final Collection<String> skus,
+                                                         final BigDecimal qty) {
+
+        final long customerShopId = cart.getShoppingContext().getCustomerShopId();
+        final long masterShopId = cart.getShoppingContext().getShopId();
+        // Fallback only if we have a B2B non-strict mode
+        final Long fallbackShopId = masterShopId == customerShopId || shopService.getById(customerShopId).isB2BStrictPriceActive() ? null : masterShopId;
+        final String shopCode = cart.getShoppingContext().getShopCode();
+        final String currency = cart.getCurrencyCode();
+
+        // Policy is setup on master
+        final PricingPolicyProvider.PricingPolicy policy = pricingPolicyProvider.determinePricingPolicy(
+                shopCode, currency, cart.getCustomerEmail(),
+                cart.getShoppingContext().getCountryCode(),
+                cart.getShoppingContext().getStateCode()
+        );
+
+        return priceResolver.getMinimalPrices(skus, customerShopId, fallbackShopId, currency, qty, false, policy.getID());
+
+    }
+
     /**
      * We resolve prices from current customer shop first. In simple setup this would be the same as the master.
      * In case current and master differs we are in B2B mode, so we check if we are not in strict profile and
@@ -589,6 +620,52 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
         return getNullProductPriceModel(currency);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, PriceModel> getSkuPrices(final ShoppingCart cart,
+                                                final Collection<String> skuCodes,
+                                                final BigDecimal quantity) {
+
+        if (CollectionUtils.isEmpty(skuCodes)) {
+            return Collections.emptyMap();
+        }
+
+        final String currency = cart.getCurrencyCode();
+        final Map<String, SkuPrice> resolved = cart.getShoppingContext().isHidePrices() ?
+                Collections.<String, SkuPrice>emptyMap() : resolveMinimalPrices(cart, skuCodes, quantity);
+
+        final Map<String, PriceModel> models = new HashMap<>(skuCodes.size() * 2);
+        for (final String skuCode : skuCodes) {
+
+            if (skuCode == null || models.containsKey(skuCode)) {
+                continue;
+            }
+
+            final SkuPrice price = resolved.get(skuCode);
+            if (price != null) {
+
+                final Pair<BigDecimal, BigDecimal> listAndSale = price.getSalePriceForCalculation();
+
+                models.put(skuCode, getSkuPrice(
+                        cart,
+                        price.getSkuCode(),
+                        price.getQuantity(),
+                        price.isPriceUponRequest(),
+                        price.isPriceOnOffer(),
+                        listAndSale.getFirst(),
+                        listAndSale.getSecond()
+                ));
+
+            } else {
+                models.put(skuCode, getNullProductPriceModel(currency));
+            }
+
+        }
+        return models;
+    }
+
     /**
      * {@inheritDoc}
      */
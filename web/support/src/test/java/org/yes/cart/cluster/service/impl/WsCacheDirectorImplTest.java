@@ -19,15 +19,20 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.yes.cart.cluster.service.CacheDirector;
 import org.yes.cart.domain.dto.impl.CacheInfoDTO;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.entity.impl.SkuPriceEntity;
 import org.yes.cart.domain.misc.Pair;
 
 import javax.naming.NamingException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -175,5 +180,55 @@ public class WsCacheDirectorImplTest {
         assertNotNull(cacheDirector.getCacheManager().getCache("categoryService-categoryHasSubcategory").get("hi"));
     }
 
+    @Test
+    public void testOnCacheableBulkChanges() {
+        cacheDirector.getCacheManager().getCache("attributeService-availableAttributesByProductTypeId").put("hi", "there");
+        cacheDirector.getCacheManager().getCache("productService-productById").put("hi", "there");
+        cacheDirector.getCacheManager().getCache("categoryService-categoryTemplate").put(123L, "there");
+        cacheDirector.getCacheManager().getCache("categoryService-categoryTemplate").put(124L, "there");
+
+        final Map<String, Map<String, long[]>> changes = new HashMap<>();
+        changes.put("AttributeEntity", Collections.singletonMap(CacheDirector.EntityOperation.UPDATE, new long[] { 123L }));
+        changes.put("CategoryEntity", Collections.singletonMap(CacheDirector.EntityOperation.UPDATE, new long[] { 123L, 123L }));
+        cacheDirector.onCacheableBulkChanges(changes);
+
+        assertNull(cacheDirector.getCacheManager().getCache("attributeService-availableAttributesByProductTypeId").get("hi"));
+        assertNotNull(cacheDirector.getCacheManager().getCache("productService-productById").get("hi"));
+        assertNull(cacheDirector.getCacheManager().getCache("categoryService-categoryTemplate").get(123L));
+        assertNotNull(cacheDirector.getCacheManager().getCache("categoryService-categoryTemplate").get(124L));
+        cacheDirector.getCacheManager().getCache("categoryService-categoryTemplate").clear();
+        cacheDirector.getCacheManager().getCache("productService-productById").clear();
+    }
+
+    @Test
+    public void testOnCacheableChangeDependency() {
+
+        final SkuPrice price1 = new SkuPriceEntity();
+        price1.setSkuCode("SKU1");
+        final SkuPrice price2 = new SkuPriceEntity();
+        price2.setSkuCode("SKU2");
+
+        final Cache cache = cacheDirector.getCacheManager().getCache("priceService-minimalPrice");
+        cache.put("P1", price1);
+        cache.put("P2", price2);
+        cache.put("P3", null);
+
+        cacheDirector.setDependencyResolvers(Collections.singletonMap("SkuPriceEntity",
+                (entityName, pkValue) -> pkValue == 1L ? Collections.singletonList("sku:SKU1") : null));
+
+        cacheDirector.onCacheableChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", 1L);
+
+        assertNull(cache.get("P1"));
+        assertNotNull(cache.get("P2"));
+        assertNull(cache.get("P3")); // unknown dependencies are always evicted
+
+        cache.put("P1", price1);
+
+        cacheDirector.onCacheableChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", 2L);
+
+        assertNull(cache.get("P1")); // cannot resolve, so all evicted
+        assertNull(cache.get("P2"));
+    }
+
 
 }